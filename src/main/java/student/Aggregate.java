@@ -0,0 +1,521 @@
+package student;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * An aggregate query over the current results: a count, or the minimum, maximum or average of a
+ * numeric column, optionally per value of a column to group by.
+ *
+ * <p>Queries run straight over the rows of a result bitmap, reading one primitive column for the
+ * value and one for the group, so no game is made and nothing is sorted but the groups. A count
+ * without groups is the cardinality of the bitmap. Each part of the rows is summed into a partial
+ * aggregate, a small hash table of groups, and the partials merged; past
+ * {@value #PARALLEL_ROWS} rows the parts run in parallel.</p>
+ */
+public final class Aggregate {
+    /** Rows from which the partial aggregates run in parallel. */
+    static final int PARALLEL_ROWS = 1 << 16;
+    /** Rows per partial aggregate when running in parallel, a multiple of a bitmap word. */
+    private static final int CHUNK_ROWS = 1 << 14;
+    /** Separates the column from the column to group by. */
+    private static final String BY = "by";
+
+    /** The function computed. */
+    private final Function function;
+    /** The column aggregated, null for a count. */
+    private final GameData column;
+    /** The column to group by, null for one group of every row. */
+    private final GameData groupBy;
+
+    /**
+     * The aggregate functions.
+     */
+    public enum Function {
+        /** The number of games. */
+        COUNT,
+        /** The smallest value. */
+        MIN,
+        /** The largest value. */
+        MAX,
+        /** The mean value. */
+        AVG;
+
+        /**
+         * Gets the function named by a string.
+         *
+         * @param name The name, ignoring case.
+         * @return the function.
+         * @throws IllegalArgumentException if no function has the name.
+         */
+        public static Function fromString(String name) {
+            for (Function function : values()) {
+                if (function.name().equalsIgnoreCase(name)) {
+                    return function;
+                }
+            }
+            throw new IllegalArgumentException("Unknown aggregate " + name);
+        }
+    }
+
+    /**
+     * Constructs an aggregate query.
+     *
+     * @param function The function.
+     * @param column The numeric column aggregated, null for a count.
+     * @param groupBy The numeric column to group by, or null for no groups.
+     * @throws IllegalArgumentException if a count has a column, another function has none, or a
+     *     column is not numeric.
+     */
+    public Aggregate(Function function, GameData column, GameData groupBy) {
+        if ((function == Function.COUNT) != (column == null)) {
+            throw new IllegalArgumentException(function == Function.COUNT
+                    ? "count takes no column" : function.name().toLowerCase() + " needs a column");
+        }
+        checkNumeric(column);
+        checkNumeric(groupBy);
+        this.function = function;
+        this.column = column;
+        this.groupBy = groupBy;
+    }
+
+    /**
+     * Parses an aggregate query: {@code count [by col]} or {@code min|max|avg col [by col]}.
+     *
+     * @param text The query, words separated by spaces.
+     * @return the query.
+     * @throws IllegalArgumentException if the query is not valid.
+     */
+    public static Aggregate parse(String text) {
+        List<String> words = new ArrayList<>(List.of(text.trim().split("\\s+")));
+        Function function = Function.fromString(words.remove(0));
+        GameData groupBy = null;
+        int by = words.indexOf(BY);
+        if (by >= 0) {
+            if (by != words.size() - 2) {
+                throw new IllegalArgumentException("Expected one column after by in " + text);
+            }
+            groupBy = GameData.fromString(words.get(by + 1));
+            words = words.subList(0, by);
+        }
+        if (words.size() > 1) {
+            throw new IllegalArgumentException("Expected one column in " + text);
+        }
+        GameData column = words.isEmpty() ? null : GameData.fromString(words.get(0));
+        return new Aggregate(function, column, groupBy);
+    }
+
+    /**
+     * Checks that a column can be aggregated or grouped by.
+     *
+     * @param column The column, or null.
+     * @throws IllegalArgumentException if the column is the name or id.
+     */
+    private static void checkNumeric(GameData column) {
+        if (column == GameData.NAME || column == GameData.ID) {
+            throw new IllegalArgumentException("Cannot aggregate on " + column.getColumnName());
+        }
+    }
+
+    /**
+     * Gets the function.
+     *
+     * @return the function.
+     */
+    public Function getFunction() {
+        return function;
+    }
+
+    /**
+     * Gets the column aggregated.
+     *
+     * @return the column, null for a count.
+     */
+    public GameData getColumn() {
+        return column;
+    }
+
+    /**
+     * Gets the column to group by.
+     *
+     * @return the column, null for no groups.
+     */
+    public GameData getGroupBy() {
+        return groupBy;
+    }
+
+    /**
+     * Runs the query over the rows of a columnar catalog.
+     *
+     * @param rows The rows to aggregate, not changed while the query runs.
+     * @param columns Gives the reader of a numeric column, a value per row.
+     * @return the result.
+     */
+    Result over(BitSet rows, java.util.function.Function<GameData, IntToDoubleFunction> columns) {
+        if (function == Function.COUNT && groupBy == null) {
+            Partial all = new Partial();
+            all.add(0, 0, rows.cardinality());
+            return result(all);
+        }
+        IntToDoubleFunction value = column == null ? row -> 0 : columns.apply(column);
+        IntToDoubleFunction key = groupBy == null ? row -> 0 : columns.apply(groupBy);
+        QueryContext context = QueryContext.current(); // the parts may run on other threads
+        int cardinality = rows.cardinality();
+        context.startScan(cardinality);
+        if (cardinality < PARALLEL_ROWS) {
+            return result(partial(rows, 0, rows.length(), value, key, context));
+        }
+        int chunks = (rows.length() + CHUNK_ROWS - 1) / CHUNK_ROWS;
+        return result(IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> partial(rows, chunk * CHUNK_ROWS,
+                        Math.min(rows.length(), (chunk + 1) * CHUNK_ROWS), value, key, context))
+                .reduce(Partial::merge).orElseGet(Partial::new));
+    }
+
+    /**
+     * Runs the query over a stream of games, in one pass.
+     *
+     * @param games The games.
+     * @return the result.
+     */
+    public Result over(Stream<BoardGame> games) {
+        Partial partial = new Partial();
+        games.forEach(game -> partial.add(groupBy == null ? 0 : game.getNumericValue(groupBy),
+                column == null ? 0 : game.getNumericValue(column), 1));
+        return result(partial);
+    }
+
+    /**
+     * Aggregates the rows in part of a bitmap.
+     *
+     * @param rows The rows.
+     * @param from The first row of the part.
+     * @param to One past the last row of the part.
+     * @param value Reads the value of a row.
+     * @param key Reads the group of a row.
+     * @param context The query, for progress and cancellation.
+     * @return the partial aggregate.
+     * @throws QueryCancelledException if the query was cancelled.
+     */
+    private static Partial partial(BitSet rows, int from, int to, IntToDoubleFunction value,
+                                   IntToDoubleFunction key, QueryContext context) {
+        Partial partial = new Partial();
+        int pending = 0;
+        for (int row = rows.nextSetBit(from); row >= 0 && row < to;
+                row = rows.nextSetBit(row + 1)) {
+            if (++pending == QueryContext.CHECK_ROWS) {
+                context.progress(pending);
+                pending = 0;
+            }
+            partial.add(key.applyAsDouble(row), value.applyAsDouble(row), 1);
+        }
+        context.progress(pending);
+        return partial;
+    }
+
+    /**
+     * Turns a partial aggregate of every row into the result, groups in ascending order.
+     *
+     * @param partial The partial aggregate.
+     * @return the result.
+     */
+    private Result result(Partial partial) {
+        List<Group> groups = new ArrayList<>(partial.groups);
+        for (int slot = 0; slot < partial.counts.length; slot++) {
+            long count = partial.counts[slot];
+            if (count == 0) {
+                continue;
+            }
+            double value = switch (function) {
+                case COUNT -> count;
+                case MIN -> partial.mins[slot];
+                case MAX -> partial.maxs[slot];
+                case AVG -> partial.sums[slot] / count;
+            };
+            groups.add(new Group(Double.longBitsToDouble(partial.keys[slot]), count, value));
+        }
+        if (groups.isEmpty() && groupBy == null) {
+            groups.add(new Group(0, 0, function == Function.COUNT ? 0 : Double.NaN));
+        }
+        groups.sort((a, b) -> Double.compare(a.key, b.key));
+        return new Result(this, groups);
+    }
+
+    /**
+     * Gets the query as it is typed, such as {@code avg rating by yearpublished}.
+     *
+     * @return the query.
+     */
+    @Override
+    public String toString() {
+        return function.name().toLowerCase()
+                + (column == null ? "" : " " + column.getColumnName())
+                + (groupBy == null ? "" : " " + BY + " " + groupBy.getColumnName());
+    }
+
+    /**
+     * Formats a value of a column, whole numbers without decimals.
+     *
+     * @param column The column, null for a count.
+     * @param value The value.
+     * @return the text, {@code -} for no value.
+     */
+    private static String format(GameData column, double value) {
+        if (Double.isNaN(value)) {
+            return "-";
+        }
+        if (column == null || (ColumnRange.isWholeNumber(column) && value == Math.rint(value))) {
+            return Long.toString((long) value);
+        }
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    /**
+     * The aggregate of one part of the rows: the count, minimum, maximum and sum per group, in
+     * an open addressing hash table keyed on the bits of the group value.
+     */
+    private static final class Partial {
+        /** The group value of each slot, as bits. */
+        private long[] keys = new long[16];
+        /** The rows per slot, 0 for an empty slot. */
+        private long[] counts = new long[16];
+        /** The smallest value per slot. */
+        private double[] mins = new double[16];
+        /** The largest value per slot. */
+        private double[] maxs = new double[16];
+        /** The sum of the values per slot. */
+        private double[] sums = new double[16];
+        /** The number of groups. */
+        private int groups;
+
+        /**
+         * Adds rows with the same group and value.
+         *
+         * @param key The group value.
+         * @param value The value.
+         * @param count The number of rows, at least 1 to count.
+         */
+        void add(double key, double value, long count) {
+            add(key, count, value, value, value * count);
+        }
+
+        /**
+         * Adds the aggregate of some rows of a group.
+         *
+         * @param key The group value.
+         * @param count The number of rows.
+         * @param min The smallest value of the rows.
+         * @param max The largest value of the rows.
+         * @param sum The sum of the values of the rows.
+         */
+        private void add(double key, long count, double min, double max, double sum) {
+            long bits = Double.doubleToLongBits(key + 0.0); // -0.0 groups with 0.0
+            int mask = keys.length - 1;
+            int slot = hash(bits) & mask;
+            while (counts[slot] != 0 && keys[slot] != bits) {
+                slot = (slot + 1) & mask;
+            }
+            if (counts[slot] == 0) {
+                if (count == 0) {
+                    return;
+                }
+                keys[slot] = bits;
+                mins[slot] = min;
+                maxs[slot] = max;
+                groups++;
+            } else {
+                mins[slot] = Math.min(mins[slot], min);
+                maxs[slot] = Math.max(maxs[slot], max);
+            }
+            counts[slot] += count;
+            sums[slot] += sum;
+            if (groups * 2 > keys.length) {
+                grow();
+            }
+        }
+
+        /**
+         * Adds the groups of another partial aggregate to this one.
+         *
+         * @param other The other partial.
+         * @return this partial.
+         */
+        Partial merge(Partial other) {
+            for (int slot = 0; slot < other.counts.length; slot++) {
+                if (other.counts[slot] != 0) {
+                    add(Double.longBitsToDouble(other.keys[slot]), other.counts[slot],
+                            other.mins[slot], other.maxs[slot], other.sums[slot]);
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Doubles the table, keeping the groups.
+         */
+        private void grow() {
+            Partial old = new Partial();
+            old.keys = keys;
+            old.counts = counts;
+            old.mins = mins;
+            old.maxs = maxs;
+            old.sums = sums;
+            int capacity = keys.length * 2;
+            keys = new long[capacity];
+            counts = new long[capacity];
+            mins = new double[capacity];
+            maxs = new double[capacity];
+            sums = new double[capacity];
+            groups = 0;
+            merge(old);
+        }
+
+        /**
+         * Spreads the bits of a group value over the table.
+         *
+         * @param bits The group value as bits.
+         * @return the hash.
+         */
+        private static int hash(long bits) {
+            long hash = (bits ^ bits >>> 33) * 0xFF51AFD7ED558CCDL; // whole numbers end in zeros
+            return (int) (hash ^ hash >>> 33);
+        }
+    }
+
+    /**
+     * The aggregate of one group.
+     */
+    public static final class Group {
+        /** The value of the column grouped by, 0 without groups. */
+        private final double key;
+        /** The number of games in the group. */
+        private final long count;
+        /** The aggregate value, NaN when no game has one. */
+        private final double value;
+
+        /**
+         * Constructs a group.
+         *
+         * @param key The value of the column grouped by.
+         * @param count The number of games.
+         * @param value The aggregate value.
+         */
+        Group(double key, long count, double value) {
+            this.key = key;
+            this.count = count;
+            this.value = value;
+        }
+
+        /**
+         * Gets the value of the column grouped by.
+         *
+         * @return the group value, 0 without groups.
+         */
+        public double getKey() {
+            return key;
+        }
+
+        /**
+         * Gets the number of games in the group.
+         *
+         * @return the count.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Gets the aggregate value.
+         *
+         * @return the value, the count for a count, NaN if there were no games.
+         */
+        public double getValue() {
+            return value;
+        }
+    }
+
+    /**
+     * The result of an aggregate query: one group, or one per value of the column grouped by.
+     */
+    public static final class Result {
+        /** The query. */
+        private final Aggregate query;
+        /** The groups, in ascending order of their value. */
+        private final List<Group> groups;
+
+        /**
+         * Constructs a result.
+         *
+         * @param query The query.
+         * @param groups The groups, in ascending order.
+         */
+        Result(Aggregate query, List<Group> groups) {
+            this.query = query;
+            this.groups = Collections.unmodifiableList(groups);
+        }
+
+        /**
+         * Gets the query.
+         *
+         * @return the query.
+         */
+        public Aggregate getQuery() {
+            return query;
+        }
+
+        /**
+         * Gets the groups.
+         *
+         * @return the groups in ascending order of their value; one group without group by,
+         *     none when grouping no games.
+         */
+        public List<Group> getGroups() {
+            return groups;
+        }
+
+        /**
+         * Gets the value of the only group, for queries without group by.
+         *
+         * @return the value.
+         */
+        public double getValue() {
+            return groups.get(0).getValue();
+        }
+
+        /**
+         * Renders the result for the console: the value, or a line per group.
+         *
+         * @return the result as text.
+         */
+        @Override
+        public String toString() {
+            String name = query.function.name().toLowerCase()
+                    + (query.column == null ? "" : "(" + query.column.getColumnName() + ")");
+            if (query.groupBy == null) {
+                return name + ": " + format(query.column, getValue());
+            }
+            String[][] cells = new String[groups.size()][];
+            int width = query.groupBy.getColumnName().length();
+            for (int i = 0; i < cells.length; i++) {
+                Group group = groups.get(i);
+                cells[i] = new String[] {format(query.groupBy, group.key),
+                    format(query.column, group.value), Long.toString(group.count)};
+                width = Math.max(width, cells[i][0].length());
+            }
+            String line = "%-" + width + "s  %s  %s";
+            StringBuilder text = new StringBuilder(String.format(Locale.ROOT, line,
+                    query.groupBy.getColumnName(), name, "games"));
+            for (String[] row : cells) {
+                text.append(System.lineSeparator())
+                        .append(String.format(Locale.ROOT, line, (Object[]) row));
+            }
+            return text.toString();
+        }
+    }
+}
@@ -1,5 +1,20 @@
 package student;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
 
 /**
  * Main entry point for the program.
@@ -7,6 +22,51 @@ package student;
 public final class BGArenaPlanner {
     /** default location of collection - relative to the resources directory. */
     private static final String DEFAULT_COLLECTION = "/collection.csv";
+    /** Option to run the commands of a file, or of standard input for {@code -}. */
+    private static final String BATCH_OPTION = "--batch";
+    /** Option to pick the batch output format. */
+    private static final String FORMAT_OPTION = "--format";
+    /** Option to load the catalog from a csv file; given more than once, one shard per file. */
+    private static final String CATALOG_OPTION = "--catalog";
+    /** Option to serve the catalog to a cluster coordinator on a local port, 0 for any. */
+    private static final String WORKER_OPTION = "--worker";
+    /** Option for a worker to keep only partition i of n of the catalog, split by game id. */
+    private static final String PARTITION_OPTION = "--partition";
+    /** Option to plan over cluster workers at comma separated addresses. */
+    private static final String CLUSTER_OPTION = "--cluster";
+    /** Option to plan over a catalog image off the heap, written from the catalog if missing. */
+    private static final String OFF_HEAP_OPTION = "--offheap";
+    /** Option to limit each query of the planner, such as {@code time=2s,rows=500000}. */
+    private static final String BUDGET_OPTION = "--budget";
+    /** Option to run warm-up queries in the background once the catalog is loaded. */
+    private static final String WARMUP_OPTION = "--warmup";
+    /** Option to print the startup times to standard error when the program ends. */
+    private static final String TIMING_OPTION = "--timing";
+    /** Option to pick the session checkpoint file. */
+    private static final String SESSION_OPTION = "--session";
+    /** The session checkpoint file of interactive use, in the working directory. */
+    private static final String DEFAULT_SESSION = "planner_session.dat";
+    /** Time between background session checkpoints, in milliseconds. */
+    private static final long CHECKPOINT_PERIOD = 5_000;
+    /** Shown when a session is restored at startup. */
+    private static final String RESTORED =
+            "Restored your last session: %d filters, %d games in the results, %d in your list.";
+    /** Printed by a worker once it listens, so scripts know its port. */
+    private static final String WORKER_READY = "Cluster worker listening on port %d with %d games.%n";
+    /** The batch file name for standard input. */
+    private static final String STDIN = "-";
+    /** Size of the batch output buffer; output is only flushed when the batch ends. */
+    private static final int BATCH_BUFFER = 1 << 20;
+    /** How to run the program, printed when the arguments are wrong. */
+    private static final String USAGE =
+            "usage: BGArenaPlanner [--catalog <file>]... [--session <file>]"
+            + " [--budget time=<ms>,rows=<n>,results=<n>]\n"
+            + "                      [--warmup] [--timing]"
+            + " [--batch <file|-> [--format text|tsv|json]]\n"
+            + "       BGArenaPlanner --offheap <image> [--catalog <file>]..."
+            + " [--batch <file|-> ...]\n"
+            + "       BGArenaPlanner --worker <port> [--partition <i>/<n>] [--catalog <file>]...\n"
+            + "       BGArenaPlanner --cluster <port|host:port>,... [--batch <file|-> ...]";
 
     /** private constructor as static class. */
     private BGArenaPlanner() {
@@ -15,16 +75,280 @@ public final class BGArenaPlanner {
 
     /**
      * Main entry point for the program.
-     * 
-     * @param args command line arguments - not used at this time.
+     *
+     * With no arguments the planner is interactive. {@code --batch <file>} runs the commands in
+     * a file, one per line, and {@code --batch -} the commands piped to standard input, without
+     * prompts; {@code --format tsv} or {@code --format json} writes the games for scripts.
+     *
+     * The filters, results and game list are checkpointed to {@code --session <file>} in the
+     * background, and restored from it at startup. Interactive use always has a session, in
+     * {@value #DEFAULT_SESSION} unless another file is given; batch runs only with the option.
+     *
+     * Over a single catalog the prompt is shown at once, while the catalog is loaded, its indexes
+     * built and the session restored on a background thread; commands that need the catalog wait
+     * for it. {@code --warmup} then runs representative queries in the background, so the first
+     * real query runs compiled code, and {@code --timing} prints the time to the prompt, to the
+     * catalog and to the first result when the program ends.
+     *
+     * {@code --budget <limits>} limits the wall time, rows scanned and results of each query
+     * over a single catalog, such as {@code time=2s,rows=500000,results=1000}; a query over its
+     * budget shows the games it found so far, marked as partial.
+     *
+     * {@code --catalog <file>} loads the games from a csv file instead of the built in collection.
+     * Given several times, the files are loaded in parallel as shards of one catalog and filtered
+     * by a {@code ShardedPlanner}; sessions are not saved for a sharded catalog.
+     *
+     * {@code --offheap <image>} keeps the catalog off the heap, mapped from a catalog image file;
+     * if the file does not exist it is written from the catalog first. Sessions are not saved.
+     *
+     * {@code --worker <port>} serves the catalog, or partition {@code i/n} of it, to a cluster
+     * coordinator instead of running the console; {@code --cluster <addresses>} runs the console
+     * over workers, whose port alone means localhost. Cluster sessions are not saved either.
+     *
+     * @param args command line arguments, the catalog, batch and session options.
      */
     public static void main(String[] args) {
-        IPlanner planner = new Planner(GamesLoader.loadGamesFile(DEFAULT_COLLECTION));
-        IGameList list = new GameList();
-        ConsoleApp app = new ConsoleApp(list, planner);
-        app.start();
+        StartupMetrics metrics = new StartupMetrics();
+        String batch = null;
+        String session = null;
+        List<Path> catalogs = new ArrayList<>();
+        OutputFormat format = OutputFormat.TEXT;
+        Integer workerPort = null;
+        int[] partition = null;
+        String cluster = null;
+        Path image = null;
+        QueryBudget budget = QueryBudget.UNLIMITED;
+        boolean warmUp = false;
+        boolean timing = false;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (CATALOG_OPTION.equals(args[i]) && i + 1 < args.length) {
+                    catalogs.add(Path.of(args[++i]));
+                } else if (BATCH_OPTION.equals(args[i]) && i + 1 < args.length) {
+                    batch = args[++i];
+                } else if (BUDGET_OPTION.equals(args[i]) && i + 1 < args.length) {
+                    budget = QueryBudget.parse(args[++i]);
+                } else if (SESSION_OPTION.equals(args[i]) && i + 1 < args.length) {
+                    session = args[++i];
+                } else if (WORKER_OPTION.equals(args[i]) && i + 1 < args.length) {
+                    workerPort = Integer.parseInt(args[++i]);
+                } else if (PARTITION_OPTION.equals(args[i]) && i + 1 < args.length) {
+                    partition = parsePartition(args[++i]);
+                } else if (CLUSTER_OPTION.equals(args[i]) && i + 1 < args.length) {
+                    cluster = args[++i];
+                } else if (OFF_HEAP_OPTION.equals(args[i]) && i + 1 < args.length) {
+                    image = Path.of(args[++i]);
+                } else if (WARMUP_OPTION.equals(args[i])) {
+                    warmUp = true;
+                } else if (TIMING_OPTION.equals(args[i])) {
+                    timing = true;
+                } else if (FORMAT_OPTION.equals(args[i]) && i + 1 < args.length) {
+                    format = OutputFormat.fromString(args[++i]);
+                } else {
+                    throw new IllegalArgumentException("Unknown argument " + args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            return;
+        }
+
+        if (workerPort != null) {
+            serve(workerPort, partition, catalogs);
+            return;
+        }
+        if (cluster != null) {
+            try (ClusterCoordinator planner = new ClusterCoordinator(
+                    ClusterCoordinator.parseNodes(cluster))) {
+                run(planner, new GameList(), batch, format, null);
+            } catch (IOException e) {
+                System.err.println("Cannot reach the cluster " + cluster + ": " + e.getMessage());
+            }
+            return;
+        }
+        if (image != null) {
+            try {
+                run(new OffHeapPlanner(mapImage(image, catalogs)), new GameList(), batch, format,
+                        null);
+            } catch (IOException e) {
+                System.err.println("Cannot use the catalog image " + image + ": " + e.getMessage());
+            }
+            return;
+        }
+        if (catalogs.size() > 1) {
+            try (ShardedPlanner planner = new ShardedPlanner(GamesLoader.loadShards(catalogs))) {
+                run(planner, new GameList(), batch, format, null);
+            }
+            return;
+        }
+        GameList list = new GameList();
+        if (session == null && batch == null) {
+            session = DEFAULT_SESSION;
+        }
+        Path sessionFile = session == null ? null : Path.of(session);
+        Path catalog = catalogs.isEmpty() ? null : catalogs.get(0);
+        QueryBudget limits = budget;
+        String[] restored = new String[1];
+        LazyPlanner planner = LazyPlanner.load(() -> catalog == null
+                ? GamesLoader.loadGamesFile(DEFAULT_COLLECTION)
+                : GamesLoader.loadGamesFile(catalog), loaded -> {
+                    loaded.setBudget(limits);
+                    if (sessionFile != null) {
+                        restored[0] = restore(sessionFile, loaded, list);
+                    }
+                }, warmUp, metrics);
+        boolean announce = batch == null;
+        try (CheckpointWriter checkpoints = sessionFile == null ? null
+                : new CheckpointWriter(sessionFile, CHECKPOINT_PERIOD)) {
+            run(planner, list, batch, format, app -> {
+                if (checkpoints != null) {
+                    app.setCommandListener(() -> planner.ifReady(
+                            ready -> checkpoints.publish(ready.checkpoint(list.getGames()))));
+                }
+                if (announce) {
+                    planner.whenReady(ready -> {
+                        if (restored[0] != null) {
+                            app.notice(restored[0]);
+                        }
+                    });
+                }
+                metrics.mark(StartupMetrics.Milestone.PROMPT);
+            });
+        }
+        if (timing) {
+            System.err.println(metrics);
+        }
     }
 
+    /**
+     * Serves a catalog, or a partition of it, as a cluster worker until the process is stopped.
+     *
+     * @param port the port, 0 for any free port.
+     * @param partition the partition index and count, null for the whole catalog.
+     * @param catalogs the csv files, empty for the built in collection.
+     */
+    private static void serve(int port, int[] partition, List<Path> catalogs) {
+        Set<BoardGame> games = new HashSet<>();
+        if (catalogs.isEmpty()) {
+            games.addAll(GamesLoader.loadGamesFile(DEFAULT_COLLECTION));
+        } else {
+            GamesLoader.loadShards(catalogs).forEach(games::addAll);
+        }
+        if (partition != null) {
+            games.removeIf(game -> Math.floorMod(game.getId(), partition[1]) != partition[0]);
+        }
+        try (ClusterWorker worker = new ClusterWorker(new Planner(games), port)) {
+            System.out.printf(WORKER_READY, worker.getPort(), games.size());
+            System.out.flush();
+            worker.serve();
+        } catch (IOException e) {
+            System.err.println("Cannot serve on port " + port + ": " + e.getMessage());
+        }
+    }
 
+    /**
+     * Maps a catalog image, writing it from the catalog first if it does not exist.
+     *
+     * @param image the catalog image file.
+     * @param catalogs the csv files to write it from, empty for the built in collection.
+     * @return the mapped catalog.
+     * @throws IOException if the image cannot be written or read.
+     */
+    private static OffHeapCatalog mapImage(Path image, List<Path> catalogs) throws IOException {
+        if (!Files.exists(image)) {
+            Set<BoardGame> games = new HashSet<>();
+            if (catalogs.isEmpty()) {
+                games.addAll(GamesLoader.loadGamesFile(DEFAULT_COLLECTION));
+            } else {
+                GamesLoader.loadShards(catalogs).forEach(games::addAll);
+            }
+            OffHeapCatalog.of(games).writeTo(image);
+        }
+        return OffHeapCatalog.map(image);
+    }
+
+    /**
+     * Parses a partition written as {@code i/n}, the i-th of n, counting from 0.
+     *
+     * @param spec the partition.
+     * @return the index and count.
+     * @throws IllegalArgumentException if the partition is not valid.
+     */
+    private static int[] parsePartition(String spec) {
+        String[] parts = spec.split("/");
+        int index = parts.length == 2 ? Integer.parseInt(parts[0].trim()) : -1;
+        int count = parts.length == 2 ? Integer.parseInt(parts[1].trim()) : 0;
+        if (index < 0 || index >= count) {
+            throw new IllegalArgumentException("Invalid partition " + spec);
+        }
+        return new int[] {index, count};
+    }
 
+    /**
+     * Runs the console app, interactive or over a batch file.
+     *
+     * @param planner the planner to filter with.
+     * @param list the game list to manage.
+     * @param batch the batch file, {@value #STDIN} for standard input, null for interactive use.
+     * @param format the batch output format.
+     * @param setup run on the console app before it starts, null for nothing.
+     */
+    private static void run(IPlanner planner, GameList list, String batch, OutputFormat format,
+                            Consumer<ConsoleApp> setup) {
+        if (batch == null) {
+            start(new ConsoleApp(list, planner), setup);
+            return;
+        }
+        Charset charset = Charset.defaultCharset();
+        try (Reader input = STDIN.equals(batch) ? new InputStreamReader(System.in, charset)
+                : Files.newBufferedReader(Path.of(batch), charset);
+             PrintWriter output = new PrintWriter(new BufferedWriter(
+                     new OutputStreamWriter(System.out, charset), BATCH_BUFFER), false)) {
+            start(new ConsoleApp(list, planner, input, output, format), setup);
+        } catch (IOException e) {
+            System.err.println("Cannot read batch file " + batch + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs the console app, set up first.
+     *
+     * @param app the console app.
+     * @param setup run on the app before it starts, such as to publish a session checkpoint
+     *              after every command; null for nothing.
+     */
+    private static void start(ConsoleApp app, Consumer<ConsoleApp> setup) {
+        if (setup != null) {
+            setup.accept(app);
+        }
+        app.start();
+    }
+
+    /**
+     * Restores the filters, results and game list of a session checkpoint, if there is one.
+     *
+     * A checkpoint that cannot be read or is of a different catalog is ignored, and replaced
+     * by the next checkpoint of this session.
+     *
+     * @param file the checkpoint file.
+     * @param planner the planner to restore the filters and results to.
+     * @param list the game list to restore.
+     * @return what was restored, to tell the user; null if nothing was.
+     */
+    private static String restore(Path file, Planner planner, GameList list) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            SessionCheckpoint checkpoint = SessionCheckpoint.readFrom(file);
+            List<BoardGame> games = planner.restore(checkpoint);
+            list.addToList(IGameList.ADD_ALL, games.stream());
+            return String.format(RESTORED, checkpoint.getHistory().size(),
+                    checkpoint.getResults().cardinality(), games.size());
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Ignoring session " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
 }
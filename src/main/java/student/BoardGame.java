@@ -1,19 +1,24 @@
 package student;
 
 
-import java.util.List;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 
 /**
  * Data Class for the Board Game Object.
  * 
- * This class is considered immutable, as every value is both final, and can only be accessed
- * through getters.
+ * This class is considered immutable, as every value can only be accessed through getters and
+ * never changes. Every value but the name is final: once a planner's columns hold the game, its
+ * name moves into their {@link NameArena}, the {@code String} is dropped, and {@link #getName()}
+ * decodes the name from there, so a catalog keeps each name once, as UTF-8 bytes.
  */
 public class BoardGame {
-    /** Name of the board game. */
-    private final String name;
+    /** Name of the board game, null once a name arena holds it. */
+    private volatile String name;
+    /** The name arena holding the name, null until the game is in a planner's columns. */
+    private volatile NameArena nameArena;
+    /** The row of the name in {@link #nameArena}; -1 while the game moves to another arena. */
+    private volatile int nameRow;
     /** Unique identifier of the board game. */
     private final int id;
     /** Minimum number of players. */
@@ -67,7 +72,62 @@ public class BoardGame {
      * @return name of the game
      */
     public String getName() {
-        return name;
+        String local = name;
+        if (local != null) {
+            return local;
+        }
+        NameArena arena;
+        int row;
+        do { // the arena and row are written apart, so read them until they agree
+            arena = nameArena;
+            row = nameRow;
+        } while (row < 0 || arena != nameArena);
+        return arena.get(row);
+    }
+
+    /**
+     * Appends the name to a renderer, copying it from the name arena when one holds it.
+     *
+     * @param renderer The renderer.
+     */
+    void appendNameTo(RowRenderer renderer) {
+        String local = name;
+        if (local != null) {
+            renderer.append(local);
+            return;
+        }
+        NameArena arena;
+        int row;
+        do {
+            arena = nameArena;
+            row = nameRow;
+        } while (row < 0 || arena != nameArena);
+        renderer.appendName(arena, row);
+    }
+
+    /**
+     * Moves the name into a row of a name arena, which must hold the same name.
+     *
+     * A game moves to each arena at most once, and only to arenas it was not in before, which is
+     * what lets {@link #getName()} read the arena and row without a lock.
+     *
+     * @param arena The arena.
+     * @param row The row of the name in the arena.
+     */
+    synchronized void moveNameTo(NameArena arena, int row) {
+        nameRow = -1;
+        nameArena = arena;
+        nameRow = row;
+        name = null;
+    }
+
+    /**
+     * Checks if a name arena holds the name.
+     *
+     * @return true once the name moved to an arena.
+     */
+    boolean hasNameArena() {
+        return nameArena != null;
     }
 
     /**
@@ -156,6 +216,41 @@ public class BoardGame {
         return yearPublished;
     }
 
+    /**
+     * Get the value of a numeric column based on the GameData enum.
+     * 
+     * Whole number columns are widened to double, so every numeric column can be handled the
+     * same way by statistics and range checks.
+     * 
+     * @param col GameData enum value, any column but NAME
+     * @return value of the column
+     * @throws IllegalArgumentException if the column is not numeric
+     */
+    public double getNumericValue(GameData col) {
+        switch (col) {
+            case ID:
+                return id;
+            case RATING:
+                return averageRating;
+            case DIFFICULTY:
+                return difficulty;
+            case RANK:
+                return rank;
+            case MIN_PLAYERS:
+                return minPlayers;
+            case MAX_PLAYERS:
+                return maxPlayers;
+            case MIN_TIME:
+                return minPlayTime;
+            case MAX_TIME:
+                return maxPlayTime;
+            case YEAR:
+                return yearPublished;
+            default:
+                throw new IllegalArgumentException("Not a numeric column: " + col);
+        }
+    }
+
     /**
      * Get the Name (value) pair based on the GameData enum.
      * 
@@ -165,6 +260,7 @@ public class BoardGame {
      * @return value of Name (value) pair
      */
     public String toStringWithInfo(GameData col) {
+        String name = getName();
         switch (col) {
             case NAME:
                 return name;
@@ -196,42 +292,45 @@ public class BoardGame {
      */
     @Override
     public String toString() {
-        return "BoardGame{" + "name='" + name + '\'' + ", id=" + id + ", minPlayers=" + minPlayers
-                + ", maxPlayers=" + maxPlayers + ", maxPlayTime=" + maxPlayTime + ", minPlayTime="
-                + minPlayTime + ", difficulty=" + difficulty + ", rank=" + rank + ", averageRating="
-                + averageRating + ", yearPublished=" + yearPublished + '}';
+        return "BoardGame{" + "name='" + getName() + '\'' + ", id=" + id + ", minPlayers="
+                + minPlayers + ", maxPlayers=" + maxPlayers + ", maxPlayTime=" + maxPlayTime
+                + ", minPlayTime=" + minPlayTime + ", difficulty=" + difficulty + ", rank=" + rank
+                + ", averageRating=" + averageRating + ", yearPublished=" + yearPublished + '}';
     }
 
     /**
      * Check if two BoardGame objects are equal.
      * 
-     * Two BoardGame objects are considered equal if all fields are equal, except for the following:
-     * - minPlayers - maxPlayers - maxPlayTime - minPlayTime - difficulty - rank - averageRating -
-     * yearPublished
+     * Two BoardGame objects are considered equal if their name and id are equal, wherever the
+     * name is held; the other values (minPlayers, maxPlayers, maxPlayTime, minPlayTime,
+     * difficulty, rank, averageRating, yearPublished) are not compared.
      * 
      * @param obj object to compare
      * @return true if the objects are equal, false otherwise
      */
     @Override
     public boolean equals(Object obj) {
-        return EqualsBuilder.reflectionEquals(this, obj, // exclude the following fields
-                List.of("minPlayers", "maxPlayers", "maxPlayTime", "minPlayTime", "difficulty",
-                        "rank", "averageRating", "yearPublished"));
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || obj.getClass() != getClass()) {
+            return false;
+        }
+        BoardGame other = (BoardGame) obj;
+        return new EqualsBuilder().append(id, other.id).append(getName(), other.getName())
+                .isEquals();
     }
 
     /**
      * Get the hash code of the object.
      * 
-     * The hash code is based on all fields, except for the following: - minPlayers - maxPlayers -
-     * maxPlayTime - minPlayTime - difficulty - rank - averageRating - yearPublished
+     * The hash code is based on the name and id only, as {@link #equals(Object)} is.
      * 
      * @return hash code of the object
      */
     @Override
     public int hashCode() {
-        return HashCodeBuilder.reflectionHashCode(this, // exclude the following fields
-                List.of("minPlayers", "maxPlayers", "maxPlayTime", "minPlayTime", "difficulty",
-                        "rank", "averageRating", "yearPublished"));
+        return new HashCodeBuilder().append(getName()).append(id).toHashCode();
     }
 
 
@@ -0,0 +1,132 @@
+package student;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A set of changes to a games catalog: games added or updated, and games removed.
+ *
+ * <p>Games are matched by id. An upsert replaces the game with the same id, or adds it if there is
+ * none; a removal drops the game with the id, if there is one. Applying a delta with
+ * {@link Planner#applyDelta(CatalogDelta)} costs time in the size of the delta, not the catalog.</p>
+ *
+ * <p>Change files are csv files in the catalog's own format with one more column, {@value #CHANGE},
+ * holding {@code add}, {@code update} or {@code remove}. Add and update rows need every catalog
+ * column, remove rows only the object id. Rows that cannot be read are skipped, as when loading
+ * the catalog.</p>
+ */
+public final class CatalogDelta {
+    /** The column of a change file that holds the kind of change. */
+    public static final String CHANGE = "change";
+
+    /** The games added or updated, in file order. */
+    private final List<BoardGame> upserts;
+    /** The ids of the games removed, in file order. */
+    private final List<Integer> removedIds;
+
+    /**
+     * Constructs a delta.
+     *
+     * @param upserts The games added or updated.
+     * @param removedIds The ids of the games removed.
+     */
+    public CatalogDelta(Collection<BoardGame> upserts, Collection<Integer> removedIds) {
+        this.upserts = List.copyOf(upserts);
+        this.removedIds = List.copyOf(removedIds);
+    }
+
+    /**
+     * Gets the games added or updated.
+     *
+     * @return the games, in the order given.
+     */
+    public List<BoardGame> getUpserts() {
+        return upserts;
+    }
+
+    /**
+     * Gets the ids of the games removed.
+     *
+     * @return the ids, in the order given.
+     */
+    public List<Integer> getRemovedIds() {
+        return removedIds;
+    }
+
+    /**
+     * Gets the number of changes.
+     *
+     * @return the games upserted plus the games removed.
+     */
+    public int size() {
+        return upserts.size() + removedIds.size();
+    }
+
+    /**
+     * Reads a change file.
+     *
+     * @param file The file.
+     * @return the delta.
+     * @throws IOException if the file cannot be read or has no {@value #CHANGE} column.
+     */
+    public static CatalogDelta readFrom(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return read(reader);
+        }
+    }
+
+    /**
+     * Reads a change file from a reader.
+     *
+     * @param reader The reader, left open.
+     * @return the delta.
+     * @throws IOException if the reader fails or the header has no {@value #CHANGE} column.
+     */
+    public static CatalogDelta read(BufferedReader reader) throws IOException {
+        String header = reader.readLine();
+        if (header == null) {
+            return new CatalogDelta(List.of(), List.of());
+        }
+        Map<GameData, Integer> columnMap = GamesLoader.processHeader(header);
+        int change = List.of(header.split(GamesLoader.DELIMITER)).indexOf(CHANGE);
+        if (change < 0 || !columnMap.containsKey(GameData.ID)) {
+            throw new IOException("A change file needs " + CHANGE + " and "
+                    + GameData.ID.getColumnName() + " columns.");
+        }
+        int id = columnMap.get(GameData.ID);
+        List<BoardGame> upserts = new ArrayList<>();
+        List<Integer> removedIds = new ArrayList<>();
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            String[] columns = line.split(GamesLoader.DELIMITER);
+            if (columns.length <= Math.max(change, id)) {
+                continue;
+            }
+            switch (columns[change].trim().toLowerCase()) {
+                case "add", "update" -> {
+                    BoardGame game = GamesLoader.toBoardGame(line, columnMap);
+                    if (game != null) {
+                        upserts.add(game);
+                    }
+                }
+                case "remove" -> {
+                    try {
+                        removedIds.add(Integer.parseInt(columns[id].trim()));
+                    } catch (NumberFormatException e) {
+                        // skip if there is an issue
+                    }
+                }
+                default -> {
+                    // skip unknown changes
+                }
+            }
+        }
+        return new CatalogDelta(upserts, removedIds);
+    }
+}
@@ -0,0 +1,176 @@
+package student;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Statistics for every numeric column of a games catalog.
+ *
+ * <p>Built once when a catalog is handed to the {@code Planner}, updated when a delta is applied
+ * to it, and rebuilt whenever the catalog is rebuilt. The planner uses them to skip conditions that are provably true, to return provably
+ * empty filters without scanning, and to estimate how selective each condition is.</p>
+ */
+public final class CatalogStatistics {
+    /** Selectivity used for conditions that statistics cannot estimate. */
+    private static final double CONTAINS_SELECTIVITY = 0.25;
+
+    /** The number of games the statistics were computed from. */
+    private final int rowCount;
+    /** Statistics per numeric column. */
+    private final Map<GameData, ColumnStatistics> columns;
+
+    /**
+     * Constructs the catalog statistics.
+     *
+     * @param rowCount The number of games.
+     * @param columns Statistics per numeric column.
+     */
+    private CatalogStatistics(int rowCount, Map<GameData, ColumnStatistics> columns) {
+        this.rowCount = rowCount;
+        this.columns = columns;
+    }
+
+    /**
+     * Computes statistics for every numeric column of the games.
+     *
+     * @param games The games in the catalog.
+     * @return the statistics of the catalog.
+     */
+    public static CatalogStatistics compute(Collection<BoardGame> games) {
+        return compute(games.size(), column -> {
+            double[] values = new double[games.size()];
+            int i = 0;
+            for (BoardGame game : games) {
+                values[i++] = game.getNumericValue(column);
+            }
+            return values;
+        });
+    }
+
+    /**
+     * Computes statistics for every numeric column of a catalog stored outside {@code BoardGame}
+     * objects, one column at a time.
+     *
+     * @param rowCount The number of games.
+     * @param values Gives the values of a column, one per game.
+     * @return the statistics of the catalog.
+     */
+    static CatalogStatistics compute(int rowCount, Function<GameData, double[]> values) {
+        Map<GameData, ColumnStatistics> columns = new EnumMap<>(GameData.class);
+        for (GameData column : GameData.values()) {
+            if (column == GameData.NAME || column == GameData.ID) {
+                continue;
+            }
+            columns.put(column, ColumnStatistics.of(column, values.apply(column),
+                    ColumnStatistics.DEFAULT_BUCKETS));
+        }
+        return new CatalogStatistics(rowCount, columns);
+    }
+
+    /**
+     * Updates the statistics for games added to and removed from the catalog.
+     *
+     * Costs time in the number of games changed, not the catalog size; see
+     * {@link ColumnStatistics#update(double[], int)} for what is kept exact.
+     *
+     * @param added The games added, including new versions of changed games.
+     * @param removed The number of games removed, including old versions of changed games.
+     * @return the updated statistics.
+     */
+    public CatalogStatistics update(Collection<BoardGame> added, int removed) {
+        Map<GameData, ColumnStatistics> updated = new EnumMap<>(GameData.class);
+        for (Map.Entry<GameData, ColumnStatistics> entry : columns.entrySet()) {
+            double[] values = new double[added.size()];
+            int i = 0;
+            for (BoardGame game : added) {
+                values[i++] = game.getNumericValue(entry.getKey());
+            }
+            updated.put(entry.getKey(), entry.getValue().update(values, removed));
+        }
+        return new CatalogStatistics(rowCount + added.size() - removed, updated);
+    }
+
+    /**
+     * Gets the number of games the statistics were computed from.
+     *
+     * @return the row count.
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Gets the statistics of a column.
+     *
+     * @param column The column.
+     * @return the column statistics, or null for columns without statistics (name).
+     */
+    public ColumnStatistics get(GameData column) {
+        return columns.get(column);
+    }
+
+    /**
+     * Works out whether a condition is provably empty or provably full for this catalog.
+     *
+     * @param condition The condition.
+     * @return NONE or ALL when the statistics settle it, SOME otherwise.
+     */
+    public ColumnStatistics.Outcome outcome(FilterCondition condition) {
+        if (rowCount == 0) {
+            return ColumnStatistics.Outcome.NONE;
+        }
+        ColumnStatistics stats = columns.get(condition.getColumn());
+        if (stats == null) {
+            return ColumnStatistics.Outcome.SOME;
+        }
+        return stats.outcome(condition.getOperation(), Double.parseDouble(condition.getValue()));
+    }
+
+    /**
+     * Works out whether a folded range is provably empty or provably full for this catalog.
+     *
+     * @param range The range.
+     * @return NONE or ALL when the statistics settle it, SOME otherwise.
+     */
+    public ColumnStatistics.Outcome outcome(ColumnRange range) {
+        ColumnStatistics stats = columns.get(range.getColumn());
+        if (rowCount == 0 || range.isEmpty()) {
+            return ColumnStatistics.Outcome.NONE;
+        }
+        return stats == null ? ColumnStatistics.Outcome.SOME : stats.outcome(range);
+    }
+
+    /**
+     * Estimates the fraction of games a folded range keeps.
+     *
+     * @param range The range.
+     * @return the estimated selectivity, between 0 and 1.
+     */
+    public double selectivity(ColumnRange range) {
+        ColumnStatistics stats = columns.get(range.getColumn());
+        return stats == null ? 1.0 / 3 : stats.selectivity(range);
+    }
+
+    /**
+     * Estimates the fraction of games a condition keeps.
+     *
+     * @param condition The condition.
+     * @return the estimated selectivity, between 0 and 1.
+     */
+    public double selectivity(FilterCondition condition) {
+        ColumnStatistics stats = columns.get(condition.getColumn());
+        if (stats != null) {
+            return stats.selectivity(condition.getOperation(),
+                    Double.parseDouble(condition.getValue()));
+        }
+        // names are unique enough that an exact match is about one game
+        return switch (condition.getOperation()) {
+            case EQUALS -> rowCount == 0 ? 0.0 : 1.0 / rowCount;
+            case NOT_EQUALS -> rowCount == 0 ? 0.0 : 1.0 - 1.0 / rowCount;
+            case CONTAINS -> CONTAINS_SELECTIVITY;
+            default -> 0.5;
+        };
+    }
+}
@@ -0,0 +1,90 @@
+package student;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writes session checkpoints to a file in the background.
+ *
+ * <p>The console thread publishes a checkpoint after each command, which only swaps a reference;
+ * a daemon thread writes the latest published checkpoint every period, if it has not been written
+ * yet. The checkpoints are immutable snapshots, so the writer never reads planner state the
+ * console thread is changing. Closing the writer writes the last checkpoint before returning.</p>
+ */
+public final class CheckpointWriter implements AutoCloseable {
+    /** The file checkpoints are written to. */
+    private final Path file;
+    /** The latest checkpoint published, null once written. */
+    private final AtomicReference<SessionCheckpoint> pending = new AtomicReference<>();
+    /** Runs the periodic writes. */
+    private final ScheduledExecutorService scheduler;
+    /** The last write error, null if the last write succeeded. */
+    private volatile IOException lastError;
+
+    /**
+     * Constructs a writer and starts its periodic writes.
+     *
+     * @param file The file checkpoints are written to.
+     * @param periodMillis The time between writes, in milliseconds.
+     */
+    public CheckpointWriter(Path file, long periodMillis) {
+        this.file = file;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flush, periodMillis, periodMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Publishes a checkpoint to be written at the next period, replacing any not written yet.
+     *
+     * @param checkpoint The checkpoint.
+     */
+    public void publish(SessionCheckpoint checkpoint) {
+        pending.set(checkpoint);
+    }
+
+    /**
+     * Writes the latest published checkpoint, if it has not been written yet.
+     *
+     * Errors are kept for {@link #getLastError()} rather than thrown, so a failing disk does not
+     * stop the session; the next checkpoint is tried again.
+     */
+    public synchronized void flush() {
+        SessionCheckpoint checkpoint = pending.getAndSet(null);
+        if (checkpoint == null) {
+            return;
+        }
+        try {
+            checkpoint.writeTo(file);
+            lastError = null;
+        } catch (IOException e) {
+            lastError = e;
+        }
+    }
+
+    /**
+     * Gets the error of the last write.
+     *
+     * @return the error, or null if the last write succeeded.
+     */
+    public IOException getLastError() {
+        return lastError;
+    }
+
+    /**
+     * Stops the periodic writes and writes the last published checkpoint.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        flush();
+    }
+}
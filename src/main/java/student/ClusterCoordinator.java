@@ -0,0 +1,469 @@
+package student;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A planner whose catalog is partitioned over cluster workers, other processes reached by TCP.
+ *
+ * <p>Every request is scattered to all the workers at once, one thread per worker, and the
+ * answers are gathered: sorted partial results are combined with the same k-way merge as a
+ * {@code ShardedPlanner}, so the games come in exactly the order one planner over the whole
+ * catalog gives. A limit is pushed down, each worker sending at most that many games, since the
+ * first games of the merge can only come from the first games of each worker.</p>
+ *
+ * <p>The round trip time of each worker is recorded for every request, see
+ * {@link #getLastLatencies()}, and explanations list it in their access path.</p>
+ */
+public final class ClusterCoordinator implements IPlanner, AutoCloseable {
+    /** Buffer size of the connection streams. */
+    private static final int BUFFER = 1 << 16;
+
+    /** The connection to each worker. */
+    private final List<Node> nodes;
+    /** Talks to the workers in parallel. */
+    private final ExecutorService pool;
+    /** The latency of each worker in the last request. */
+    private volatile List<NodeLatency> lastLatencies = List.of();
+
+    /**
+     * Constructs a coordinator connected to workers.
+     *
+     * @param workers The addresses of the workers.
+     * @throws IOException if a worker cannot be reached.
+     */
+    public ClusterCoordinator(List<InetSocketAddress> workers) throws IOException {
+        if (workers.isEmpty()) {
+            throw new IllegalArgumentException("A cluster needs at least one worker.");
+        }
+        List<Node> connected = new ArrayList<>(workers.size());
+        try {
+            for (InetSocketAddress address : workers) {
+                connected.add(new Node(address));
+            }
+        } catch (IOException e) {
+            for (Node node : connected) {
+                node.close();
+            }
+            throw e;
+        }
+        this.nodes = List.copyOf(connected);
+        this.pool = Executors.newFixedThreadPool(nodes.size(), runnable -> {
+            Thread thread = new Thread(runnable, "cluster-coordinator");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Parses worker addresses, such as {@code 5001,otherhost:5002}; a bare port is on localhost.
+     *
+     * @param spec The comma separated addresses.
+     * @return the addresses.
+     * @throws IllegalArgumentException if an address has no valid port.
+     */
+    public static List<InetSocketAddress> parseNodes(String spec) {
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for (String part : spec.split(",")) {
+            String node = part.trim();
+            int colon = node.lastIndexOf(':');
+            String host = colon < 0 ? null : node.substring(0, colon);
+            try {
+                int port = Integer.parseInt(node.substring(colon + 1));
+                addresses.add(host == null ? new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                        port) : new InetSocketAddress(host, port));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid worker address " + node);
+            }
+        }
+        return addresses;
+    }
+
+    /**
+     * Filters every worker's partition, merging the results by name.
+     *
+     * @param filter The filtering condition.
+     * @return A stream of filtered board games.
+     */
+    @Override
+    public Stream<BoardGame> filter(String filter) {
+        return filter(filter, List.of(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Filters and sorts every worker's partition on a column, merging the results.
+     *
+     * @param filter The filtering condition.
+     * @param sortOn The sorting attribute (e.g., NAME, RATING).
+     * @return A sorted stream of filtered board games.
+     */
+    @Override
+    public Stream<BoardGame> filter(String filter, GameData sortOn) {
+        return filter(filter, sortOn, true);
+    }
+
+    /**
+     * Filters and sorts every worker's partition on a column and order, merging the results.
+     *
+     * @param filter The filtering condition.
+     * @param sortOn The sorting attribute (e.g., NAME, RATING).
+     * @param ascending Whether to sort in ascending order.
+     * @return A sorted stream of filtered board games.
+     */
+    @Override
+    public Stream<BoardGame> filter(String filter, GameData sortOn, boolean ascending) {
+        if (sortOn == null) {
+            throw new IllegalArgumentException("Sorting attribute cannot be null.");
+        }
+        return filter(filter, List.of(new SortKey(sortOn, ascending)));
+    }
+
+    /**
+     * Filters and sorts every worker's partition on several keys, merging the results.
+     *
+     * @param filter The filtering condition.
+     * @param sortKeys The sort keys, most significant first.
+     * @return A sorted stream of filtered board games.
+     */
+    @Override
+    public Stream<BoardGame> filter(String filter, List<SortKey> sortKeys) {
+        if (sortKeys == null || sortKeys.isEmpty()) {
+            throw new IllegalArgumentException("Sorting attribute cannot be null.");
+        }
+        return filter(filter, sortKeys, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Filters and sorts every worker's partition, returning only the first games.
+     *
+     * The filter still applies to the whole of each partition, for the next filters; only the
+     * games sent back are limited.
+     *
+     * @param filter The filtering condition.
+     * @param sortKeys The sort keys, most significant first, empty to sort by name.
+     * @param limit The most games to return.
+     * @return the first games of the merged results.
+     */
+    public Stream<BoardGame> filter(String filter, List<SortKey> sortKeys, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative: " + limit);
+        }
+        FilterParser.parseExpression(filter); // fails here rather than in every worker
+        String sort = ClusterProtocol.sortSpec(sortKeys);
+        List<List<BoardGame>> runs = scatter(ClusterProtocol.FILTER, out -> {
+            out.writeUTF(filter);
+            out.writeUTF(sort);
+            out.writeInt(limit);
+        }, in -> {
+            int count = in.readInt();
+            List<BoardGame> games = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                games.add(ClusterProtocol.readGame(in));
+            }
+            return games;
+        }, List::size);
+        return KWayMerge.merge(runs, SortKey.comparator(sortKeys)).limit(limit);
+    }
+
+    /**
+     * Resets every worker to its whole partition.
+     */
+    @Override
+    public void reset() {
+        scatter(ClusterProtocol.RESET, out -> { }, in -> null, result -> 0);
+    }
+
+    /**
+     * Explains a filter on every worker and adds up the explanations.
+     *
+     * The access path lists the round trip time of each worker.
+     *
+     * @param filter The filtering condition.
+     * @param sortOn The sorting attribute (e.g., NAME, RATING).
+     * @param ascending Whether to sort in ascending order.
+     * @return the execution details of the filter, see
+     *         {@link FilterExplanation#combine(List, String, String)}.
+     */
+    @Override
+    public FilterExplanation explain(String filter, GameData sortOn, boolean ascending) {
+        if (sortOn == null) {
+            throw new IllegalArgumentException("Sorting attribute cannot be null.");
+        }
+        FilterParser.parseExpression(filter);
+        List<FilterExplanation> parts = scatter(ClusterProtocol.EXPLAIN, out -> {
+            out.writeUTF(filter);
+            out.writeUTF(sortOn.name());
+            out.writeBoolean(ascending);
+        }, ClusterProtocol::readExplanation, FilterExplanation::getRowsReturned);
+        String accessPath = nodes.size() + " workers in parallel ("
+                + lastLatencies.stream().map(NodeLatency::toString)
+                        .collect(Collectors.joining("; ")) + "): "
+                + parts.stream().map(FilterExplanation::getAccessPath).distinct()
+                        .collect(Collectors.joining("; "));
+        return FilterExplanation.combine(parts, "worker", accessPath);
+    }
+
+    /**
+     * Finds the game names closest to a possibly misspelled name, on every worker.
+     *
+     * @param name The name as typed.
+     * @param limit The most names to return.
+     * @return the closest names, closest first.
+     */
+    @Override
+    public List<NameIndex.Match> suggestNames(String name, int limit) {
+        return NameIndex.merge(scatter(ClusterProtocol.SUGGEST, out -> {
+            out.writeUTF(name);
+            out.writeInt(limit);
+        }, ClusterProtocol::readMatches, List::size), limit);
+    }
+
+    /**
+     * Gets the latency of each worker in the last request.
+     *
+     * @return one entry per worker, in worker order.
+     */
+    public List<NodeLatency> getLastLatencies() {
+        return lastLatencies;
+    }
+
+    /**
+     * Closes the connections to the workers, which keep running.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+        for (Node node : nodes) {
+            node.close();
+        }
+    }
+
+    /**
+     * Sends a request to every worker at once and gathers the results, timing each worker.
+     *
+     * @param op The operation.
+     * @param request Writes the arguments.
+     * @param response Reads the result.
+     * @param rows Counts the games in a result, for the latency report.
+     * @param <T> The type of the result.
+     * @return the result of each worker, in worker order.
+     */
+    private <T> List<T> scatter(byte op, Request request, Response<T> response,
+                                ToIntFunction<T> rows) {
+        List<Future<T>> futures = new ArrayList<>(nodes.size());
+        long[] nanos = new long[nodes.size()];
+        for (int i = 0; i < nodes.size(); i++) {
+            Node node = nodes.get(i);
+            int index = i;
+            futures.add(pool.submit(() -> {
+                long start = System.nanoTime();
+                T result = node.call(op, request, response);
+                nanos[index] = System.nanoTime() - start;
+                return result;
+            }));
+        }
+        List<T> results = new ArrayList<>(nodes.size());
+        List<NodeLatency> latencies = new ArrayList<>(nodes.size());
+        for (int i = 0; i < futures.size(); i++) {
+            T result = await(futures.get(i));
+            results.add(result);
+            latencies.add(new NodeLatency(nodes.get(i).name, nanos[i],
+                    result == null ? 0 : rows.applyAsInt(result)));
+        }
+        lastLatencies = List.copyOf(latencies);
+        return results;
+    }
+
+    /**
+     * Waits for a worker's answer, passing on what went wrong.
+     *
+     * @param future The call.
+     * @param <T> The type of the result.
+     * @return the result.
+     */
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for a worker.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Writes the arguments of a request.
+     */
+    private interface Request {
+        /**
+         * Writes the arguments.
+         *
+         * @param out The request stream.
+         * @throws IOException if the stream fails.
+         */
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Reads the result of a request.
+     *
+     * @param <T> The type of the result.
+     */
+    private interface Response<T> {
+        /**
+         * Reads the result.
+         *
+         * @param in The response stream, after the status.
+         * @return the result.
+         * @throws IOException if the stream fails.
+         */
+        T read(DataInputStream in) throws IOException;
+    }
+
+    /**
+     * The connection to one worker.
+     */
+    private static final class Node {
+        /** The worker's address, as host:port. */
+        private final String name;
+        /** The connection. */
+        private final Socket socket;
+        /** The response stream. */
+        private final DataInputStream in;
+        /** The request stream. */
+        private final DataOutputStream out;
+
+        /**
+         * Connects to a worker.
+         *
+         * @param address The worker's address.
+         * @throws IOException if the worker cannot be reached.
+         */
+        Node(InetSocketAddress address) throws IOException {
+            this.name = address.getHostString() + ":" + address.getPort();
+            this.socket = new Socket(address.getAddress(), address.getPort());
+            socket.setTcpNoDelay(true);
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER));
+            this.out = new DataOutputStream(
+                    new BufferedOutputStream(socket.getOutputStream(), BUFFER));
+        }
+
+        /**
+         * Sends a request and reads its response.
+         *
+         * @param op The operation.
+         * @param request Writes the arguments.
+         * @param response Reads the result.
+         * @param <T> The type of the result.
+         * @return the result.
+         * @throws IllegalStateException if the worker failed to run the request.
+         * @throws UncheckedIOException if the connection fails.
+         */
+        synchronized <T> T call(byte op, Request request, Response<T> response) {
+            try {
+                out.writeByte(op);
+                request.write(out);
+                out.flush();
+                if (in.readByte() == ClusterProtocol.ERROR) {
+                    throw new IllegalStateException("Worker " + name + " failed: " + in.readUTF());
+                }
+                return response.read(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Lost worker " + name, e);
+            }
+        }
+
+        /**
+         * Closes the connection.
+         */
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // nothing left to do with the connection
+            }
+        }
+    }
+
+    /**
+     * How long one worker took to answer a request, and how many games it sent.
+     */
+    public static final class NodeLatency {
+        /** The worker's address, as host:port. */
+        private final String node;
+        /** The round trip time, in nanoseconds. */
+        private final long nanos;
+        /** The games or matches in the answer. */
+        private final int rows;
+
+        /**
+         * Constructs a latency record.
+         *
+         * @param node The worker's address.
+         * @param nanos The round trip time, in nanoseconds.
+         * @param rows The games or matches in the answer.
+         */
+        NodeLatency(String node, long nanos, int rows) {
+            this.node = node;
+            this.nanos = nanos;
+            this.rows = rows;
+        }
+
+        /**
+         * Gets the worker's address.
+         *
+         * @return the address, as host:port.
+         */
+        public String getNode() {
+            return node;
+        }
+
+        /**
+         * Gets the round trip time.
+         *
+         * @return the time, in nanoseconds.
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * Gets the number of games or matches the worker sent.
+         *
+         * @return the row count.
+         */
+        public int getRows() {
+            return rows;
+        }
+
+        /**
+         * Gets the latency as text, such as {@code 127.0.0.1:5001 1.250 ms, 20 rows}.
+         *
+         * @return the latency.
+         */
+        @Override
+        public String toString() {
+            return String.format("%s %.3f ms, %d rows", node, nanos / 1e6, rows);
+        }
+    }
+}
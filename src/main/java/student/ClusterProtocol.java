@@ -0,0 +1,174 @@
+package student;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The messages cluster coordinators and workers exchange over TCP.
+ *
+ * <p>A request is an operation byte and its arguments; a response is a status byte, then either
+ * the result or an error message. Strings are modified UTF-8 and numbers are written in full,
+ * so games arrive exactly as the worker holds them, down to the bits of their ratings.</p>
+ *
+ * <ul>
+ *     <li>{@link #FILTER}: filter, sort keys (empty for canonical order), limit; the games.</li>
+ *     <li>{@link #RESET}: nothing; nothing.</li>
+ *     <li>{@link #EXPLAIN}: filter, sort column, ascending; the explanation.</li>
+ *     <li>{@link #SUGGEST}: name, limit; the matches.</li>
+ * </ul>
+ */
+final class ClusterProtocol {
+    /** Runs a filter and sort, returning the first games. */
+    static final byte FILTER = 1;
+    /** Resets the worker's planner. */
+    static final byte RESET = 2;
+    /** Explains a filter and sort. */
+    static final byte EXPLAIN = 3;
+    /** Suggests names close to a misspelled one. */
+    static final byte SUGGEST = 4;
+    /** The request succeeded, its result follows. */
+    static final byte OK = 0;
+    /** The request failed, a message follows. */
+    static final byte ERROR = 1;
+
+    // Prevents instantiation of this utility class
+    private ClusterProtocol() {
+        throw new UnsupportedOperationException("Utility class - do not instantiate");
+    }
+
+    /**
+     * Writes a game.
+     *
+     * @param out The stream.
+     * @param game The game.
+     * @throws IOException if the stream fails.
+     */
+    static void writeGame(DataOutputStream out, BoardGame game) throws IOException {
+        out.writeUTF(game.getName());
+        out.writeInt(game.getId());
+        out.writeInt(game.getMinPlayers());
+        out.writeInt(game.getMaxPlayers());
+        out.writeInt(game.getMinPlayTime());
+        out.writeInt(game.getMaxPlayTime());
+        out.writeDouble(game.getDifficulty());
+        out.writeInt(game.getRank());
+        out.writeDouble(game.getRating());
+        out.writeInt(game.getYearPublished());
+    }
+
+    /**
+     * Reads a game.
+     *
+     * @param in The stream.
+     * @return the game.
+     * @throws IOException if the stream fails.
+     */
+    static BoardGame readGame(DataInputStream in) throws IOException {
+        return new BoardGame(in.readUTF(), in.readInt(), in.readInt(), in.readInt(), in.readInt(),
+                in.readInt(), in.readDouble(), in.readInt(), in.readDouble(), in.readInt());
+    }
+
+    /**
+     * Writes an explanation.
+     *
+     * @param out The stream.
+     * @param explanation The explanation.
+     * @throws IOException if the stream fails.
+     */
+    static void writeExplanation(DataOutputStream out, FilterExplanation explanation)
+            throws IOException {
+        out.writeUTF(explanation.getFilter());
+        out.writeUTF(explanation.getSortOn().name());
+        out.writeBoolean(explanation.isAscending());
+        out.writeUTF(explanation.getAccessPath());
+        out.writeInt(explanation.getTotalRows());
+        out.writeInt(explanation.getRowsReturned());
+        out.writeInt(explanation.getSteps().size());
+        for (FilterExplanation.Step step : explanation.getSteps()) {
+            out.writeInt(step.getOrder());
+            out.writeUTF(step.getCondition());
+            out.writeLong(step.getEstimatedIn());
+            out.writeLong(step.getEstimatedOut());
+            out.writeLong(step.getRowsIn());
+            out.writeLong(step.getRowsOut());
+        }
+        out.writeLong(explanation.getFilterNanos());
+        out.writeLong(explanation.getSortNanos());
+    }
+
+    /**
+     * Reads an explanation.
+     *
+     * @param in The stream.
+     * @return the explanation.
+     * @throws IOException if the stream fails.
+     */
+    static FilterExplanation readExplanation(DataInputStream in) throws IOException {
+        String filter = in.readUTF();
+        GameData sortOn = GameData.valueOf(in.readUTF());
+        boolean ascending = in.readBoolean();
+        String accessPath = in.readUTF();
+        int totalRows = in.readInt();
+        int rowsReturned = in.readInt();
+        int count = in.readInt();
+        List<FilterExplanation.Step> steps = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            steps.add(new FilterExplanation.Step(in.readInt(), in.readUTF(), in.readLong(),
+                    in.readLong(), in.readLong(), in.readLong()));
+        }
+        return new FilterExplanation(filter, sortOn, ascending, accessPath, totalRows,
+                rowsReturned, steps, in.readLong(), in.readLong());
+    }
+
+    /**
+     * Writes name matches.
+     *
+     * @param out The stream.
+     * @param matches The matches.
+     * @throws IOException if the stream fails.
+     */
+    static void writeMatches(DataOutputStream out, List<NameIndex.Match> matches)
+            throws IOException {
+        out.writeInt(matches.size());
+        for (NameIndex.Match match : matches) {
+            out.writeUTF(match.getName());
+            out.writeInt(match.getDistance());
+        }
+    }
+
+    /**
+     * Reads name matches.
+     *
+     * @param in The stream.
+     * @return the matches.
+     * @throws IOException if the stream fails.
+     */
+    static List<NameIndex.Match> readMatches(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<NameIndex.Match> matches = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            matches.add(new NameIndex.Match(in.readUTF(), in.readInt()));
+        }
+        return matches;
+    }
+
+    /**
+     * Writes sort keys so {@link SortKey#parse(String)} reads them back.
+     *
+     * @param keys The keys, empty for canonical order.
+     * @return the keys as comma separated text.
+     */
+    static String sortSpec(List<SortKey> keys) {
+        StringBuilder sb = new StringBuilder();
+        for (SortKey key : keys) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(key);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,205 @@
+package student;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Serves a planner over one partition of a catalog to cluster coordinators, over TCP.
+ *
+ * <p>The worker listens on the loopback address only. Each connection is served on its own
+ * thread, one request at a time, and requests from all connections take turns on the planner,
+ * whose filters are progressive as usual; a cluster has one coordinator, which keeps one
+ * connection to each worker. See {@code ClusterProtocol} for the messages.</p>
+ */
+public final class ClusterWorker implements AutoCloseable {
+    /** Buffer size of the connection streams. */
+    private static final int BUFFER = 1 << 16;
+
+    /** The planner over this worker's partition. */
+    private final IPlanner planner;
+    /** The listening socket. */
+    private final ServerSocket server;
+
+    /**
+     * Constructs a worker listening on a local port.
+     *
+     * @param planner The planner over this worker's partition.
+     * @param port The port, 0 for any free port.
+     * @throws IOException if the port cannot be opened.
+     */
+    public ClusterWorker(IPlanner planner, int port) throws IOException {
+        this.planner = planner;
+        this.server = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+    }
+
+    /**
+     * Gets the port the worker listens on.
+     *
+     * @return the port.
+     */
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Accepts connections until the worker is closed.
+     */
+    public void serve() {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                Thread thread = new Thread(() -> handle(socket), "cluster-worker");
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException e) {
+                if (!server.isClosed()) {
+                    System.err.println("Cluster worker cannot accept: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Serves the requests of one connection until it closes.
+     *
+     * @param socket The connection.
+     */
+    private void handle(Socket socket) {
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(socket.getInputStream(), BUFFER));
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(socket.getOutputStream(), BUFFER));
+            while (true) {
+                byte op;
+                try {
+                    op = in.readByte();
+                } catch (EOFException e) {
+                    return; // the coordinator is done
+                }
+                respond(op, in, out);
+                out.flush();
+            }
+        } catch (IOException e) {
+            System.err.println("Cluster worker connection failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the arguments of a request, runs it and writes the response.
+     *
+     * @param op The operation.
+     * @param in The request stream, after the operation byte.
+     * @param out The response stream.
+     * @throws IOException if a stream fails or the operation is unknown.
+     */
+    private void respond(byte op, DataInputStream in, DataOutputStream out) throws IOException {
+        switch (op) {
+            case ClusterProtocol.FILTER -> {
+                String filter = in.readUTF();
+                String sort = in.readUTF();
+                int limit = in.readInt();
+                run(out, () -> {
+                    Stream<BoardGame> games = sort.isEmpty() ? planner.filter(filter)
+                            : planner.filter(filter, SortKey.parse(sort));
+                    List<BoardGame> first = games.limit(limit).toList();
+                    return result -> {
+                        result.writeInt(first.size());
+                        for (BoardGame game : first) {
+                            ClusterProtocol.writeGame(result, game);
+                        }
+                    };
+                });
+            }
+            case ClusterProtocol.RESET -> run(out, () -> {
+                planner.reset();
+                return result -> { };
+            });
+            case ClusterProtocol.EXPLAIN -> {
+                String filter = in.readUTF();
+                GameData sortOn = GameData.valueOf(in.readUTF());
+                boolean ascending = in.readBoolean();
+                run(out, () -> {
+                    FilterExplanation explanation = planner.explain(filter, sortOn, ascending);
+                    return result -> ClusterProtocol.writeExplanation(result, explanation);
+                });
+            }
+            case ClusterProtocol.SUGGEST -> {
+                String name = in.readUTF();
+                int limit = in.readInt();
+                run(out, () -> {
+                    List<NameIndex.Match> matches = planner.suggestNames(name, limit);
+                    return result -> ClusterProtocol.writeMatches(result, matches);
+                });
+            }
+            default -> throw new IOException("Unknown cluster operation " + op);
+        }
+    }
+
+    /**
+     * Runs a request on the planner and writes its result, or the error it failed with.
+     *
+     * @param out The response stream.
+     * @param request The request, which returns how to write its result.
+     * @throws IOException if the stream fails.
+     */
+    private void run(DataOutputStream out, Request request) throws IOException {
+        Result result;
+        try {
+            synchronized (planner) {
+                result = request.run();
+            }
+        } catch (RuntimeException e) {
+            out.writeByte(ClusterProtocol.ERROR);
+            out.writeUTF(String.valueOf(e.getMessage()));
+            return;
+        }
+        out.writeByte(ClusterProtocol.OK);
+        result.write(out);
+    }
+
+    /**
+     * Stops accepting connections.
+     *
+     * @throws IOException if the socket cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        server.close();
+    }
+
+    /**
+     * A request run on the planner.
+     */
+    private interface Request {
+        /**
+         * Runs the request.
+         *
+         * @return how to write the result.
+         */
+        Result run();
+    }
+
+    /**
+     * Writes the result of a request.
+     */
+    private interface Result {
+        /**
+         * Writes the result.
+         *
+         * @param out The response stream.
+         * @throws IOException if the stream fails.
+         */
+        void write(DataOutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,312 @@
+package student;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * An interval of allowed values on one numeric column, with an optional set of excluded points.
+ *
+ * <p>All conditions a filter puts on the same column are folded into one range, so
+ * {@code minPlayers>4,minPlayers<6} becomes a single check instead of two predicates. Bounds that
+ * are looser than others are dropped, {@code !=} values outside the interval are forgotten, and
+ * conditions that cannot all hold make the range empty. Whole number columns use inclusive integer
+ * bounds, so {@code minPlayers>4,minPlayers<6} is the same range as {@code minPlayers==5}.</p>
+ *
+ * <p>Ranges are immutable, {@link #intersect(FilterCondition)} returns a new range.</p>
+ */
+public final class ColumnRange {
+    /** The column the range applies to. */
+    private final GameData column;
+    /** The lowest allowed value, negative infinity when unbounded. */
+    private final double lower;
+    /** Whether {@link #lower} itself is allowed. */
+    private final boolean lowerInclusive;
+    /** The highest allowed value, positive infinity when unbounded. */
+    private final double upper;
+    /** Whether {@link #upper} itself is allowed. */
+    private final boolean upperInclusive;
+    /** Values inside the interval that are not allowed. */
+    private final Set<Double> excluded;
+    /** The excluded values unboxed, for {@link #test(double)}. */
+    private final double[] excludedValues;
+
+    /**
+     * Constructs a range.
+     *
+     * @param column The column the range applies to.
+     * @param lower The lowest allowed value.
+     * @param lowerInclusive Whether the lowest value is allowed.
+     * @param upper The highest allowed value.
+     * @param upperInclusive Whether the highest value is allowed.
+     * @param excluded Values inside the interval that are not allowed.
+     */
+    private ColumnRange(GameData column, double lower, boolean lowerInclusive, double upper,
+                        boolean upperInclusive, Set<Double> excluded) {
+        this.column = column;
+        this.lower = lower;
+        this.lowerInclusive = lowerInclusive;
+        this.upper = upper;
+        this.upperInclusive = upperInclusive;
+        TreeSet<Double> inside = new TreeSet<>();
+        for (double point : excluded) {
+            if (contains(point)) {
+                inside.add(point); // points outside the interval are redundant
+            }
+        }
+        this.excluded = Collections.unmodifiableSet(inside);
+        this.excludedValues = inside.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    /**
+     * Creates a range allowing every value of a column.
+     *
+     * @param column The numeric column.
+     * @return the unbounded range.
+     * @throws IllegalArgumentException if the column is not numeric.
+     */
+    public static ColumnRange all(GameData column) {
+        if (column == GameData.NAME) {
+            throw new IllegalArgumentException("Not a numeric column: " + column);
+        }
+        return new ColumnRange(column, Double.NEGATIVE_INFINITY, false, Double.POSITIVE_INFINITY,
+                false, Set.of());
+    }
+
+    /**
+     * Checks if a column only holds whole numbers.
+     *
+     * @param column The column.
+     * @return true for int columns, false for rating and difficulty.
+     */
+    public static boolean isWholeNumber(GameData column) {
+        return column != GameData.RATING && column != GameData.DIFFICULTY;
+    }
+
+    /**
+     * Narrows the range with one more condition on the same column.
+     *
+     * @param condition The condition, on this range's column.
+     * @return the range of values allowed by both.
+     * @throws IllegalArgumentException if the condition is on another column or uses contains.
+     */
+    public ColumnRange intersect(FilterCondition condition) {
+        if (condition.getColumn() != column) {
+            throw new IllegalArgumentException("Condition " + condition + " is not on " + column);
+        }
+        double value = Double.parseDouble(condition.getValue());
+        boolean whole = isWholeNumber(column);
+        return switch (condition.getOperation()) {
+            case EQUALS -> withLower(value, true).withUpper(value, true);
+            case GREATER_THAN -> whole ? withLower(value + 1, true) : withLower(value, false);
+            case GREATER_THAN_EQUALS -> withLower(value, true);
+            case LESS_THAN -> whole ? withUpper(value - 1, true) : withUpper(value, false);
+            case LESS_THAN_EQUALS -> withUpper(value, true);
+            case NOT_EQUALS -> {
+                TreeSet<Double> points = new TreeSet<>(excluded);
+                points.add(value);
+                yield new ColumnRange(column, lower, lowerInclusive, upper, upperInclusive, points);
+            }
+            default -> throw new IllegalArgumentException(
+                    "Unsupported operation for " + column + ": " + condition.getOperation());
+        };
+    }
+
+    /**
+     * Raises the lower bound if the new one is tighter.
+     *
+     * @param value The new lower bound.
+     * @param inclusive Whether the bound itself is allowed.
+     * @return the narrowed range.
+     */
+    private ColumnRange withLower(double value, boolean inclusive) {
+        boolean tighter = value > lower || (value == lower && !inclusive && lowerInclusive);
+        if (!tighter) {
+            return this; // looser than, or the same as, what we already have
+        }
+        return new ColumnRange(column, value, inclusive, upper, upperInclusive, excluded);
+    }
+
+    /**
+     * Lowers the upper bound if the new one is tighter.
+     *
+     * @param value The new upper bound.
+     * @param inclusive Whether the bound itself is allowed.
+     * @return the narrowed range.
+     */
+    private ColumnRange withUpper(double value, boolean inclusive) {
+        boolean tighter = value < upper || (value == upper && !inclusive && upperInclusive);
+        if (!tighter) {
+            return this; // looser than, or the same as, what we already have
+        }
+        return new ColumnRange(column, lower, lowerInclusive, value, inclusive, excluded);
+    }
+
+    /**
+     * Checks if a value lies inside the interval, ignoring excluded points.
+     *
+     * @param value The value.
+     * @return true if the bounds allow the value.
+     */
+    private boolean contains(double value) {
+        return (lowerInclusive ? value >= lower : value > lower)
+                && (upperInclusive ? value <= upper : value < upper);
+    }
+
+    /**
+     * Checks if a value is allowed by the range.
+     *
+     * @param value The value.
+     * @return true if the value is inside the interval and not excluded.
+     */
+    public boolean test(double value) {
+        if (!contains(value)) {
+            return false;
+        }
+        for (double point : excludedValues) {
+            if (point == value) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if no value can satisfy the range.
+     *
+     * @return true when the conditions folded into the range contradict each other.
+     */
+    public boolean isEmpty() {
+        if (lower > upper) {
+            return true;
+        }
+        if (lower == upper) {
+            return !lowerInclusive || !upperInclusive || excluded.contains(lower);
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the range allows every value.
+     *
+     * @return true when no condition has narrowed the range.
+     */
+    public boolean isUnbounded() {
+        return lower == Double.NEGATIVE_INFINITY && upper == Double.POSITIVE_INFINITY
+                && excluded.isEmpty();
+    }
+
+    /**
+     * Gets the column the range applies to.
+     *
+     * @return the column.
+     */
+    public GameData getColumn() {
+        return column;
+    }
+
+    /**
+     * Gets the lowest allowed value.
+     *
+     * @return the lower bound, negative infinity when unbounded.
+     */
+    public double getLower() {
+        return lower;
+    }
+
+    /**
+     * Checks if the lower bound itself is allowed.
+     *
+     * @return true for an inclusive lower bound.
+     */
+    public boolean isLowerInclusive() {
+        return lowerInclusive;
+    }
+
+    /**
+     * Gets the highest allowed value.
+     *
+     * @return the upper bound, positive infinity when unbounded.
+     */
+    public double getUpper() {
+        return upper;
+    }
+
+    /**
+     * Checks if the upper bound itself is allowed.
+     *
+     * @return true for an inclusive upper bound.
+     */
+    public boolean isUpperInclusive() {
+        return upperInclusive;
+    }
+
+    /**
+     * Gets the values inside the interval that are not allowed.
+     *
+     * @return an unmodifiable, sorted set of excluded values.
+     */
+    public Set<Double> getExcluded() {
+        return excluded;
+    }
+
+    /**
+     * Builds the single predicate that checks the whole range.
+     *
+     * @return A predicate for {@code BoardGame} objects.
+     */
+    public Predicate<BoardGame> toPredicate() {
+        ToDoubleFunction<BoardGame> getter = switch (column) {
+            case MIN_PLAYERS -> BoardGame::getMinPlayers;
+            case MAX_PLAYERS -> BoardGame::getMaxPlayers;
+            case MIN_TIME -> BoardGame::getMinPlayTime;
+            case MAX_TIME -> BoardGame::getMaxPlayTime;
+            case DIFFICULTY -> BoardGame::getDifficulty;
+            case RANK -> BoardGame::getRank;
+            case RATING -> BoardGame::getRating;
+            case YEAR -> BoardGame::getYearPublished;
+            default -> game -> game.getNumericValue(column);
+        };
+        return game -> test(getter.applyAsDouble(game));
+    }
+
+    /**
+     * Gets the normalized conditions of the range, such as {@code minplayers>=5,minplayers<=7}.
+     *
+     * The text can be passed back to {@code FilterParser}.
+     *
+     * @return the range as comma separated conditions.
+     */
+    @Override
+    public String toString() {
+        String field = FilterCondition.fieldName(column);
+        StringBuilder sb = new StringBuilder();
+        if (lower == upper && lowerInclusive && upperInclusive) {
+            sb.append(field).append("==").append(format(lower));
+        } else {
+            if (lower != Double.NEGATIVE_INFINITY) {
+                sb.append(field).append(lowerInclusive ? ">=" : ">").append(format(lower));
+            }
+            if (upper != Double.POSITIVE_INFINITY) {
+                sb.append(sb.length() > 0 ? "," : "").append(field)
+                        .append(upperInclusive ? "<=" : "<").append(format(upper));
+            }
+        }
+        for (double point : excluded) {
+            sb.append(sb.length() > 0 ? "," : "").append(field).append("!=").append(format(point));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Formats a bound so whole number columns print without a decimal point.
+     *
+     * @param value The bound.
+     * @return the bound as filter text.
+     */
+    private String format(double value) {
+        return isWholeNumber(column) ? Long.toString((long) value) : Double.toString(value);
+    }
+}
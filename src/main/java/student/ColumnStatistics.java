@@ -0,0 +1,359 @@
+package student;
+
+import java.util.Arrays;
+
+/**
+ * Statistics for one numeric column of the games catalog.
+ *
+ * <p>Holds the min, max, number of distinct values and an equi-depth histogram. An equi-depth
+ * histogram splits the sorted values into buckets holding the same number of rows, so skewed
+ * columns (most games published in the last decade, most ranks unique) still get useful
+ * selectivity estimates.</p>
+ *
+ * <p>The statistics are used to answer conditions that can be proven to match no games or every
+ * game without scanning, and to estimate how many games the other conditions keep.</p>
+ */
+public final class ColumnStatistics {
+    /** Default number of histogram buckets. */
+    public static final int DEFAULT_BUCKETS = 32;
+
+    /**
+     * What the statistics can prove about a condition.
+     */
+    public enum Outcome {
+        /** The condition matches no game. */
+        NONE,
+        /** The condition matches every game. */
+        ALL,
+        /** The condition needs to be evaluated. */
+        SOME
+    }
+
+    /** The column these statistics describe. */
+    private final GameData column;
+    /** The number of values. */
+    private final int count;
+    /** The smallest value. */
+    private final double min;
+    /** The largest value. */
+    private final double max;
+    /** The number of distinct values. */
+    private final int distinct;
+    /** Bucket boundaries, bounds[i] is the lowest value in bucket i, the last entry is max. */
+    private final double[] bounds;
+
+    /**
+     * Constructs the statistics.
+     *
+     * @param column The column described.
+     * @param count The number of values.
+     * @param min The smallest value.
+     * @param max The largest value.
+     * @param distinct The number of distinct values.
+     * @param bounds The histogram bucket boundaries.
+     */
+    private ColumnStatistics(GameData column, int count, double min, double max, int distinct,
+                             double[] bounds) {
+        this.column = column;
+        this.count = count;
+        this.min = min;
+        this.max = max;
+        this.distinct = distinct;
+        this.bounds = bounds;
+    }
+
+    /**
+     * Computes the statistics for a column.
+     *
+     * @param column The column described.
+     * @param values The values of the column, in any order. The array is not modified.
+     * @param buckets The number of histogram buckets to build.
+     * @return the statistics of the values.
+     */
+    public static ColumnStatistics of(GameData column, double[] values, int buckets) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int count = sorted.length;
+        if (count == 0) {
+            return new ColumnStatistics(column, 0, Double.NaN, Double.NaN, 0, new double[0]);
+        }
+
+        int distinct = 1;
+        for (int i = 1; i < count; i++) {
+            if (sorted[i] != sorted[i - 1]) {
+                distinct++;
+            }
+        }
+
+        int bucketCount = Math.max(1, Math.min(buckets, count));
+        double[] bounds = new double[bucketCount + 1];
+        for (int i = 0; i < bucketCount; i++) {
+            bounds[i] = sorted[(int) ((long) i * count / bucketCount)];
+        }
+        bounds[bucketCount] = sorted[count - 1];
+        return new ColumnStatistics(column, count, sorted[0], sorted[count - 1], distinct, bounds);
+    }
+
+    /**
+     * Updates the statistics for values added to and removed from the column, without the rest
+     * of the values.
+     *
+     * The min and max widen to cover the added values but never shrink for removed ones, as the
+     * values that remain are not known. Bounds that are too wide only lose a NONE or ALL proof,
+     * they never give a wrong one, so the statistics stay safe for the optimizer. The histogram
+     * keeps its inner bounds and stretches its ends, and the distinct count grows by the added
+     * values outside the old range, the only ones known to be new.
+     *
+     * @param added The values added, in any order.
+     * @param removed The number of values removed.
+     * @return the updated statistics.
+     */
+    public ColumnStatistics update(double[] added, int removed) {
+        int newCount = count + added.length - removed;
+        if (count == 0) {
+            return of(column, added, DEFAULT_BUCKETS);
+        }
+        if (newCount <= 0) {
+            return new ColumnStatistics(column, 0, Double.NaN, Double.NaN, 0, new double[0]);
+        }
+        double newMin = min;
+        double newMax = max;
+        int outside = 0;
+        for (double value : added) {
+            if (value < min || value > max) {
+                outside++;
+            }
+            newMin = Math.min(newMin, value);
+            newMax = Math.max(newMax, value);
+        }
+        double[] newBounds = bounds.clone();
+        newBounds[0] = newMin;
+        newBounds[newBounds.length - 1] = newMax;
+        int newDistinct = Math.max(1, Math.min(newCount, distinct + outside));
+        return new ColumnStatistics(column, newCount, newMin, newMax, newDistinct, newBounds);
+    }
+
+    /**
+     * Gets the column these statistics describe.
+     *
+     * @return the column.
+     */
+    public GameData getColumn() {
+        return column;
+    }
+
+    /**
+     * Gets the number of values.
+     *
+     * @return the row count.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the smallest value.
+     *
+     * @return the minimum, NaN if there are no values.
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * Gets the largest value.
+     *
+     * @return the maximum, NaN if there are no values.
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Gets the number of distinct values.
+     *
+     * @return the distinct count.
+     */
+    public int getDistinct() {
+        return distinct;
+    }
+
+    /**
+     * Gets the number of histogram buckets.
+     *
+     * @return the bucket count.
+     */
+    public int getBuckets() {
+        return Math.max(0, bounds.length - 1);
+    }
+
+    /**
+     * Works out whether a comparison against {@code value} is provably empty or provably full.
+     *
+     * @param op The comparison operation.
+     * @param value The value compared against.
+     * @return NONE or ALL when the min and max settle it, SOME otherwise.
+     */
+    public Outcome outcome(Operations op, double value) {
+        if (count == 0) {
+            return Outcome.NONE;
+        }
+        return switch (op) {
+            case GREATER_THAN -> value >= max ? Outcome.NONE : value < min ? Outcome.ALL : Outcome.SOME;
+            case GREATER_THAN_EQUALS -> value > max ? Outcome.NONE
+                    : value <= min ? Outcome.ALL : Outcome.SOME;
+            case LESS_THAN -> value <= min ? Outcome.NONE : value > max ? Outcome.ALL : Outcome.SOME;
+            case LESS_THAN_EQUALS -> value < min ? Outcome.NONE
+                    : value >= max ? Outcome.ALL : Outcome.SOME;
+            case EQUALS -> value < min || value > max ? Outcome.NONE
+                    : min == max ? Outcome.ALL : Outcome.SOME;
+            case NOT_EQUALS -> value < min || value > max ? Outcome.ALL
+                    : min == max ? Outcome.NONE : Outcome.SOME;
+            default -> Outcome.SOME;
+        };
+    }
+
+    /**
+     * Works out whether a folded range is provably empty or provably full.
+     *
+     * @param range The range, on this column.
+     * @return NONE when no value lies in the range, ALL when every value does, SOME otherwise.
+     */
+    public Outcome outcome(ColumnRange range) {
+        if (count == 0 || range.isEmpty()) {
+            return Outcome.NONE;
+        }
+        boolean belowAll = range.isUpperInclusive() ? range.getUpper() < min : range.getUpper() <= min;
+        boolean aboveAll = range.isLowerInclusive() ? range.getLower() > max : range.getLower() >= max;
+        if (belowAll || aboveAll) {
+            return Outcome.NONE;
+        }
+        boolean coversLow = range.isLowerInclusive() ? range.getLower() <= min : range.getLower() < min;
+        boolean coversHigh = range.isUpperInclusive() ? range.getUpper() >= max : range.getUpper() > max;
+        boolean excludesNone = range.getExcluded().stream().allMatch(p -> p < min || p > max);
+        if (coversLow && coversHigh && excludesNone) {
+            return Outcome.ALL;
+        }
+        if (min == max && !range.test(min)) {
+            return Outcome.NONE;
+        }
+        return Outcome.SOME;
+    }
+
+    /**
+     * Estimates the fraction of rows a folded range keeps.
+     *
+     * Works out the rows cut off below the lower bound and above the upper bound, then takes off
+     * the excluded points.
+     *
+     * @param range The range, on this column.
+     * @return the estimated selectivity, between 0 and 1.
+     */
+    public double selectivity(ColumnRange range) {
+        Outcome outcome = outcome(range);
+        if (outcome != Outcome.SOME) {
+            return outcome == Outcome.ALL ? 1.0 : 0.0;
+        }
+        double kept = 1.0;
+        if (range.getLower() != Double.NEGATIVE_INFINITY) {
+            kept -= selectivity(range.isLowerInclusive() ? Operations.LESS_THAN
+                    : Operations.LESS_THAN_EQUALS, range.getLower());
+        }
+        if (range.getUpper() != Double.POSITIVE_INFINITY) {
+            kept -= selectivity(range.isUpperInclusive() ? Operations.GREATER_THAN
+                    : Operations.GREATER_THAN_EQUALS, range.getUpper());
+        }
+        for (double point : range.getExcluded()) {
+            kept -= selectivity(Operations.EQUALS, point);
+        }
+        return clamp(kept);
+    }
+
+    /**
+     * Estimates the fraction of rows a comparison against {@code value} keeps.
+     *
+     * @param op The comparison operation.
+     * @param value The value compared against.
+     * @return the estimated selectivity, between 0 and 1.
+     */
+    public double selectivity(Operations op, double value) {
+        Outcome outcome = outcome(op, value);
+        if (outcome != Outcome.SOME) {
+            return outcome == Outcome.ALL ? 1.0 : 0.0;
+        }
+        double equal = equalFraction(value);
+        return switch (op) {
+            case EQUALS -> equal;
+            case NOT_EQUALS -> 1.0 - equal;
+            case LESS_THAN -> clamp(fractionBelow(value) - equal / 2);
+            case LESS_THAN_EQUALS -> clamp(fractionBelow(value) + equal / 2);
+            case GREATER_THAN -> clamp(1.0 - fractionBelow(value) - equal / 2);
+            case GREATER_THAN_EQUALS -> clamp(1.0 - fractionBelow(value) + equal / 2);
+            default -> 1.0 / 3;
+        };
+    }
+
+    /**
+     * Estimates the fraction of rows equal to a value inside [min, max].
+     *
+     * Assumes values are spread evenly over the distinct values, unless the value spans several
+     * histogram bounds, which means it is a heavy hitter.
+     *
+     * @param value The value.
+     * @return the estimated fraction of equal rows.
+     */
+    private double equalFraction(double value) {
+        int buckets = getBuckets();
+        int repeats = 0;
+        for (double bound : bounds) {
+            if (bound == value) {
+                repeats++;
+            }
+        }
+        double heavy = repeats > 1 ? (double) (repeats - 1) / buckets : 0.0;
+        return Math.max(1.0 / distinct, heavy);
+    }
+
+    /**
+     * Estimates the fraction of rows below a value by interpolating inside its bucket.
+     *
+     * @param value The value.
+     * @return the estimated fraction of rows below the value.
+     */
+    private double fractionBelow(double value) {
+        int buckets = getBuckets();
+        for (int i = 0; i < buckets; i++) {
+            double low = bounds[i];
+            double high = bounds[i + 1];
+            if (value < high || i == buckets - 1) {
+                if (value <= low) {
+                    return (double) i / buckets;
+                }
+                double within = high > low ? (value - low) / (high - low) : 1.0;
+                return (i + Math.min(1.0, within)) / buckets;
+            }
+        }
+        return 1.0;
+    }
+
+    /**
+     * Keeps a fraction between 0 and 1.
+     *
+     * @param fraction The fraction.
+     * @return the clamped fraction.
+     */
+    private static double clamp(double fraction) {
+        return Math.max(0.0, Math.min(1.0, fraction));
+    }
+
+    /**
+     * Gets a short summary of the statistics.
+     *
+     * @return the column, min, max, distinct count and buckets.
+     */
+    @Override
+    public String toString() {
+        return String.format("%s: min=%s max=%s distinct=%d buckets=%d", column, min, max,
+                distinct, getBuckets());
+    }
+}
@@ -0,0 +1,18 @@
+package student;
+
+/**
+ * A filter compiled to bytecode by {@code FilterCompiler}.
+ *
+ * <p>Implementations are generated hidden classes whose {@code test} method checks every condition
+ * of one filter inline against the primitive arrays of a {@code GameColumns}.</p>
+ */
+public interface CompiledFilter {
+    /**
+     * Checks if a row matches the filter.
+     *
+     * @param columns The catalog columns.
+     * @param row The row number.
+     * @return true if the game in the row matches.
+     */
+    boolean test(GameColumns columns, int row);
+}
@@ -1,9 +1,33 @@
 package student;
 
-import java.util.Collections;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
-import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.Random;
 
@@ -15,80 +39,413 @@ import java.util.Random;
  * and for a client to build a list of games they want to play, and
  * save out that list. Most of the features are focused on
  * providing a progressive filter to find games, and then add them to the list.
+ * 
+ * The same commands can be run from a script in batch mode: no welcome, prompts or paging,
+ * all output buffered until the end, and the games written as text, TSV or JSON.
+ * 
+ * When interactive, commands run on a worker thread, in the order typed, so a slow filter, sort
+ * or save does not hold up the prompt: a command that takes longer than a moment carries on in
+ * the background, reports its progress now and then, and prints its output when done. The
+ * cancel command cancels the running and queued commands through their {@link QueryContext};
+ * scans stop at their next progress check, leaving the results as they were. In batch mode
+ * commands run one after the other on the calling thread.
  */
 public class ConsoleApp {
-    /** Interaction with the system terminal/command line. */
-    private static final Scanner IN = new Scanner(System.in);
     /** Default name to save the game list to. */
     private static final String DEFAULT_FILENAME = "games_list.txt";
     /** random number generator only needs to be built once. */
     private static final Random RND = new Random();
-    /** scanner to help with processing the command string. */
-    private Scanner current;
+    /** Size of the output buffer, large enough for a page of games. */
+    private static final int OUTPUT_BUFFER = 1 << 16;
+    /** Number of games shown per page of filter results. */
+    private static final int PAGE_SIZE = 20;
+    /** Whitespace, removed from filters. */
+    private static final Pattern WHITESPACE = Pattern.compile("\\s");
+    /** List selectors that are never misspelled names: a number, a range or all. */
+    private static final Pattern SELECTOR = Pattern.compile("\\d+(-\\d+)?");
+    /** A count of games, such as how many random games to pick. */
+    private static final Pattern NUMBER = Pattern.compile("\\d{1,9}");
+    /** How long the prompt waits for a command before leaving it running in the background. */
+    private static final long FOREGROUND_MILLIS = 250;
+    /** Time between progress reports of a command running in the background. */
+    private static final long PROGRESS_MILLIS = 2000;
+    /** The commands read, one per line. */
+    private final BufferedReader in;
+    /** Where all output ends up, shared by the input and worker threads. */
+    private final PrintWriter terminal;
+    /**
+     * Where the command being run writes: the terminal in batch mode, a buffer per command on the
+     * worker thread when interactive.
+     */
+    private PrintWriter out;
+    /** True to show the welcome, prompts and pages; false in batch mode. */
+    private final boolean interactive;
+    /** How games and messages are written. */
+    private final OutputFormat format;
+    /** The words of the command line being processed, reused for every line. */
+    private final CommandLine current = new CommandLine();
     /** The game list to manage. */
     private final IGameList gameList;
     /** The planner to help filter games. */
     private final IPlanner planner;
+    /** The games of the last filter not shown yet, null when all were shown. */
+    private Iterator<BoardGame> page;
+    /** The number of games of the last filter shown so far. */
+    private int pageRow;
+    /** The column the last filter was sorted on, used for the extra info per game. */
+    private GameData pageSort;
+    /** Renders the rows of a page, reusing its buffer from page to page. */
+    private final RowRenderer renderer = new RowRenderer();
+    /** Called after every command, such as to checkpoint the session. */
+    private Runnable commandListener = () -> { };
+    /** Runs the commands in order when interactive, started by {@link #start()}. */
+    private ExecutorService worker;
+    /** Reports the progress of commands running in the background. */
+    private ScheduledExecutorService reporter;
+    /** The commands submitted to the worker and not finished, oldest first. */
+    private final Deque<Task> tasks = new ConcurrentLinkedDeque<>();
+    /** Notices that came before the app started, shown once it has; guarded by the terminal. */
+    private final List<String> notices = new ArrayList<>();
+    /** True once the app started and showed its welcome; guarded by the terminal. */
+    private boolean started;
 
     /**
-     * Constructor for the console app.
+     * Constructor for the console app, interactive on the system terminal.
      * 
      * @param gameList the game list to manage.
      * @param planner  the planner to help filter games.
      */
     public ConsoleApp(IGameList gameList, IPlanner planner) {
+        this(gameList, planner,
+                new BufferedReader(new InputStreamReader(System.in, Charset.defaultCharset())),
+                new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out,
+                        Charset.defaultCharset()), OUTPUT_BUFFER), false),
+                true, OutputFormat.TEXT);
+    }
+
+    /**
+     * Constructor for the console app in batch mode, running the commands of a script.
+     * 
+     * Output is only flushed when the script ends, so the caller should pass a writer that
+     * buffers as much as it wants to hold.
+     * 
+     * @param gameList the game list to manage.
+     * @param planner  the planner to help filter games.
+     * @param input    the commands, one per line.
+     * @param output   where to write the results.
+     * @param format   how to write games and messages.
+     */
+    public ConsoleApp(IGameList gameList, IPlanner planner, Reader input, PrintWriter output,
+                      OutputFormat format) {
+        this(gameList, planner, input instanceof BufferedReader ? (BufferedReader) input
+                : new BufferedReader(input, OUTPUT_BUFFER), output, false, format);
+    }
+
+    /**
+     * Constructor for the console app.
+     * 
+     * @param gameList    the game list to manage.
+     * @param planner     the planner to help filter games.
+     * @param in          the commands, one per line.
+     * @param out         where to write the results.
+     * @param interactive true to show the welcome, prompts and pages.
+     * @param format      how to write games and messages.
+     */
+    private ConsoleApp(IGameList gameList, IPlanner planner, BufferedReader in, PrintWriter out,
+                       boolean interactive, OutputFormat format) {
         this.gameList = gameList;
         this.planner = planner;
-    }    
+        this.in = in;
+        this.terminal = out;
+        this.out = out;
+        this.interactive = interactive;
+        this.format = format;
+    }
+
+    /**
+     * Sets what to do after every command, such as publishing a session checkpoint.
+     * 
+     * @param listener run after each command, on the thread running the commands.
+     */
+    public void setCommandListener(Runnable listener) {
+        this.commandListener = listener;
+    }
 
     /**
      * Start the console application.
      * 
-     * Processes the main menu commands and redirects.
+     * Reads commands until exit or the end of the input, running them on the worker when
+     * interactive; cancel is handled on the input thread, so it works while a command runs.
      */
     public void start() {
-        printOutput("%s%n", ConsoleText.WELCOME);
+        if (interactive) {
+            printOutput("%s%n", ConsoleText.WELCOME);
+            worker = Executors.newSingleThreadExecutor(runnable -> daemon(runnable,
+                    "console-worker"));
+            reporter = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable,
+                    "console-progress"));
+            reporter.scheduleWithFixedDelay(this::reportProgress, PROGRESS_MILLIS,
+                    PROGRESS_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        synchronized (terminal) {
+            started = true;
+            for (String notice : notices) {
+                printOutput("%s%n", notice);
+            }
+            notices.clear();
+        }
+        CommandLine words = new CommandLine();
+        String line = nextLine();
+        while (line != null) {
+            words.reset(line);
+            ConsoleText ct = ConsoleText.fromString(words.next());
+            if (ct == ConsoleText.CMD_EXIT) {
+                break;
+            }
+            if (ct == ConsoleText.CMD_CANCEL) {
+                cancelCommands();
+            } else if (interactive) {
+                submit(line);
+            } else {
+                runCommand(line);
+            }
+            line = nextLine();
+        }
+
+        if (interactive) {
+            cancelCommands(false);
+            worker.shutdown();
+            reporter.shutdownNow();
+            try {
+                worker.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            printNow("%s%n", ConsoleText.GOODBYE);
+        }
+        terminal.flush();
+    }
+
+    /**
+     * Runs a command line: processes its command, then calls the command listener.
+     * 
+     * @param line the command line.
+     */
+    private void runCommand(String line) {
+        current.reset(line);
         ConsoleText ct = nextCommand();
-        while (ct != ConsoleText.CMD_EXIT) {
-            switch (ct) {
-                case CMD_QUESTION: // same as help
-                case CMD_HELP:
-                    processHelp();
-                    break;
-                case CMD_FILTER:
-                    processFilter();
-                    break;
-                case CMD_LIST:
-                    processListCommands();
-                    break;
-                case CMD_EASTER_EGG:
-                    randomNumber();
-                    break;
-                case INVALID:
-                default:
-                    printOutput("%s%n", ConsoleText.INVALID);
+        switch (ct) {
+            case CMD_QUESTION: // same as help
+            case CMD_HELP:
+                processHelp();
+                break;
+            case CMD_FILTER:
+                processFilter();
+                break;
+            case CMD_LIST:
+                processListCommands();
+                break;
+            case CMD_RANDOM:
+                processRandom();
+                break;
+            case CMD_COUNT:
+            case CMD_MIN:
+            case CMD_MAX:
+            case CMD_AVG:
+                processAggregate(ct);
+                break;
+            case CMD_FACETS:
+                processFacets();
+                break;
+            case CMD_MORE:
+                processMore();
+                break;
+            case INVALID:
+            default:
+                printOutput("%s%n", ConsoleText.INVALID);
+        }
+
+        // drop whatever the command left of the line.
+        current.clear();
+        commandListener.run();
+    }
+
+    /**
+     * Runs a command on the worker, waiting a moment for it before showing the prompt again.
+     * 
+     * @param line the command line.
+     */
+    private void submit(String line) {
+        Task task = new Task(new QueryContext(line));
+        tasks.add(task);
+        Future<?> future = worker.submit(() -> runTask(task));
+        try {
+            future.get(FOREGROUND_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (task.finished.compareAndSet(false, true)) { // the worker will print the prompt
+                printNow("%s%n", ConsoleText.RUNNING);
             }
+        } catch (ExecutionException e) {
+            printNow("%s %s%n", ConsoleText.INVALID, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
-            // clean up scanner.
-            current.close();
-            current = null;
-            // get the next prompt
-            ct = nextCommand();
+    /**
+     * Runs a command on the worker thread in its query context, then writes its output.
+     * 
+     * The output is buffered and written in one go, so it is never mixed with the prompt. If the
+     * prompt stopped waiting for the command, the prompt is shown again after the output.
+     * 
+     * @param task the command.
+     */
+    private void runTask(Task task) {
+        StringWriter buffer = new StringWriter();
+        out = new PrintWriter(buffer);
+        try {
+            task.context.run(() -> {
+                runCommand(task.context.getQuery());
+                return null;
+            });
+        } catch (QueryCancelledException e) {
+            current.clear();
+            printOutput("%s %s%n", ConsoleText.CANCELLED, task.context.getQuery());
+        } catch (RuntimeException e) {
+            current.clear();
+            printOutput("%s %s%n", ConsoleText.INVALID, e.getMessage());
+        } finally {
+            tasks.remove(task);
+            out.flush();
+            synchronized (terminal) {
+                boolean background = !task.finished.compareAndSet(false, true);
+                terminal.write(buffer.toString());
+                if (background) {
+                    terminal.printf("%s", ConsoleText.PROMPT);
+                }
+                terminal.flush();
+            }
+        }
+    }
+
+    /**
+     * Process the cancel command, cancelling the running and queued commands.
+     */
+    private void cancelCommands() {
+        printNow("%s%n", cancelCommands(true) ? ConsoleText.CANCELLING
+                : ConsoleText.NOTHING_TO_CANCEL);
+    }
+
+    /**
+     * Cancels the running and queued commands.
+     * 
+     * @param all true to cancel every command, false to let saves finish.
+     * @return true if any command was cancelled.
+     */
+    private boolean cancelCommands(boolean all) {
+        boolean any = false;
+        for (Task task : tasks) {
+            String command = task.context.getQuery().trim();
+            if (!task.context.isCancelled() && (all || !command.startsWith(
+                    ConsoleText.CMD_LIST + " " + ConsoleText.CMD_SAVE))) {
+                task.context.cancel();
+                any = true;
+            }
+        }
+        return any;
+    }
+
+    /**
+     * Reports the progress of the command running in the background, if any.
+     */
+    private void reportProgress() {
+        Task task = tasks.peek();
+        if (task == null || !task.finished.get() || task.context.getElapsedMillis() == 0) {
+            return; // nothing running, or the prompt is still waiting for it
+        }
+        QueryContext context = task.context;
+        printNow(ConsoleText.PROGRESS + "%n", context.getQuery(), context.getDone(),
+                context.getTotal(), context.getElapsedMillis() / 1000);
+    }
+
+    /**
+     * Makes a daemon thread, so a command left running never keeps the program alive.
+     * 
+     * @param runnable what the thread runs.
+     * @param name the name of the thread.
+     * @return the thread.
+     */
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Process the random command, showing random games from the current filter.
+     *
+     * {@code random [count] [uniform|rating|rank]} picks one game by default, every game
+     * equally likely unless weighted by rating or by rank.
+     */
+    private void processRandom() {
+        int count = 1;
+        RandomPicker.Weight weight = RandomPicker.Weight.UNIFORM;
+        try {
+            while (current.hasNext()) {
+                String option = current.next();
+                if (NUMBER.matcher(option).matches()) {
+                    count = Integer.parseInt(option);
+                } else {
+                    weight = RandomPicker.Weight.fromString(option);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            printOutput("%s%n", ConsoleText.INVALID);
+            return;
+        }
+        List<BoardGame> picks = planner.pick(count, weight, RND);
+        if (picks.isEmpty()) {
+            printOutput("%s%n", ConsoleText.NO_PICKS);
+            return;
         }
+        startPages(picks.stream(), weight.getColumn());
+    }
 
-        printOutput("%s%n", ConsoleText.GOODBYE);
+    /**
+     * Process an aggregate command over the current filter results.
+     *
+     * {@code count [by col]} or {@code min|max|avg col [by col]}, computed by the planner without
+     * listing the games.
+     *
+     * @param ct the aggregate command.
+     */
+    private void processAggregate(ConsoleText ct) {
+        Aggregate query;
+        try {
+            query = Aggregate.parse(ct + " " + remainder().toLowerCase());
+        } catch (IllegalArgumentException e) {
+            printOutput("%s %s%n", ConsoleText.INVALID, e.getMessage());
+            return;
+        }
+        printOutput("%s%n", planner.aggregate(query));
     }
 
     /**
-     * Generate a random number based on the current filter.
+     * Process the facets command, counting the current filter results per bucket of each facet.
+     *
+     * {@code facets [players|weight|playtime|decade ...]} counts every facet by default.
      */
-    private void randomNumber() {
-        int max = (int) planner.filter("").count();
-        if (max > 0) {
-            int random = RND.nextInt(max) + 1; // random is 0-(max-1) so add 1.
-            printOutput("%s %d%n", ConsoleText.EASTER_EGG, random);
+    private void processFacets() {
+        List<Facet> facets = new ArrayList<>();
+        try {
+            while (current.hasNext()) {
+                facets.add(Facet.fromString(current.next()));
+            }
+        } catch (IllegalArgumentException e) {
+            printOutput("%s %s%n", ConsoleText.INVALID, e.getMessage());
+            return;
         }
-        // else do nothing, not a secret easter egg if filter is empty.
+        printOutput("%s%n", planner.facets(facets.isEmpty() ? List.of(Facet.values()) : facets));
     }
 
     /**
@@ -120,7 +477,7 @@ public class ConsoleApp {
 
         if (current.hasNext()) {
             String filter = remainder();
-            filter = filter.replaceAll("\\s", ""); // remove spaces
+            filter = WHITESPACE.matcher(filter).replaceAll(""); // remove spaces
             filter = filter.toLowerCase(); // make it lower case
             if (filter.equalsIgnoreCase(ConsoleText.CMD_QUESTION.toString())) {
                 printOutput("%s%n", ConsoleText.FILTER_HELP);
@@ -132,60 +489,197 @@ public class ConsoleApp {
                 printOutput("%s%n", ConsoleText.FILTERED_CLEAR);
                 return; // leave early.
             }
+            boolean undo = filter.equalsIgnoreCase(ConsoleText.CMD_UNDO.toString());
+            if (undo || filter.equalsIgnoreCase(ConsoleText.CMD_REDO.toString())) {
+                String changed = undo ? planner.undo() : planner.redo();
+                if (changed == null) {
+                    printOutput("%s%n", undo ? ConsoleText.NOTHING_TO_UNDO
+                            : ConsoleText.NOTHING_TO_REDO);
+                    return; // leave early, nothing changed.
+                }
+                printOutput("%s %s%n", undo ? ConsoleText.FILTER_UNDONE : ConsoleText.FILTER_REDONE,
+                        changed);
+                startPages(planner.filter(""), sortON);
+                return; // leave early, the results are shown.
+            }
+            boolean explain = false;
+            if (filter.startsWith(ConsoleText.CMD_EXPLAIN.toString())) {
+                explain = true;
+                filter = filter.substring(ConsoleText.CMD_EXPLAIN.toString().length());
+            }
             if (filter.contains(ConsoleText.CMD_SORT_OPTION.toString())) {
                 // break it up, figure out sort
-                boolean ascending = true; // default
                 String[] parts = filter.split(ConsoleText.CMD_SORT_OPTION.toString());
+                List<SortKey> keys = List.of(new SortKey(sortON, true));
                 if (parts.length == 2) {
-                    String sort = parts[1];
-                    if (sort.contains(ConsoleText.CMD_SORT_OPTION_DIRECTION_ASC.toString())) {
-                        ascending = true;
-                        sort = sort.substring(0,
-                                sort.indexOf(ConsoleText.CMD_SORT_OPTION_DIRECTION_ASC.toString()));
-                    } else if (sort
-                            .contains(ConsoleText.CMD_SORT_OPTION_DIRECTION_DESC.toString())) {
-                        ascending = false;
-                        sort = sort.substring(0, sort
-                                .indexOf(ConsoleText.CMD_SORT_OPTION_DIRECTION_DESC.toString()));
-                    }
                     try {
-                        sortON = GameData.fromString(sort);
+                        keys = SortKey.parse(parts[1]);
                     } catch (IllegalArgumentException e) {
                         printOutput("%s%n", ConsoleText.INVALID);
                         return; // leave early.
                     }
+                    sortON = keys.get(0).getColumn();
                 }
 
-                result = planner.filter(parts[0], sortON, ascending);  // NOTICE: sortON and ascending are used here.
+                if (explain) {
+                    printExplain(parts[0], sortON, keys.get(0).isAscending());
+                    return; // leave early, nothing to list.
+                }
+                try {
+                    result = planner.filter(parts[0], keys);  // NOTICE: the sort keys are used here.
+                } catch (FilterParseException e) {
+                    printParseError(e);
+                    return; // leave early.
+                }
+            } else if (explain) {
+                printExplain(filter, sortON, true);
+                return; // leave early, nothing to list.
             } else {
-                result = planner.filter(filter); // default sort
+                try {
+                    result = planner.filter(filter); // default sort
+                } catch (FilterParseException e) {
+                    printParseError(e);
+                    return; // leave early.
+                }
             }
         } else {
             printOutput("%s%n", ConsoleText.NO_FILTER);
             result = planner.filter("");
         }
-        printFilterStream(result, sortON);
+        QueryUsage usage = planner.getLastUsage();
+        if (usage != null && usage.isTruncated()) {
+            printOutput("%s %s%n", ConsoleText.TRUNCATED, usage);
+        }
+        startPages(result, sortON);
     }
 
     /**
-     * Print the filtered stream of games.
-     * 
-     * @param games  the stream of games to print.
+     * Print how the planner executes a filter.
+     *
+     * @param filter    the filter to explain.
+     * @param sortON    the column to sort on.
+     * @param ascending whether to sort ascending.
+     */
+    private void printExplain(String filter, GameData sortON, boolean ascending) {
+        try {
+            printOutput("%s%n", planner.explain(filter, sortON, ascending));
+        } catch (FilterParseException e) {
+            printParseError(e);
+        } catch (IllegalArgumentException e) {
+            printOutput("%s %s%n", ConsoleText.INVALID, e.getMessage());
+        }
+    }
+
+    /**
+     * Print a filter that failed to parse, pointing at where it went wrong.
+     *
+     * @param e the parse error.
+     */
+    private void printParseError(FilterParseException e) {
+        printOutput("%s %s%n%s%n", ConsoleText.INVALID, e.getMessage(), e.pointer());
+    }
+
+    /**
+     * Starts showing the games of a filter, one page at a time.
+     *
+     * The stream is consumed lazily, so only the games on a page are formatted before the
+     * page is shown, however many games matched.
+     *
+     * @param games  the stream of games to show.
      * @param sortON also is the column used for 'extra info' based on the sort
      *               type.
      */
-    private static void printFilterStream(Stream<BoardGame> games, GameData sortON) {
-        int counter = 1;
-        List<BoardGame> gameList = games != null ? games.toList() : Collections.emptyList();
-        for (BoardGame game : gameList) {
-            printOutput("%d: %s%n", counter++, game.toStringWithInfo(sortON));
+    private void startPages(Stream<BoardGame> games, GameData sortON) {
+        page = games.iterator();
+        pageRow = 0;
+        pageSort = sortON;
+        printPage(interactive ? PAGE_SIZE : Integer.MAX_VALUE);
+    }
+
+    /**
+     * Process the more command, showing the next page of the last filter.
+     *
+     * {@code more all} shows every remaining game.
+     */
+    private void processMore() {
+        if (page == null) {
+            printOutput("%s%n", ConsoleText.NO_MORE);
+            return;
+        }
+        boolean all = remainder().equalsIgnoreCase(ConsoleText.CMD_OPTION_ALL.toString());
+        printPage(all ? Integer.MAX_VALUE : PAGE_SIZE);
+    }
+
+    /**
+     * Print the next games of the last filter.
+     *
+     * @param size the most games to print.
+     */
+    private void printPage(int size) {
+        for (int shown = 0; shown < size && page.hasNext(); shown++) {
+            switch (format) {
+                case TSV -> renderer.appendTsv(page.next());
+                case JSON -> renderer.appendJson(page.next());
+                default -> renderer.appendRow(++pageRow, page.next(), pageSort);
+            }
+        }
+        renderer.writeTo(out);
+        if (page.hasNext()) {
+            printOutput("%s%n", ConsoleText.MORE_RESULTS);
+        } else {
+            page = null; // let the results go
+        }
+    }
+
+    /**
+     * Handles a list add or remove that did not match, by trying the closest game name.
+     *
+     * If one name is clearly closest it is used, otherwise the close names are suggested. Only
+     * names the operation can use are suggested; if the closest name is not one of them, the
+     * user is told rather than given a farther name. Numbers, ranges and all are never treated
+     * as misspelled names.
+     *
+     * @param input   the name or selector as typed.
+     * @param matches the closest names to the input.
+     * @param usable  which names the operation can use, such as those in the current results.
+     * @param action  the list operation to retry with a name.
+     */
+    private void retryClosestName(String input, List<NameIndex.Match> matches,
+                                  Predicate<String> usable, Consumer<String> action) {
+        boolean selector = SELECTOR.matcher(input).matches()
+                || input.equalsIgnoreCase(ConsoleText.CMD_OPTION_ALL.toString());
+        if (selector || matches.isEmpty()) {
+            printOutput("%s %s%n", ConsoleText.INVALID_LIST, input);
+            return;
+        }
+        if (!usable.test(matches.get(0).getName())) {
+            printOutput("%s %s%n", ConsoleText.INVALID_LIST, input);
+            printOutput("%s %s%n", ConsoleText.FILTERED_OUT, matches.get(0).getName());
+            return;
+        }
+        matches = matches.stream().filter(match -> usable.test(match.getName())).toList();
+        if (NameIndex.isUnique(matches)) {
+            String name = matches.get(0).getName();
+            try {
+                action.accept(name);
+                printOutput("%s %s%n", ConsoleText.CLOSEST_MATCH, name);
+            } catch (IllegalArgumentException e) {
+                printOutput("%s %s%n", ConsoleText.INVALID_LIST, input);
+            }
+        } else {
+            printOutput("%s %s%n", ConsoleText.INVALID_LIST, input);
+            printOutput("%s %s%n", ConsoleText.SUGGESTIONS, matches.stream()
+                    .map(NameIndex.Match::getName).collect(Collectors.joining(", ")));
         }
     }
 
     /**
      * Process the list commands.
+     * 
+     * The list may be restored with the catalog in the background, so they wait for the planner.
      */
     private void processListCommands() {
+        planner.awaitReady();
         ConsoleText ct = ConsoleText.INVALID;
         if (current.hasNext()) {
             ct = nextCommand();
@@ -205,7 +699,14 @@ public class ConsoleApp {
                     try {
                         gameList.addToList(toAdd, planner.filter(""));
                     } catch (IllegalArgumentException e) {
-                        printOutput("%s %s%n", ConsoleText.INVALID_LIST, toAdd);
+                        // names come from the whole catalog, games are only added from the results
+                        List<BoardGame> results = planner.filter("").toList();
+                        Set<String> inResults = results.stream().map(BoardGame::getName)
+                                .collect(Collectors.toSet());
+                        retryClosestName(toAdd,
+                                planner.suggestNames(toAdd, NameIndex.DEFAULT_SUGGESTIONS),
+                                inResults::contains,
+                                name -> gameList.addToList(name, results.stream()));
                     }
                     break;
                 case CMD_REMOVE:
@@ -216,7 +717,9 @@ public class ConsoleApp {
                     try {
                         gameList.removeFromList(remove);
                     } catch (IllegalArgumentException e) {
-                        printOutput("%s %s%n", ConsoleText.INVALID_LIST, remove);
+                        retryClosestName(remove,
+                                gameList.suggestNames(remove, NameIndex.DEFAULT_SUGGESTIONS),
+                                name -> true, gameList::removeFromList);
                     }
                     break;
                 case CMD_SAVE:
@@ -247,7 +750,12 @@ public class ConsoleApp {
         if (gameList.count() > 0) {
             int counter = 1;
             for (String game : gameList.getGameNames()) {
-                printOutput("%d: %s%n", counter++, game);
+                switch (format) {
+                    case TSV -> out.printf("%s%n", game);
+                    case JSON -> renderer.appendJsonField(GameData.NAME.getColumnName(), game)
+                            .writeTo(out);
+                    default -> printOutput("%d: %s%n", counter++, game);
+                }
             }
         } else {
             printOutput("%s%n", ConsoleText.NO_GAMES_LIST);
@@ -256,15 +764,26 @@ public class ConsoleApp {
     }
 
     /**
-     * Get the next command from the user.
+     * Get the next line with a command from the user.
+     * 
+     * Blank lines are skipped.
+     * 
+     * @return the line, or null at the end of the input.
+     */
+    private String nextLine() {
+        String line;
+        do {
+            line = getInput("%s", ConsoleText.PROMPT);
+        } while (line != null && line.isBlank());
+        return line;
+    }
+
+    /**
+     * Get the next word of the current line as a command.
      * 
-     * @return the next command.
+     * @return the command, INVALID if it is not one.
      */
     private ConsoleText nextCommand() {
-        if (current == null || !current.hasNext()) {
-            String line = getInput("%s", ConsoleText.PROMPT);
-            current = new Scanner(line.trim()); // now split up the line
-        }
         return ConsoleText.fromString(current.next()); // get the command
     }
 
@@ -274,26 +793,31 @@ public class ConsoleApp {
      * @return the remainder of the current line.
      */
     private String remainder() {
-        return current != null && current.hasNext() ? current.nextLine().trim() : "";
+        return current.remainder();
     }
 
     /** 
      * Gets input from the client.
      * 
-     * @param format the format string to print.
+     * The prompt is only shown when interactive; in batch mode the output keeps buffering.
+     * 
+     * @param prompt the format string to print.
      * @param args   the arguments to the format string.
      * 
-     * @return the input from the client as a string, one line at a time.
+     * @return the input from the client as a string, one line at a time, or null at the end.
      */
-    private static String getInput(String format, Object... args) {
-        System.out.printf(format, args);
-        if (IN == null) {
-            return "";
+    private String getInput(String prompt, Object... args) {
+        if (interactive) {
+            synchronized (terminal) {
+                terminal.printf(prompt, args);
+                terminal.flush();
+            }
         }
-        if (!IN.hasNextLine()) {
-            return "";
+        try {
+            return in.readLine();
+        } catch (IOException e) {
+            return null; // nothing more can be read
         }
-        return IN.nextLine();
     }
 
 
@@ -303,12 +827,157 @@ public class ConsoleApp {
      * We could call printf directly, but this gives us one location in case
      * we want to change the output to a file or other location.
      * 
+     * Output is buffered, it reaches the terminal when the next prompt is shown.
+     * 
+     * For TSV and JSON output, messages are kept apart from the games: each line becomes a
+     * {@code #} comment in TSV, and the message a {@code {"message": ...}} object in JSON.
+     * 
+     * @param text   the format string to print.
+     * @param output the output to print (array to match the format).
+     */
+    private void printOutput(String text, Object... output) {
+        if (format == OutputFormat.TEXT) {
+            out.printf(text, output);
+            return;
+        }
+        String message = String.format(text, output).strip();
+        if (format == OutputFormat.JSON) {
+            renderer.appendJsonField("message", message).writeTo(out);
+            return;
+        }
+        for (String line : message.split("\\R")) {
+            out.printf("# %s%n", line);
+        }
+    }
+
+    /**
+     * Prints output to the client from the input thread, while a command may be running.
+     * 
+     * When interactive the text goes straight to the terminal; in batch mode no command runs
+     * alongside, so it is the same as {@link #printOutput(String, Object...)}.
      * 
-     * @param format the format string to print.
+     * @param text   the format string to print.
      * @param output the output to print (array to match the format).
      */
-    private static void printOutput(String format, Object... output) {
-        System.out.printf(format, output);
+    private void printNow(String text, Object... output) {
+        if (!interactive) {
+            printOutput(text, output);
+            return;
+        }
+        synchronized (terminal) {
+            terminal.printf(text, output);
+            terminal.flush();
+        }
+    }
+
+    /**
+     * Shows a message from another thread, such as the end of a startup step running in the
+     * background, and shows the prompt again when interactive. A message that comes before the
+     * app started is shown after its welcome.
+     * 
+     * @param message the message.
+     */
+    public void notice(String message) {
+        synchronized (terminal) {
+            if (!started) {
+                notices.add(message);
+                return;
+            }
+            printNow("%s%n", message);
+            if (interactive) {
+                terminal.printf("%s", ConsoleText.PROMPT);
+                terminal.flush();
+            }
+        }
+    }
+
+    /**
+     * A command submitted to the worker.
+     */
+    private static final class Task {
+        /** The progress and cancellation of the command, and the command line. */
+        private final QueryContext context;
+        /**
+         * Set by whichever comes first: the worker finishing the command, or the prompt giving
+         * up waiting for it. The one that finds it set knows the other came first.
+         */
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        /**
+         * Constructs a task.
+         * 
+         * @param context the context of the command.
+         */
+        Task(QueryContext context) {
+            this.context = context;
+        }
+    }
+
+    /**
+     * The words of a command line, read one at a time.
+     * 
+     * Replaces a {@code Scanner} per line: it walks the line in place, so reading a command
+     * costs no regular expressions and nothing is allocated but the words themselves.
+     */
+    private static final class CommandLine {
+        /** The line, empty before the first. */
+        private String line = "";
+        /** The position of the next char to read. */
+        private int position;
+
+        /**
+         * Starts reading a new line.
+         * 
+         * @param text the line.
+         */
+        void reset(String text) {
+            line = text;
+            position = 0;
+        }
+
+        /**
+         * Drops the rest of the line.
+         */
+        void clear() {
+            reset("");
+        }
+
+        /**
+         * Checks if there is another word on the line.
+         * 
+         * @return true if a word is left.
+         */
+        boolean hasNext() {
+            while (position < line.length() && Character.isWhitespace(line.charAt(position))) {
+                position++;
+            }
+            return position < line.length();
+        }
+
+        /**
+         * Reads the next word.
+         * 
+         * @return the word, empty if none is left.
+         */
+        String next() {
+            hasNext(); // skip whitespace
+            int start = position;
+            while (position < line.length() && !Character.isWhitespace(line.charAt(position))) {
+                position++;
+            }
+            return line.substring(start, position);
+        }
+
+        /**
+         * Reads the rest of the line.
+         * 
+         * @return the rest, trimmed, empty if none is left.
+         */
+        String remainder() {
+            String rest = line.substring(position).trim();
+            position = line.length();
+            return rest;
+        }
     }
 
     /**
@@ -327,12 +996,22 @@ public class ConsoleApp {
     private enum ConsoleText {
         /** various commands and text. */
         WELCOME, HELP, INVALID, GOODBYE, PROMPT, NO_FILTER, NO_GAMES_LIST, FILTERED_CLEAR, LIST_HELP, FILTER_HELP,
+        /** undoing and redoing filters. */
+        FILTER_UNDONE, FILTER_REDONE, NOTHING_TO_UNDO, NOTHING_TO_REDO, CMD_UNDO, CMD_REDO,
         /** commands continued. */
-        INVALID_LIST, EASTER_EGG, CMD_EASTER_EGG,
+        INVALID_LIST, NO_PICKS, CMD_RANDOM, CLOSEST_MATCH, SUGGESTIONS, FILTERED_OUT,
+        /** aggregates of filter results. */
+        CMD_COUNT, CMD_MIN, CMD_MAX, CMD_AVG, CMD_FACETS,
+        /** commands running in the background. */
+        CMD_CANCEL, CANCELLED, CANCELLING, NOTHING_TO_CANCEL, RUNNING, PROGRESS,
+        /** results cut short by the query budget. */
+        TRUNCATED,
+        /** paging of filter results. */
+        MORE_RESULTS, NO_MORE, CMD_MORE,
         /** commands general. */
         CMD_EXIT, CMD_HELP, CMD_QUESTION, CMD_FILTER, CMD_LIST,
         /** commands specific to lists and filters. */
-        CMD_SHOW, CMD_ADD, CMD_REMOVE, CMD_CLEAR, CMD_SAVE,
+        CMD_SHOW, CMD_ADD, CMD_REMOVE, CMD_CLEAR, CMD_SAVE, CMD_EXPLAIN,
         /** more options on commands. */
         CMD_OPTION_ALL, CMD_SORT_OPTION, CMD_SORT_OPTION_DIRECTION_ASC, CMD_SORT_OPTION_DIRECTION_DESC;
 
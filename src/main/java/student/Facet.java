@@ -0,0 +1,175 @@
+package student;
+
+/**
+ * The facets of filter results: histograms of the games by player count, weight, play time and
+ * decade, to show how the results spread before filtering further.
+ *
+ * <p>Each facet reads one or two numeric columns of a game and counts it in its buckets. A game
+ * is counted in every player count it supports, so the player count buckets can add up to more
+ * than the games; the other facets count each game in one bucket.</p>
+ */
+public enum Facet {
+    /** Each number of players from 1 to 8 a game supports, 8 or more in the last bucket. */
+    PLAYERS("players", GameData.MIN_PLAYERS, GameData.MAX_PLAYERS,
+            "1", "2", "3", "4", "5", "6", "7", "8+"),
+    /** Difficulty in whole point bands, 4 to 5 in the last. */
+    WEIGHT("weight", GameData.DIFFICULTY, null, "0-1", "1-2", "2-3", "3-4", "4-5"),
+    /** Maximum play time in minutes. */
+    PLAYTIME("playtime", GameData.MAX_TIME, null,
+            "<=15", "16-30", "31-60", "61-120", "121-240", ">240"),
+    /** Decade published, those before 1950 together, as are the 2020s and later. */
+    DECADE("decade", GameData.YEAR, null, "<1950", "1950s", "1960s", "1970s", "1980s",
+            "1990s", "2000s", "2010s", "2020s+");
+
+    /** The longest maximum play time of each play time bucket but the last. */
+    private static final int[] PLAYTIME_LIMITS = {15, 30, 60, 120, 240};
+    /** The first decade with a bucket of its own. */
+    private static final int FIRST_DECADE = 1950;
+
+    /** The name of the facet, as typed. */
+    private final String title;
+    /** The column read. */
+    private final GameData column;
+    /** The second column read, the top of a range, or null. */
+    private final GameData upperColumn;
+    /** The label of each bucket. */
+    private final String[] labels;
+
+    /**
+     * Constructs a facet.
+     *
+     * @param title The name of the facet.
+     * @param column The column read.
+     * @param upperColumn The column of the top of a range, or null.
+     * @param labels The label of each bucket.
+     */
+    Facet(String title, GameData column, GameData upperColumn, String... labels) {
+        this.title = title;
+        this.column = column;
+        this.upperColumn = upperColumn;
+        this.labels = labels;
+    }
+
+    /**
+     * Gets the name of the facet.
+     *
+     * @return the name, such as players.
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Gets the column the facet reads.
+     *
+     * @return the column, the bottom of the range for a range facet.
+     */
+    public GameData getColumn() {
+        return column;
+    }
+
+    /**
+     * Gets the column of the top of the range the facet reads.
+     *
+     * @return the column, or null if the facet reads one value.
+     */
+    public GameData getUpperColumn() {
+        return upperColumn;
+    }
+
+    /**
+     * Gets the number of buckets.
+     *
+     * @return the bucket count.
+     */
+    public int buckets() {
+        return labels.length;
+    }
+
+    /**
+     * Gets the label of a bucket.
+     *
+     * @param bucket The bucket.
+     * @return the label, such as 1950s.
+     */
+    public String label(int bucket) {
+        return labels[bucket];
+    }
+
+    /**
+     * Counts a game.
+     *
+     * A range is counted as a step up at its bottom bucket and down after its top, so it costs
+     * the same however many buckets it covers; {@link #finish(int[])} turns the steps into
+     * counts.
+     *
+     * @param counts The counts being built, one more than the buckets.
+     * @param value The value of the column.
+     * @param upper The value of the upper column, ignored for facets of one value.
+     */
+    void add(int[] counts, double value, double upper) {
+        if (upperColumn != null) {
+            int low = Math.max(1, (int) value);
+            int high = Math.min((int) upper, labels.length);
+            if (low <= high) {
+                counts[low - 1]++;
+                counts[high]--;
+            }
+            return;
+        }
+        int bucket = switch (this) {
+            case WEIGHT -> (int) Math.max(0, Math.min(value, labels.length - 1));
+            case PLAYTIME -> playTimeBucket(value);
+            default -> value < FIRST_DECADE ? 0
+                    : (int) Math.min(1 + (value - FIRST_DECADE) / 10, labels.length - 1);
+        };
+        counts[bucket]++;
+    }
+
+    /**
+     * Turns the counts built by {@link #add(int[], double, double)} into the count per bucket.
+     *
+     * @param counts The counts, one more than the buckets.
+     * @return the count per bucket.
+     */
+    int[] finish(int[] counts) {
+        int[] buckets = new int[labels.length];
+        int running = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            running += counts[i];
+            buckets[i] = upperColumn != null ? running : counts[i];
+        }
+        return buckets;
+    }
+
+    /**
+     * Finds the play time bucket of a maximum play time.
+     *
+     * @param minutes The maximum play time.
+     * @return the bucket.
+     */
+    private static int playTimeBucket(double minutes) {
+        for (int i = 0; i < PLAYTIME_LIMITS.length; i++) {
+            if (minutes <= PLAYTIME_LIMITS[i]) {
+                return i;
+            }
+        }
+        return PLAYTIME_LIMITS.length;
+    }
+
+    /**
+     * Gets the facet named by a string.
+     *
+     * @param name The name, or the enum name, ignoring case.
+     * @return the facet.
+     * @throws IllegalArgumentException if no facet has the name.
+     */
+    public static Facet fromString(String name) {
+        for (Facet facet : values()) {
+            if (facet.title.equalsIgnoreCase(name) || facet.name().equalsIgnoreCase(name)) {
+                return facet;
+            }
+        }
+        throw new IllegalArgumentException("Unknown facet " + name);
+    }
+}
@@ -0,0 +1,186 @@
+package student;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.Stream;
+
+/**
+ * The facet histograms of a set of games, every facet counted in the same single pass.
+ *
+ * <p>Over a columnar catalog the pass walks the result bitmap and reads only the primitive
+ * columns the facets need, so no game is made and nothing is sorted; the same counts from
+ * filters would take a scan and a sort per bucket.</p>
+ */
+public final class FacetCounts {
+    /** The number of games counted. */
+    private final int total;
+    /** The count per bucket of each facet, in the order asked for. */
+    private final Map<Facet, int[]> counts;
+
+    /**
+     * Constructs the counts.
+     *
+     * @param total The number of games counted.
+     * @param counts The count per bucket of each facet.
+     */
+    private FacetCounts(int total, Map<Facet, int[]> counts) {
+        this.total = total;
+        this.counts = counts;
+    }
+
+    /**
+     * Counts the facets of some rows of a columnar catalog in one pass.
+     *
+     * @param facets The facets to count.
+     * @param rows The rows, not changed while counting.
+     * @param columns Gives the reader of a numeric column, a value per row.
+     * @return the counts.
+     * @throws QueryCancelledException if the query was cancelled.
+     */
+    static FacetCounts of(List<Facet> facets, BitSet rows,
+                          Function<GameData, IntToDoubleFunction> columns) {
+        int n = facets.size();
+        IntToDoubleFunction[] values = new IntToDoubleFunction[n];
+        IntToDoubleFunction[] uppers = new IntToDoubleFunction[n];
+        int[][] steps = new int[n][];
+        for (int i = 0; i < n; i++) {
+            Facet facet = facets.get(i);
+            values[i] = columns.apply(facet.getColumn());
+            uppers[i] = facet.getUpperColumn() == null ? row -> 0
+                    : columns.apply(facet.getUpperColumn());
+            steps[i] = new int[facet.buckets() + 1];
+        }
+        int total = 0;
+        QueryContext context = QueryContext.current();
+        context.startScan(rows.cardinality());
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            if ((++total & (QueryContext.CHECK_ROWS - 1)) == 0) {
+                context.progress(QueryContext.CHECK_ROWS);
+            }
+            for (int i = 0; i < n; i++) {
+                facets.get(i).add(steps[i], values[i].applyAsDouble(row),
+                        uppers[i].applyAsDouble(row));
+            }
+        }
+        context.progress(total & (QueryContext.CHECK_ROWS - 1));
+        return finish(facets, total, steps);
+    }
+
+    /**
+     * Counts the facets of a stream of games in one pass.
+     *
+     * @param facets The facets to count.
+     * @param games The games.
+     * @return the counts.
+     */
+    public static FacetCounts of(List<Facet> facets, Stream<BoardGame> games) {
+        int[][] steps = new int[facets.size()][];
+        for (int i = 0; i < steps.length; i++) {
+            steps[i] = new int[facets.get(i).buckets() + 1];
+        }
+        int[] total = new int[1];
+        games.forEach(game -> {
+            total[0]++;
+            for (int i = 0; i < steps.length; i++) {
+                Facet facet = facets.get(i);
+                facet.add(steps[i], game.getNumericValue(facet.getColumn()),
+                        facet.getUpperColumn() == null ? 0
+                                : game.getNumericValue(facet.getUpperColumn()));
+            }
+        });
+        return finish(facets, total[0], steps);
+    }
+
+    /**
+     * Turns the counts being built into the count per bucket.
+     *
+     * @param facets The facets.
+     * @param total The number of games counted.
+     * @param steps The counts being built, per facet.
+     * @return the counts.
+     */
+    private static FacetCounts finish(List<Facet> facets, int total, int[][] steps) {
+        Map<Facet, int[]> counts = new EnumMap<>(Facet.class);
+        for (int i = 0; i < steps.length; i++) {
+            counts.put(facets.get(i), facets.get(i).finish(steps[i]));
+        }
+        return new FacetCounts(total, counts);
+    }
+
+    /**
+     * Keeps the counts of some of the facets.
+     *
+     * @param facets The facets to keep, all counted here.
+     * @return the counts of those facets.
+     */
+    FacetCounts select(List<Facet> facets) {
+        Map<Facet, int[]> kept = new EnumMap<>(Facet.class);
+        for (Facet facet : facets) {
+            kept.put(facet, counts.get(facet));
+        }
+        return new FacetCounts(total, kept);
+    }
+
+    /**
+     * Gets the number of games counted.
+     *
+     * @return the number of games.
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Gets the facets counted.
+     *
+     * @return the facets, in declaration order.
+     */
+    public List<Facet> getFacets() {
+        return new ArrayList<>(counts.keySet());
+    }
+
+    /**
+     * Gets the count of a bucket of a facet.
+     *
+     * @param facet The facet.
+     * @param bucket The bucket.
+     * @return the number of games in the bucket.
+     * @throws IllegalArgumentException if the facet was not counted.
+     */
+    public int getCount(Facet facet, int bucket) {
+        int[] buckets = counts.get(facet);
+        if (buckets == null) {
+            throw new IllegalArgumentException("Facet " + facet.getTitle() + " was not counted.");
+        }
+        return buckets[bucket];
+    }
+
+    /**
+     * Renders the counts for the console, a line per facet, such as
+     * {@code players  1: 3  2: 10  ...}.
+     *
+     * @return the counts as text.
+     */
+    @Override
+    public String toString() {
+        int width = 0;
+        for (Facet facet : counts.keySet()) {
+            width = Math.max(width, facet.getTitle().length());
+        }
+        StringBuilder text = new StringBuilder().append(total).append(" games");
+        for (Map.Entry<Facet, int[]> entry : counts.entrySet()) {
+            Facet facet = entry.getKey();
+            text.append(System.lineSeparator()).append(facet.getTitle());
+            text.append(" ".repeat(width - facet.getTitle().length()));
+            for (int i = 0; i < facet.buckets(); i++) {
+                text.append("  ").append(facet.label(i)).append(": ").append(entry.getValue()[i]);
+            }
+        }
+        return text.toString();
+    }
+}
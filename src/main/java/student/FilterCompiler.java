@@ -0,0 +1,396 @@
+package student;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Compiles a filter expression into a hidden class with one specialized {@code test} method.
+ *
+ * <p>The generated method reads the {@code GameColumns} arrays directly and evaluates every
+ * condition inline, with AND, OR and NOT turned into branches. There are no predicate objects, no
+ * getter calls and no boxing, so the JIT sees one small monomorphic method per filter.</p>
+ *
+ * <p>Compiled filters are cached by their normalized text. The cache only holds them softly, and
+ * the hidden classes are defined without a strong link to their class loader, so under memory
+ * pressure both the instances and their classes can be collected and unloaded. A filter that
+ * comes back after that is simply compiled again.</p>
+ */
+public final class FilterCompiler {
+    /** Internal name of the generated classes; the JVM adds a unique suffix. */
+    private static final String CLASS_NAME = "student/GeneratedFilter";
+    /** Internal name of {@code GameColumns}. */
+    private static final String COLUMNS = "student/GameColumns";
+    /** Local variable slot of the columns argument. */
+    private static final int COLUMNS_SLOT = 1;
+    /** Local variable slot of the row argument. */
+    private static final int ROW_SLOT = 2;
+
+    /** Compiled filters by normalized filter text. */
+    private static final Map<String, CacheEntry> CACHE = new HashMap<>();
+    /** Cache entries whose filter has been collected. */
+    private static final ReferenceQueue<CompiledFilter> COLLECTED = new ReferenceQueue<>();
+
+    // Prevents instantiation of this utility class
+    private FilterCompiler() {
+        throw new UnsupportedOperationException("Utility class - do not instantiate");
+    }
+
+    /**
+     * Gets the compiled form of an expression, compiling it on first use.
+     *
+     * @param expression The expression, usually already optimized.
+     * @return the compiled filter.
+     */
+    public static synchronized CompiledFilter compile(FilterExpression expression) {
+        purge();
+        String key = expression.toString();
+        CacheEntry entry = CACHE.get(key);
+        CompiledFilter compiled = entry == null ? null : entry.get();
+        if (compiled == null) {
+            compiled = define(generate(expression));
+            CACHE.put(key, new CacheEntry(key, compiled, COLLECTED));
+        }
+        return compiled;
+    }
+
+    /**
+     * Gets the number of filters in the cache, including ones not yet purged after collection.
+     *
+     * @return the cache size.
+     */
+    public static synchronized int cacheSize() {
+        purge();
+        return CACHE.size();
+    }
+
+    /**
+     * Drops cache entries whose filters were collected.
+     */
+    private static void purge() {
+        CacheEntry entry;
+        while ((entry = (CacheEntry) COLLECTED.poll()) != null) {
+            CACHE.remove(entry.key, entry);
+        }
+    }
+
+    /**
+     * Defines a generated class as a hidden class and creates its instance.
+     *
+     * @param bytes The class file.
+     * @return the compiled filter.
+     */
+    private static CompiledFilter define(byte[] bytes) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+            return (CompiledFilter) lookup.findConstructor(lookup.lookupClass(),
+                    MethodType.methodType(void.class)).invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Could not define compiled filter", e);
+        }
+    }
+
+    /**
+     * Generates the class file for an expression.
+     *
+     * @param expression The expression.
+     * @return the class file bytes.
+     */
+    private static byte[] generate(FilterExpression expression) {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES);
+        cw.visit(Opcodes.V17, Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, CLASS_NAME, null,
+                "java/lang/Object", new String[] {"student/CompiledFilter"});
+
+        MethodVisitor init = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        init.visitCode();
+        init.visitVarInsn(Opcodes.ALOAD, 0);
+        init.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        init.visitInsn(Opcodes.RETURN);
+        init.visitMaxs(0, 0);
+        init.visitEnd();
+
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "test",
+                "(L" + COLUMNS + ";I)Z", null, null);
+        mv.visitCode();
+        Label rejected = new Label();
+        jumpIf(mv, expression, false, rejected);
+        mv.visitInsn(Opcodes.ICONST_1);
+        mv.visitInsn(Opcodes.IRETURN);
+        mv.visitLabel(rejected);
+        mv.visitInsn(Opcodes.ICONST_0);
+        mv.visitInsn(Opcodes.IRETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    /**
+     * Emits code that jumps to a label when the expression has the given result, and falls
+     * through otherwise.
+     *
+     * @param mv The method being generated.
+     * @param expression The expression.
+     * @param when The result that jumps.
+     * @param target The label to jump to.
+     */
+    private static void jumpIf(MethodVisitor mv, FilterExpression expression, boolean when,
+                               Label target) {
+        if (expression instanceof FilterExpression.Constant) {
+            if (((FilterExpression.Constant) expression).getValue() == when) {
+                mv.visitJumpInsn(Opcodes.GOTO, target);
+            }
+        } else if (expression instanceof FilterExpression.Not) {
+            jumpIf(mv, ((FilterExpression.Not) expression).getChild(), !when, target);
+        } else if (expression instanceof FilterExpression.And) {
+            jumpIfAny(mv, ((FilterExpression.And) expression).getChildren(), false, !when, target);
+        } else if (expression instanceof FilterExpression.Or) {
+            jumpIfAny(mv, ((FilterExpression.Or) expression).getChildren(), true, when, target);
+        } else if (expression instanceof FilterExpression.Condition) {
+            FilterCondition condition = ((FilterExpression.Condition) expression).getCondition();
+            if (condition.getColumn() == GameData.NAME) {
+                compareName(mv, condition.getOperation(), condition.getValue(), when, target);
+            } else {
+                compare(mv, condition.getColumn(), condition.getOperation(),
+                        Double.parseDouble(condition.getValue()), when, target);
+            }
+        } else {
+            ColumnRange range = ((FilterExpression.Range) expression).getRange();
+            Label skip = new Label();
+            // a range is the AND of its bounds and excluded points
+            Label failed = when ? skip : target;
+            if (range.getLower() != Double.NEGATIVE_INFINITY) {
+                compare(mv, range.getColumn(), range.isLowerInclusive()
+                        ? Operations.GREATER_THAN_EQUALS : Operations.GREATER_THAN,
+                        range.getLower(), false, failed);
+            }
+            if (range.getUpper() != Double.POSITIVE_INFINITY) {
+                compare(mv, range.getColumn(), range.isUpperInclusive()
+                        ? Operations.LESS_THAN_EQUALS : Operations.LESS_THAN,
+                        range.getUpper(), false, failed);
+            }
+            for (double point : range.getExcluded()) {
+                compare(mv, range.getColumn(), Operations.NOT_EQUALS, point, false, failed);
+            }
+            if (when) {
+                mv.visitJumpInsn(Opcodes.GOTO, target);
+            }
+            mv.visitLabel(skip);
+        }
+    }
+
+    /**
+     * Emits the children of an AND or an OR, stopping at the first child that decides it.
+     *
+     * An AND is decided by a false child and an OR by a true one. When the jump is for the
+     * decided result, every child jumps straight to the target; otherwise the children jump past
+     * the final jump, which is only reached when no child decided the node.
+     *
+     * @param mv The method being generated.
+     * @param children The children, in evaluation order.
+     * @param decisive The child result that decides the node: false for AND, true for OR.
+     * @param jumpOnDecisive True to jump when a child decides the node, false to jump when none do.
+     * @param target The label to jump to.
+     */
+    private static void jumpIfAny(MethodVisitor mv, List<FilterExpression> children,
+                                  boolean decisive, boolean jumpOnDecisive, Label target) {
+        if (jumpOnDecisive) {
+            for (FilterExpression child : children) {
+                jumpIf(mv, child, decisive, target);
+            }
+            return;
+        }
+        Label decided = new Label();
+        for (FilterExpression child : children) {
+            jumpIf(mv, child, decisive, decided);
+        }
+        mv.visitJumpInsn(Opcodes.GOTO, target);
+        mv.visitLabel(decided);
+    }
+
+    /**
+     * Emits a comparison of a numeric column with a constant.
+     *
+     * Whole number columns compare as ints when the constant is an int, otherwise the column is
+     * widened to double and compared the way Java compares doubles, NaN included.
+     *
+     * @param mv The method being generated.
+     * @param column The column.
+     * @param op The comparison.
+     * @param value The constant.
+     * @param when The comparison result that jumps.
+     * @param target The label to jump to.
+     */
+    private static void compare(MethodVisitor mv, GameData column, Operations op, double value,
+                                boolean when, Label target) {
+        boolean wholeNumber = ColumnRange.isWholeNumber(column);
+        loadColumn(mv, column);
+        if (wholeNumber && value == (int) value) {
+            mv.visitLdcInsn((int) value);
+            mv.visitJumpInsn(intJump(when ? op : negate(op)), target);
+            return;
+        }
+        if (wholeNumber) {
+            mv.visitInsn(Opcodes.I2D);
+        }
+        mv.visitLdcInsn(value);
+        boolean nanGreater = op == Operations.LESS_THAN || op == Operations.LESS_THAN_EQUALS;
+        mv.visitInsn(nanGreater ? Opcodes.DCMPG : Opcodes.DCMPL); // NaN must fail the comparison
+        mv.visitJumpInsn(zeroJump(when ? op : negate(op)), target);
+    }
+
+    /**
+     * Emits a comparison of the name column with a constant, matching {@code BoardGameFilter}.
+     *
+     * @param mv The method being generated.
+     * @param op The comparison.
+     * @param value The constant.
+     * @param when The comparison result that jumps.
+     * @param target The label to jump to.
+     */
+    private static void compareName(MethodVisitor mv, Operations op, String value, boolean when,
+                                    Label target) {
+        switch (op) {
+            case CONTAINS:
+                callName(mv, "containsIgnoreCase", value.toLowerCase(), "Z");
+                mv.visitJumpInsn(when ? Opcodes.IFNE : Opcodes.IFEQ, target);
+                break;
+            case EQUALS:
+            case NOT_EQUALS:
+                callName(mv, "equalsIgnoreCase", value, "Z");
+                mv.visitJumpInsn(when == (op == Operations.EQUALS) ? Opcodes.IFNE : Opcodes.IFEQ,
+                        target);
+                break;
+            default:
+                callName(mv, "compareIgnoreCase", value, "I");
+                mv.visitJumpInsn(zeroJump(when ? op : negate(op)), target);
+        }
+    }
+
+    /**
+     * Emits a call of a {@code NameArena} check on the name in the current row.
+     *
+     * @param mv The method being generated.
+     * @param method The check, taking the row and a string.
+     * @param value The string argument.
+     * @param returnType The descriptor of the check's return type.
+     */
+    private static void callName(MethodVisitor mv, String method, String value,
+                                 String returnType) {
+        mv.visitVarInsn(Opcodes.ALOAD, COLUMNS_SLOT);
+        mv.visitFieldInsn(Opcodes.GETFIELD, COLUMNS, "names", "Lstudent/NameArena;");
+        mv.visitVarInsn(Opcodes.ILOAD, ROW_SLOT);
+        mv.visitLdcInsn(value);
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "student/NameArena", method,
+                "(ILjava/lang/String;)" + returnType, false);
+    }
+
+    /**
+     * Emits a load of a numeric column in the current row.
+     *
+     * @param mv The method being generated.
+     * @param column The column.
+     */
+    private static void loadColumn(MethodVisitor mv, GameData column) {
+        String field = switch (column) {
+            case MIN_PLAYERS -> "minPlayers";
+            case MAX_PLAYERS -> "maxPlayers";
+            case MIN_TIME -> "minPlayTime";
+            case MAX_TIME -> "maxPlayTime";
+            case DIFFICULTY -> "difficulty";
+            case RANK -> "rank";
+            case RATING -> "rating";
+            case YEAR -> "yearPublished";
+            default -> throw new IllegalArgumentException("Not a numeric column: " + column);
+        };
+        boolean wholeNumber = ColumnRange.isWholeNumber(column);
+        mv.visitVarInsn(Opcodes.ALOAD, COLUMNS_SLOT);
+        mv.visitFieldInsn(Opcodes.GETFIELD, COLUMNS, field, wholeNumber ? "[I" : "[D");
+        mv.visitVarInsn(Opcodes.ILOAD, ROW_SLOT);
+        mv.visitInsn(wholeNumber ? Opcodes.IALOAD : Opcodes.DALOAD);
+    }
+
+    /**
+     * Gets the operation that holds exactly when another one does not.
+     *
+     * @param op The comparison.
+     * @return the negated comparison.
+     */
+    private static Operations negate(Operations op) {
+        return switch (op) {
+            case EQUALS -> Operations.NOT_EQUALS;
+            case NOT_EQUALS -> Operations.EQUALS;
+            case GREATER_THAN -> Operations.LESS_THAN_EQUALS;
+            case GREATER_THAN_EQUALS -> Operations.LESS_THAN;
+            case LESS_THAN -> Operations.GREATER_THAN_EQUALS;
+            case LESS_THAN_EQUALS -> Operations.GREATER_THAN;
+            default -> throw new IllegalArgumentException("Unsupported operation: " + op);
+        };
+    }
+
+    /**
+     * Gets the jump comparing two ints.
+     *
+     * @param op The comparison that jumps.
+     * @return the opcode.
+     */
+    private static int intJump(Operations op) {
+        return switch (op) {
+            case EQUALS -> Opcodes.IF_ICMPEQ;
+            case NOT_EQUALS -> Opcodes.IF_ICMPNE;
+            case GREATER_THAN -> Opcodes.IF_ICMPGT;
+            case GREATER_THAN_EQUALS -> Opcodes.IF_ICMPGE;
+            case LESS_THAN -> Opcodes.IF_ICMPLT;
+            case LESS_THAN_EQUALS -> Opcodes.IF_ICMPLE;
+            default -> throw new IllegalArgumentException("Unsupported operation: " + op);
+        };
+    }
+
+    /**
+     * Gets the jump comparing a comparison result with zero.
+     *
+     * @param op The comparison that jumps.
+     * @return the opcode.
+     */
+    private static int zeroJump(Operations op) {
+        return switch (op) {
+            case EQUALS -> Opcodes.IFEQ;
+            case NOT_EQUALS -> Opcodes.IFNE;
+            case GREATER_THAN -> Opcodes.IFGT;
+            case GREATER_THAN_EQUALS -> Opcodes.IFGE;
+            case LESS_THAN -> Opcodes.IFLT;
+            case LESS_THAN_EQUALS -> Opcodes.IFLE;
+            default -> throw new IllegalArgumentException("Unsupported operation: " + op);
+        };
+    }
+
+    /**
+     * A softly held compiled filter that remembers its cache key.
+     */
+    private static final class CacheEntry extends SoftReference<CompiledFilter> {
+        /** The normalized filter text. */
+        private final String key;
+
+        /**
+         * Constructs a cache entry.
+         *
+         * @param key The normalized filter text.
+         * @param filter The compiled filter.
+         * @param queue The queue to enqueue the entry on once the filter is collected.
+         */
+        CacheEntry(String key, CompiledFilter filter, ReferenceQueue<CompiledFilter> queue) {
+            super(filter, queue);
+            this.key = key;
+        }
+    }
+}
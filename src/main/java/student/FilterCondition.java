@@ -0,0 +1,113 @@
+package student;
+
+import java.util.function.Predicate;
+
+/**
+ * A single parsed filter condition, such as {@code minPlayers>4}.
+ *
+ * <p>{@code FilterParser} produces these before they are turned into predicates, so the planner
+ * can inspect what it is about to run (column, operation and value) instead of only holding an
+ * opaque lambda.</p>
+ */
+public final class FilterCondition {
+    /** The column the condition applies to. */
+    private final GameData column;
+    /** The comparison operation. */
+    private final Operations op;
+    /** The value to compare against, as written in the filter. */
+    private final String value;
+
+    /**
+     * Constructs a filter condition.
+     *
+     * @param column The column the condition applies to.
+     * @param op The comparison operation.
+     * @param value The value to compare against.
+     */
+    public FilterCondition(GameData column, Operations op, String value) {
+        this.column = column;
+        this.op = op;
+        this.value = value;
+    }
+
+    /**
+     * Gets the column the condition applies to.
+     *
+     * @return the column.
+     */
+    public GameData getColumn() {
+        return column;
+    }
+
+    /**
+     * Gets the comparison operation.
+     *
+     * @return the operation.
+     */
+    public Operations getOperation() {
+        return op;
+    }
+
+    /**
+     * Gets the value to compare against.
+     *
+     * @return the value, as written in the filter.
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Builds the predicate that evaluates this condition.
+     *
+     * @return A predicate for {@code BoardGame} objects.
+     * @throws IllegalArgumentException if the value or operation is invalid for the column.
+     */
+    public Predicate<BoardGame> toPredicate() {
+        return switch (column) {
+            case NAME -> BoardGameFilter.byName(value, op);
+            case MIN_PLAYERS -> BoardGameFilter.byMinPlayers(Integer.parseInt(value), op);
+            case MAX_PLAYERS -> BoardGameFilter.byMaxPlayers(Integer.parseInt(value), op);
+            case MAX_TIME -> BoardGameFilter.byMaxPlayTime(Integer.parseInt(value), op);
+            case MIN_TIME -> BoardGameFilter.byMinPlayTime(Integer.parseInt(value), op);
+            case DIFFICULTY -> BoardGameFilter.byDifficulty(Double.parseDouble(value), op);
+            case RANK -> BoardGameFilter.byRank(Integer.parseInt(value), op);
+            case RATING -> BoardGameFilter.byRating(Double.parseDouble(value), op);
+            case YEAR -> BoardGameFilter.byYear(Integer.parseInt(value), op);
+            default -> throw new IllegalArgumentException("Unknown filter field: " + column);
+        };
+    }
+
+    /**
+     * Gets the field name {@code FilterParser} accepts for a column.
+     *
+     * @param column The column.
+     * @return the lower case field name used in filter strings.
+     */
+    public static String fieldName(GameData column) {
+        return switch (column) {
+            case NAME -> "name";
+            case MIN_PLAYERS -> "minplayers";
+            case MAX_PLAYERS -> "maxplayers";
+            case MIN_TIME -> "minplaytime";
+            case MAX_TIME -> "maxplaytime";
+            case DIFFICULTY -> "difficulty";
+            case RANK -> "rank";
+            case RATING -> "rating";
+            case YEAR -> "yearpublished";
+            default -> column.getColumnName();
+        };
+    }
+
+    /**
+     * Gets the normalized form of the condition, such as {@code minplayers>4}.
+     *
+     * The normalized form can be passed back to {@code FilterParser}.
+     *
+     * @return the field name, operator and value with no spaces.
+     */
+    @Override
+    public String toString() {
+        return fieldName(column) + op.getOperator() + value;
+    }
+}
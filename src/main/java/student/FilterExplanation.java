@@ -0,0 +1,322 @@
+package student;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The {@code FilterExplanation} class describes how the {@code Planner} ran a filter.
+ *
+ * <p>It lists the normalized conditions in the order they were evaluated, the access path used to
+ * find candidate games, the estimated and actual number of rows each condition saw and kept, and
+ * the time spent filtering and sorting. {@link #toString()} renders it as a small table for the
+ * console.</p>
+ */
+public final class FilterExplanation {
+    /** The filter text that was explained. */
+    private final String filter;
+    /** The column the results were sorted on. */
+    private final GameData sortOn;
+    /** Whether the results were sorted in ascending order. */
+    private final boolean ascending;
+    /** How candidate games were found. */
+    private final String accessPath;
+    /** The number of games the filter started from. */
+    private final int totalRows;
+    /** The number of games that matched every condition. */
+    private final int rowsReturned;
+    /** One step per condition, in evaluation order. */
+    private final List<Step> steps;
+    /** Time spent running the filter, in nanoseconds. */
+    private final long filterNanos;
+    /** Time spent in {@code GameSorter}, in nanoseconds. */
+    private final long sortNanos;
+
+    /**
+     * Constructs an explanation.
+     *
+     * @param filter The filter text that was explained.
+     * @param sortOn The column the results were sorted on.
+     * @param ascending Whether the results were sorted in ascending order.
+     * @param accessPath How candidate games were found.
+     * @param totalRows The number of games the filter started from.
+     * @param rowsReturned The number of games that matched.
+     * @param steps One step per condition, in evaluation order.
+     * @param filterNanos Time spent running the filter.
+     * @param sortNanos Time spent sorting.
+     */
+    FilterExplanation(String filter, GameData sortOn, boolean ascending, String accessPath,
+                      int totalRows, int rowsReturned, List<Step> steps, long filterNanos,
+                      long sortNanos) {
+        this.filter = filter;
+        this.sortOn = sortOn;
+        this.ascending = ascending;
+        this.accessPath = accessPath;
+        this.totalRows = totalRows;
+        this.rowsReturned = rowsReturned;
+        this.steps = Collections.unmodifiableList(new ArrayList<>(steps));
+        this.filterNanos = filterNanos;
+        this.sortNanos = sortNanos;
+    }
+
+    /**
+     * Gets how candidate games were found.
+     *
+     * @return a description of the access path.
+     */
+    public String getAccessPath() {
+        return accessPath;
+    }
+
+    /**
+     * Gets the number of games the filter started from.
+     *
+     * @return the number of candidate games.
+     */
+    public int getTotalRows() {
+        return totalRows;
+    }
+
+    /**
+     * Gets the number of games that matched every condition.
+     *
+     * @return the number of matching games.
+     */
+    public int getRowsReturned() {
+        return rowsReturned;
+    }
+
+    /**
+     * Gets the conditions in evaluation order, with their row counts.
+     *
+     * @return an unmodifiable list of steps.
+     */
+    public List<Step> getSteps() {
+        return steps;
+    }
+
+    /**
+     * Gets the time spent running the filter, as the planner runs it outside explain.
+     *
+     * @return the filtering time in nanoseconds.
+     */
+    public long getFilterNanos() {
+        return filterNanos;
+    }
+
+    /**
+     * Gets the time spent sorting the matching games.
+     *
+     * @return the sorting time in nanoseconds.
+     */
+    public long getSortNanos() {
+        return sortNanos;
+    }
+
+    /**
+     * Adds up the explanations of a filter run over parts of a catalog at the same time.
+     *
+     * Parts with the same plan have their steps added together; when the statistics of the parts
+     * led to different plans, the steps of each part are listed on their own. The times are those
+     * of the slowest part.
+     *
+     * @param parts The explanation of each part, of the same filter and sort.
+     * @param partName What a part is called in the steps, such as shard.
+     * @param accessPath How the parts were run.
+     * @return the combined explanation.
+     */
+    static FilterExplanation combine(List<FilterExplanation> parts, String partName,
+                                     String accessPath) {
+        FilterExplanation first = parts.get(0);
+        int totalRows = 0;
+        int rowsReturned = 0;
+        long filterNanos = 0;
+        long sortNanos = 0;
+        Set<List<String>> plans = new HashSet<>();
+        for (FilterExplanation part : parts) {
+            totalRows += part.totalRows;
+            rowsReturned += part.rowsReturned;
+            filterNanos = Math.max(filterNanos, part.filterNanos);
+            sortNanos = Math.max(sortNanos, part.sortNanos);
+            plans.add(part.steps.stream().map(Step::getCondition).toList());
+        }
+        List<Step> steps = new ArrayList<>();
+        if (plans.size() == 1) {
+            for (int i = 0; i < first.steps.size(); i++) {
+                long estimatedIn = 0;
+                long estimatedOut = 0;
+                long rowsIn = 0;
+                long rowsOut = 0;
+                for (FilterExplanation part : parts) {
+                    Step step = part.steps.get(i);
+                    estimatedIn += step.estimatedIn;
+                    estimatedOut += step.estimatedOut;
+                    rowsIn += step.rowsIn;
+                    rowsOut += step.rowsOut;
+                }
+                steps.add(new Step(i + 1, first.steps.get(i).condition, estimatedIn,
+                        estimatedOut, rowsIn, rowsOut));
+            }
+        } else {
+            for (int i = 0; i < parts.size(); i++) {
+                for (Step step : parts.get(i).steps) {
+                    steps.add(new Step(steps.size() + 1, partName + " " + (i + 1) + ": "
+                            + step.condition, step.estimatedIn, step.estimatedOut, step.rowsIn,
+                            step.rowsOut));
+                }
+            }
+        }
+        return new FilterExplanation(first.filter, first.sortOn, first.ascending, accessPath,
+                totalRows, rowsReturned, steps, filterNanos, sortNanos);
+    }
+
+    /**
+     * Gets the filter text that was explained.
+     *
+     * @return the filter.
+     */
+    public String getFilter() {
+        return filter;
+    }
+
+    /**
+     * Gets the column the results were sorted on.
+     *
+     * @return the sort column.
+     */
+    public GameData getSortOn() {
+        return sortOn;
+    }
+
+    /**
+     * Checks the sort direction.
+     *
+     * @return true if sorted in ascending order.
+     */
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    /**
+     * Renders the explanation as a table.
+     *
+     * @return the explanation, one line per condition.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("EXPLAIN %s sort:%s %s%n",
+                filter == null || filter.isBlank() ? "(no filter)" : filter,
+                sortOn.name().toLowerCase(), ascending ? "asc" : "desc"));
+        sb.append(String.format("Access path: %s%n", accessPath));
+        if (steps.isEmpty()) {
+            sb.append(String.format("No conditions, all %d games match.%n", totalRows));
+        } else {
+            sb.append(String.format("%3s  %-24s %10s %10s %10s %10s%n", "#", "predicate",
+                    "est. in", "est. out", "rows in", "rows out"));
+            for (Step step : steps) {
+                sb.append(String.format("%3d  %-24s %10d %10d %10d %10d%n", step.getOrder(),
+                        step.getCondition(), step.getEstimatedIn(), step.getEstimatedOut(),
+                        step.getRowsIn(), step.getRowsOut()));
+            }
+        }
+        sb.append(String.format("Rows returned: %d of %d%n", rowsReturned, totalRows));
+        sb.append(String.format("Filtering: %.3f ms, GameSorter (%s): %.3f ms", filterNanos / 1e6,
+                sortOn.name().toLowerCase(), sortNanos / 1e6));
+        return sb.toString();
+    }
+
+    /**
+     * One evaluated condition of an explained filter.
+     */
+    public static final class Step {
+        /** Position in evaluation order, starting at 1. */
+        private final int order;
+        /** The normalized condition. */
+        private final String condition;
+        /** Estimated number of rows reaching the condition. */
+        private final long estimatedIn;
+        /** Estimated number of rows passing the condition. */
+        private final long estimatedOut;
+        /** Actual number of rows reaching the condition. */
+        private final long rowsIn;
+        /** Actual number of rows passing the condition. */
+        private final long rowsOut;
+
+        /**
+         * Constructs a step.
+         *
+         * @param order Position in evaluation order, starting at 1.
+         * @param condition The normalized condition.
+         * @param estimatedIn Estimated number of rows reaching the condition.
+         * @param estimatedOut Estimated number of rows passing the condition.
+         * @param rowsIn Actual number of rows reaching the condition.
+         * @param rowsOut Actual number of rows passing the condition.
+         */
+        Step(int order, String condition, long estimatedIn, long estimatedOut, long rowsIn,
+             long rowsOut) {
+            this.order = order;
+            this.condition = condition;
+            this.estimatedIn = estimatedIn;
+            this.estimatedOut = estimatedOut;
+            this.rowsIn = rowsIn;
+            this.rowsOut = rowsOut;
+        }
+
+        /**
+         * Gets the position in evaluation order.
+         *
+         * @return the 1 based order.
+         */
+        public int getOrder() {
+            return order;
+        }
+
+        /**
+         * Gets the normalized condition.
+         *
+         * @return the condition text.
+         */
+        public String getCondition() {
+            return condition;
+        }
+
+        /**
+         * Gets the estimated number of rows reaching the condition.
+         *
+         * @return the estimated input rows.
+         */
+        public long getEstimatedIn() {
+            return estimatedIn;
+        }
+
+        /**
+         * Gets the estimated number of rows passing the condition.
+         *
+         * @return the estimated output rows.
+         */
+        public long getEstimatedOut() {
+            return estimatedOut;
+        }
+
+        /**
+         * Gets the actual number of rows reaching the condition.
+         *
+         * @return the actual input rows.
+         */
+        public long getRowsIn() {
+            return rowsIn;
+        }
+
+        /**
+         * Gets the actual number of rows passing the condition.
+         *
+         * @return the actual output rows.
+         */
+        public long getRowsOut() {
+            return rowsOut;
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package student;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A parsed filter, as a tree of conditions combined with AND, OR and NOT.
+ *
+ * <p>{@code FilterParser} builds the tree, the planner rewrites it (folding ranges, dropping
+ * conditions the statistics settle) and then evaluates it per game. AND and OR stop at the first
+ * child that decides the result.</p>
+ *
+ * <p>{@link #toString()} gives the normalized filter text, which {@code FilterParser} can parse
+ * back into the same tree.</p>
+ */
+public interface FilterExpression extends Predicate<BoardGame> {
+    /** Binding strength of OR, the loosest. */
+    int OR_PRECEDENCE = 1;
+    /** Binding strength of AND. */
+    int AND_PRECEDENCE = 2;
+    /** Binding strength of single conditions and NOT. */
+    int ATOM_PRECEDENCE = 3;
+
+    /**
+     * Checks if a game matches the expression.
+     *
+     * @param game The game to check.
+     * @return true if the game matches.
+     */
+    @Override
+    boolean test(BoardGame game);
+
+    /**
+     * Gets how tightly the expression binds, used to decide where parentheses go.
+     *
+     * @return one of the precedence constants.
+     */
+    int precedence();
+
+    /**
+     * Renders a child, adding parentheses when it binds looser than its parent.
+     *
+     * @param child The child expression.
+     * @param parentPrecedence The precedence of the parent.
+     * @return the child text.
+     */
+    static String wrap(FilterExpression child, int parentPrecedence) {
+        return child.precedence() < parentPrecedence ? "(" + child + ")" : child.toString();
+    }
+
+    /**
+     * An expression that is always true or always false.
+     */
+    final class Constant implements FilterExpression {
+        /** Matches every game. */
+        public static final Constant TRUE = new Constant(true, "no conditions");
+
+        /** The constant value. */
+        private final boolean value;
+        /** Why the expression is constant. */
+        private final String reason;
+
+        /**
+         * Constructs a constant.
+         *
+         * @param value The constant value.
+         * @param reason Why the expression is constant.
+         */
+        public Constant(boolean value, String reason) {
+            this.value = value;
+            this.reason = reason;
+        }
+
+        /**
+         * Gets the constant value.
+         *
+         * @return true if every game matches, false if none do.
+         */
+        public boolean getValue() {
+            return value;
+        }
+
+        /**
+         * Gets why the expression is constant.
+         *
+         * @return the reason, for explain output.
+         */
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public boolean test(BoardGame game) {
+            return value;
+        }
+
+        @Override
+        public int precedence() {
+            return ATOM_PRECEDENCE;
+        }
+
+        @Override
+        public String toString() {
+            return value ? "true" : "false";
+        }
+    }
+
+    /**
+     * A single condition, such as {@code name~=pandemic}.
+     */
+    final class Condition implements FilterExpression {
+        /** The parsed condition. */
+        private final FilterCondition condition;
+        /** The predicate evaluating the condition. */
+        private final Predicate<BoardGame> predicate;
+
+        /**
+         * Constructs a condition node.
+         *
+         * @param condition The parsed condition.
+         * @throws IllegalArgumentException if the value or operation is invalid for the column.
+         */
+        public Condition(FilterCondition condition) {
+            this.condition = condition;
+            this.predicate = condition.toPredicate();
+        }
+
+        /**
+         * Gets the parsed condition.
+         *
+         * @return the condition.
+         */
+        public FilterCondition getCondition() {
+            return condition;
+        }
+
+        @Override
+        public boolean test(BoardGame game) {
+            return predicate.test(game);
+        }
+
+        @Override
+        public int precedence() {
+            return ATOM_PRECEDENCE;
+        }
+
+        @Override
+        public String toString() {
+            return condition.toString();
+        }
+    }
+
+    /**
+     * All conditions on one numeric column, folded into a single range check.
+     */
+    final class Range implements FilterExpression {
+        /** The folded range. */
+        private final ColumnRange range;
+        /** The predicate evaluating the range. */
+        private final Predicate<BoardGame> predicate;
+
+        /**
+         * Constructs a range node.
+         *
+         * @param range The folded range.
+         */
+        public Range(ColumnRange range) {
+            this.range = range;
+            this.predicate = range.toPredicate();
+        }
+
+        /**
+         * Gets the folded range.
+         *
+         * @return the range.
+         */
+        public ColumnRange getRange() {
+            return range;
+        }
+
+        @Override
+        public boolean test(BoardGame game) {
+            return predicate.test(game);
+        }
+
+        @Override
+        public int precedence() {
+            return range.toString().indexOf(',') >= 0 ? AND_PRECEDENCE : ATOM_PRECEDENCE;
+        }
+
+        @Override
+        public String toString() {
+            return range.toString();
+        }
+    }
+
+    /**
+     * Matches when every child matches, written with commas.
+     */
+    final class And implements FilterExpression {
+        /** The children, in evaluation order. */
+        private final FilterExpression[] children;
+
+        /**
+         * Constructs an AND node.
+         *
+         * @param children The children, in evaluation order.
+         */
+        public And(List<FilterExpression> children) {
+            this.children = children.toArray(new FilterExpression[0]);
+        }
+
+        /**
+         * Gets the children.
+         *
+         * @return an unmodifiable list of children, in evaluation order.
+         */
+        public List<FilterExpression> getChildren() {
+            return List.of(children);
+        }
+
+        @Override
+        public boolean test(BoardGame game) {
+            for (FilterExpression child : children) {
+                if (!child.test(game)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int precedence() {
+            return AND_PRECEDENCE;
+        }
+
+        @Override
+        public String toString() {
+            List<String> parts = new ArrayList<>();
+            for (FilterExpression child : children) {
+                parts.add(FilterExpression.wrap(child, AND_PRECEDENCE));
+            }
+            return String.join(",", parts);
+        }
+    }
+
+    /**
+     * Matches when any child matches, written with {@code |}.
+     */
+    final class Or implements FilterExpression {
+        /** The children, in evaluation order. */
+        private final FilterExpression[] children;
+
+        /**
+         * Constructs an OR node.
+         *
+         * @param children The children, in evaluation order.
+         */
+        public Or(List<FilterExpression> children) {
+            this.children = children.toArray(new FilterExpression[0]);
+        }
+
+        /**
+         * Gets the children.
+         *
+         * @return an unmodifiable list of children, in evaluation order.
+         */
+        public List<FilterExpression> getChildren() {
+            return List.of(children);
+        }
+
+        @Override
+        public boolean test(BoardGame game) {
+            for (FilterExpression child : children) {
+                if (child.test(game)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public int precedence() {
+            return OR_PRECEDENCE;
+        }
+
+        @Override
+        public String toString() {
+            List<String> parts = new ArrayList<>();
+            for (FilterExpression child : children) {
+                parts.add(FilterExpression.wrap(child, OR_PRECEDENCE));
+            }
+            return String.join("|", parts);
+        }
+    }
+
+    /**
+     * Matches when the child does not, written with {@code !}.
+     */
+    final class Not implements FilterExpression {
+        /** The negated expression. */
+        private final FilterExpression child;
+
+        /**
+         * Constructs a NOT node.
+         *
+         * @param child The negated expression.
+         */
+        public Not(FilterExpression child) {
+            this.child = child;
+        }
+
+        /**
+         * Gets the negated expression.
+         *
+         * @return the child.
+         */
+        public FilterExpression getChild() {
+            return child;
+        }
+
+        @Override
+        public boolean test(BoardGame game) {
+            return !child.test(game);
+        }
+
+        @Override
+        public int precedence() {
+            return ATOM_PRECEDENCE;
+        }
+
+        @Override
+        public String toString() {
+            return "!" + (child.precedence() < ATOM_PRECEDENCE ? "(" + child + ")" : child.toString());
+        }
+    }
+}
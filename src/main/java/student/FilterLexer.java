@@ -0,0 +1,232 @@
+package student;
+
+/**
+ * Single pass tokenizer for filter strings.
+ *
+ * <p>Walks the filter once, character by character, handing out tokens on demand to
+ * {@code FilterParser}. Operators are recognized by looking at most one character ahead, so there
+ * are no regular expressions and no repeated {@code contains} probes. The text after an operator
+ * is read as a raw value up to the next {@code ,}, {@code |} or closing parenthesis, so names can
+ * hold spaces and punctuation.</p>
+ */
+final class FilterLexer {
+    /**
+     * The kinds of tokens in a filter.
+     */
+    enum Type {
+        /** A field name, such as minPlayers. */
+        FIELD,
+        /** A comparison operator, such as >=. */
+        OPERATOR,
+        /** The value after an operator. */
+        VALUE,
+        /** , which means AND. */
+        AND,
+        /** | which means OR. */
+        OR,
+        /** ! which means NOT. */
+        NOT,
+        /** Opening parenthesis. */
+        OPEN,
+        /** Closing parenthesis. */
+        CLOSE,
+        /** End of the filter. */
+        END
+    }
+
+    /**
+     * A token and where it starts in the filter.
+     */
+    static final class Token {
+        /** The kind of token. */
+        private final Type type;
+        /** The token text, trimmed for values. */
+        private final String text;
+        /** The offset of the token in the filter. */
+        private final int position;
+
+        /**
+         * Constructs a token.
+         *
+         * @param type The kind of token.
+         * @param text The token text.
+         * @param position The offset of the token in the filter.
+         */
+        Token(Type type, String text, int position) {
+            this.type = type;
+            this.text = text;
+            this.position = position;
+        }
+
+        /**
+         * Gets the kind of token.
+         *
+         * @return the token type.
+         */
+        Type getType() {
+            return type;
+        }
+
+        /**
+         * Gets the token text.
+         *
+         * @return the text.
+         */
+        String getText() {
+            return text;
+        }
+
+        /**
+         * Gets the offset of the token in the filter.
+         *
+         * @return the 0 based position.
+         */
+        int getPosition() {
+            return position;
+        }
+    }
+
+    /** The filter being tokenized. */
+    private final String filter;
+    /** The next character to look at. */
+    private int pos;
+    /** Open parentheses not yet closed, a value stops at ) only inside a group. */
+    private int depth;
+    /** True when the previous token was an operator, so a value comes next. */
+    private boolean valueNext;
+    /** The token returned by {@link #peek()} but not yet consumed. */
+    private Token peeked;
+
+    /**
+     * Constructs a lexer over a filter.
+     *
+     * @param filter The filter to tokenize.
+     */
+    FilterLexer(String filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * Looks at the next token without consuming it.
+     *
+     * @return the next token.
+     */
+    Token peek() {
+        if (peeked == null) {
+            peeked = scan();
+        }
+        return peeked;
+    }
+
+    /**
+     * Consumes the next token.
+     *
+     * @return the next token.
+     */
+    Token next() {
+        Token token = peek();
+        peeked = null;
+        return token;
+    }
+
+    /**
+     * Reads the next token from the filter.
+     *
+     * @return the token starting at the current position.
+     * @throws FilterParseException on a character that cannot start a token.
+     */
+    private Token scan() {
+        if (valueNext) {
+            valueNext = false;
+            return scanValue();
+        }
+        while (pos < filter.length() && Character.isWhitespace(filter.charAt(pos))) {
+            pos++;
+        }
+        if (pos >= filter.length()) {
+            return new Token(Type.END, "", pos);
+        }
+        int start = pos;
+        char c = filter.charAt(pos);
+        char next = pos + 1 < filter.length() ? filter.charAt(pos + 1) : '\0';
+        switch (c) {
+            case ',':
+                pos++;
+                return new Token(Type.AND, ",", start);
+            case '|':
+                pos++;
+                return new Token(Type.OR, "|", start);
+            case '(':
+                pos++;
+                depth++;
+                return new Token(Type.OPEN, "(", start);
+            case ')':
+                pos++;
+                depth = Math.max(0, depth - 1);
+                return new Token(Type.CLOSE, ")", start);
+            case '!':
+                if (next == '=') {
+                    return operator(start, 2);
+                }
+                pos++;
+                return new Token(Type.NOT, "!", start);
+            case '>':
+            case '<':
+                return operator(start, next == '=' ? 2 : 1);
+            case '=':
+            case '~':
+                if (next == '=') {
+                    return operator(start, 2);
+                }
+                throw new FilterParseException("Unknown operator '" + c + "'", filter, start);
+            default:
+                if (Character.isLetterOrDigit(c) || c == '_') {
+                    while (pos < filter.length() && (Character.isLetterOrDigit(filter.charAt(pos))
+                            || filter.charAt(pos) == '_')) {
+                        pos++;
+                    }
+                    return new Token(Type.FIELD, filter.substring(start, pos), start);
+                }
+                throw new FilterParseException("Unexpected character '" + c + "'", filter, start);
+        }
+    }
+
+    /**
+     * Reads an operator of the given length.
+     *
+     * @param start The offset of the operator.
+     * @param length The number of characters in the operator.
+     * @return the operator token.
+     */
+    private Token operator(int start, int length) {
+        pos = start + length;
+        valueNext = true;
+        return new Token(Type.OPERATOR, filter.substring(start, pos), start);
+    }
+
+    /**
+     * Reads the raw value after an operator.
+     *
+     * @return the value token, trimmed of surrounding spaces.
+     * @throws FilterParseException if the value is missing.
+     */
+    private Token scanValue() {
+        int start = pos;
+        while (pos < filter.length()) {
+            char c = filter.charAt(pos);
+            if (c == ',' || c == '|' || (c == ')' && depth > 0)) {
+                break;
+            }
+            pos++;
+        }
+        String value = filter.substring(start, pos).trim();
+        if (value.isEmpty()) {
+            throw new FilterParseException("Missing value", filter, start);
+        }
+        int offset = start;
+        while (Character.isWhitespace(filter.charAt(offset))) {
+            offset++;
+        }
+        return new Token(Type.VALUE, value, offset);
+    }
+}
@@ -0,0 +1,49 @@
+package student;
+
+/**
+ * Thrown when a filter string cannot be parsed.
+ *
+ * <p>Carries the position (0 based character offset) in the filter where the problem was found,
+ * so the console can point at it. It is an {@code IllegalArgumentException}, so callers that
+ * already handle bad filters keep working.</p>
+ */
+public class FilterParseException extends IllegalArgumentException {
+    /** Serial version for the exception. */
+    private static final long serialVersionUID = 1L;
+
+    /** The character offset in the filter where parsing failed. */
+    private final int position;
+    /** The filter that failed to parse. */
+    private final String filter;
+
+    /**
+     * Constructs the exception.
+     *
+     * @param message What went wrong.
+     * @param filter The filter that failed to parse.
+     * @param position The character offset where parsing failed.
+     */
+    public FilterParseException(String message, String filter, int position) {
+        super(message + " at position " + position);
+        this.filter = filter;
+        this.position = position;
+    }
+
+    /**
+     * Gets the character offset where parsing failed.
+     *
+     * @return the 0 based position in the filter.
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Gets the filter with a caret line under the failing position.
+     *
+     * @return two lines, the filter and a {@code ^} under the problem.
+     */
+    public String pointer() {
+        return filter + System.lineSeparator() + " ".repeat(Math.max(0, position)) + "^";
+    }
+}
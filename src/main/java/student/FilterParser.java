@@ -7,81 +7,222 @@ import java.util.function.Predicate;
 /**
  * The {@code FilterParser} class converts filter strings into predicates
  * that can be applied to streams of {@code BoardGame} objects.
+ *
+ * <p>Filters are parsed by a recursive descent parser over tokens from {@code FilterLexer}, using
+ * this grammar (loosest binding first):</p>
+ * <pre>
+ *   expression := and ( '|' and )*
+ *   and        := unary ( ',' unary )*
+ *   unary      := '!' unary | '(' expression ')' | condition
+ *   condition  := field operator value
+ * </pre>
+ * <p>So {@code minPlayers>4,maxPlayers<6} is an AND as before, {@code rating>8|rank<10} is an OR,
+ * and {@code !(name~=catan)} negates a group. Errors report the position they were found at.</p>
  */
 public final class FilterParser {
     // Prevent instantiation of this utility class
     private FilterParser() {
         throw new UnsupportedOperationException("Utility class - do not instantiate");
     }
+
     /**
      * Parses a filter string and returns a list of predicates.
      *
+     * The top level conditions of the filter are returned separately, all of them must match.
+     *
      * @param filter The filter string to parse.
      * @return A list of predicates for filtering {@code BoardGame} objects.
      */
     public static List<Predicate<BoardGame>> parse(String filter) {
-        List<Predicate<BoardGame>> predicates = new ArrayList<>();
+        FilterExpression expression = parseExpression(filter);
+        if (expression instanceof FilterExpression.And) {
+            return new ArrayList<>(((FilterExpression.And) expression).getChildren());
+        }
+        return List.of(expression);
+    }
 
-        // Handle empty filter: return a predicate that allows all games
+    /**
+     * Parses a filter string into an expression tree.
+     *
+     * An empty filter matches every game.
+     *
+     * @param filter The filter string to parse.
+     * @return the expression, in the order written.
+     * @throws FilterParseException if the filter is not valid, with the position of the problem.
+     */
+    public static FilterExpression parseExpression(String filter) {
         if (filter == null || filter.trim().isEmpty()) {
-            return List.of(x -> true);
+            return FilterExpression.Constant.TRUE;
         }
 
-        // Split filter string into conditions
-        String[] conditions = filter.split(",");
-        for (String condition : conditions) {
-            condition = condition.trim();
+        PlannerEvents.FilterParse event = new PlannerEvents.FilterParse();
+        event.begin();
+        Parser parser = new Parser(filter);
+        FilterExpression expression = parser.parseOr();
+        FilterLexer.Token end = parser.lexer.next();
+        if (end.getType() != FilterLexer.Type.END) {
+            throw new FilterParseException("Unexpected '" + end.getText() + "'", filter,
+                    end.getPosition());
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.filter = filter;
+            event.conditions = parser.conditions;
+            event.commit();
+        }
+        return expression;
+    }
+
+    /**
+     * Maps a field name from a filter string to its column.
+     *
+     * @param field The field name as written in the filter.
+     * @return the matching column, or null if the field is unknown.
+     */
+    private static GameData toColumn(String field) {
+        //Normalize field names (remove underscores, make lowercase)
+        String normalizedField = field.replace("_", "").toLowerCase();
+        // Match field names exactly as they appear in BoardGame
+        return switch (normalizedField) {
+            case "name" -> GameData.NAME;
+            case "minplayers" -> GameData.MIN_PLAYERS;
+            case "maxplayers" -> GameData.MAX_PLAYERS;
+            case "maxplaytime" -> GameData.MAX_TIME;
+            case "minplaytime" -> GameData.MIN_TIME;
+            case "difficulty" -> GameData.DIFFICULTY;
+            case "rank" -> GameData.RANK;
+            case "rating" -> GameData.RATING;
+            case "yearpublished" -> GameData.YEAR;
+            default -> null;
+        };
+    }
+
+    /**
+     * Maps an operator token to its operation.
+     *
+     * @param operator The operator text.
+     * @return the operation.
+     */
+    private static Operations toOperation(String operator) {
+        return switch (operator) {
+            case "==" -> Operations.EQUALS;
+            case "!=" -> Operations.NOT_EQUALS;
+            case ">" -> Operations.GREATER_THAN;
+            case ">=" -> Operations.GREATER_THAN_EQUALS;
+            case "<" -> Operations.LESS_THAN;
+            case "<=" -> Operations.LESS_THAN_EQUALS;
+            default -> Operations.CONTAINS;
+        };
+    }
+
+    /**
+     * Recursive descent parser for one filter string.
+     */
+    private static final class Parser {
+        /** The filter being parsed. */
+        private final String filter;
+        /** The token source. */
+        private final FilterLexer lexer;
+        /** The number of conditions parsed so far. */
+        private int conditions;
 
-            // Find the operator
-            Operations op = Operations.getOperatorFromStr(condition);
-            if (op == null) {
-                throw new IllegalArgumentException("Invalid filter operation: " + condition);
+        /**
+         * Constructs a parser over a filter.
+         *
+         * @param filter The filter to parse.
+         */
+        Parser(String filter) {
+            this.filter = filter;
+            this.lexer = new FilterLexer(filter);
+        }
+
+        /**
+         * Parses ANDed terms separated by {@code |}.
+         *
+         * @return the expression.
+         */
+        FilterExpression parseOr() {
+            List<FilterExpression> terms = new ArrayList<>();
+            terms.add(parseAnd());
+            while (lexer.peek().getType() == FilterLexer.Type.OR) {
+                lexer.next();
+                terms.add(parseAnd());
             }
+            return terms.size() == 1 ? terms.get(0) : new FilterExpression.Or(terms);
+        }
 
-            // Split into field and value
-            String[] parts = condition.split(op.getOperator());
-            if (parts.length != 2) {
-                throw new IllegalArgumentException("Invalid filter format: " + condition);
+        /**
+         * Parses unary terms separated by commas.
+         *
+         * @return the expression.
+         */
+        FilterExpression parseAnd() {
+            List<FilterExpression> terms = new ArrayList<>();
+            terms.add(parseUnary());
+            while (lexer.peek().getType() == FilterLexer.Type.AND) {
+                lexer.next();
+                terms.add(parseUnary());
             }
+            return terms.size() == 1 ? terms.get(0) : new FilterExpression.And(terms);
+        }
 
-            String field = parts[0].trim();
-            String value = parts[1].trim();
-            //Normalize field names (remove underscores, make lowercase)
-            String normalizedField = field.replace("_", "").toLowerCase();
-            // Match field names exactly as they appear in BoardGame
-            switch (normalizedField) {
-                case "name":
-                    predicates.add(BoardGameFilter.byName(value, op));
-                    break;
-                case "minplayers":
-                    predicates.add(BoardGameFilter.byMinPlayers(Integer.parseInt(value), op));
-                    break;
-                case "maxplayers":
-                    predicates.add(BoardGameFilter.byMaxPlayers(Integer.parseInt(value), op));
-                    break;
-                case "maxplaytime":
-                    predicates.add(BoardGameFilter.byMaxPlayTime(Integer.parseInt(value), op));
-                    break;
-                case "minplaytime":
-                    predicates.add(BoardGameFilter.byMinPlayTime(Integer.parseInt(value), op));
-                    break;
-                case "difficulty":
-                    predicates.add(BoardGameFilter.byDifficulty(Double.parseDouble(value), op));
-                    break;
-                case "rank":
-                    predicates.add(BoardGameFilter.byRank(Integer.parseInt(value), op));
-                    break;
-                case "rating":
-                    predicates.add(BoardGameFilter.byRating(Double.parseDouble(value), op));
-                    break;
-                case "yearpublished":
-                    predicates.add(BoardGameFilter.byYear(Integer.parseInt(value), op));
-                    break;
+        /**
+         * Parses a negation, a parenthesized group or a single condition.
+         *
+         * @return the expression.
+         */
+        FilterExpression parseUnary() {
+            FilterLexer.Token token = lexer.next();
+            switch (token.getType()) {
+                case NOT:
+                    return new FilterExpression.Not(parseUnary());
+                case OPEN:
+                    FilterExpression inner = parseOr();
+                    FilterLexer.Token close = lexer.next();
+                    if (close.getType() != FilterLexer.Type.CLOSE) {
+                        throw new FilterParseException("Expected ')'", filter, close.getPosition());
+                    }
+                    return inner;
+                case FIELD:
+                    return parseCondition(token);
+                case END:
+                    throw new FilterParseException("Missing condition", filter, token.getPosition());
                 default:
-                    throw new IllegalArgumentException("Unknown filter field: " + field);
+                    throw new FilterParseException("Unexpected '" + token.getText() + "'", filter,
+                            token.getPosition());
             }
         }
 
-        return predicates;
+        /**
+         * Parses the operator and value following a field.
+         *
+         * @param field The field token already read.
+         * @return the condition node.
+         */
+        FilterExpression parseCondition(FilterLexer.Token field) {
+            GameData column = toColumn(field.getText());
+            if (column == null) {
+                throw new FilterParseException("Unknown filter field: " + field.getText(), filter,
+                        field.getPosition());
+            }
+            FilterLexer.Token operator = lexer.next();
+            if (operator.getType() != FilterLexer.Type.OPERATOR) {
+                throw new FilterParseException("Invalid filter operation after " + field.getText(),
+                        filter, operator.getPosition());
+            }
+            FilterLexer.Token value = lexer.next();
+            FilterCondition condition = new FilterCondition(column,
+                    toOperation(operator.getText()), value.getText());
+            conditions++;
+            try {
+                return new FilterExpression.Condition(condition);
+            } catch (NumberFormatException e) {
+                throw new FilterParseException("Invalid number '" + value.getText() + "'", filter,
+                        value.getPosition());
+            } catch (IllegalArgumentException e) {
+                throw new FilterParseException(e.getMessage(), filter, operator.getPosition());
+            }
+        }
     }
 }
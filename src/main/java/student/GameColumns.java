@@ -0,0 +1,337 @@
+package student;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * The games of a catalog stored column by column, in primitive arrays.
+ *
+ * <p>Rows are in canonical order: by name ignoring case, then by id. A row number is stable for
+ * as long as the columns object lives, so it can stand in for the game. Generated filters from
+ * {@code FilterCompiler} read the arrays directly, which is why the fields are package-private
+ * rather than behind getters.</p>
+ *
+ * <p>Catalog changes are applied in place: new games are appended after the rows in canonical
+ * order, removed games leave an empty row behind, and new versions of a game overwrite its row.
+ * Row numbers therefore never change, and the cost of a change is the size of the change. Once
+ * the appended and removed rows pass a share of the catalog the columns report themselves
+ * {@link #isStale() stale}, and the owner rebuilds them.</p>
+ */
+public final class GameColumns {
+    /** The canonical order of games: name ignoring case, then id. */
+    public static final Comparator<BoardGame> CANONICAL_ORDER =
+            Comparator.comparing(BoardGame::getName, String.CASE_INSENSITIVE_ORDER)
+                    .thenComparingInt(BoardGame::getId);
+
+    /** Rows appended or removed past this share of the live rows make the columns stale. */
+    private static final int STALE_PERCENT = 25;
+    /** Changed rows that never make the columns stale, so small catalogs are not rebuilt. */
+    private static final int STALE_MIN = 1024;
+
+    /** The games, indexed by row; removed rows keep their last game. */
+    BoardGame[] games;
+    /** The names, in one UTF-8 arena that the games read their names from. */
+    final NameArena names;
+    /** Minimum players per row. */
+    int[] minPlayers;
+    /** Maximum players per row. */
+    int[] maxPlayers;
+    /** Minimum play time per row. */
+    int[] minPlayTime;
+    /** Maximum play time per row. */
+    int[] maxPlayTime;
+    /** Difficulty per row. */
+    double[] difficulty;
+    /** Rank per row. */
+    int[] rank;
+    /** Average rating per row. */
+    double[] rating;
+    /** Year published per row. */
+    int[] yearPublished;
+
+    /** The number of rows, removed ones included; the arrays may be longer. */
+    private int rows;
+    /** The rows before this one are in canonical order, the rest were appended. */
+    private final int sortedRows;
+    /** The rows that hold a game, not removed. */
+    private final BitSet live = new BitSet();
+    /** The number of rows that hold a game. */
+    private int liveCount;
+
+    /**
+     * Constructs the columns for games already in canonical order, and moves the names of the
+     * games into the new name arena.
+     *
+     * @param games The games, in canonical order.
+     * @param gameNames The name of each game.
+     */
+    private GameColumns(BoardGame[] games, String[] gameNames) {
+        int n = games.length;
+        this.games = games;
+        int nameBytes = 0;
+        for (String name : gameNames) {
+            nameBytes += NameArena.utf8Length(name);
+        }
+        this.names = new NameArena(n, nameBytes);
+        this.minPlayers = new int[n];
+        this.maxPlayers = new int[n];
+        this.minPlayTime = new int[n];
+        this.maxPlayTime = new int[n];
+        this.difficulty = new double[n];
+        this.rank = new int[n];
+        this.rating = new double[n];
+        this.yearPublished = new int[n];
+        for (int row = 0; row < n; row++) {
+            store(row, games[row]);
+            games[row].moveNameTo(names, names.add(gameNames[row]));
+        }
+        this.rows = n;
+        this.sortedRows = n;
+        this.live.set(0, n);
+        this.liveCount = n;
+    }
+
+    /**
+     * Writes the values of a game into a row of every column but the name, which a new version
+     * of the game shares.
+     *
+     * @param row The row number.
+     * @param game The game.
+     */
+    private void store(int row, BoardGame game) {
+        games[row] = game;
+        minPlayers[row] = game.getMinPlayers();
+        maxPlayers[row] = game.getMaxPlayers();
+        minPlayTime[row] = game.getMinPlayTime();
+        maxPlayTime[row] = game.getMaxPlayTime();
+        difficulty[row] = game.getDifficulty();
+        rank[row] = game.getRank();
+        rating[row] = game.getRating();
+        yearPublished[row] = game.getYearPublished();
+    }
+
+    /**
+     * Builds the columns of a catalog.
+     *
+     * @param catalog The games, in any order.
+     * @return the columns, with rows in canonical order.
+     */
+    public static GameColumns of(Collection<BoardGame> catalog) {
+        NamedGame[] named = new NamedGame[catalog.size()];
+        int i = 0;
+        for (BoardGame game : catalog) {
+            named[i++] = new NamedGame(game.getName(), game); // decoded once, not per compare
+        }
+        Arrays.sort(named, NamedGame.ORDER);
+        BoardGame[] games = new BoardGame[named.length];
+        String[] gameNames = new String[named.length];
+        for (i = 0; i < named.length; i++) {
+            games[i] = named[i].game;
+            gameNames[i] = named[i].name;
+        }
+        return new GameColumns(games, gameNames);
+    }
+
+    /**
+     * Gets the number of rows, removed ones included.
+     *
+     * @return one past the last row number.
+     */
+    public int size() {
+        return rows;
+    }
+
+    /**
+     * Gets the number of rows that hold a game.
+     *
+     * @return the number of games.
+     */
+    public int liveCount() {
+        return liveCount;
+    }
+
+    /**
+     * Gets the rows that hold a game.
+     *
+     * @return a new bitmap of the rows.
+     */
+    public BitSet liveRows() {
+        return (BitSet) live.clone();
+    }
+
+    /**
+     * Gets the number of rows in canonical order; the rows after them were appended.
+     *
+     * @return the number of rows in canonical order.
+     */
+    public int sortedRows() {
+        return sortedRows;
+    }
+
+    /**
+     * Gets the game in a row.
+     *
+     * @param row The row number.
+     * @return the game, the last one the row held if it was removed.
+     */
+    public BoardGame game(int row) {
+        return games[row];
+    }
+
+    /**
+     * Gets a reader of a numeric column, for aggregates.
+     *
+     * The reader looks the array up on every call, so it keeps working after rows are appended.
+     *
+     * @param column The numeric column.
+     * @return the value of the column per row.
+     * @throws IllegalArgumentException if the column is not numeric.
+     */
+    IntToDoubleFunction reader(GameData column) {
+        return switch (column) {
+            case MIN_PLAYERS -> row -> minPlayers[row];
+            case MAX_PLAYERS -> row -> maxPlayers[row];
+            case MIN_TIME -> row -> minPlayTime[row];
+            case MAX_TIME -> row -> maxPlayTime[row];
+            case DIFFICULTY -> row -> difficulty[row];
+            case RANK -> row -> rank[row];
+            case RATING -> row -> rating[row];
+            case YEAR -> row -> yearPublished[row];
+            default -> throw new IllegalArgumentException("Not a numeric column: " + column);
+        };
+    }
+
+    /**
+     * Checks if a row holds a game, rather than one that was removed.
+     *
+     * @param row The row number.
+     * @return true if the game in the row is in the catalog.
+     */
+    public boolean isLive(int row) {
+        return live.get(row);
+    }
+
+    /**
+     * Finds the row of a game.
+     *
+     * The rows in canonical order are binary searched and the appended rows scanned.
+     *
+     * @param game The game.
+     * @return the row, or -1 if the game is not in the columns.
+     */
+    public int find(BoardGame game) {
+        int row = Arrays.binarySearch(games, 0, sortedRows, game, CANONICAL_ORDER);
+        if (row >= 0 && live.get(row)) {
+            return row;
+        }
+        for (row = sortedRows; row < rows; row++) {
+            if (live.get(row) && game.equals(games[row])) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Appends a game in a new row, after the rows in canonical order.
+     *
+     * @param game The game.
+     * @return the new row number.
+     */
+    public int append(BoardGame game) {
+        if (rows == games.length) {
+            int capacity = Math.max(16, rows + (rows >> 1));
+            games = Arrays.copyOf(games, capacity);
+            minPlayers = Arrays.copyOf(minPlayers, capacity);
+            maxPlayers = Arrays.copyOf(maxPlayers, capacity);
+            minPlayTime = Arrays.copyOf(minPlayTime, capacity);
+            maxPlayTime = Arrays.copyOf(maxPlayTime, capacity);
+            difficulty = Arrays.copyOf(difficulty, capacity);
+            rank = Arrays.copyOf(rank, capacity);
+            rating = Arrays.copyOf(rating, capacity);
+            yearPublished = Arrays.copyOf(yearPublished, capacity);
+        }
+        int row = rows++;
+        store(row, game);
+        int nameRow = names.add(game.getName());
+        if (!game.hasNameArena()) {
+            game.moveNameTo(names, nameRow);
+        }
+        live.set(row);
+        liveCount++;
+        return row;
+    }
+
+    /**
+     * Replaces the game in a row with a new version of it, keeping the row.
+     *
+     * @param row The row number, of a game that was not removed.
+     * @param game The new version, with the same name so the row keeps its place in the order.
+     * @throws IllegalArgumentException if the row was removed or the name differs.
+     */
+    public void replace(int row, BoardGame game) {
+        if (!live.get(row) || !games[row].getName().equals(game.getName())) {
+            throw new IllegalArgumentException("Only a game with the same name can replace row "
+                    + row);
+        }
+        store(row, game);
+        if (!game.hasNameArena()) {
+            game.moveNameTo(names, row);
+        }
+    }
+
+    /**
+     * Removes the game in a row. The row number is not reused.
+     *
+     * @param row The row number.
+     */
+    public void remove(int row) {
+        if (live.get(row)) {
+            live.clear(row);
+            liveCount--;
+        }
+    }
+
+    /**
+     * Checks if enough rows were appended or removed that the columns should be rebuilt.
+     *
+     * Appended rows have to be sorted into the results and removed rows still take space, so both
+     * cost a little on every filter until the columns are rebuilt in canonical order.
+     *
+     * @return true if the columns should be rebuilt.
+     */
+    public boolean isStale() {
+        int changed = (rows - sortedRows) + (rows - liveCount);
+        return changed > Math.max(STALE_MIN, (long) liveCount * STALE_PERCENT / 100);
+    }
+
+    /**
+     * A game and its name, decoded once to sort a catalog into canonical order.
+     */
+    private static final class NamedGame {
+        /** Canonical order: name ignoring case, then id. */
+        static final Comparator<NamedGame> ORDER =
+                Comparator.<NamedGame, String>comparing(named -> named.name,
+                                String.CASE_INSENSITIVE_ORDER)
+                        .thenComparingInt(named -> named.game.getId());
+
+        /** The name of the game. */
+        final String name;
+        /** The game. */
+        final BoardGame game;
+
+        /**
+         * Pairs a game with its name.
+         *
+         * @param name The name of the game.
+         * @param game The game.
+         */
+        NamedGame(String name, BoardGame game) {
+            this.name = name;
+            this.game = game;
+        }
+    }
+}
@@ -50,7 +50,21 @@ public class GameList implements IGameList {
     @Override
     public void addToList(String str, Stream<BoardGame> filtered) {
         List<BoardGame> filteredList = filtered.toList();
+        PlannerEvents.ListMutation event = new PlannerEvents.ListMutation();
+        event.begin();
+        int sizeBefore = storedGames.size();
+        addGames(str, filteredList);
+        commitMutation(event, "add", str, filteredList.size(), sizeBefore);
+    }
 
+    /**
+     * Adds the games selected by {@code str} from the filtered list.
+     *
+     * @param str the command specifying which games to add (name, index, range, or "all").
+     * @param filteredList the filtered games, in display order.
+     * @throws IllegalArgumentException if the input string is invalid or out of range.
+     */
+    private void addGames(String str, List<BoardGame> filteredList) {
         //  First, check if `str` is a valid game name
         Optional<BoardGame> gameByName = filteredList.stream()
                 .filter(game -> game.getName().equalsIgnoreCase(str))
@@ -121,6 +135,20 @@ public class GameList implements IGameList {
             clear();
             return;
         }
+        PlannerEvents.ListMutation event = new PlannerEvents.ListMutation();
+        event.begin();
+        int sizeBefore = storedGames.size();
+        removeGames(str);
+        commitMutation(event, "remove", str, sizeBefore, sizeBefore);
+    }
+
+    /**
+     * Removes the games selected by {@code str} from the stored list.
+     *
+     * @param str the command specifying which games to remove (name, index, or range).
+     * @throws IllegalArgumentException if the input string is invalid or out of range.
+     */
+    private void removeGames(String str) {
 
         //  First, check if `str` is a valid game name
         Optional<BoardGame> gameByName = storedGames.stream()
@@ -179,6 +207,30 @@ public class GameList implements IGameList {
                 .toList();
     }
 
+    /**
+     * Returns the stored games in the order they were added, for saving the list by game rather
+     * than by name.
+     *
+     * @return an unmodifiable copy of the stored games.
+     */
+    public List<BoardGame> getGames() {
+        return List.copyOf(storedGames);
+    }
+
+    /**
+     * Finds the stored game names closest to a possibly misspelled name.
+     *
+     * The list is short, so the index is built on each call.
+     *
+     * @param name the name as typed.
+     * @param limit the most names to return.
+     * @return the closest names, closest first.
+     */
+    @Override
+    public List<NameIndex.Match> suggestNames(String name, int limit) {
+        return NameIndex.of(getGameNames()).suggest(name, limit);
+    }
+
     /**
      * Returns the number of games currently stored in the list.
      *
@@ -194,7 +246,33 @@ public class GameList implements IGameList {
      */
     @Override
     public void clear() {
+        PlannerEvents.ListMutation event = new PlannerEvents.ListMutation();
+        event.begin();
+        int sizeBefore = storedGames.size();
         storedGames.clear();
+        commitMutation(event, "clear", ADD_ALL, sizeBefore, sizeBefore);
+    }
+
+    /**
+     * Ends and commits a list mutation event, if a recording wants it.
+     *
+     * @param event the event started before the mutation.
+     * @param operation the mutation performed.
+     * @param argument the argument the mutation was called with.
+     * @param scanned the number of games looked at to resolve the argument.
+     * @param sizeBefore the list size before the mutation.
+     */
+    private void commitMutation(PlannerEvents.ListMutation event, String operation,
+                                String argument, int scanned, int sizeBefore) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.argument = argument;
+            event.rowsScanned = scanned;
+            event.rowsChanged = Math.abs(storedGames.size() - sizeBefore);
+            event.listSize = storedGames.size();
+            event.commit();
+        }
     }
 
     /**
@@ -221,13 +299,22 @@ public class GameList implements IGameList {
             }
         }
 
+        PlannerEvents.ListSave event = new PlannerEvents.ListSave();
+        event.begin();
+        List<String> names = getGameNames();
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
-            for (String gameName : getGameNames()) {
+            for (String gameName : names) {
                 writer.write(gameName);
                 writer.newLine();
             }
         } catch (IOException e) {
             throw new RuntimeException("Error saving game list to file: " + filename, e);
         }
+        event.end();
+        if (event.shouldCommit()) {
+            event.filename = filename;
+            event.rowsWritten = names.size();
+            event.commit();
+        }
     }
 }
@@ -1,6 +1,8 @@
 package student;
 
-import java.util.Comparator;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 
@@ -25,19 +27,36 @@ public final class GameSorter {
             throw new IllegalArgumentException("Sorting attribute cannot be null.");
         }
 
-        Comparator<BoardGame> comparator = switch (sortOn) {
-            case NAME -> GameComparator.BY_NAME;
-            case RATING -> GameComparator.BY_RATING;
-            case MIN_PLAYERS -> GameComparator.BY_MIN_PLAYERS;
-            case MAX_PLAYERS -> GameComparator.BY_MAX_PLAYERS;
-            case MIN_TIME -> GameComparator.BY_MIN_PLAY_TIME;
-            case MAX_TIME -> GameComparator.BY_MAX_PLAY_TIME;
-            case DIFFICULTY -> GameComparator.BY_DIFFICULTY;
-            case RANK -> GameComparator.BY_RANK;
-            case YEAR -> GameComparator.BY_YEAR_PUBLISHED;
-            default -> throw new IllegalArgumentException("Unsupported sorting type: " + sortOn);
-        };
+        return sort(games, List.of(new SortKey(sortOn, ascending)));
+    }
+
+    /**
+     * Sorts a stream of {@code BoardGame} objects on several keys, most significant first.
+     *
+     * The keys are packed into primitive longs and sorted as such, large inputs with a radix
+     * sort, see {@link PackedKeySort}.
+     * Games equal on every key keep their order in the stream.
+     *
+     * @param games The stream of board games.
+     * @param keys  The sort keys, such as rating descending then name.
+     * @return A sorted stream of board games.
+     */
+    public static Stream<BoardGame> sort(Stream<BoardGame> games, List<SortKey> keys) {
+        if (keys == null || keys.isEmpty()) {
+            throw new IllegalArgumentException("Sorting attribute cannot be null.");
+        }
 
-        return games.sorted(ascending ? comparator : comparator.reversed());
+        PlannerEvents.Sort event = new PlannerEvents.Sort();
+        event.begin();
+        BoardGame[] sorted = PackedKeySort.sort(games.toArray(BoardGame[]::new), keys);
+        event.end();
+        if (event.shouldCommit()) {
+            event.sortColumn = keys.stream().map(key -> key.getColumn().name())
+                    .collect(Collectors.joining(","));
+            event.ascending = keys.get(0).isAscending();
+            event.rowsSorted = sorted.length;
+            event.commit();
+        }
+        return Arrays.stream(sorted);
     }
 }
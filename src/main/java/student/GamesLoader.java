@@ -4,6 +4,8 @@ import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -22,7 +24,7 @@ import java.util.stream.Collectors;
  */
 public final class GamesLoader {
     /** Standard csv delim. */
-    private static final String DELIMITER = ",";
+    static final String DELIMITER = ",";
 
     /** private constructor to prevent instantiation. */
     private GamesLoader() {
@@ -35,20 +37,58 @@ public final class GamesLoader {
      * @return a set of BoardGame objects
      */
     public static Set<BoardGame> loadGamesFile(String filename) {
-
-        Set<BoardGame> games = new HashSet<>();
-
-        List<String> lines;
         try {
             // this is so we can store the files in the resources folder
             InputStream is = GamesLoader.class.getResourceAsStream(filename);
             InputStreamReader isr = new InputStreamReader(is, StandardCharsets.UTF_8);
-            BufferedReader reader = new BufferedReader(isr);
-            lines = reader.lines().collect(Collectors.toList());
+            return load(filename, new BufferedReader(isr));
         } catch (Exception e) {
             System.err.println("Error reading file: " + e.getMessage());
-            return games;
+            return new HashSet<>();
+        }
+    }
+
+    /**
+     * Loads the games from a csv file on disk into a set of BoardGame objects.
+     *
+     * @param file the file to load
+     * @return a set of BoardGame objects, empty if the file cannot be read
+     */
+    public static Set<BoardGame> loadGamesFile(Path file) {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return load(file.toString(), reader);
+        } catch (Exception e) {
+            System.err.println("Error reading file: " + e.getMessage());
+            return new HashSet<>();
         }
+    }
+
+    /**
+     * Loads several csv files on disk at once, each into its own set of games, a shard.
+     *
+     * The files are read and parsed in parallel, one task per file.
+     *
+     * @param files the files to load
+     * @return one set of BoardGame objects per file, in the order of the files
+     */
+    public static List<Set<BoardGame>> loadShards(List<Path> files) {
+        return files.parallelStream().map(GamesLoader::loadGamesFile).toList();
+    }
+
+    /**
+     * Reads the games of a catalog.
+     *
+     * @param source the name of the catalog, for the load event
+     * @param reader the csv lines, header first
+     * @return a set of BoardGame objects
+     */
+    private static Set<BoardGame> load(String source, BufferedReader reader) {
+        PlannerEvents.CatalogLoad event = new PlannerEvents.CatalogLoad();
+        event.begin();
+
+        Set<BoardGame> games = new HashSet<>();
+
+        List<String> lines = reader.lines().collect(Collectors.toList());
         if (lines == null || lines.isEmpty()) {
             return games;
         }
@@ -58,6 +98,13 @@ public final class GamesLoader {
         games = lines.stream().map(line -> toBoardGame(line, columnMap))
                 .filter(game -> game != null).collect(Collectors.toSet());
 
+        event.end();
+        if (event.shouldCommit()) {
+            event.source = source;
+            event.rowsScanned = lines.size();
+            event.rowsReturned = games.size();
+            event.commit();
+        }
         return games;
 
     }
@@ -69,7 +116,7 @@ public final class GamesLoader {
      * @param columnMap the map of columns to index
      * @return a BoardGame object
      */
-    private static BoardGame toBoardGame(String line, Map<GameData, Integer> columnMap) {
+    static BoardGame toBoardGame(String line, Map<GameData, Integer> columnMap) {
         String[] columns = line.split(DELIMITER);
         if (columns.length < columnMap.values().stream().max(Integer::compareTo).get()) {
             return null;
@@ -103,7 +150,7 @@ public final class GamesLoader {
      * @param header the header line
      * @return a map of column to index
      */
-    private static Map<GameData, Integer> processHeader(String header) {
+    static Map<GameData, Integer> processHeader(String header) {
         Map<GameData, Integer> columnMap = new HashMap<>();
         String[] columns = header.split(DELIMITER);
         for (int i = 0; i < columns.length; i++) {
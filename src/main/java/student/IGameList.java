@@ -109,4 +109,14 @@ public interface IGameList {
      */
     void removeFromList(String str) throws IllegalArgumentException;
 
+    /**
+     * Finds the names in the list closest to a possibly misspelled name, for suggestions when a
+     * game to remove is not found.
+     * 
+     * @param name The name as typed.
+     * @param limit The most names to return.
+     * @return the closest names within a tolerance based on the name length, closest first.
+     */
+    List<NameIndex.Match> suggestNames(String name, int limit);
+
 }
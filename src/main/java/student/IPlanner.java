@@ -1,5 +1,7 @@
 package student;
 
+import java.util.List;
+import java.util.Random;
 import java.util.stream.Stream;
 
 /**
@@ -115,9 +117,132 @@ public interface IPlanner {
      */
     Stream<BoardGame> filter(String filter, GameData sortOn, boolean ascending);
 
+    /**
+     * Filters the board games by the passed in text filter, and sorts them on several keys.
+     * 
+     * The first key decides the order, each following key only orders games that are equal on
+     * the keys before it, and games equal on every key stay sorted by name. For example the keys
+     * of {@code SortKey.parse("rating desc,year asc,name")} sort by rating highest first, then by
+     * year published oldest first, then by name.
+     * 
+     * @param filter The filter to apply to the board games.
+     * @param sortKeys The keys to sort the results on, most significant first.
+     * @return A stream of board games that match the filter.
+     * @see #filter(String, GameData, boolean)
+     */
+    Stream<BoardGame> filter(String filter, List<SortKey> sortKeys);
+
     /**
      * Resets the collection to have no filters applied.
      */
     void reset();
 
+    /**
+     * Runs a filter and sort the same way as {@link #filter(String, GameData, boolean)}, but
+     * reports how it was executed instead of returning the games.
+     * 
+     * The explanation includes the normalized conditions in evaluation order, the access path,
+     * estimated versus actual rows scanned and matched per condition, and the time spent
+     * filtering and sorting.
+     * 
+     * @param filter The filter to explain.
+     * @param sortOn The column to sort the results on.
+     * @param ascending Whether to sort the results in ascending order or descending order.
+     * @return the execution details of the filter.
+     */
+    FilterExplanation explain(String filter, GameData sortOn, boolean ascending);
+
+    /**
+     * Finds the game names closest to a possibly misspelled name, for suggestions when a name is
+     * not found.
+     * 
+     * Names are compared ignoring case and extra spaces, by edit distance.
+     * 
+     * @param name The name as typed.
+     * @param limit The most names to return.
+     * @return the closest names within a tolerance based on the name length, closest first.
+     */
+    List<NameIndex.Match> suggestNames(String name, int limit);
+
+    /**
+     * Undoes the last filter, going back to the results from before it.
+     * 
+     * Planners that keep no undo stack have nothing to undo.
+     * 
+     * @return the filter undone, or null if there is nothing to undo.
+     */
+    default String undo() {
+        return null;
+    }
+
+    /**
+     * Applies again the last filter undone.
+     * 
+     * @return the filter redone, or null if there is nothing to redo.
+     */
+    default String redo() {
+        return null;
+    }
+
+    /**
+     * Picks random games from the current results, without picking a game twice.
+     * 
+     * By default the current results are sampled in one pass, see
+     * {@link RandomPicker#sample(Stream, java.util.function.ToDoubleFunction, int, Random)}.
+     * 
+     * @param count The most games to pick.
+     * @param weight How likely each game is to be picked.
+     * @param random The random source.
+     * @return the picks in the order drawn, fewer if fewer games can be picked.
+     */
+    default List<BoardGame> pick(int count, RandomPicker.Weight weight, Random random) {
+        return RandomPicker.sample(filter(""), weight::of, count, random);
+    }
+
+    /**
+     * Computes an aggregate of the current results, such as a count or an average per group.
+     * 
+     * By default the current results are aggregated in one pass over {@code filter("")}.
+     * 
+     * @param query The aggregate query.
+     * @return the result.
+     */
+    default Aggregate.Result aggregate(Aggregate query) {
+        return query.over(filter(""));
+    }
+
+    /**
+     * Counts the facets of the current results: how many games fall in each bucket of each
+     * facet.
+     * 
+     * By default the current results are counted in one pass over {@code filter("")}.
+     * 
+     * @param facets The facets to count.
+     * @return the counts.
+     */
+    default FacetCounts facets(List<Facet> facets) {
+        return FacetCounts.of(facets, filter(""));
+    }
+
+    /**
+     * Gets what the last filter, or filter and sort, used of its {@link QueryBudget}.
+     * 
+     * By default planners have no budget and report nothing.
+     * 
+     * @return the usage, or null if there is none.
+     */
+    default QueryUsage getLastUsage() {
+        return null;
+    }
+
+    /**
+     * Waits until the planner, and anything loaded with it such as a restored session, is ready.
+     * 
+     * By default a planner is ready once constructed.
+     * 
+     * @throws QueryCancelledException if the query waiting was cancelled.
+     */
+    default void awaitReady() {
+    }
+
 }
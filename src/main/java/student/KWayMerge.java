@@ -0,0 +1,107 @@
+package student;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Merges sorted runs into one sorted stream.
+ *
+ * <p>A heap holds the head of each run, so taking the next element costs {@code log k} for
+ * {@code k} runs, and elements are only compared as the stream is consumed: reading the first page
+ * of a large result does not merge the rest. Equal elements come from the earlier run first, and
+ * an element equal to the one before it is dropped, as a game found in two shards is one game.</p>
+ */
+final class KWayMerge {
+
+    // Prevents instantiation of this utility class
+    private KWayMerge() {
+        throw new UnsupportedOperationException("Utility class - do not instantiate");
+    }
+
+    /**
+     * Merges sorted runs.
+     *
+     * @param runs The runs, each sorted by the order.
+     * @param order The order of the runs, and of the merged stream.
+     * @param <T> The type of the elements.
+     * @return the merged elements, without repeats of the same element.
+     */
+    static <T> Stream<T> merge(List<List<T>> runs, Comparator<? super T> order) {
+        if (runs.size() == 1) {
+            return runs.get(0).stream();
+        }
+        long size = runs.stream().mapToLong(List::size).sum();
+        return StreamSupport.stream(new Merger<>(runs, order, size), false);
+    }
+
+    /**
+     * Walks the runs in merged order.
+     *
+     * @param <T> The type of the elements.
+     */
+    private static final class Merger<T> extends Spliterators.AbstractSpliterator<T> {
+        /** The runs. */
+        private final List<List<T>> runs;
+        /** The order of the runs. */
+        private final Comparator<? super T> order;
+        /** The next position in each run. */
+        private final int[] next;
+        /** The runs that have elements left, by their next element, then by run. */
+        private final PriorityQueue<Integer> heads;
+        /** The last element given, to drop repeats. */
+        private T last;
+
+        /**
+         * Constructs a merger.
+         *
+         * @param runs The runs.
+         * @param order The order of the runs.
+         * @param size The total number of elements, an upper bound on the merged size.
+         */
+        Merger(List<List<T>> runs, Comparator<? super T> order, long size) {
+            super(size, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.runs = runs;
+            this.order = order;
+            this.next = new int[runs.size()];
+            this.heads = new PriorityQueue<>(Math.max(1, runs.size()), (a, b) -> {
+                int compared = order.compare(runs.get(a).get(next[a]), runs.get(b).get(next[b]));
+                return compared != 0 ? compared : Integer.compare(a, b);
+            });
+            for (int run = 0; run < runs.size(); run++) {
+                if (!runs.get(run).isEmpty()) {
+                    heads.add(run);
+                }
+            }
+        }
+
+        /**
+         * Gives the next element of the merged order.
+         *
+         * @param action Receives the element.
+         * @return false if the runs are used up.
+         */
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            while (!heads.isEmpty()) {
+                int run = heads.poll();
+                T element = runs.get(run).get(next[run]++);
+                if (next[run] < runs.get(run).size()) {
+                    heads.add(run);
+                }
+                // equal elements compare as equal, and equals can be slow, so compare first
+                if (last == null || order.compare(last, element) != 0 || !last.equals(element)) {
+                    last = element;
+                    action.accept(element);
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package student;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * A planner whose catalog is loaded on a background thread, so the prompt can be shown at once.
+ *
+ * <p>The loader thread reads the catalog, builds the {@link Planner} and its indexes, and runs
+ * the setup, such as restoring a session, before the planner is ready. Every query waits for it,
+ * so only the commands that need the catalog wait, and a waiting query can still be cancelled.
+ * Once ready, the loader optionally runs the {@link PlannerWarmup} on the same thread, while the
+ * console already takes queries.</p>
+ */
+public final class LazyPlanner implements IPlanner {
+    /** How often a waiting query checks it was cancelled, in milliseconds. */
+    private static final long WAIT_CHECK_MILLIS = 100;
+
+    /** The planner, once loaded. */
+    private final CompletableFuture<Planner> ready = new CompletableFuture<>();
+    /** Records when the catalog was ready, warmed up and first queried. */
+    private final StartupMetrics metrics;
+
+    /**
+     * Constructs a planner not loaded yet.
+     *
+     * @param metrics Records the startup milestones.
+     */
+    private LazyPlanner(StartupMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Starts loading a planner on a background thread.
+     *
+     * @param catalog Reads the games of the catalog.
+     * @param setup Run on the planner before it is ready, such as to restore a session.
+     * @param warmUp True to run the warm-up queries once the planner is ready.
+     * @param metrics Records the startup milestones.
+     * @return the planner, which queries wait for.
+     */
+    public static LazyPlanner load(Supplier<Set<BoardGame>> catalog, Consumer<Planner> setup,
+                                   boolean warmUp, StartupMetrics metrics) {
+        LazyPlanner planner = new LazyPlanner(metrics);
+        Thread loader = new Thread(() -> planner.load(catalog, setup, warmUp), "catalog-loader");
+        loader.setDaemon(true);
+        loader.start();
+        return planner;
+    }
+
+    /**
+     * Loads the planner, then warms up if asked to; runs on the loader thread.
+     *
+     * @param catalog Reads the games of the catalog.
+     * @param setup Run on the planner before it is ready.
+     * @param warmUp True to run the warm-up queries.
+     */
+    private void load(Supplier<Set<BoardGame>> catalog, Consumer<Planner> setup, boolean warmUp) {
+        Set<BoardGame> games;
+        try {
+            games = catalog.get();
+            Planner planner = new Planner(games);
+            planner.buildIndexes();
+            setup.accept(planner);
+            metrics.mark(StartupMetrics.Milestone.CATALOG_READY); // before any query sees it
+            ready.complete(planner);
+        } catch (RuntimeException | Error e) {
+            ready.completeExceptionally(e);
+            return;
+        }
+        if (warmUp) {
+            PlannerWarmup.run(games);
+            metrics.mark(StartupMetrics.Milestone.WARMED_UP);
+        }
+    }
+
+    /**
+     * Gets the planner, waiting for it to be loaded.
+     *
+     * @return the planner.
+     * @throws QueryCancelledException if the query waiting was cancelled.
+     * @throws IllegalStateException if the catalog could not be loaded.
+     */
+    private Planner planner() {
+        QueryContext context = QueryContext.current();
+        while (true) {
+            try {
+                return ready.get(WAIT_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                context.checkCancelled();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                context.checkCancelled();
+                throw new IllegalStateException("Interrupted while loading the catalog.");
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Cannot load the catalog: "
+                        + e.getCause().getMessage(), e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Records the first result of a query.
+     *
+     * @param results The results.
+     * @return the results.
+     */
+    private Stream<BoardGame> answered(Stream<BoardGame> results) {
+        metrics.mark(StartupMetrics.Milestone.FIRST_RESULT);
+        return results;
+    }
+
+    /**
+     * Checks if the planner is loaded.
+     *
+     * @return true once queries no longer wait.
+     */
+    public boolean isReady() {
+        return ready.isDone() && !ready.isCompletedExceptionally();
+    }
+
+    /**
+     * Runs an action on the planner if it is loaded, without waiting.
+     *
+     * @param action The action.
+     */
+    public void ifReady(Consumer<Planner> action) {
+        if (isReady()) {
+            action.accept(ready.join());
+        }
+    }
+
+    /**
+     * Runs an action on the planner once it is loaded, on the loader thread, or now if it is.
+     *
+     * @param action The action.
+     */
+    public void whenReady(Consumer<Planner> action) {
+        ready.thenAccept(action);
+    }
+
+    /**
+     * Waits for the planner to be loaded.
+     *
+     * @throws QueryCancelledException if the query waiting was cancelled.
+     * @throws IllegalStateException if the catalog could not be loaded.
+     */
+    @Override
+    public void awaitReady() {
+        planner();
+    }
+
+    /**
+     * Filters the games once the planner is loaded.
+     *
+     * @param filter The filtering condition.
+     * @return A stream of filtered board games.
+     */
+    @Override
+    public Stream<BoardGame> filter(String filter) {
+        return answered(planner().filter(filter));
+    }
+
+    /**
+     * Filters and sorts the games once the planner is loaded.
+     *
+     * @param filter The filtering condition.
+     * @param sortOn The sorting attribute (e.g., NAME, RATING).
+     * @return A sorted stream of filtered board games.
+     */
+    @Override
+    public Stream<BoardGame> filter(String filter, GameData sortOn) {
+        return answered(planner().filter(filter, sortOn));
+    }
+
+    /**
+     * Filters and sorts the games once the planner is loaded.
+     *
+     * @param filter The filtering condition.
+     * @param sortOn The sorting attribute (e.g., NAME, RATING).
+     * @param ascending Whether to sort in ascending order.
+     * @return A sorted stream of filtered board games.
+     */
+    @Override
+    public Stream<BoardGame> filter(String filter, GameData sortOn, boolean ascending) {
+        return answered(planner().filter(filter, sortOn, ascending));
+    }
+
+    /**
+     * Filters and sorts the games on several keys once the planner is loaded.
+     *
+     * @param filter The filtering condition.
+     * @param sortKeys The sort keys, most significant first.
+     * @return A sorted stream of filtered board games.
+     */
+    @Override
+    public Stream<BoardGame> filter(String filter, List<SortKey> sortKeys) {
+        return answered(planner().filter(filter, sortKeys));
+    }
+
+    /**
+     * Resets the filters once the planner is loaded.
+     */
+    @Override
+    public void reset() {
+        planner().reset();
+    }
+
+    /**
+     * Explains a filter and sort once the planner is loaded.
+     *
+     * @param filter The filtering condition.
+     * @param sortOn The sorting attribute (e.g., NAME, RATING).
+     * @param ascending Whether to sort in ascending order.
+     * @return the execution details of the filter.
+     */
+    @Override
+    public FilterExplanation explain(String filter, GameData sortOn, boolean ascending) {
+        return planner().explain(filter, sortOn, ascending);
+    }
+
+    /**
+     * Finds the game names closest to a possibly misspelled name once the planner is loaded.
+     *
+     * @param name The name as typed.
+     * @param limit The most names to return.
+     * @return the closest names, closest first.
+     */
+    @Override
+    public List<NameIndex.Match> suggestNames(String name, int limit) {
+        return planner().suggestNames(name, limit);
+    }
+
+    /**
+     * Undoes the last filter once the planner is loaded.
+     *
+     * @return the filter undone, or null if there is nothing to undo.
+     */
+    @Override
+    public String undo() {
+        return planner().undo();
+    }
+
+    /**
+     * Applies again the last filter undone once the planner is loaded.
+     *
+     * @return the filter redone, or null if there is nothing to redo.
+     */
+    @Override
+    public String redo() {
+        return planner().redo();
+    }
+
+    /**
+     * Picks random games from the current results once the planner is loaded.
+     *
+     * @param count The most games to pick.
+     * @param weight How likely each game is to be picked.
+     * @param random The random source.
+     * @return the picks in the order drawn.
+     */
+    @Override
+    public List<BoardGame> pick(int count, RandomPicker.Weight weight, Random random) {
+        return planner().pick(count, weight, random);
+    }
+
+    /**
+     * Computes an aggregate of the current results once the planner is loaded.
+     *
+     * @param query The aggregate query.
+     * @return the result.
+     */
+    @Override
+    public Aggregate.Result aggregate(Aggregate query) {
+        return planner().aggregate(query);
+    }
+
+    /**
+     * Counts the facets of the current results once the planner is loaded.
+     *
+     * @param facets The facets to count.
+     * @return the counts.
+     */
+    @Override
+    public FacetCounts facets(List<Facet> facets) {
+        return planner().facets(facets);
+    }
+
+    /**
+     * Gets what the last query used of its budget, without waiting.
+     *
+     * @return the usage, null if the planner is not loaded or ran no query yet.
+     */
+    @Override
+    public QueryUsage getLastUsage() {
+        return isReady() ? ready.join().getLastUsage() : null;
+    }
+}
@@ -0,0 +1,240 @@
+package student;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Game names stored end to end in one UTF-8 byte array, with an offset array giving where each
+ * row's name starts.
+ *
+ * <p>The arena owns the names of the games in a planner's columns: once {@link GameColumns} adds
+ * a game's name here it moves the game onto its row, the game drops its name {@code String}, and
+ * {@link BoardGame#getName()} decodes the name from the bytes when asked. Rendering copies the
+ * bytes into its buffer without a {@code String} at all. A name then costs its UTF-8 bytes and four
+ * bytes of offset, and the garbage collector sees two arrays instead of two objects per game.
+ * Checks run on the bytes: names that are all ASCII, which is nearly all of them, are compared
+ * with their case folded byte by byte, and only names with other characters are decoded, to keep
+ * the exact rules of {@code String}'s case-insensitive methods.</p>
+ *
+ * <p>Only the thread that owns the columns adds names, but games read their names from any
+ * thread. The arrays are volatile so a reader always sees a grown array with its contents, and
+ * a row is only handed to a game after its bytes are written.</p>
+ */
+final class NameArena {
+    /** The names in UTF-8, end to end; may be longer than the names. */
+    private volatile byte[] bytes;
+    /** Where each row's name starts in {@link #bytes}; entry {@code rows} is the end. */
+    private volatile int[] offsets;
+    /** The number of names. */
+    private int rows;
+    /** The rows whose name has characters outside ASCII. */
+    private final BitSet wide = new BitSet();
+
+    /**
+     * Constructs an empty arena.
+     *
+     * @param rows The number of names to make room for.
+     * @param bytes The number of bytes to make room for.
+     */
+    NameArena(int rows, int bytes) {
+        this.bytes = new byte[Math.max(16, bytes)];
+        this.offsets = new int[Math.max(16, rows + 1)];
+    }
+
+    /**
+     * Appends a name in the next row.
+     *
+     * @param name The name.
+     * @return the row of the name.
+     */
+    int add(String name) {
+        byte[] utf8 = name.getBytes(StandardCharsets.UTF_8);
+        int[] ends = offsets;
+        int start = ends[rows];
+        byte[] into = bytes;
+        if (start + utf8.length > into.length) {
+            into = Arrays.copyOf(into, Math.max(start + utf8.length, into.length * 2));
+        }
+        System.arraycopy(utf8, 0, into, start, utf8.length);
+        bytes = into;
+        if (rows + 2 > ends.length) {
+            ends = Arrays.copyOf(ends, ends.length + (ends.length >> 1));
+        }
+        ends[rows + 1] = start + utf8.length;
+        offsets = ends;
+        if (utf8.length != name.length()) {
+            wide.set(rows); // some character took more than one byte
+        }
+        return rows++;
+    }
+
+    /**
+     * Gets the number of names.
+     *
+     * @return the row count.
+     */
+    int size() {
+        return rows;
+    }
+
+    /**
+     * Gets the number of bytes the names take.
+     *
+     * @return the size of the names in UTF-8.
+     */
+    int byteSize() {
+        return offsets[rows];
+    }
+
+    /**
+     * Decodes the name in a row.
+     *
+     * @param row The row.
+     * @return the name.
+     */
+    String get(int row) {
+        int[] ends = offsets;
+        return new String(bytes, ends[row], ends[row + 1] - ends[row], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets the size of the name in a row, which is at least its number of chars.
+     *
+     * @param row The row.
+     * @return the size of the name in UTF-8.
+     */
+    int byteLength(int row) {
+        int[] ends = offsets;
+        return ends[row + 1] - ends[row];
+    }
+
+    /**
+     * Copies the name in a row into a char array, byte by byte when it is all ASCII.
+     *
+     * @param row The row.
+     * @param chars The array, with room for {@link #byteLength(int)} chars from {@code at}.
+     * @param at Where to copy the name.
+     * @return the number of chars copied.
+     */
+    int getChars(int row, char[] chars, int at) {
+        int[] ends = offsets;
+        byte[] utf8 = bytes;
+        int start = ends[row];
+        int length = ends[row + 1] - start;
+        for (int i = 0; i < length; i++) {
+            byte b = utf8[start + i];
+            if (b < 0) { // not ASCII, decode the whole name
+                String name = new String(utf8, start, length, StandardCharsets.UTF_8);
+                name.getChars(0, name.length(), chars, at);
+                return name.length();
+            }
+            chars[at + i] = (char) b;
+        }
+        return length;
+    }
+
+    /**
+     * Checks if the name in a row contains some text, ignoring case, as
+     * {@code name.toLowerCase().contains(lowerText)} does.
+     *
+     * @param row The row.
+     * @param lowerText The text, in lower case.
+     * @return true if the name contains the text.
+     */
+    boolean containsIgnoreCase(int row, String lowerText) {
+        if (wide.get(row)) {
+            return get(row).toLowerCase().contains(lowerText);
+        }
+        int[] ends = offsets;
+        byte[] utf8 = bytes;
+        int start = ends[row];
+        int last = ends[row + 1] - lowerText.length();
+        for (int at = start; at <= last; at++) {
+            int i = 0;
+            while (i < lowerText.length() && lower(utf8[at + i]) == lowerText.charAt(i)) {
+                i++;
+            }
+            if (i == lowerText.length()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the name in a row equals some text, ignoring case, as
+     * {@code String.equalsIgnoreCase} does.
+     *
+     * @param row The row.
+     * @param text The text.
+     * @return true if they are equal ignoring case.
+     */
+    boolean equalsIgnoreCase(int row, String text) {
+        if (!wide.get(row) && byteLength(row) != text.length()) {
+            return false; // an ASCII name has one char per byte
+        }
+        return compareIgnoreCase(row, text) == 0;
+    }
+
+    /**
+     * Compares the name in a row with some text, ignoring case, as
+     * {@code String.compareToIgnoreCase} does.
+     *
+     * @param row The row.
+     * @param text The text.
+     * @return negative, zero or positive as the name is before, equal to or after the text.
+     */
+    int compareIgnoreCase(int row, String text) {
+        if (wide.get(row)) {
+            return get(row).compareToIgnoreCase(text);
+        }
+        int[] ends = offsets;
+        byte[] utf8 = bytes;
+        int start = ends[row];
+        int length = ends[row + 1] - start;
+        int common = Math.min(length, text.length());
+        for (int i = 0; i < common; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                return get(row).compareToIgnoreCase(text);
+            }
+            int a = lower(utf8[start + i]);
+            int b = lower((byte) c);
+            if (a != b) {
+                return a - b;
+            }
+        }
+        return length - text.length();
+    }
+
+    /**
+     * Counts the bytes a name takes in UTF-8 without encoding it, so an arena can be sized
+     * exactly.
+     *
+     * @param name The name.
+     * @return the size of the name in UTF-8.
+     */
+    static int utf8Length(String name) {
+        int length = name.length();
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c >= 0x800) {
+                length += Character.isSurrogate(c) ? 1 : 2; // a pair takes four bytes
+            } else if (c >= 0x80) {
+                length++;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Folds an ASCII character to lower case.
+     *
+     * @param b The character.
+     * @return the lower case character.
+     */
+    private static int lower(byte b) {
+        return b >= 'A' && b <= 'Z' ? b + ('a' - 'A') : b;
+    }
+}
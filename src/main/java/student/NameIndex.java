@@ -0,0 +1,413 @@
+package student;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A BK-tree over folded game names, for finding the names closest to a misspelled one.
+ *
+ * <p>Names are folded (lower case, runs of spaces collapsed) and compared by Levenshtein edit
+ * distance. Each node keeps its children keyed by their distance to it, so by the triangle
+ * inequality a search within distance {@code k} of a query only follows the children whose key is
+ * within {@code k} of the node's own distance. For small {@code k} this visits a small fraction of
+ * the tree instead of every name.</p>
+ */
+public final class NameIndex {
+    /** Suggestions a caller gets when it does not ask for a number. */
+    public static final int DEFAULT_SUGGESTIONS = 5;
+
+    /** The root of the tree, null while empty. */
+    private Node root;
+    /** The number of distinct names. */
+    private int size;
+    /** The length of the longest folded name, to size the distance table rows. */
+    private int longest;
+
+    /**
+     * Builds an index of names.
+     *
+     * @param names The names, duplicates are kept once but counted, see {@link #remove(String)}.
+     * @return the index.
+     */
+    public static NameIndex of(Collection<String> names) {
+        NameIndex index = new NameIndex();
+        for (String name : names) {
+            index.add(name);
+        }
+        return index;
+    }
+
+    /**
+     * Adds a name.
+     *
+     * @param name The name as displayed.
+     */
+    public void add(String name) {
+        String key = fold(name);
+        longest = Math.max(longest, key.length());
+        if (root == null) {
+            root = new Node(key, name);
+            size++;
+            return;
+        }
+        Node node = root;
+        while (true) {
+            int distance = distance(key, node.key, Integer.MAX_VALUE);
+            if (distance == 0) {
+                if (node.addCopy(name)) {
+                    size++;
+                }
+                return;
+            }
+            Node child = node.child(distance);
+            if (child == null) {
+                node.addChild(distance, new Node(key, name));
+                size++;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Removes one copy of a name, as added by {@link #add(String)}.
+     *
+     * The name stops matching once every copy is removed. Its node stays in the tree to route
+     * searches to its children, so removing is as cheap as a lookup and the tree never has to be
+     * rebuilt.
+     *
+     * @param name The name as displayed.
+     * @return true if the name was in the index.
+     */
+    public boolean remove(String name) {
+        String key = fold(name);
+        Node node = root;
+        while (node != null) {
+            int distance = distance(key, node.key, Integer.MAX_VALUE);
+            if (distance == 0) {
+                int found = node.names.indexOf(name);
+                if (found < 0) {
+                    return false;
+                }
+                if (--node.copies[found] == 0) {
+                    node.names.remove(found);
+                    System.arraycopy(node.copies, found + 1, node.copies, found,
+                            node.names.size() - found);
+                    size--;
+                }
+                return true;
+            }
+            node = node.child(distance);
+        }
+        return false;
+    }
+
+    /**
+     * Gets the number of distinct names in the index.
+     *
+     * @return the size.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the names within an edit distance of a query.
+     *
+     * @param query The name to look up, folded before comparing.
+     * @param maxDistance The largest edit distance to accept.
+     * @return the matches, closest first and then by name ignoring case.
+     */
+    public List<Match> search(String query, int maxDistance) {
+        List<Match> matches = new ArrayList<>();
+        if (root == null) {
+            return matches;
+        }
+        String key = fold(query);
+        int[][] rows = new int[2][Math.max(longest, key.length()) + 1]; // reused for every node
+        List<Node> pending = new ArrayList<>();
+        pending.add(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.remove(pending.size() - 1);
+            // past this limit neither the node nor any of its children can match
+            int distance = distance(key, node.key, maxDistance + node.maxEdge, rows);
+            if (distance <= maxDistance) {
+                for (String name : node.names) {
+                    matches.add(new Match(name, distance));
+                }
+            }
+            for (int i = 0; i < node.childCount; i++) {
+                if (Math.abs(node.distances[i] - distance) <= maxDistance) {
+                    pending.add(node.children[i]);
+                }
+            }
+        }
+        matches.sort(Comparator.comparingInt(Match::getDistance)
+                .thenComparing(Match::getName, String.CASE_INSENSITIVE_ORDER));
+        return matches;
+    }
+
+    /**
+     * Finds the closest names to a query, within the default tolerance for its length.
+     *
+     * @param query The name to look up.
+     * @param limit The most matches to return.
+     * @return the closest matches, closest first.
+     */
+    public List<Match> suggest(String query, int limit) {
+        List<Match> matches = search(query, tolerance(query));
+        return matches.size() > limit ? matches.subList(0, limit) : matches;
+    }
+
+    /**
+     * Merges the suggestions of several indexes, such as those of the shards of a catalog.
+     *
+     * @param found The suggestions of each index, as returned by {@link #suggest(String, int)}.
+     * @param limit The most matches to return.
+     * @return the closest matches, closest first, each name once.
+     */
+    public static List<Match> merge(Collection<List<Match>> found, int limit) {
+        Set<String> seen = new HashSet<>();
+        return found.stream().flatMap(List::stream)
+                .sorted(Comparator.comparingInt(Match::getDistance)
+                        .thenComparing(Match::getName, String.CASE_INSENSITIVE_ORDER))
+                .filter(match -> seen.add(match.getName())).limit(limit).toList();
+    }
+
+    /**
+     * Gets how many edits a query may be away from a name and still count as a typo of it.
+     *
+     * One edit per four characters, at least one and at most two; past two edits the tree has to
+     * visit most of its nodes anyway, and the matches are rarely the intended name.
+     *
+     * @param query The query.
+     * @return the edit distance tolerance.
+     */
+    public static int tolerance(String query) {
+        return Math.max(1, Math.min(2, fold(query).length() / 4));
+    }
+
+    /**
+     * Checks if the first of some matches is clearly the intended name: it is strictly closer than
+     * every other match.
+     *
+     * @param matches Matches as returned by {@link #search(String, int)}.
+     * @return true if the first match can be used without asking.
+     */
+    public static boolean isUnique(List<Match> matches) {
+        return matches.size() == 1
+                || matches.size() > 1 && matches.get(0).getDistance() < matches.get(1).getDistance();
+    }
+
+    /**
+     * Folds a name for comparison: lower case, trimmed, runs of whitespace collapsed to one space.
+     *
+     * @param name The name.
+     * @return the folded name.
+     */
+    public static String fold(String name) {
+        StringBuilder sb = new StringBuilder(name.length());
+        boolean space = false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = sb.length() > 0;
+            } else {
+                if (space) {
+                    sb.append(' ');
+                    space = false;
+                }
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Computes the Levenshtein distance of two strings, using two rows of the table.
+     *
+     * @param a The first string.
+     * @param b The second string.
+     * @param limit Stop early and return {@code limit + 1} once the distance must exceed this.
+     * @return the edit distance, or {@code limit + 1} if it is over the limit.
+     */
+    public static int distance(String a, String b, int limit) {
+        int length = Math.min(a.length(), b.length()) + 1;
+        return distance(a, b, limit, new int[][] {new int[length], new int[length]});
+    }
+
+    /**
+     * Computes the Levenshtein distance of two strings in caller supplied rows.
+     *
+     * @param a The first string.
+     * @param b The second string.
+     * @param limit Stop early and return {@code limit + 1} once the distance must exceed this.
+     * @param rows Two rows at least as long as the shorter string plus one.
+     * @return the edit distance, or {@code limit + 1} if it is over the limit.
+     */
+    private static int distance(String a, String b, int limit, int[][] rows) {
+        if (a.length() < b.length()) {
+            String swap = a;
+            a = b;
+            b = swap;
+        }
+        if (a.length() - b.length() > limit) {
+            return limit + 1;
+        }
+        int[] previous = rows[0];
+        int[] current = rows[1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = ca == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1),
+                        previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    /**
+     * A name found by a search and its edit distance from the query.
+     */
+    public static final class Match {
+        /** The name as displayed. */
+        private final String name;
+        /** The edit distance between the folded name and the folded query. */
+        private final int distance;
+
+        /**
+         * Constructs a match.
+         *
+         * @param name The name as displayed.
+         * @param distance The edit distance from the query.
+         */
+        Match(String name, int distance) {
+            this.name = name;
+            this.distance = distance;
+        }
+
+        /**
+         * Gets the matched name.
+         *
+         * @return the name as displayed.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the edit distance from the query.
+         *
+         * @return the number of single character edits.
+         */
+        public int getDistance() {
+            return distance;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * A node of the tree: one folded name, and its children keyed by distance.
+     */
+    private static final class Node {
+        /** The folded name. */
+        private final String key;
+        /** The displayed names that fold to the key. */
+        private final List<String> names = new ArrayList<>(1);
+        /** How many times each name was added, parallel to {@link #names}. */
+        private int[] copies = {1};
+        /** The distance of each child to this node, parallel to {@link #children}. */
+        private int[] distances = new int[0];
+        /** The children. */
+        private Node[] children = new Node[0];
+        /** The number of children in use. */
+        private int childCount;
+        /** The largest distance of any child. */
+        private int maxEdge;
+
+        /**
+         * Constructs a node.
+         *
+         * @param key The folded name.
+         * @param name The displayed name.
+         */
+        Node(String key, String name) {
+            this.key = key;
+            this.names.add(name);
+        }
+
+        /**
+         * Adds a copy of a displayed name that folds to the key.
+         *
+         * @param name The displayed name.
+         * @return true if the name is new to the node.
+         */
+        boolean addCopy(String name) {
+            int found = names.indexOf(name);
+            if (found >= 0) {
+                copies[found]++;
+                return false;
+            }
+            if (names.size() == copies.length) {
+                copies = Arrays.copyOf(copies, copies.length * 2);
+            }
+            copies[names.size()] = 1;
+            names.add(name);
+            return true;
+        }
+
+        /**
+         * Gets the child at a distance.
+         *
+         * @param distance The distance to this node.
+         * @return the child, or null if there is none.
+         */
+        Node child(int distance) {
+            for (int i = 0; i < childCount; i++) {
+                if (distances[i] == distance) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Adds a child.
+         *
+         * @param distance The distance of the child to this node.
+         * @param child The child.
+         */
+        void addChild(int distance, Node child) {
+            if (childCount == children.length) {
+                int capacity = Math.max(2, childCount * 2);
+                distances = Arrays.copyOf(distances, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            distances[childCount] = distance;
+            children[childCount++] = child;
+            maxEdge = Math.max(maxEdge, distance);
+        }
+    }
+}
@@ -0,0 +1,422 @@
+package student;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * The games of a catalog stored outside the Java heap, column by column, in one byte buffer.
+ *
+ * <p>The buffer is either allocated off-heap or mapped from a catalog image file written by
+ * {@link #writeTo(Path)}, so a catalog of any size costs the heap a few objects. Rows are in
+ * canonical order, as in {@code GameColumns}. Filters are evaluated on the buffer itself by
+ * {@link #matcher(FilterExpression)}, and a {@code BoardGame} is only made by {@link #game(int)},
+ * for the rows a caller asks for.</p>
+ *
+ * <p>The layout, little endian, is a header of {@value #HEADER} bytes (magic, version, row count,
+ * name arena size), the two double columns, the seven int columns, the offsets of each name in
+ * the two name arenas, then the arenas: the names in UTF-8, and the names in lower case for
+ * {@code ~=} checks, which compare the UTF-8 bytes without decoding them. A buffer is limited to
+ * 2 GB, around eight million games.</p>
+ */
+public final class OffHeapCatalog {
+    /** Marks a catalog image file, "BGOH". */
+    private static final int MAGIC = 0x48_4F_47_42;
+    /** The layout version of catalog image files. */
+    private static final int VERSION = 1;
+    /** Size of the header, which keeps the double columns 8 byte aligned. */
+    private static final int HEADER = 32;
+    /** The double columns, in buffer order. */
+    private static final List<GameData> DOUBLE_COLUMNS = List.of(GameData.RATING,
+            GameData.DIFFICULTY);
+    /** The int columns, in buffer order. */
+    private static final List<GameData> INT_COLUMNS = List.of(GameData.ID, GameData.MIN_PLAYERS,
+            GameData.MAX_PLAYERS, GameData.MIN_TIME, GameData.MAX_TIME, GameData.RANK,
+            GameData.YEAR);
+
+    /** The catalog: header, columns and name arenas. */
+    private final ByteBuffer data;
+    /** The number of games. */
+    private final int rows;
+    /** Where each numeric column starts in {@link #data}, by column ordinal. */
+    private final int[] columnStart = new int[GameData.values().length];
+    /** Where the name offsets start; row r's name runs between offsets r and r + 1. */
+    private final int nameOffsets;
+    /** Where the lower case name offsets start. */
+    private final int lowerOffsets;
+    /** Where the name arena starts. */
+    private final int names;
+    /** Where the lower case name arena starts. */
+    private final int lowerNames;
+
+    /**
+     * Constructs a catalog over a buffer already holding one.
+     *
+     * @param data The buffer, positioned anywhere.
+     * @param rows The number of games.
+     * @param nameBytes The size of the name arena.
+     */
+    private OffHeapCatalog(ByteBuffer data, int rows, int nameBytes) {
+        this.data = data.order(ByteOrder.LITTLE_ENDIAN);
+        this.rows = rows;
+        int offset = HEADER;
+        for (GameData column : DOUBLE_COLUMNS) {
+            columnStart[column.ordinal()] = offset;
+            offset += rows * Double.BYTES;
+        }
+        for (GameData column : INT_COLUMNS) {
+            columnStart[column.ordinal()] = offset;
+            offset += rows * Integer.BYTES;
+        }
+        this.nameOffsets = offset;
+        this.lowerOffsets = nameOffsets + (rows + 1) * Integer.BYTES;
+        this.names = lowerOffsets + (rows + 1) * Integer.BYTES;
+        this.lowerNames = names + nameBytes;
+    }
+
+    /**
+     * Computes the size of a catalog.
+     *
+     * @param rows The number of games.
+     * @param nameBytes The size of the name arena.
+     * @param lowerBytes The size of the lower case name arena.
+     * @return the size in bytes.
+     * @throws IllegalArgumentException if the catalog does not fit in one buffer.
+     */
+    private static int byteSize(long rows, long nameBytes, long lowerBytes) {
+        long size = HEADER + rows * (DOUBLE_COLUMNS.size() * Double.BYTES
+                + INT_COLUMNS.size() * Integer.BYTES) + 2 * (rows + 1) * Integer.BYTES
+                + nameBytes + lowerBytes;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Catalog of " + rows + " games is too large.");
+        }
+        return (int) size;
+    }
+
+    /**
+     * Copies games into a new off-heap catalog.
+     *
+     * @param catalog The games, in any order.
+     * @return the catalog, with rows in canonical order.
+     */
+    public static OffHeapCatalog of(Collection<BoardGame> catalog) {
+        BoardGame[] games = catalog.toArray(new BoardGame[0]);
+        Arrays.sort(games, GameColumns.CANONICAL_ORDER);
+        byte[][] nameUtf8 = new byte[games.length][];
+        byte[][] lowerUtf8 = new byte[games.length][];
+        long nameBytes = 0;
+        long lowerBytes = 0;
+        for (int row = 0; row < games.length; row++) {
+            nameUtf8[row] = games[row].getName().getBytes(StandardCharsets.UTF_8);
+            lowerUtf8[row] = games[row].getName().toLowerCase().getBytes(StandardCharsets.UTF_8);
+            nameBytes += nameUtf8[row].length;
+            lowerBytes += lowerUtf8[row].length;
+        }
+        int size = byteSize(games.length, nameBytes, lowerBytes);
+        OffHeapCatalog built = new OffHeapCatalog(ByteBuffer.allocateDirect(size), games.length,
+                (int) nameBytes);
+        ByteBuffer data = built.data;
+        data.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, games.length)
+                .putInt(12, (int) nameBytes).putInt(16, (int) lowerBytes);
+        int name = built.names;
+        int lower = built.lowerNames;
+        for (int row = 0; row < games.length; row++) {
+            BoardGame game = games[row];
+            for (GameData column : DOUBLE_COLUMNS) {
+                data.putDouble(built.columnStart[column.ordinal()] + row * Double.BYTES,
+                        game.getNumericValue(column));
+            }
+            for (GameData column : INT_COLUMNS) {
+                data.putInt(built.columnStart[column.ordinal()] + row * Integer.BYTES,
+                        (int) game.getNumericValue(column));
+            }
+            data.putInt(built.nameOffsets + row * Integer.BYTES, name);
+            data.put(name, nameUtf8[row]);
+            name += nameUtf8[row].length;
+            data.putInt(built.lowerOffsets + row * Integer.BYTES, lower);
+            data.put(lower, lowerUtf8[row]);
+            lower += lowerUtf8[row].length;
+        }
+        data.putInt(built.nameOffsets + games.length * Integer.BYTES, name);
+        data.putInt(built.lowerOffsets + games.length * Integer.BYTES, lower);
+        return built;
+    }
+
+    /**
+     * Maps a catalog image file read-only, without reading it onto the heap.
+     *
+     * The file stays mapped for as long as the catalog is reachable, and pages are loaded by the
+     * operating system as filters touch them.
+     *
+     * @param file The file, written by {@link #writeTo(Path)}.
+     * @return the catalog.
+     * @throws IOException if the file cannot be read or is not a catalog image.
+     */
+    public static OffHeapCatalog map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a catalog image: " + file);
+            }
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            int rows = data.getInt(8);
+            int nameBytes = data.getInt(12);
+            int lowerBytes = data.getInt(16);
+            if (data.getInt(0) != MAGIC || data.getInt(4) != VERSION || rows < 0
+                    || nameBytes < 0 || lowerBytes < 0
+                    || byteSize(rows, nameBytes, lowerBytes) != size) {
+                throw new IOException("Not a catalog image: " + file);
+            }
+            return new OffHeapCatalog(data, rows, nameBytes);
+        }
+    }
+
+    /**
+     * Writes the catalog as an image file that {@link #map(Path)} reads back.
+     *
+     * @param file The file, replaced if it exists.
+     * @throws IOException if the file cannot be written.
+     */
+    public void writeTo(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer all = data.duplicate().clear();
+            while (all.hasRemaining()) {
+                channel.write(all);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of games.
+     *
+     * @return the row count.
+     */
+    public int size() {
+        return rows;
+    }
+
+    /**
+     * Gets the size of the catalog outside the heap.
+     *
+     * @return the size in bytes.
+     */
+    public long byteSize() {
+        return data.capacity();
+    }
+
+    /**
+     * Makes the game in a row.
+     *
+     * @param row The row.
+     * @return a new game with the row's values.
+     */
+    public BoardGame game(int row) {
+        return new BoardGame(name(row), intValue(GameData.ID, row),
+                intValue(GameData.MIN_PLAYERS, row), intValue(GameData.MAX_PLAYERS, row),
+                intValue(GameData.MIN_TIME, row), intValue(GameData.MAX_TIME, row),
+                doubleValue(GameData.DIFFICULTY, row), intValue(GameData.RANK, row),
+                doubleValue(GameData.RATING, row), intValue(GameData.YEAR, row));
+    }
+
+    /**
+     * Decodes the name of the game in a row.
+     *
+     * @param row The row.
+     * @return the name.
+     */
+    public String name(int row) {
+        int start = data.getInt(nameOffsets + row * Integer.BYTES);
+        byte[] utf8 = new byte[data.getInt(nameOffsets + (row + 1) * Integer.BYTES) - start];
+        data.get(start, utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a numeric value of a row.
+     *
+     * @param column The numeric column.
+     * @param row The row.
+     * @return the value.
+     */
+    double value(GameData column, int row) {
+        return ColumnRange.isWholeNumber(column) ? intValue(column, row)
+                : doubleValue(column, row);
+    }
+
+    /**
+     * Reads a value of an int column.
+     *
+     * @param column The int column.
+     * @param row The row.
+     * @return the value.
+     */
+    private int intValue(GameData column, int row) {
+        return data.getInt(columnStart[column.ordinal()] + row * Integer.BYTES);
+    }
+
+    /**
+     * Reads a value of a double column.
+     *
+     * @param column The double column.
+     * @param row The row.
+     * @return the value.
+     */
+    private double doubleValue(GameData column, int row) {
+        return data.getDouble(columnStart[column.ordinal()] + row * Double.BYTES);
+    }
+
+    /**
+     * Copies a numeric column onto the heap, for computing its statistics.
+     *
+     * @param column The numeric column.
+     * @return the value of every row, in row order.
+     */
+    double[] column(GameData column) {
+        double[] values = new double[rows];
+        for (int row = 0; row < rows; row++) {
+            values[row] = value(column, row);
+        }
+        return values;
+    }
+
+    /**
+     * Builds a check of rows against a filter expression, reading the buffer directly.
+     *
+     * Numeric checks read one value per row; {@code ~=} compares bytes in the lower case arena;
+     * other name checks decode the row's name, to keep the exact case-insensitive semantics of
+     * {@code BoardGameFilter}.
+     *
+     * @param expression The expression, optimized or not.
+     * @return the check, true for rows whose game the expression accepts.
+     * @throws IllegalArgumentException if a condition cannot be evaluated.
+     */
+    IntPredicate matcher(FilterExpression expression) {
+        if (expression instanceof FilterExpression.Constant) {
+            boolean value = ((FilterExpression.Constant) expression).getValue();
+            return row -> value;
+        }
+        if (expression instanceof FilterExpression.Condition) {
+            return matcher(((FilterExpression.Condition) expression).getCondition());
+        }
+        if (expression instanceof FilterExpression.Range) {
+            ColumnRange range = ((FilterExpression.Range) expression).getRange();
+            GameData column = range.getColumn();
+            return row -> range.test(value(column, row));
+        }
+        if (expression instanceof FilterExpression.And) {
+            IntPredicate[] children = matchers(((FilterExpression.And) expression).getChildren());
+            return row -> {
+                for (IntPredicate child : children) {
+                    if (!child.test(row)) {
+                        return false;
+                    }
+                }
+                return true;
+            };
+        }
+        if (expression instanceof FilterExpression.Or) {
+            IntPredicate[] children = matchers(((FilterExpression.Or) expression).getChildren());
+            return row -> {
+                for (IntPredicate child : children) {
+                    if (child.test(row)) {
+                        return true;
+                    }
+                }
+                return false;
+            };
+        }
+        if (expression instanceof FilterExpression.Not) {
+            return matcher(((FilterExpression.Not) expression).getChild()).negate();
+        }
+        throw new IllegalArgumentException("Unsupported expression: " + expression);
+    }
+
+    /**
+     * Builds the checks of several expressions.
+     *
+     * @param expressions The expressions.
+     * @return the checks, in the same order.
+     */
+    private IntPredicate[] matchers(List<FilterExpression> expressions) {
+        IntPredicate[] checks = new IntPredicate[expressions.size()];
+        for (int i = 0; i < checks.length; i++) {
+            checks[i] = matcher(expressions.get(i));
+        }
+        return checks;
+    }
+
+    /**
+     * Builds the check of one condition.
+     *
+     * @param condition The condition.
+     * @return the check.
+     * @throws IllegalArgumentException if the value or operation is invalid for the column.
+     */
+    private IntPredicate matcher(FilterCondition condition) {
+        GameData column = condition.getColumn();
+        String text = condition.getValue();
+        Operations op = condition.getOperation();
+        if (column == GameData.NAME) {
+            return switch (op) {
+                case CONTAINS -> {
+                    byte[] needle = text.toLowerCase().getBytes(StandardCharsets.UTF_8);
+                    yield row -> lowerContains(row, needle);
+                }
+                case EQUALS -> row -> name(row).equalsIgnoreCase(text);
+                case NOT_EQUALS -> row -> !name(row).equalsIgnoreCase(text);
+                case GREATER_THAN -> row -> name(row).compareToIgnoreCase(text) > 0;
+                case GREATER_THAN_EQUALS -> row -> name(row).compareToIgnoreCase(text) >= 0;
+                case LESS_THAN -> row -> name(row).compareToIgnoreCase(text) < 0;
+                case LESS_THAN_EQUALS -> row -> name(row).compareToIgnoreCase(text) <= 0;
+                default -> throw new IllegalArgumentException("Unsupported operation for name: "
+                        + op);
+            };
+        }
+        double value = ColumnRange.isWholeNumber(column) ? Integer.parseInt(text)
+                : Double.parseDouble(text);
+        return switch (op) {
+            case EQUALS -> row -> value(column, row) == value;
+            case NOT_EQUALS -> row -> value(column, row) != value;
+            case GREATER_THAN -> row -> value(column, row) > value;
+            case GREATER_THAN_EQUALS -> row -> value(column, row) >= value;
+            case LESS_THAN -> row -> value(column, row) < value;
+            case LESS_THAN_EQUALS -> row -> value(column, row) <= value;
+            default -> throw new IllegalArgumentException("Unsupported operation for " + column
+                    + ": " + op);
+        };
+    }
+
+    /**
+     * Checks if the lower case name of a row contains some bytes.
+     *
+     * UTF-8 never starts a character inside another, so a byte match is a character match.
+     *
+     * @param row The row.
+     * @param needle The lower case text, in UTF-8.
+     * @return true if the name contains it.
+     */
+    private boolean lowerContains(int row, byte[] needle) {
+        int start = data.getInt(lowerOffsets + row * Integer.BYTES);
+        int last = data.getInt(lowerOffsets + (row + 1) * Integer.BYTES) - needle.length;
+        for (int at = start; at <= last; at++) {
+            int i = 0;
+            while (i < needle.length && data.get(at + i) == needle[i]) {
+                i++;
+            }
+            if (i == needle.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
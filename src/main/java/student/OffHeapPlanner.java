@@ -0,0 +1,327 @@
+package student;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.stream.Stream;
+
+/**
+ * A planner over an {@link OffHeapCatalog}, for catalogs too large to keep as objects.
+ *
+ * <p>Filters are planned as in {@code Planner}, with statistics computed once from the columns,
+ * and evaluated on the off-heap buffer. Filters are progressive: the games still in are a bitmap
+ * over the rows, an eighth of a byte per game on the heap. The games of a result are made from
+ * their rows as the stream is read, so a caller that reads the first page only makes that page;
+ * a sort makes every game of the result.</p>
+ */
+public final class OffHeapPlanner implements IPlanner {
+    /** The games, off the heap. */
+    private final OffHeapCatalog catalog;
+    /** Statistics of the numeric columns of {@link #catalog}. */
+    private final CatalogStatistics statistics;
+    /** The rows that passed every filter since the last reset. */
+    private BitSet current;
+    /** The filters applied since the last reset, in order. */
+    private final List<String> history = new ArrayList<>();
+    /** Edit distance index of the game names, built on first use. */
+    private NameIndex names;
+
+    /**
+     * Constructs a planner over an off-heap catalog.
+     *
+     * @param catalog The games.
+     */
+    public OffHeapPlanner(OffHeapCatalog catalog) {
+        this.catalog = catalog;
+        this.statistics = CatalogStatistics.compute(catalog.size(), catalog::column);
+        this.current = allRows();
+    }
+
+    /**
+     * Filters the games based on a given filter string.
+     *
+     * The optimized filter runs over the rows still in from the previous filters. Rows are in
+     * canonical order, which already sorts the result by name. An empty filter returns the
+     * current results.
+     *
+     * @param filter The filtering condition.
+     * @return A stream of filtered board games.
+     */
+    @Override
+    public Stream<BoardGame> filter(String filter) {
+        FilterExpression plan = plan(filter);
+        int scanned = isEmpty(plan) ? 0 : current.cardinality();
+
+        PlannerEvents.FilterEvaluate event = new PlannerEvents.FilterEvaluate();
+        event.begin();
+        BitSet matched = evaluate(plan, current);
+        current = matched;
+        if (!filter.isBlank()) {
+            history.add(filter);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.filter = filter;
+            event.rowsScanned = scanned;
+            event.rowsReturned = matched.cardinality();
+            event.commit();
+        }
+        return matched.stream().mapToObj(catalog::game); // the bitmap is never changed again
+    }
+
+    /**
+     * Runs a plan over some rows of the catalog, reporting to the thread's
+     * {@link QueryContext}.
+     *
+     * @param plan The optimized expression.
+     * @param rows The rows to test.
+     * @return the rows that match, a new bitmap.
+     * @throws QueryCancelledException if the query was cancelled.
+     */
+    private BitSet evaluate(FilterExpression plan, BitSet rows) {
+        if (plan instanceof FilterExpression.Constant) {
+            return ((FilterExpression.Constant) plan).getValue() ? (BitSet) rows.clone()
+                    : new BitSet();
+        }
+        IntPredicate check = catalog.matcher(plan);
+        BitSet matched = new BitSet(catalog.size());
+        QueryContext context = QueryContext.current();
+        context.startScan(rows.cardinality());
+        int pending = 0;
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            if (++pending == QueryContext.CHECK_ROWS) {
+                context.progress(pending);
+                pending = 0;
+            }
+            if (check.test(row)) {
+                matched.set(row);
+            }
+        }
+        context.progress(pending);
+        return matched;
+    }
+
+    /**
+     * Gets a bitmap of every row of the catalog.
+     *
+     * @return the bitmap.
+     */
+    private BitSet allRows() {
+        BitSet rows = new BitSet(catalog.size());
+        rows.set(0, catalog.size());
+        return rows;
+    }
+
+    /**
+     * Filters and sorts the games based on a given attribute.
+     *
+     * @param filter The filtering condition.
+     * @param sortOn The sorting attribute (e.g., NAME, RATING).
+     * @return A sorted stream of filtered board games.
+     */
+    @Override
+    public Stream<BoardGame> filter(String filter, GameData sortOn) {
+        return GameSorter.sort(filter(filter), sortOn, true);
+    }
+
+    /**
+     * Filters and sorts the games based on a given attribute and order.
+     *
+     * @param filter The filtering condition.
+     * @param sortOn The sorting attribute (e.g., NAME, RATING).
+     * @param ascending Whether to sort in ascending order.
+     * @return A sorted stream of filtered board games.
+     */
+    @Override
+    public Stream<BoardGame> filter(String filter, GameData sortOn, boolean ascending) {
+        return GameSorter.sort(filter(filter), sortOn, ascending);
+    }
+
+    /**
+     * Filters and sorts the games on several keys.
+     *
+     * @param filter The filtering condition.
+     * @param sortKeys The sort keys, most significant first.
+     * @return A sorted stream of filtered board games.
+     */
+    @Override
+    public Stream<BoardGame> filter(String filter, List<SortKey> sortKeys) {
+        return GameSorter.sort(filter(filter), sortKeys);
+    }
+
+    /**
+     * Resets the planner to the whole catalog, forgetting the filters applied.
+     */
+    @Override
+    public void reset() {
+        current = allRows();
+        history.clear();
+    }
+
+    /**
+     * Explains how a filter and sort are executed, as {@code Planner} does.
+     *
+     * @param filter The filtering condition.
+     * @param sortOn The sorting attribute (e.g., NAME, RATING).
+     * @param ascending Whether to sort in ascending order.
+     * @return the execution details of the filter.
+     */
+    @Override
+    public FilterExplanation explain(String filter, GameData sortOn, boolean ascending) {
+        if (sortOn == null) {
+            throw new IllegalArgumentException("Sorting attribute cannot be null.");
+        }
+        FilterExpression plan = plan(filter);
+        boolean empty = isEmpty(plan);
+        List<FilterExpression> checks = conjuncts(plan);
+        int count = checks.size();
+        IntPredicate[] tests = new IntPredicate[count];
+        for (int i = 0; i < count; i++) {
+            tests[i] = catalog.matcher(checks.get(i));
+        }
+        long[] rowsIn = new long[count];
+        long[] rowsOut = new long[count];
+        BitSet matched = new BitSet();
+        long start = System.nanoTime();
+        int startRows = current.cardinality();
+        QueryContext context = QueryContext.current();
+        context.startScan(empty ? 0 : startRows);
+        if (!empty) {
+            int pending = 0;
+            for (int row = current.nextSetBit(0); row >= 0; row = current.nextSetBit(row + 1)) {
+                if (++pending == QueryContext.CHECK_ROWS) {
+                    context.progress(pending);
+                    pending = 0;
+                }
+                boolean keep = true;
+                for (int i = 0; i < count && keep; i++) {
+                    rowsIn[i]++;
+                    keep = tests[i].test(row);
+                    if (keep) {
+                        rowsOut[i]++;
+                    }
+                }
+                if (keep) {
+                    matched.set(row);
+                }
+            }
+        }
+        long filterNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        GameSorter.sort(matched.stream().mapToObj(catalog::game), sortOn, ascending).count();
+        long sortNanos = System.nanoTime() - start;
+
+        List<FilterExplanation.Step> steps = new ArrayList<>();
+        double estimate = startRows;
+        for (int i = 0; i < count; i++) {
+            long estimatedIn = Math.round(estimate);
+            estimate *= QueryOptimizer.selectivity(checks.get(i), statistics);
+            steps.add(new FilterExplanation.Step(i + 1, checks.get(i).toString(),
+                    estimatedIn, Math.round(estimate), rowsIn[i], rowsOut[i]));
+        }
+        String accessPath = empty ? "none, " + ((FilterExpression.Constant) plan).getReason()
+                : "off-heap scan of the " + startRows + " games in the current results";
+        return new FilterExplanation(filter, sortOn, ascending, accessPath, startRows,
+                matched.cardinality(), steps, filterNanos, sortNanos);
+    }
+
+    /**
+     * Finds the game names closest to a possibly misspelled name.
+     *
+     * The name index is built on the heap on first use, from the names in the catalog.
+     *
+     * @param name The name as typed.
+     * @param limit The most names to return.
+     * @return the closest names, closest first.
+     */
+    @Override
+    public List<NameIndex.Match> suggestNames(String name, int limit) {
+        if (names == null) {
+            List<String> all = new ArrayList<>(catalog.size());
+            for (int row = 0; row < catalog.size(); row++) {
+                all.add(catalog.name(row));
+            }
+            names = NameIndex.of(all);
+        }
+        return names.suggest(name, limit);
+    }
+
+    /**
+     * Computes an aggregate of the current results, reading the columns off the heap.
+     *
+     * @param query The aggregate query.
+     * @return the result.
+     */
+    @Override
+    public Aggregate.Result aggregate(Aggregate query) {
+        return query.over(current, column -> row -> catalog.value(column, row));
+    }
+
+    /**
+     * Counts the facets of the current results in one pass, reading the columns off the heap.
+     *
+     * @param facets The facets to count.
+     * @return the counts.
+     */
+    @Override
+    public FacetCounts facets(List<Facet> facets) {
+        return FacetCounts.of(facets, current, column -> row -> catalog.value(column, row));
+    }
+
+    /**
+     * Gets the column statistics.
+     *
+     * @return the statistics of the games catalog.
+     */
+    public CatalogStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Gets the filters applied since the last reset.
+     *
+     * @return the filters, in the order applied.
+     */
+    public List<String> getHistory() {
+        return List.copyOf(history);
+    }
+
+    /**
+     * Parses and optimizes a filter.
+     *
+     * @param filter The filtering condition.
+     * @return the expression to evaluate per row, a constant if no scan is needed.
+     */
+    private FilterExpression plan(String filter) {
+        return QueryOptimizer.optimize(FilterParser.parseExpression(filter), statistics);
+    }
+
+    /**
+     * Checks if a plan is provably empty.
+     *
+     * @param plan The optimized expression.
+     * @return true if no game can match.
+     */
+    private static boolean isEmpty(FilterExpression plan) {
+        return plan instanceof FilterExpression.Constant
+                && !((FilterExpression.Constant) plan).getValue();
+    }
+
+    /**
+     * Splits a plan into the checks that are ANDed at the top level.
+     *
+     * @param plan The optimized expression.
+     * @return the top level checks in evaluation order, empty for a constant.
+     */
+    private static List<FilterExpression> conjuncts(FilterExpression plan) {
+        if (plan instanceof FilterExpression.Constant) {
+            return List.of();
+        }
+        if (plan instanceof FilterExpression.And) {
+            return ((FilterExpression.And) plan).getChildren();
+        }
+        return List.of(plan);
+    }
+}
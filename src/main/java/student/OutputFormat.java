@@ -0,0 +1,33 @@
+package student;
+
+/**
+ * Enum for the ways the console app can write its output.
+ *
+ * TEXT is what a person at the terminal sees. TSV and JSON are for scripts: each game is one line
+ * with every column, and messages are kept apart from the games, as {@code #} comment lines in
+ * TSV and as {@code {"message": ...}} objects in JSON (one JSON object per line).
+ */
+public enum OutputFormat {
+    /** Numbered rows with the sort column, as in interactive use. */
+    TEXT,
+    /** Tab separated columns in {@code GameData} order without the id, messages as comments. */
+    TSV,
+    /** One JSON object per line, keyed by the csv column names. */
+    JSON;
+
+    /**
+     * Get the format from its name, ignoring case.
+     *
+     * @param name the name of the format, such as tsv.
+     * @return the format.
+     * @throws IllegalArgumentException if there is no format with that name.
+     */
+    public static OutputFormat fromString(String name) {
+        for (OutputFormat format : OutputFormat.values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("No output format with name " + name);
+    }
+}
@@ -0,0 +1,304 @@
+package student;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sorts games on several keys by packing each row's keys into one {@code long}.
+ *
+ * <p>Each key column is first turned into ranks that order the rows the way the values do: ints
+ * in a narrow range by their offset from the smallest, other numbers by their index among the
+ * sorted distinct values (doubles encoded through their bits with the sign flipped, so they sort
+ * as longs), and names by their index ignoring case. A key with {@code d} rank values needs
+ * {@code ceil(log2 d)} bits. The ranks are packed most significant key first, descending keys with
+ * their ranks inverted, and the row number goes in the low bits. Sorting the packed longs as
+ * primitives then gives the multi-key order, with ties kept in input order.</p>
+ *
+ * <p>When the keys and row number need more than 63 bits the rows are sorted by comparing their
+ * rank arrays instead, which is the same order, only slower.</p>
+ *
+ * <p>A sort run under a {@link QueryBudget} checks the time between keys and radix passes; once
+ * it is up, the sort gives up and leaves the rows in input order.</p>
+ */
+final class PackedKeySort {
+    /** Bits available in a packed key; the sign bit stays clear. */
+    private static final int PACKED_BITS = Long.SIZE - 1;
+    /** Int ranges narrower than this, or than the row count, are ranked without sorting. */
+    private static final int DIRECT_RANGE = 1 << 16;
+    /** Inputs with fewer rows than this are comparison sorted. */
+    static final int RADIX_THRESHOLD = 1 << 12;
+    /** Bits per radix pass. */
+    private static final int RADIX_BITS = 11;
+    /** Key widths sorted in a single counting pass. */
+    private static final int COUNTING_BITS = 16;
+
+    // Prevents instantiation of this utility class
+    private PackedKeySort() {
+        throw new UnsupportedOperationException("Utility class - do not instantiate");
+    }
+
+    /**
+     * Sorts games on keys.
+     *
+     * @param rows The games, in the order ties should keep.
+     * @param keys The keys, most significant first.
+     * @return the games in sorted order, a new array; in input order if the query's time ran out.
+     */
+    static BoardGame[] sort(BoardGame[] rows, List<SortKey> keys) {
+        int n = rows.length;
+        int[][] ranks = new int[keys.size()][];
+        int[] bits = new int[keys.size()];
+        int totalBits = bitsFor(n);
+        QueryContext context = QueryContext.current();
+        for (int k = 0; k < keys.size(); k++) {
+            context.checkCancelled();
+            if (!context.withinTime()) {
+                context.truncate(QueryBudget.Limit.TIME);
+                return rows.clone();
+            }
+            SortKey key = keys.get(k);
+            int values = rank(rows, key.getColumn(), ranks[k] = new int[n]);
+            if (!key.isAscending()) {
+                for (int i = 0; i < n; i++) {
+                    ranks[k][i] = values - 1 - ranks[k][i];
+                }
+            }
+            bits[k] = bitsFor(values);
+            totalBits += bits[k];
+        }
+
+        BoardGame[] sorted = new BoardGame[n];
+        context.checkCancelled();
+        if (!context.withinTime()) {
+            context.truncate(QueryBudget.Limit.TIME);
+            return rows.clone();
+        }
+        if (totalBits <= PACKED_BITS) {
+            int rowBits = bitsFor(n);
+            long[] packed = new long[n];
+            for (int i = 0; i < n; i++) {
+                long value = 0;
+                for (int k = 0; k < ranks.length; k++) {
+                    value = (value << bits[k]) | ranks[k][i];
+                }
+                packed[i] = (value << rowBits) | i;
+            }
+            if (n < RADIX_THRESHOLD) {
+                Arrays.sort(packed);
+            } else if (!radixSort(packed, rowBits, totalBits)) {
+                context.truncate(QueryBudget.Limit.TIME);
+                return rows.clone();
+            }
+            long rowMask = (1L << rowBits) - 1;
+            for (int i = 0; i < n; i++) {
+                sorted[i] = rows[(int) (packed[i] & rowMask)];
+            }
+        } else {
+            Integer[] order = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> {
+                for (int[] rank : ranks) {
+                    if (rank[a] != rank[b]) {
+                        return Integer.compare(rank[a], rank[b]);
+                    }
+                }
+                return Integer.compare(a, b);
+            });
+            for (int i = 0; i < n; i++) {
+                sorted[i] = rows[order[i]];
+            }
+        }
+        return sorted;
+    }
+
+    /**
+     * Computes the rank of every row's value in a column: ranks order the rows the way the values
+     * do, and rows with equal values have equal ranks.
+     *
+     * <p>Int columns spanning a small range are ranked by their offset from the smallest value,
+     * which needs no sort. Other numeric columns get dense ranks from a sorted copy of their
+     * encodings. Names already in order, as the planner returns them, are ranked in one pass;
+     * otherwise a sorted copy assigns each distinct name its rank.</p>
+     *
+     * @param rows The games.
+     * @param column The column.
+     * @param ranks Receives the rank of each row, 0 for the smallest value.
+     * @return the number of rank values, one more than the largest rank.
+     */
+    static int rank(BoardGame[] rows, GameData column, int[] ranks) {
+        int n = rows.length;
+        if (n == 0) {
+            return 0;
+        }
+        if (column == GameData.NAME) {
+            return rankNames(rows, ranks);
+        }
+        long[] encoded = new long[n];
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            encoded[i] = encode(rows[i], column);
+            min = Math.min(min, encoded[i]);
+            max = Math.max(max, encoded[i]);
+        }
+        if (column != GameData.RATING && column != GameData.DIFFICULTY
+                && max - min < Math.max(n, DIRECT_RANGE)) {
+            for (int i = 0; i < n; i++) {
+                ranks[i] = (int) (encoded[i] - min);
+            }
+            return (int) (max - min) + 1;
+        }
+        long[] distinct = encoded.clone();
+        Arrays.sort(distinct);
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            if (count == 0 || distinct[count - 1] != distinct[i]) {
+                distinct[count++] = distinct[i];
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            ranks[i] = Arrays.binarySearch(distinct, 0, count, encoded[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Computes the rank of every row's name, ignoring case.
+     *
+     * @param rows The games, at least one.
+     * @param ranks Receives the rank of each row, 0 for the first name.
+     * @return the number of distinct names, ignoring case.
+     */
+    private static int rankNames(BoardGame[] rows, int[] ranks) {
+        Comparator<String> order = String.CASE_INSENSITIVE_ORDER;
+        int n = rows.length;
+        int rank = 0;
+        for (int i = 1; i < n && rank >= 0; i++) {
+            int compared = order.compare(rows[i - 1].getName(), rows[i].getName());
+            rank = compared > 0 ? -1 : compared < 0 ? rank + 1 : rank;
+            ranks[i] = rank;
+        }
+        if (rank >= 0) { // already in name order
+            ranks[0] = 0;
+            return rank + 1;
+        }
+        String[] names = new String[n];
+        for (int i = 0; i < n; i++) {
+            names[i] = rows[i].getName();
+        }
+        Arrays.sort(names, order);
+        Map<String, Integer> rankOf = new HashMap<>();
+        rank = 0;
+        for (int i = 0; i < n; i++) {
+            if (i > 0 && order.compare(names[i - 1], names[i]) != 0) {
+                rank++;
+            }
+            rankOf.putIfAbsent(names[i], rank);
+        }
+        for (int i = 0; i < n; i++) {
+            ranks[i] = rankOf.get(rows[i].getName());
+        }
+        return rank + 1;
+    }
+
+    /**
+     * Encodes a numeric column value as a long that sorts the way {@code Double.compare} or
+     * {@code Integer.compare} order the values.
+     *
+     * @param game The game.
+     * @param column The numeric column.
+     * @return the order preserving encoding.
+     */
+    static long encode(BoardGame game, GameData column) {
+        return switch (column) {
+            case RATING -> encode(game.getRating());
+            case DIFFICULTY -> encode(game.getDifficulty());
+            case MIN_PLAYERS -> game.getMinPlayers();
+            case MAX_PLAYERS -> game.getMaxPlayers();
+            case MIN_TIME -> game.getMinPlayTime();
+            case MAX_TIME -> game.getMaxPlayTime();
+            case RANK -> game.getRank();
+            case YEAR -> game.getYearPublished();
+            default -> throw new IllegalArgumentException("Unsupported sorting type: " + column);
+        };
+    }
+
+    /**
+     * Encodes a double as a long with the same order as {@code Double.compare}: negative values
+     * have their magnitude bits flipped so larger magnitudes sort first.
+     *
+     * @param value The value.
+     * @return the order preserving encoding.
+     */
+    static long encode(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> (Long.SIZE - 1)) & Long.MAX_VALUE);
+    }
+
+    /**
+     * Sorts longs on a range of their bits with stable LSD radix passes.
+     *
+     * Keys of up to {@link #COUNTING_BITS} bits are sorted in one counting pass, wider keys in
+     * passes of {@link #RADIX_BITS} bits, least significant first.
+     *
+     * @param values The values, sorted in place.
+     * @param fromBit The lowest bit of the key.
+     * @param toBit One past the highest bit of the key.
+     * @return true once sorted, false if the query's time ran out first, leaving the values in
+     *         no particular order.
+     */
+    static boolean radixSort(long[] values, int fromBit, int toBit) {
+        int keyBits = toBit - fromBit;
+        if (keyBits <= 0) {
+            return true;
+        }
+        int digitBits = keyBits <= COUNTING_BITS ? keyBits : RADIX_BITS;
+        long[] from = values;
+        long[] to = new long[values.length];
+        int[] counts = new int[1 << digitBits];
+        QueryContext context = QueryContext.current();
+        for (int shift = fromBit; shift < toBit; shift += digitBits) {
+            context.checkCancelled();
+            if (!context.withinTime()) {
+                return false;
+            }
+            int bits = Math.min(digitBits, toBit - shift);
+            int mask = (1 << bits) - 1;
+            Arrays.fill(counts, 0);
+            for (long value : from) {
+                counts[(int) (value >>> shift) & mask]++;
+            }
+            int offset = 0;
+            for (int d = 0; d <= mask; d++) {
+                int count = counts[d];
+                counts[d] = offset;
+                offset += count;
+            }
+            for (long value : from) {
+                to[counts[(int) (value >>> shift) & mask]++] = value;
+            }
+            long[] swap = from;
+            from = to;
+            to = swap;
+        }
+        if (from != values) {
+            System.arraycopy(from, 0, values, 0, values.length);
+        }
+        return true;
+    }
+
+    /**
+     * Gets the bits needed to store values from 0 to {@code count - 1}.
+     *
+     * @param count The number of values.
+     * @return the number of bits, 0 when there is at most one value.
+     */
+    private static int bitsFor(int count) {
+        return count <= 1 ? 0 : Integer.SIZE - Integer.numberOfLeadingZeros(count - 1);
+    }
+}
@@ -1,21 +1,104 @@
 package student;
 
-import java.util.Comparator;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.Set;
-import java.util.function.Predicate;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.UnaryOperator;
 import java.util.stream.Stream;
 
 /**
  * The {@code Planner} class implements the {@code IPlanner} interface
  * and provides filtering and sorting capabilities for board games.
+ *
+ * <p>Column statistics are gathered when the planner is built. Before a filter is run it is
+ * rewritten by {@code QueryOptimizer}: conditions on the same column are folded into one range,
+ * and the statistics are used to drop ranges that every game falls in, to return provably empty
+ * filters without a scan, and to evaluate the most selective checks first.</p>
+ *
+ * <p>Filters are progressive: each one only sees the games that passed the filters before it,
+ * until {@link #reset()}. The games still in are kept as a bitmap over the rows of the columns,
+ * and the filters applied as a history, which is what a {@link SessionCheckpoint} saves.</p>
+ *
+ * <p>A {@link CatalogDelta} is applied in place by {@link #applyDelta(CatalogDelta)}: the
+ * columns, statistics, name index and fingerprint are patched for the changed games only, and the
+ * history is replayed over just those games to keep the current results. Rows keep their numbers,
+ * so results and checkpoint handles stay valid. Once enough rows have changed the columns are
+ * rebuilt in canonical order, which spreads the cost of the rebuild over the deltas before it.</p>
+ *
+ * <p>Each filter is also pushed on an undo stack with its result, stored as a bitmap or, when
+ * few games passed, as their row numbers, so {@link #undo()} and {@link #redo()} restore a
+ * state without running a filter. The stack keeps at most {@value #UNDO_STEPS} steps and
+ * {@value #UNDO_BYTES} bytes of results, evicting the oldest steps first.</p>
+ *
+ * <p>Each filter, and each filter and sort, runs under the planner's {@link QueryBudget}, so one
+ * broad query cannot hold a shared planner. A query over a limit, whether in its scan or its
+ * sort, returns the games found so far, in name order, without applying the filter, and
+ * {@link #getLastUsage()} tells it was truncated.</p>
  */
 public class Planner implements IPlanner {
+    /** The most filter steps kept for undo. */
+    private static final int UNDO_STEPS = 32;
+    /** The most bytes of cached results kept for undo. */
+    private static final long UNDO_BYTES = 8L << 20;
+
     /**
      * A set of board games managed by this planner.
      * This set is used for filtering and sorting operations.
      */
     private final Set<BoardGame> games; // Stores the games
 
+    /** Statistics of the numeric columns of {@link #games}. */
+    private CatalogStatistics statistics;
+
+    /** The games stored column by column, in canonical order, for compiled filters. */
+    private GameColumns columns;
+
+    /** Edit distance index of the game names, built on first use. */
+    private NameIndex names;
+
+    /** The rows of {@link #columns} that passed every filter since the last reset. */
+    private BitSet current;
+
+    /** The filters applied since the last reset, in order. */
+    private final List<String> history = new ArrayList<>();
+
+    /** The filters that can be undone, most recent first, each with its result. */
+    private final Deque<FilterStep> undoSteps = new ArrayDeque<>();
+
+    /** The filters undone that can be redone, most recently undone first. */
+    private final Deque<FilterStep> redoSteps = new ArrayDeque<>();
+
+    /** The bytes of results held by {@link #undoSteps} and {@link #redoSteps}. */
+    private long stepBytes;
+
+    /** Alias tables over the rows, per weight, for picking from the whole catalog. */
+    private final Map<RandomPicker.Weight, RandomPicker.AliasTable> aliasTables =
+            new EnumMap<>(RandomPicker.Weight.class);
+
+    /** Every facet of the whole catalog, counted on first use. */
+    private FacetCounts catalogFacets;
+
+    /** The row of each game id, for applying deltas, built on first use. */
+    private Map<Integer, Integer> rowById;
+
+    /** Fingerprint of the catalog in {@link #columns}, kept up to date by deltas. */
+    private long fingerprint;
+
+    /** The limits of each query. */
+    private volatile QueryBudget budget = QueryBudget.UNLIMITED;
+
+    /** What the last query used of its budget, null before the first. */
+    private volatile QueryUsage lastUsage;
+
     /**
      * Constructs a Planner with a given set of board games.
      *
@@ -23,23 +106,189 @@ public class Planner implements IPlanner {
      */
     public Planner(Set<BoardGame> games) {
         this.games = games;
+        this.statistics = CatalogStatistics.compute(games);
+        this.columns = GameColumns.of(games);
+        this.fingerprint = fingerprint(columns);
+        this.current = allRows();
     }
 
     /**
      * Filters the games based on a given filter string.
      *
+     * The optimized filter is compiled by {@code FilterCompiler} and run over the rows still in
+     * from the previous filters. The columns are in canonical order, which already sorts the
+     * result by name. An empty filter returns the current results.
+     *
      * @param filter The filtering condition.
      * @return A stream of filtered board games.
      */
     @Override
     public Stream<BoardGame> filter(String filter) {
-        Predicate<BoardGame> predicate = FilterParser.parse(filter)
-                .stream()
-                .reduce(x -> true, Predicate::and);
+        return QueryContext.metered(filter, budget, () -> run(filter, null), this::recordUsage);
+    }
+
+    /**
+     * Filters the games, and sorts them if asked, under the budget of the query running.
+     *
+     * The filter is only applied, to the current results, history and undo stack, once the whole
+     * query is done: a query cancelled in its sort leaves the planner as it was. A query stopped
+     * by the budget, in its scan or in its sort, returns what it has so far but is not applied
+     * either, so later filters never depend on where a budget cut a query.
+     *
+     * @param filter The filtering condition.
+     * @param sort Sorts the filtered games, or null to keep them in name order.
+     * @return A stream of filtered board games.
+     */
+    private Stream<BoardGame> run(String filter, UnaryOperator<Stream<BoardGame>> sort) {
+        FilterExpression plan = plan(filter);
+        int scanned = isEmpty(plan) ? 0 : current.cardinality();
+
+        PlannerEvents.FilterEvaluate event = new PlannerEvents.FilterEvaluate();
+        event.begin();
+        QueryContext context = QueryContext.current();
+        BitSet passed = evaluate(plan, current);
+        List<BoardGame> matched = games(passed);
+        context.recordResults(matched.size());
+        event.end();
+        if (event.shouldCommit()) {
+            event.filter = filter;
+            event.rowsScanned = scanned;
+            event.rowsReturned = matched.size();
+            event.commit();
+        }
+        Stream<BoardGame> results = sort == null ? matched.stream() : sort.apply(matched.stream());
+        if (!context.isTruncated()) { // partial results are returned, never applied
+            current = passed;
+            if (!filter.isBlank()) {
+                history.add(filter);
+                pushStep(filter);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Keeps what a query used of its budget.
+     *
+     * @param usage The usage.
+     */
+    private void recordUsage(QueryUsage usage) {
+        lastUsage = usage;
+    }
 
-        return games.stream()
-                .filter(predicate)
-                .sorted(Comparator.comparing(BoardGame::getName, String.CASE_INSENSITIVE_ORDER));
+    /**
+     * Runs a plan over some rows of the columns.
+     *
+     * The scan reports its progress to the {@link QueryContext} of the thread, and stops if the
+     * query is cancelled, before anything was changed. It also stops at the rows, results or
+     * time left in the query's budget, and then returns the rows matched so far.
+     *
+     * @param plan The optimized expression.
+     * @param rows The rows to test.
+     * @return the rows that match, a new bitmap.
+     * @throws QueryCancelledException if the query was cancelled.
+     */
+    private BitSet evaluate(FilterExpression plan, BitSet rows) {
+        if (plan instanceof FilterExpression.Constant) {
+            return ((FilterExpression.Constant) plan).getValue() ? limitResults(rows)
+                    : new BitSet();
+        }
+        CompiledFilter compiled = FilterCompiler.compile(plan);
+        GameColumns scanned = columns;
+        BitSet matched = new BitSet(scanned.size());
+        QueryContext context = QueryContext.current();
+        context.startScan(rows.cardinality());
+        long rowsLeft = context.rowsLeft();
+        int resultsLeft = context.resultsLeft();
+        int pending = 0;
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            if (rowsLeft-- == 0) {
+                context.truncate(QueryBudget.Limit.ROWS);
+                break;
+            }
+            if (++pending == QueryContext.CHECK_ROWS) {
+                pending = 0;
+                if (!context.progress(QueryContext.CHECK_ROWS)) {
+                    context.truncate(QueryBudget.Limit.TIME);
+                    break;
+                }
+            }
+            if (compiled.test(scanned, row)) {
+                if (resultsLeft-- == 0) {
+                    context.truncate(QueryBudget.Limit.RESULTS);
+                    break;
+                }
+                matched.set(row);
+            }
+        }
+        context.progress(pending);
+        return matched;
+    }
+
+    /**
+     * Keeps the first rows, up to the results left in the query's budget, without a scan.
+     *
+     * @param rows The rows that match.
+     * @return the rows kept, a new bitmap.
+     */
+    private static BitSet limitResults(BitSet rows) {
+        QueryContext context = QueryContext.current();
+        int resultsLeft = context.resultsLeft();
+        if (rows.cardinality() <= resultsLeft) {
+            return (BitSet) rows.clone();
+        }
+        context.truncate(QueryBudget.Limit.RESULTS);
+        BitSet kept = new BitSet();
+        for (int row = rows.nextSetBit(0); resultsLeft-- > 0; row = rows.nextSetBit(row + 1)) {
+            kept.set(row);
+        }
+        return kept;
+    }
+
+    /**
+     * Gets the games in some rows, in canonical order.
+     *
+     * Rows appended by deltas come after the rows in canonical order, so they are sorted on their
+     * own and merged in; there are few of them, as the columns are rebuilt once there are many.
+     *
+     * @param rows The rows.
+     * @return the games.
+     */
+    private List<BoardGame> games(BitSet rows) {
+        int sorted = columns.sortedRows();
+        List<BoardGame> list = new ArrayList<>(rows.cardinality());
+        int row = rows.nextSetBit(0);
+        for (; row >= 0 && row < sorted; row = rows.nextSetBit(row + 1)) {
+            list.add(columns.game(row));
+        }
+        if (row < 0) {
+            return list;
+        }
+        List<BoardGame> appended = new ArrayList<>();
+        for (; row >= 0; row = rows.nextSetBit(row + 1)) {
+            appended.add(columns.game(row));
+        }
+        appended.sort(GameColumns.CANONICAL_ORDER);
+        List<BoardGame> merged = new ArrayList<>(list.size() + appended.size());
+        int i = 0;
+        for (BoardGame game : appended) {
+            while (i < list.size()
+                    && GameColumns.CANONICAL_ORDER.compare(list.get(i), game) <= 0) {
+                merged.add(list.get(i++));
+            }
+            merged.add(game);
+        }
+        merged.addAll(list.subList(i, list.size()));
+        return merged;
+    }
+
+    /**
+     * Gets a bitmap of every row of the columns that holds a game.
+     *
+     * @return the bitmap.
+     */
+    private BitSet allRows() {
+        return columns.liveRows();
     }
 
     /**
@@ -51,7 +300,7 @@ public class Planner implements IPlanner {
      */
     @Override
     public Stream<BoardGame> filter(String filter, GameData sortOn) {
-        return GameSorter.sort(filter(filter), sortOn, true); // Uses GameSorter.sort()
+        return filter(filter, sortOn, true);
     }
 
     /**
@@ -64,16 +313,673 @@ public class Planner implements IPlanner {
      */
     @Override
     public Stream<BoardGame> filter(String filter, GameData sortOn, boolean ascending) {
-        return GameSorter.sort(filter(filter), sortOn, ascending); // Uses GameSorter.sort()
+        if (sortOn == null) {
+            throw new IllegalArgumentException("Sorting attribute cannot be null.");
+        }
+        return QueryContext.metered(filter, budget,
+                () -> run(filter, games -> GameSorter.sort(games, sortOn, ascending)),
+                this::recordUsage);
+    }
+
+    /**
+     * Filters and sorts the games on several keys.
+     *
+     * @param filter The filtering condition.
+     * @param sortKeys The sort keys, most significant first.
+     * @return A sorted stream of filtered board games.
+     */
+    @Override
+    public Stream<BoardGame> filter(String filter, List<SortKey> sortKeys) {
+        if (sortKeys == null || sortKeys.isEmpty()) {
+            throw new IllegalArgumentException("Sorting attribute cannot be null.");
+        }
+        return QueryContext.metered(filter, budget,
+                () -> run(filter, games -> GameSorter.sort(games, sortKeys)), this::recordUsage);
+    }
+
+    /**
+     * Sets the limits of each query from now on.
+     *
+     * @param budget The budget, {@link QueryBudget#UNLIMITED} for none.
+     * @throws IllegalArgumentException if the budget is null.
+     */
+    public void setBudget(QueryBudget budget) {
+        if (budget == null) {
+            throw new IllegalArgumentException("Budget cannot be null.");
+        }
+        this.budget = budget;
+    }
+
+    /**
+     * Gets the limits of each query.
+     *
+     * @return the budget.
+     */
+    public QueryBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * Gets what the last filter, filter and sort, or explain used of its budget.
+     *
+     * @return the usage, null before the first query.
+     */
+    @Override
+    public QueryUsage getLastUsage() {
+        return lastUsage;
+    }
+
+    /**
+     * Explains how a filter and sort are executed.
+     *
+     * The filter is timed as {@link #filter(String)} runs it: compiled, under the budget, and
+     * over the current results. The rows each condition saw and kept are counted in a separate,
+     * untimed pass that tests the conditions one by one, in the order chosen by the planner,
+     * over the same rows the compiled scan went through. Estimates come from the column
+     * statistics. Explaining a filter does not apply it.
+     *
+     * @param filter The filtering condition.
+     * @param sortOn The sorting attribute (e.g., NAME, RATING).
+     * @param ascending Whether to sort in ascending order.
+     * @return the execution details of the filter.
+     */
+    @Override
+    public FilterExplanation explain(String filter, GameData sortOn, boolean ascending) {
+        if (sortOn == null) {
+            throw new IllegalArgumentException("Sorting attribute cannot be null.");
+        }
+        return QueryContext.metered(filter, budget, () -> runExplain(filter, sortOn, ascending),
+                this::recordUsage);
+    }
+
+    /**
+     * Explains a filter and sort, under the budget of the query running.
+     *
+     * @param filter The filtering condition.
+     * @param sortOn The sorting attribute.
+     * @param ascending Whether to sort in ascending order.
+     * @return the execution details of the filter.
+     */
+    private FilterExplanation runExplain(String filter, GameData sortOn, boolean ascending) {
+        FilterExpression plan = plan(filter);
+        boolean empty = isEmpty(plan);
+        int startRows = current.cardinality();
+        QueryContext context = QueryContext.current();
+        long doneBefore = context.getDone();
+        long start = System.nanoTime();
+        List<BoardGame> matched = games(evaluate(plan, current));
+        long filterNanos = System.nanoTime() - start;
+        long scanned = context.getDone() - doneBefore;
+        context.recordResults(matched.size());
+
+        start = System.nanoTime();
+        GameSorter.sort(matched.stream(), sortOn, ascending).count();
+        long sortNanos = System.nanoTime() - start;
+
+        List<FilterExpression> checks = conjuncts(plan);
+        int count = checks.size();
+        long[] rowsIn = new long[count];
+        long[] rowsOut = new long[count];
+        if (!empty) {
+            long counted = 0;
+            for (int row = current.nextSetBit(0); row >= 0 && counted < scanned;
+                 row = current.nextSetBit(row + 1)) {
+                if (++counted % QueryContext.CHECK_ROWS == 0) {
+                    context.checkCancelled();
+                }
+                BoardGame game = columns.game(row);
+                boolean keep = true;
+                for (int i = 0; i < count && keep; i++) {
+                    rowsIn[i]++;
+                    keep = checks.get(i).test(game);
+                    if (keep) {
+                        rowsOut[i]++;
+                    }
+                }
+            }
+        }
+
+        List<FilterExplanation.Step> steps = new ArrayList<>();
+        double estimate = startRows;
+        for (int i = 0; i < count; i++) {
+            long estimatedIn = Math.round(estimate);
+            estimate *= QueryOptimizer.selectivity(checks.get(i), statistics);
+            steps.add(new FilterExplanation.Step(i + 1, checks.get(i).toString(),
+                    estimatedIn, Math.round(estimate), rowsIn[i], rowsOut[i]));
+        }
+        String accessPath = empty ? "none, " + ((FilterExpression.Constant) plan).getReason()
+                : "compiled filter over the " + startRows + " games in the current results"
+                        + (context.isTruncated() ? ", stopped by the query budget" : "")
+                        + "; row counts from a separate instrumented pass";
+        return new FilterExplanation(filter, sortOn, ascending, accessPath, startRows,
+                matched.size(), steps, filterNanos, sortNanos);
+    }
+
+    /**
+     * Finds the game names closest to a possibly misspelled name.
+     *
+     * The name index is a BK-tree, so a lookup only compares the name against a fraction of the
+     * catalog.
+     *
+     * @param name The name as typed.
+     * @param limit The most names to return.
+     * @return the closest names, closest first.
+     */
+    @Override
+    public List<NameIndex.Match> suggestNames(String name, int limit) {
+        if (columns.liveCount() != games.size()) {
+            refreshStatistics(); // the set was changed behind our back
+        }
+        buildIndexes();
+        return names.suggest(name, limit);
+    }
+
+    /**
+     * Builds the indexes that are otherwise built on first use, such as the name index, so no
+     * query has to wait for them.
+     */
+    public void buildIndexes() {
+        if (names == null) {
+            List<String> all = new ArrayList<>(columns.liveCount());
+            BitSet live = columns.liveRows();
+            for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1)) {
+                all.add(columns.game(row).getName());
+            }
+            names = NameIndex.of(all);
+        }
+    }
+
+    /**
+     * Picks random games from the current results, without picking a game twice.
+     *
+     * With no filters in force the picks come from an alias table over the rows, built on first
+     * use per weight, at constant cost per pick; otherwise the current results are sampled in
+     * one pass over their bitmap. Neither sorts.
+     *
+     * @param count The most games to pick.
+     * @param weight How likely each game is to be picked.
+     * @param random The random source.
+     * @return the picks in the order drawn, fewer if fewer games can be picked.
+     */
+    @Override
+    public List<BoardGame> pick(int count, RandomPicker.Weight weight, Random random) {
+        if (columns.liveCount() != games.size()) {
+            refreshStatistics(); // the set was changed behind our back
+        }
+        GameColumns scanned = columns;
+        IntToDoubleFunction rowWeight = row -> scanned.isLive(row)
+                ? weight.of(scanned.rating[row], scanned.rank[row]) : 0.0;
+        List<Integer> rows = null;
+        if (current.cardinality() == scanned.liveCount()) {
+            rows = aliasTables.computeIfAbsent(weight,
+                    w -> new RandomPicker.AliasTable(scanned.size(), rowWeight))
+                    .sampleDistinct(count, random);
+        }
+        if (rows == null) {
+            rows = RandomPicker.sampleRows(current, rowWeight, count, random);
+        }
+        List<BoardGame> picks = new ArrayList<>(rows.size());
+        for (int row : rows) {
+            picks.add(scanned.game(row));
+        }
+        return picks;
+    }
+
+    /**
+     * Computes an aggregate of the current results from the columns, without making a game.
+     *
+     * A count is the size of the results bitmap; other aggregates read the primitive columns of
+     * the rows in it, in parallel parts for large results.
+     *
+     * @param query The aggregate query.
+     * @return the result.
+     */
+    @Override
+    public Aggregate.Result aggregate(Aggregate query) {
+        if (columns.liveCount() != games.size()) {
+            refreshStatistics(); // the set was changed behind our back
+        }
+        return query.over(current, columns::reader);
     }
 
     /**
-     * Resets the planner (if needed).
+     * Counts the facets of the current results in one pass over the columns.
+     *
+     * With no filters in force the counts of the whole catalog are kept, so asking again costs
+     * nothing until the catalog changes.
+     *
+     * @param facets The facets to count.
+     * @return the counts.
+     */
+    @Override
+    public FacetCounts facets(List<Facet> facets) {
+        if (columns.liveCount() != games.size()) {
+            refreshStatistics(); // the set was changed behind our back
+        }
+        if (current.cardinality() != columns.liveCount()) {
+            return FacetCounts.of(facets, current, columns::reader);
+        }
+        if (catalogFacets == null) {
+            catalogFacets = FacetCounts.of(List.of(Facet.values()), current, columns::reader);
+        }
+        return catalogFacets.select(facets);
+    }
+
+    /**
+     * Recomputes the column statistics and the columns compiled filters run over.
+     *
+     * Call this after the set of games passed to the constructor has been changed.
+     */
+    public void refreshStatistics() {
+        rebuild();
+        forgetSteps();
+        current = allRows(); // rows moved, so the filters are run again
+        for (String filter : history) {
+            current = evaluate(QueryOptimizer.optimize(FilterParser.parseExpression(filter),
+                    statistics), current);
+        }
+    }
+
+    /**
+     * Applies a delta to the catalog in place.
+     *
+     * Removals are applied first, then upserts. A new version of a game with the same name
+     * overwrites its row; a game that is new or renamed is appended in a new row, the renamed
+     * game's old row removed. Only the changed rows go through the filters since the last reset,
+     * so the current results stay as if the filters had been run on the new catalog, at a cost in
+     * the size of the delta. The set of games passed to the constructor is updated too.
+     *
+     * @param delta The changes.
+     */
+    public void applyDelta(CatalogDelta delta) {
+        if (columns.liveCount() != games.size()) {
+            refreshStatistics(); // the set was changed behind our back
+        }
+        forgetSteps();
+        aliasTables.clear();
+        catalogFacets = null;
+        if (rowById == null) {
+            rowById = new HashMap<>();
+            BitSet live = columns.liveRows();
+            for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1)) {
+                rowById.put(columns.game(row).getId(), row);
+            }
+        }
+        List<BoardGame> added = new ArrayList<>(delta.getUpserts().size());
+        int removed = 0;
+        BitSet changed = new BitSet();
+        for (int id : delta.getRemovedIds()) {
+            Integer row = rowById.remove(id);
+            if (row != null) {
+                removeRow(row);
+                changed.clear(row);
+                removed++;
+            }
+        }
+        for (BoardGame game : delta.getUpserts()) {
+            Integer row = rowById.get(game.getId());
+            BoardGame old = row == null ? null : columns.game(row);
+            if (old != null && old.getName().equals(game.getName())) {
+                games.remove(old); // equal to the new version, so the set would keep the old
+                games.add(game);
+                columns.replace(row, game);
+                fingerprint += mix(row, game) - mix(row, old);
+            } else {
+                if (old != null) {
+                    removeRow(row);
+                    changed.clear(row);
+                }
+                row = columns.append(game);
+                games.add(game);
+                rowById.put(game.getId(), row);
+                fingerprint += mix(row, game);
+                if (names != null) {
+                    names.add(game.getName());
+                }
+            }
+            removed += old == null ? 0 : 1;
+            changed.set(row);
+            added.add(game);
+        }
+        statistics = statistics.update(added, removed);
+
+        BitSet passed = changed;
+        for (String filter : history) {
+            passed = evaluate(QueryOptimizer.optimize(FilterParser.parseExpression(filter),
+                    statistics), passed);
+        }
+        current.andNot(changed);
+        current.or(passed);
+        if (columns.isStale()) {
+            compact();
+        }
+    }
+
+    /**
+     * Removes the game in a row from the catalog, the columns and the indexes.
+     *
+     * @param row The row, holding a game.
+     */
+    private void removeRow(int row) {
+        BoardGame game = columns.game(row);
+        games.remove(game);
+        columns.remove(row);
+        current.clear(row);
+        fingerprint -= mix(row, game);
+        if (names != null) {
+            names.remove(game.getName());
+        }
+    }
+
+    /**
+     * Rebuilds the columns in canonical order after deltas, keeping the current results.
+     *
+     * The statistics are computed again too, which makes them exact after the conservative
+     * updates of the deltas.
+     */
+    private void compact() {
+        GameColumns old = columns;
+        BitSet kept = current;
+        rebuild();
+        current = new BitSet(columns.size());
+        for (int row = kept.nextSetBit(0); row >= 0; row = kept.nextSetBit(row + 1)) {
+            current.set(columns.find(old.game(row)));
+        }
+    }
+
+    /**
+     * Computes the statistics, columns and fingerprint from the games, dropping the indexes.
+     */
+    private void rebuild() {
+        statistics = CatalogStatistics.compute(games);
+        columns = GameColumns.of(games);
+        fingerprint = fingerprint(columns);
+        names = null;
+        rowById = null;
+        aliasTables.clear();
+        catalogFacets = null;
+    }
+
+    /**
+     * Gets the current column statistics.
+     *
+     * @return the statistics of the games catalog.
+     */
+    public CatalogStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Parses a filter and decides how it will run.
+     *
+     * The parsed expression is rewritten by {@code QueryOptimizer}: conditions on the same
+     * numeric column fold into one range check, conditions the statistics settle become
+     * constants, and checks are ordered so the cheap, selective ones run first.
+     *
+     * @param filter The filtering condition.
+     * @return the expression to evaluate per game, a constant if no scan is needed.
+     */
+    private FilterExpression plan(String filter) {
+        if (statistics.getRowCount() != games.size()) {
+            refreshStatistics(); // the set was changed behind our back
+        }
+        return QueryOptimizer.optimize(FilterParser.parseExpression(filter), statistics);
+    }
+
+    /**
+     * Checks if a plan is provably empty.
+     *
+     * @param plan The optimized expression.
+     * @return true if no game can match.
+     */
+    private static boolean isEmpty(FilterExpression plan) {
+        return plan instanceof FilterExpression.Constant
+                && !((FilterExpression.Constant) plan).getValue();
+    }
+
+    /**
+     * Splits a plan into the checks that are ANDed at the top level.
+     *
+     * @param plan The optimized expression.
+     * @return the top level checks in evaluation order, empty for a constant.
+     */
+    private static List<FilterExpression> conjuncts(FilterExpression plan) {
+        if (plan instanceof FilterExpression.Constant) {
+            return List.of();
+        }
+        if (plan instanceof FilterExpression.And) {
+            return ((FilterExpression.And) plan).getChildren();
+        }
+        return List.of(plan);
+    }
+
+    /**
+     * Resets the planner to the whole catalog, forgetting the filters applied.
      */
     @Override
     public void reset() {
-        // Reset logic (if needed, e.g., clearing cached filters)
+        current = allRows();
+        history.clear();
+        forgetSteps();
+    }
+
+    /**
+     * Undoes the last filter, restoring the results from before it without running a filter.
+     *
+     * @return the filter undone, or null if there is none, or it was evicted from the stack.
+     */
+    @Override
+    public String undo() {
+        boolean reachable = undoSteps.size() > 1 || (undoSteps.size() == 1 && history.size() == 1);
+        if (!reachable) {
+            return null;
+        }
+        FilterStep step = undoSteps.pop();
+        redoSteps.push(step);
+        history.remove(history.size() - 1);
+        current = undoSteps.isEmpty() ? allRows() : undoSteps.peek().results(columns.size());
+        return step.filter;
+    }
+
+    /**
+     * Applies again the last filter undone, restoring its results without running it.
+     *
+     * @return the filter redone, or null if there is none.
+     */
+    @Override
+    public String redo() {
+        if (redoSteps.isEmpty()) {
+            return null;
+        }
+        FilterStep step = redoSteps.pop();
+        undoSteps.push(step);
+        history.add(step.filter);
+        current = step.results(columns.size());
+        return step.filter;
     }
-}
 
+    /**
+     * Pushes the filter just applied and its result on the undo stack, forgetting the filters
+     * undone, and evicts the oldest steps past the bounds of the stack.
+     *
+     * @param filter The filter.
+     */
+    private void pushStep(String filter) {
+        for (FilterStep step : redoSteps) {
+            stepBytes -= step.bytes();
+        }
+        redoSteps.clear();
+        FilterStep step = new FilterStep(filter, current);
+        undoSteps.push(step);
+        stepBytes += step.bytes();
+        while (undoSteps.size() > UNDO_STEPS
+                || (stepBytes > UNDO_BYTES && undoSteps.size() > 1)) {
+            stepBytes -= undoSteps.removeLast().bytes();
+        }
+    }
+
+    /**
+     * Forgets the undo and redo steps, whose results no longer match the rows.
+     */
+    private void forgetSteps() {
+        undoSteps.clear();
+        redoSteps.clear();
+        stepBytes = 0;
+    }
+
+    /**
+     * Saves the filters applied, the current results and the games of a list as a checkpoint.
+     *
+     * Games are saved as handles, their rows in the columns, which only mean the same games for
+     * the same catalog; the checkpoint records a fingerprint of the catalog to check that.
+     *
+     * @param listGames The games of the list, those not in the catalog are left out.
+     * @return the checkpoint.
+     */
+    public SessionCheckpoint checkpoint(Collection<BoardGame> listGames) {
+        if (columns.liveCount() != games.size()) {
+            refreshStatistics(); // the set was changed behind our back
+        }
+        int[] handles = listGames.stream().mapToInt(columns::find).filter(row -> row >= 0)
+                .toArray();
+        return new SessionCheckpoint(fingerprint, columns.size(), history, current, handles);
+    }
 
+    /**
+     * Restores the filters and current results of a checkpoint, without running the filters.
+     *
+     * @param checkpoint The checkpoint, taken from a planner over the same catalog.
+     * @return the games of the list saved in the checkpoint, in the order they were saved.
+     * @throws IllegalArgumentException if the checkpoint is of a different catalog.
+     */
+    public List<BoardGame> restore(SessionCheckpoint checkpoint) {
+        if (columns.liveCount() != games.size()) {
+            refreshStatistics(); // the set was changed behind our back
+        }
+        if (checkpoint.getRowCount() != columns.size()
+                || checkpoint.getFingerprint() != fingerprint) {
+            throw new IllegalArgumentException("Checkpoint is of a different catalog.");
+        }
+        history.clear();
+        history.addAll(checkpoint.getHistory());
+        current = checkpoint.getResults();
+        forgetSteps();
+        List<BoardGame> listGames = new ArrayList<>();
+        for (int handle : checkpoint.getListHandles()) {
+            if (columns.isLive(handle)) {
+                listGames.add(columns.game(handle));
+            }
+        }
+        return listGames;
+    }
+
+    /**
+     * Gets the filters applied since the last reset.
+     *
+     * @return the filters, in the order applied.
+     */
+    public List<String> getHistory() {
+        return List.copyOf(history);
+    }
+
+    /**
+     * Computes a fingerprint of a catalog: the games and their rows, with every value a filter
+     * can read, so a catalog reloaded with the same names but new ratings, ranks or times does
+     * not match the bitmaps of the old one.
+     *
+     * The fingerprint is a sum over the rows, so a delta updates it by adding the rows it appends
+     * and taking off the rows it removes.
+     *
+     * @param catalog The columns of the catalog.
+     * @return the fingerprint.
+     */
+    private static long fingerprint(GameColumns catalog) {
+        long hash = 0;
+        for (int row = 0; row < catalog.size(); row++) {
+            if (catalog.isLive(row)) {
+                hash += mix(row, catalog.game(row));
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Hashes a game and its row for the fingerprint.
+     *
+     * @param row The row.
+     * @param game The game in the row.
+     * @return the hash, with its bits well mixed so sums of hashes rarely collide.
+     */
+    private static long mix(int row, BoardGame game) {
+        long hash = row * 0x9E3779B97F4A7C15L + game.getId();
+        hash = hash * 0xC2B2AE3D27D4EB4FL + game.getName().hashCode();
+        hash = hash * 0xC2B2AE3D27D4EB4FL + game.getMinPlayers();
+        hash = hash * 0xC2B2AE3D27D4EB4FL + game.getMaxPlayers();
+        hash = hash * 0xC2B2AE3D27D4EB4FL + game.getMinPlayTime();
+        hash = hash * 0xC2B2AE3D27D4EB4FL + game.getMaxPlayTime();
+        hash = hash * 0xC2B2AE3D27D4EB4FL + Double.doubleToLongBits(game.getDifficulty());
+        hash = hash * 0xC2B2AE3D27D4EB4FL + game.getRank();
+        hash = hash * 0xC2B2AE3D27D4EB4FL + Double.doubleToLongBits(game.getRating());
+        hash = hash * 0xC2B2AE3D27D4EB4FL + game.getYearPublished();
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        return hash ^ hash >>> 33;
+    }
+
+    /**
+     * A filter on the undo stack and the rows that passed it, stored compactly.
+     */
+    private static final class FilterStep {
+        /** The filter. */
+        private final String filter;
+        /** The rows that passed, as a trimmed bitmap; null when {@link #rows} is used. */
+        private final long[] bits;
+        /** The rows that passed, in order, when that is smaller than the bitmap. */
+        private final int[] rows;
+
+        /**
+         * Constructs a step, copying the result into whichever form is smaller.
+         *
+         * @param filter The filter.
+         * @param results The rows that passed.
+         */
+        FilterStep(String filter, BitSet results) {
+            this.filter = filter;
+            long words = (results.length() + Long.SIZE - 1) / Long.SIZE;
+            if ((long) results.cardinality() * Integer.BYTES < words * Long.BYTES) {
+                this.rows = results.stream().toArray();
+                this.bits = null;
+            } else {
+                this.bits = results.toLongArray();
+                this.rows = null;
+            }
+        }
+
+        /**
+         * Gets the bytes the result takes.
+         *
+         * @return the size of the stored rows.
+         */
+        long bytes() {
+            return bits != null ? (long) bits.length * Long.BYTES
+                    : (long) rows.length * Integer.BYTES;
+        }
+
+        /**
+         * Makes a new bitmap of the result.
+         *
+         * @param size The number of rows of the columns.
+         * @return the rows that passed.
+         */
+        BitSet results(int size) {
+            if (bits != null) {
+                return BitSet.valueOf(bits);
+            }
+            BitSet results = new BitSet(size);
+            for (int row : rows) {
+                results.set(row);
+            }
+            return results;
+        }
+    }
+}
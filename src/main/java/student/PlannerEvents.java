@@ -0,0 +1,189 @@
+package student;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The {@code PlannerEvents} class holds the Java Flight Recorder events emitted by the planner.
+ *
+ * <p>Each event is only committed when a recording has it enabled, so the fields are filled in
+ * after {@link Event#shouldCommit()} is checked. That keeps the cost close to zero when nobody is
+ * recording. Record with {@code -XX:StartFlightRecording} and the events show up under the
+ * "BG Arena Planner" category, on the same timeline as GC and JIT activity.</p>
+ */
+public final class PlannerEvents {
+    /** Category shared by every planner event. */
+    private static final String CATEGORY = "BG Arena Planner";
+
+    // Prevents instantiation of this utility class
+    private PlannerEvents() {
+        throw new UnsupportedOperationException("Utility class - do not instantiate");
+    }
+
+    /**
+     * Emitted when a games file is read into memory by {@code GamesLoader}.
+     */
+    @Name("student.CatalogLoad")
+    @Label("Catalog Load")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class CatalogLoad extends Event {
+        /** The file or resource that was loaded. */
+        @Label("Source")
+        String source;
+        /** The number of data lines read from the file. */
+        @Label("Rows Scanned")
+        @Description("Data lines read from the file, header excluded")
+        int rowsScanned;
+        /** The number of games that were parsed successfully. */
+        @Label("Rows Returned")
+        int rowsReturned;
+    }
+
+    /**
+     * Emitted when a filter string is turned into predicates by {@code FilterParser}.
+     */
+    @Name("student.FilterParse")
+    @Label("Filter Parse")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class FilterParse extends Event {
+        /** The filter text as passed to the parser. */
+        @Label("Filter")
+        String filter;
+        /** The number of conditions found in the filter. */
+        @Label("Conditions")
+        int conditions;
+    }
+
+    /**
+     * Emitted when a filter is evaluated against the games in the {@code Planner}.
+     */
+    @Name("student.FilterEvaluate")
+    @Label("Filter Evaluate")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class FilterEvaluate extends Event {
+        /** The filter text being evaluated. */
+        @Label("Filter")
+        String filter;
+        /** The number of games the predicates were tested against. */
+        @Label("Rows Scanned")
+        int rowsScanned;
+        /** The number of games that matched the filter. */
+        @Label("Rows Returned")
+        int rowsReturned;
+    }
+
+    /**
+     * Emitted when {@code GameSorter} sorts a set of games.
+     */
+    @Name("student.Sort")
+    @Label("Sort")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class Sort extends Event {
+        /** The columns sorted on, comma separated, most significant first. */
+        @Label("Sort Column")
+        String sortColumn;
+        /** True when the first column is sorted in ascending order. */
+        @Label("Ascending")
+        boolean ascending;
+        /** The number of games sorted. */
+        @Label("Rows Sorted")
+        int rowsSorted;
+    }
+
+    /**
+     * Emitted when games are added to or removed from a {@code GameList}.
+     */
+    @Name("student.ListMutation")
+    @Label("List Mutation")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class ListMutation extends Event {
+        /** The mutation performed (add, remove, or clear). */
+        @Label("Operation")
+        String operation;
+        /** The argument the mutation was called with (name, index, range, or all). */
+        @Label("Argument")
+        String argument;
+        /** The number of games scanned to resolve the argument. */
+        @Label("Rows Scanned")
+        int rowsScanned;
+        /** The number of games actually added or removed. */
+        @Label("Rows Changed")
+        int rowsChanged;
+        /** The size of the list after the mutation. */
+        @Label("List Size")
+        int listSize;
+    }
+
+    /**
+     * Emitted when a {@code GameList} is saved to a file.
+     */
+    @Name("student.ListSave")
+    @Label("List Save")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class ListSave extends Event {
+        /** The file written to. */
+        @Label("File")
+        String filename;
+        /** The number of game names written. */
+        @Label("Rows Written")
+        int rowsWritten;
+    }
+
+    /**
+     * Emitted when a query run under a {@code QueryBudget} ends, with what it used.
+     */
+    @Name("student.QueryBudget")
+    @Label("Query Budget")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class QueryBudgetUse extends Event {
+        /** The query, as typed. */
+        @Label("Query")
+        String query;
+        /** The time limit, 0 for none. */
+        @Label("Max Millis")
+        long maxMillis;
+        /** The rows scanned limit, 0 for none. */
+        @Label("Max Rows")
+        long maxRows;
+        /** The results limit, 0 for none. */
+        @Label("Max Results")
+        int maxResults;
+        /** The rows the query's scans went through. */
+        @Label("Rows Scanned")
+        long rowsScanned;
+        /** The number of games in the results. */
+        @Label("Rows Returned")
+        int rowsReturned;
+        /** The limit that stopped the query, empty if it ran to the end. */
+        @Label("Truncated By")
+        @Description("The budget limit that cut the results short, empty if none did")
+        String truncatedBy;
+    }
+
+    /**
+     * Emitted when the program reaches a milestone of its startup, see {@code StartupMetrics}.
+     */
+    @Name("student.StartupMilestone")
+    @Label("Startup Milestone")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class StartupMilestone extends Event {
+        /** The milestone reached, such as prompt or first result. */
+        @Label("Milestone")
+        String milestone;
+        /** The time from the start of main to the milestone. */
+        @Label("Since Start Millis")
+        long sinceStartMillis;
+    }
+}
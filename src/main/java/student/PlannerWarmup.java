@@ -0,0 +1,69 @@
+package student;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Runs representative filters, sorts and aggregates over a sample of the catalog, so the first
+ * real query runs compiled code rather than the interpreter.
+ *
+ * <p>The queries run on a planner of their own, built over at most {@value #SAMPLE_GAMES} games,
+ * so the planner the console uses is never touched and the warm-up can run while commands do.
+ * The code is the same whatever the catalog, so a sample is enough for the JIT to compile the
+ * parsing, planning, scan, sort and aggregate loops. Each filter is still compiled to a class of
+ * its own by {@link FilterCompiler}; the common shapes warmed here are cached by it.</p>
+ */
+public final class PlannerWarmup {
+    /** The most games the warm-up planner holds. */
+    static final int SAMPLE_GAMES = 20_000;
+    /** How many times the queries are run, enough for the loops to be compiled by C2. */
+    static final int ROUNDS = 12;
+    /** Filters of the shapes typed most, each run from the whole sample. */
+    private static final List<String> FILTERS = List.of("name~=a", "minplayers>=2,maxplayers<=4",
+            "maxplaytime<=60|difficulty<2", "rating>7,yearpublished>=2000", "rank<=1000",
+            "name~=the,rating>=6");
+    /** Sorts run over the filter results. */
+    private static final List<List<SortKey>> SORTS = List.of(SortKey.parse("name"),
+            SortKey.parse("rating desc"), SortKey.parse("difficulty asc,rating desc"),
+            SortKey.parse("yearpublished desc,name"));
+    /** Aggregates run over the filter results. */
+    private static final List<Aggregate> AGGREGATES = List.of(Aggregate.parse("count"),
+            Aggregate.parse("avg rating by minplayers"));
+
+    // Prevents instantiation of this utility class
+    private PlannerWarmup() {
+        throw new UnsupportedOperationException("Utility class - do not instantiate");
+    }
+
+    /**
+     * Runs the warm-up queries over a sample of a catalog.
+     *
+     * @param games The catalog; it is only read.
+     * @return the number of queries run.
+     */
+    public static int run(Set<BoardGame> games) {
+        Set<BoardGame> sample = new HashSet<>();
+        for (BoardGame game : games) {
+            if (sample.size() == SAMPLE_GAMES) {
+                break;
+            }
+            sample.add(game);
+        }
+        Planner planner = new Planner(sample);
+        int queries = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int i = 0; i < FILTERS.size(); i++) {
+                planner.reset();
+                planner.filter(FILTERS.get(i), SORTS.get((round + i) % SORTS.size())).count();
+                planner.aggregate(AGGREGATES.get(i % AGGREGATES.size()));
+                queries += 2;
+            }
+            planner.reset();
+            planner.facets(List.of(Facet.values()));
+            planner.suggestNames("catan", 5);
+            queries += 2;
+        }
+        return queries;
+    }
+}
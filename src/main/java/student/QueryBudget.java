@@ -0,0 +1,199 @@
+package student;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The most a single query may use of a shared planner: wall time, rows scanned and results.
+ *
+ * <p>A query over a limit is stopped where it is and returns what it has so far, marked as
+ * truncated; see {@link QueryUsage}. A truncated filter is not applied to the planner's current
+ * results, whichever stage of the query was stopped. The row and result limits stop the filter scan at exactly
+ * the limit. Time is checked every {@value QueryContext#CHECK_ROWS} rows of the scan and between
+ * the passes of a sort, and a sort stopped on time leaves the results in name order. A limit of 0
+ * is no limit.</p>
+ */
+public final class QueryBudget {
+    /** The budget with no limits. */
+    public static final QueryBudget UNLIMITED = new QueryBudget(0, 0, 0);
+
+    /**
+     * The limits of a budget.
+     */
+    public enum Limit {
+        /** Wall time, in milliseconds. */
+        TIME("time"),
+        /** Rows the filter scan goes through. */
+        ROWS("rows"),
+        /** Games in the results. */
+        RESULTS("results");
+
+        /** The name of the limit, as typed. */
+        private final String title;
+
+        /**
+         * Constructs a limit.
+         *
+         * @param title The name of the limit, as typed.
+         */
+        Limit(String title) {
+            this.title = title;
+        }
+
+        /**
+         * Gets the name of the limit.
+         *
+         * @return the name, such as time.
+         */
+        public String getTitle() {
+            return title;
+        }
+
+        /**
+         * Gets the limit named by a string.
+         *
+         * @param name The name, ignoring case.
+         * @return the limit.
+         * @throws IllegalArgumentException if no limit has the name.
+         */
+        public static Limit fromString(String name) {
+            for (Limit limit : values()) {
+                if (limit.title.equalsIgnoreCase(name)) {
+                    return limit;
+                }
+            }
+            throw new IllegalArgumentException("Unknown budget limit " + name);
+        }
+    }
+
+    /** The most wall time, in milliseconds, 0 for no limit. */
+    private final long maxMillis;
+    /** The most rows scanned, 0 for no limit. */
+    private final long maxRows;
+    /** The most results, 0 for no limit. */
+    private final int maxResults;
+
+    /**
+     * Constructs a budget.
+     *
+     * @param maxMillis The most wall time, in milliseconds, 0 for no limit.
+     * @param maxRows The most rows scanned, 0 for no limit.
+     * @param maxResults The most results, 0 for no limit.
+     * @throws IllegalArgumentException if a limit is negative.
+     */
+    public QueryBudget(long maxMillis, long maxRows, int maxResults) {
+        if (maxMillis < 0 || maxRows < 0 || maxResults < 0) {
+            throw new IllegalArgumentException("Budget limits cannot be negative.");
+        }
+        this.maxMillis = maxMillis;
+        this.maxRows = maxRows;
+        this.maxResults = maxResults;
+    }
+
+    /**
+     * Parses a budget written as comma separated limits, such as
+     * {@code time=2s,rows=500000,results=1000}. Times are in milliseconds unless they end in
+     * {@code s}; limits left out have no limit.
+     *
+     * @param spec The budget.
+     * @return the budget.
+     * @throws IllegalArgumentException if a limit is unknown or not a number.
+     */
+    public static QueryBudget parse(String spec) {
+        Map<Limit, Long> limits = new EnumMap<>(Limit.class);
+        for (String part : spec.split(",")) {
+            String[] pair = part.split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Invalid budget limit " + part);
+            }
+            Limit limit = Limit.fromString(pair[0].trim());
+            String value = pair[1].trim().toLowerCase();
+            long scale = 1;
+            if (limit == Limit.TIME && value.endsWith("ms")) {
+                value = value.substring(0, value.length() - 2);
+            } else if (limit == Limit.TIME && value.endsWith("s")) {
+                value = value.substring(0, value.length() - 1);
+                scale = 1000;
+            }
+            try {
+                limits.put(limit, Long.parseLong(value) * scale);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid budget limit " + part);
+            }
+        }
+        long results = limits.getOrDefault(Limit.RESULTS, 0L);
+        if (results > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid budget limit results=" + results);
+        }
+        return new QueryBudget(limits.getOrDefault(Limit.TIME, 0L),
+                limits.getOrDefault(Limit.ROWS, 0L), (int) results);
+    }
+
+    /**
+     * Gets the most wall time.
+     *
+     * @return the time in milliseconds, 0 for no limit.
+     */
+    public long getMaxMillis() {
+        return maxMillis;
+    }
+
+    /**
+     * Gets the most rows scanned.
+     *
+     * @return the rows, 0 for no limit.
+     */
+    public long getMaxRows() {
+        return maxRows;
+    }
+
+    /**
+     * Gets the most results.
+     *
+     * @return the results, 0 for no limit.
+     */
+    public int getMaxResults() {
+        return maxResults;
+    }
+
+    /**
+     * Gets the value of a limit.
+     *
+     * @param limit The limit.
+     * @return the value, 0 for no limit.
+     */
+    public long get(Limit limit) {
+        return switch (limit) {
+            case TIME -> maxMillis;
+            case ROWS -> maxRows;
+            case RESULTS -> maxResults;
+        };
+    }
+
+    /**
+     * Checks if the budget has no limits.
+     *
+     * @return true if nothing is limited.
+     */
+    public boolean isUnlimited() {
+        return maxMillis == 0 && maxRows == 0 && maxResults == 0;
+    }
+
+    /**
+     * Writes the budget the way {@link #parse(String)} reads it.
+     *
+     * @return the limits set, or unlimited.
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (Limit limit : Limit.values()) {
+            long value = get(limit);
+            if (value > 0) {
+                text.append(text.length() == 0 ? "" : ",").append(limit.getTitle()).append('=')
+                        .append(value).append(limit == Limit.TIME ? "ms" : "");
+            }
+        }
+        return text.length() == 0 ? "unlimited" : text.toString();
+    }
+}
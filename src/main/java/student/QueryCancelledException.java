@@ -0,0 +1,21 @@
+package student;
+
+/**
+ * Thrown inside a query when its {@link QueryContext} was cancelled, to unwind the scan.
+ *
+ * <p>Planners only change their state once a scan has finished, so a cancelled query leaves the
+ * results as they were before it.</p>
+ */
+public class QueryCancelledException extends RuntimeException {
+    /** Serial version for the exception. */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructs the exception.
+     *
+     * @param query The query cancelled.
+     */
+    public QueryCancelledException(String query) {
+        super("Cancelled: " + query);
+    }
+}
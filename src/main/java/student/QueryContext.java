@@ -0,0 +1,320 @@
+package student;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * The progress and cancellation of a query running on a worker thread.
+ *
+ * <p>A context is bound to the thread running the query, and scan loops find it with
+ * {@link #current()}. Cancellation is cooperative: {@link #cancel()} only sets a flag, and the
+ * loops call {@link #progress(int)} every {@value #CHECK_ROWS} rows, which records the rows done
+ * and throws {@link QueryCancelledException} once the flag is set or the thread was interrupted.
+ * Other threads read the progress, to report it while the query runs. Code that runs outside a
+ * query sees a context that is never cancelled.</p>
+ *
+ * <p>A planner query can also run {@link #metered(String, QueryBudget, Supplier, Consumer)
+ * metered} under a {@link QueryBudget}. Its scans then ask for the rows and results left, and
+ * {@link #progress(int)} returns false once the time is up, so the loops can stop early with
+ * what they found; a loop that stops marks the query truncated by the limit it reached.</p>
+ */
+public final class QueryContext {
+    /** Rows a scan loop goes through between progress calls, a power of two. */
+    public static final int CHECK_ROWS = 1 << 12;
+
+    /** The context of the query each thread is running. */
+    private static final ThreadLocal<QueryContext> CURRENT = new ThreadLocal<>();
+    /** The context of code running outside a query. */
+    private static final QueryContext NONE = new QueryContext("");
+
+    /** The query, as typed. */
+    private final String query;
+    /** True once cancelled. */
+    private volatile boolean cancelled;
+    /** Rows the query's scans will go through, as far as they have been started. */
+    private final AtomicLong total = new AtomicLong();
+    /** Rows the query's scans went through. */
+    private final AtomicLong done = new AtomicLong();
+    /** When the query started running, from {@link System#nanoTime()}; 0 before. */
+    private volatile long startNanos;
+    /** The budget of the metered query running in this context, null when none is. */
+    private volatile QueryBudget budget;
+    /** When the metered query started, from {@link System#nanoTime()}. */
+    private long meterNanos;
+    /** The rows done when the metered query started. */
+    private long meterRows;
+    /** The games in the metered query's results, once known. */
+    private int results;
+    /** The limit that stopped the metered query, null while none has. */
+    private volatile QueryBudget.Limit truncatedBy;
+
+    /**
+     * Constructs the context of a query.
+     *
+     * @param query The query, as typed, for messages.
+     */
+    public QueryContext(String query) {
+        this.query = query;
+    }
+
+    /**
+     * Gets the context of the query the current thread is running.
+     *
+     * @return the context, or one that is never cancelled outside a query.
+     */
+    public static QueryContext current() {
+        QueryContext context = CURRENT.get();
+        return context == null ? NONE : context;
+    }
+
+    /**
+     * Runs a query in this context on the current thread.
+     *
+     * @param work The query.
+     * @param <T> The type of the result.
+     * @return the result.
+     * @throws QueryCancelledException if the query was cancelled.
+     */
+    public <T> T run(Supplier<T> work) {
+        QueryContext outer = CURRENT.get();
+        CURRENT.set(this);
+        startNanos = System.nanoTime();
+        try {
+            checkCancelled();
+            return work.get();
+        } finally {
+            if (outer == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(outer);
+            }
+        }
+    }
+
+    /**
+     * Runs a planner query under a budget on the current thread, in the thread's context or in
+     * one of its own outside a query.
+     *
+     * A query already metered on this thread, such as the filter under a filter and sort, is
+     * part of that query: it runs under its budget and its usage is reported with it.
+     *
+     * @param query The query, as typed, for messages.
+     * @param budget The budget.
+     * @param work The query.
+     * @param usage Given what the query used once it ends, even if it was cancelled.
+     * @param <T> The type of the result.
+     * @return the result, partial if the query was truncated.
+     * @throws QueryCancelledException if the query was cancelled.
+     */
+    public static <T> T metered(String query, QueryBudget budget, Supplier<T> work,
+                                Consumer<QueryUsage> usage) {
+        QueryContext context = current();
+        if (context == NONE) {
+            QueryContext own = new QueryContext(query);
+            return own.run(() -> own.meter(query, budget, work, usage));
+        }
+        return context.budget != null ? work.get() : context.meter(query, budget, work, usage);
+    }
+
+    /**
+     * Runs a query under a budget in this context.
+     *
+     * @param query The query, as typed.
+     * @param limits The budget.
+     * @param work The query.
+     * @param usage Given what the query used once it ends.
+     * @param <T> The type of the result.
+     * @return the result.
+     */
+    private <T> T meter(String query, QueryBudget limits, Supplier<T> work,
+                        Consumer<QueryUsage> usage) {
+        PlannerEvents.QueryBudgetUse event = new PlannerEvents.QueryBudgetUse();
+        event.begin();
+        meterNanos = System.nanoTime();
+        meterRows = done.get();
+        results = 0;
+        truncatedBy = null;
+        budget = limits;
+        try {
+            return work.get();
+        } finally {
+            budget = null;
+            QueryUsage used = new QueryUsage(query, limits,
+                    (System.nanoTime() - meterNanos) / 1_000_000, done.get() - meterRows, results,
+                    truncatedBy);
+            event.end();
+            if (event.shouldCommit()) {
+                event.query = query;
+                event.maxMillis = limits.getMaxMillis();
+                event.maxRows = limits.getMaxRows();
+                event.maxResults = limits.getMaxResults();
+                event.rowsScanned = used.getRowsScanned();
+                event.rowsReturned = used.getResults();
+                event.truncatedBy = truncatedBy == null ? "" : truncatedBy.getTitle();
+                event.commit();
+            }
+            usage.accept(used);
+        }
+    }
+
+    /**
+     * Gets the rows the metered query may still scan.
+     *
+     * @return the rows left, {@link Long#MAX_VALUE} without a limit.
+     */
+    public long rowsLeft() {
+        QueryBudget limits = budget;
+        if (limits == null || limits.getMaxRows() == 0) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, limits.getMaxRows() - (done.get() - meterRows));
+    }
+
+    /**
+     * Gets the most games the metered query may return.
+     *
+     * @return the results allowed, {@link Integer#MAX_VALUE} without a limit.
+     */
+    public int resultsLeft() {
+        QueryBudget limits = budget;
+        return limits == null || limits.getMaxResults() == 0 ? Integer.MAX_VALUE
+                : limits.getMaxResults();
+    }
+
+    /**
+     * Records the number of games the metered query returns.
+     *
+     * @param count The games in the results.
+     */
+    public void recordResults(int count) {
+        results = count;
+    }
+
+    /**
+     * Checks the metered query still has time left, between steps that do not scan rows.
+     *
+     * A step that stops because the time is up marks the query with {@link #truncate}; work that
+     * already finished is not truncated however late it is.
+     *
+     * @return true to go on, false once the time is up.
+     */
+    public boolean withinTime() {
+        QueryBudget limits = budget;
+        return limits == null || limits.getMaxMillis() == 0
+                || System.nanoTime() - meterNanos < limits.getMaxMillis() * 1_000_000;
+    }
+
+    /**
+     * Checks if a limit stopped the metered query.
+     *
+     * @return true once the query was truncated, so its results are partial.
+     */
+    public boolean isTruncated() {
+        return truncatedBy != null;
+    }
+
+    /**
+     * Marks the metered query as stopped by a limit; the first limit reached is kept.
+     *
+     * @param limit The limit reached.
+     */
+    public void truncate(QueryBudget.Limit limit) {
+        if (truncatedBy == null && this != NONE) {
+            truncatedBy = limit;
+        }
+    }
+
+    /**
+     * Records the start of a scan.
+     *
+     * @param rows The rows the scan will go through.
+     */
+    public void startScan(long rows) {
+        if (this != NONE) {
+            total.addAndGet(rows);
+        }
+    }
+
+    /**
+     * Records rows a scan went through, and stops the query if it was cancelled.
+     *
+     * @param rows The rows since the last call.
+     * @return true to go on scanning, false once the metered query's time is up.
+     * @throws QueryCancelledException if the query was cancelled.
+     */
+    public boolean progress(int rows) {
+        if (this == NONE) {
+            return true;
+        }
+        done.addAndGet(rows);
+        checkCancelled();
+        return withinTime();
+    }
+
+    /**
+     * Stops the query if it was cancelled, between steps that do not scan rows.
+     *
+     * @throws QueryCancelledException if the query was cancelled or its thread interrupted.
+     */
+    public void checkCancelled() {
+        if (cancelled || (this != NONE && Thread.currentThread().isInterrupted())) {
+            throw new QueryCancelledException(query);
+        }
+    }
+
+    /**
+     * Cancels the query; it stops at its next progress call.
+     */
+    public void cancel() {
+        if (this != NONE) {
+            cancelled = true;
+        }
+    }
+
+    /**
+     * Checks if the query was cancelled.
+     *
+     * @return true once cancelled.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Gets the query.
+     *
+     * @return the query, as typed.
+     */
+    public String getQuery() {
+        return query;
+    }
+
+    /**
+     * Gets the rows the query's scans went through so far.
+     *
+     * @return the rows done.
+     */
+    public long getDone() {
+        return done.get();
+    }
+
+    /**
+     * Gets the rows the query's scans started so far will go through.
+     *
+     * @return the rows in total; later scans add to it.
+     */
+    public long getTotal() {
+        return total.get();
+    }
+
+    /**
+     * Gets how long the query has been running.
+     *
+     * @return the time in milliseconds, 0 if it has not started.
+     */
+    public long getElapsedMillis() {
+        long start = startNanos;
+        return start == 0 ? 0 : (System.nanoTime() - start) / 1_000_000;
+    }
+}
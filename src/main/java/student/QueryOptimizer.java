@@ -0,0 +1,292 @@
+package student;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rewrites a parsed filter into a cheaper equivalent before it is run.
+ *
+ * <p>Within every AND, conditions on the same numeric column are folded into one
+ * {@code ColumnRange}. Ranges and conditions the column statistics settle become constants, and
+ * constants are folded up the tree: a false child empties an AND, a true child fills an OR. NOT is
+ * pushed into single conditions by flipping the operator. Children are then ordered so the
+ * cheapest, most selective checks run first in an AND, and the most likely ones first in an
+ * OR.</p>
+ */
+public final class QueryOptimizer {
+    // Prevents instantiation of this utility class
+    private QueryOptimizer() {
+        throw new UnsupportedOperationException("Utility class - do not instantiate");
+    }
+
+    /**
+     * Optimizes an expression for a catalog.
+     *
+     * @param expression The parsed expression.
+     * @param statistics The statistics of the catalog it will run against.
+     * @return an equivalent expression, a {@code Constant} when the statistics settle it.
+     */
+    public static FilterExpression optimize(FilterExpression expression,
+                                            CatalogStatistics statistics) {
+        if (expression instanceof FilterExpression.And) {
+            return optimizeAnd(((FilterExpression.And) expression).getChildren(), statistics);
+        }
+        if (expression instanceof FilterExpression.Or) {
+            return optimizeOr(((FilterExpression.Or) expression).getChildren(), statistics);
+        }
+        if (expression instanceof FilterExpression.Not) {
+            return optimizeNot(((FilterExpression.Not) expression).getChild(), statistics);
+        }
+        if (expression instanceof FilterExpression.Condition) {
+            // a lone condition is an AND of one
+            return optimizeAnd(List.of(expression), statistics);
+        }
+        if (expression instanceof FilterExpression.Range) {
+            return checkRange(((FilterExpression.Range) expression).getRange(), statistics);
+        }
+        return expression;
+    }
+
+    /**
+     * Estimates the fraction of games an expression keeps, assuming independent conditions.
+     *
+     * @param expression The expression.
+     * @param statistics The statistics of the catalog.
+     * @return the estimated selectivity, between 0 and 1.
+     */
+    public static double selectivity(FilterExpression expression, CatalogStatistics statistics) {
+        if (expression instanceof FilterExpression.Constant) {
+            return ((FilterExpression.Constant) expression).getValue() ? 1.0 : 0.0;
+        }
+        if (expression instanceof FilterExpression.Condition) {
+            return statistics.selectivity(((FilterExpression.Condition) expression).getCondition());
+        }
+        if (expression instanceof FilterExpression.Range) {
+            return statistics.selectivity(((FilterExpression.Range) expression).getRange());
+        }
+        if (expression instanceof FilterExpression.Not) {
+            return 1.0 - selectivity(((FilterExpression.Not) expression).getChild(), statistics);
+        }
+        if (expression instanceof FilterExpression.And) {
+            double kept = 1.0;
+            for (FilterExpression child : ((FilterExpression.And) expression).getChildren()) {
+                kept *= selectivity(child, statistics);
+            }
+            return kept;
+        }
+        double missed = 1.0;
+        for (FilterExpression child : ((FilterExpression.Or) expression).getChildren()) {
+            missed *= 1.0 - selectivity(child, statistics);
+        }
+        return 1.0 - missed;
+    }
+
+    /**
+     * Optimizes the children of an AND.
+     *
+     * @param children The children as parsed.
+     * @param statistics The catalog statistics.
+     * @return the optimized expression.
+     */
+    private static FilterExpression optimizeAnd(List<FilterExpression> children,
+                                                CatalogStatistics statistics) {
+        Map<GameData, ColumnRange> ranges = new EnumMap<>(GameData.class);
+        List<FilterExpression> others = new ArrayList<>();
+        for (FilterExpression child : flatten(children, FilterExpression.And.class)) {
+            child = pushNot(child);
+            if (child instanceof FilterExpression.Condition
+                    && ((FilterExpression.Condition) child).getCondition().getColumn() != GameData.NAME) {
+                FilterCondition condition = ((FilterExpression.Condition) child).getCondition();
+                ranges.merge(condition.getColumn(),
+                        ColumnRange.all(condition.getColumn()).intersect(condition),
+                        (current, ignored) -> current.intersect(condition));
+            } else if (child instanceof FilterExpression.Range) {
+                ColumnRange range = ((FilterExpression.Range) child).getRange();
+                others.add(checkRange(range, statistics)); // already folded, keep as is
+            } else {
+                others.add(child instanceof FilterExpression.Condition
+                        ? checkName((FilterExpression.Condition) child, statistics)
+                        : optimize(child, statistics));
+            }
+        }
+
+        List<FilterExpression> rangeChecks = new ArrayList<>();
+        for (ColumnRange range : ranges.values()) {
+            rangeChecks.add(checkRange(range, statistics));
+        }
+        List<FilterExpression> kept = new ArrayList<>();
+        for (List<FilterExpression> group : List.of(rangeChecks, others)) {
+            List<FilterExpression> sorted = new ArrayList<>();
+            for (FilterExpression child : group) {
+                if (child instanceof FilterExpression.Constant) {
+                    if (!((FilterExpression.Constant) child).getValue()) {
+                        return child; // one false child empties the AND
+                    }
+                } else {
+                    sorted.add(child);
+                }
+            }
+            sorted.sort(Comparator.comparingDouble(child -> selectivity(child, statistics)));
+            kept.addAll(sorted); // ranges are cheap, so they go before names and groups
+        }
+        if (kept.isEmpty()) {
+            return FilterExpression.Constant.TRUE;
+        }
+        return kept.size() == 1 ? kept.get(0) : new FilterExpression.And(kept);
+    }
+
+    /**
+     * Optimizes the children of an OR.
+     *
+     * @param children The children as parsed.
+     * @param statistics The catalog statistics.
+     * @return the optimized expression.
+     */
+    private static FilterExpression optimizeOr(List<FilterExpression> children,
+                                               CatalogStatistics statistics) {
+        List<FilterExpression> kept = new ArrayList<>();
+        List<String> reasons = new ArrayList<>();
+        for (FilterExpression child : flatten(children, FilterExpression.Or.class)) {
+            FilterExpression optimized = optimize(child, statistics);
+            if (optimized instanceof FilterExpression.Constant) {
+                FilterExpression.Constant constant = (FilterExpression.Constant) optimized;
+                if (constant.getValue()) {
+                    return constant; // one true child fills the OR
+                }
+                reasons.add(constant.getReason());
+            } else {
+                kept.add(optimized);
+            }
+        }
+        if (kept.isEmpty()) {
+            return new FilterExpression.Constant(false, String.join(" and ", reasons));
+        }
+        kept.sort(Comparator.comparingDouble(child -> -selectivity(child, statistics)));
+        return kept.size() == 1 ? kept.get(0) : new FilterExpression.Or(kept);
+    }
+
+    /**
+     * Optimizes a negation, flipping single conditions instead of wrapping them.
+     *
+     * @param child The negated expression.
+     * @param statistics The catalog statistics.
+     * @return the optimized expression.
+     */
+    private static FilterExpression optimizeNot(FilterExpression child,
+                                                CatalogStatistics statistics) {
+        if (child instanceof FilterExpression.Not) {
+            return optimize(((FilterExpression.Not) child).getChild(), statistics);
+        }
+        FilterExpression pushed = pushNot(new FilterExpression.Not(child));
+        if (!(pushed instanceof FilterExpression.Not)) {
+            return optimize(pushed, statistics);
+        }
+        FilterExpression optimized = optimize(child, statistics);
+        if (optimized instanceof FilterExpression.Constant) {
+            FilterExpression.Constant constant = (FilterExpression.Constant) optimized;
+            return new FilterExpression.Constant(!constant.getValue(), "not " + constant.getReason());
+        }
+        return new FilterExpression.Not(optimized);
+    }
+
+    /**
+     * Turns the negation of a single condition into the condition with the opposite operator,
+     * so it can be folded with the other conditions on its column.
+     *
+     * @param expression The expression.
+     * @return the flipped condition, or the expression unchanged.
+     */
+    private static FilterExpression pushNot(FilterExpression expression) {
+        if (expression instanceof FilterExpression.Not
+                && ((FilterExpression.Not) expression).getChild() instanceof FilterExpression.Condition) {
+            FilterCondition condition = ((FilterExpression.Condition)
+                    ((FilterExpression.Not) expression).getChild()).getCondition();
+            Operations flipped = negate(condition.getOperation());
+            if (flipped != null) {
+                return new FilterExpression.Condition(new FilterCondition(condition.getColumn(),
+                        flipped, condition.getValue()));
+            }
+        }
+        return expression;
+    }
+
+    /**
+     * Gets the operation that matches exactly the values another one does not.
+     *
+     * @param op The operation.
+     * @return the negated operation, or null for contains which has none.
+     */
+    private static Operations negate(Operations op) {
+        return switch (op) {
+            case EQUALS -> Operations.NOT_EQUALS;
+            case NOT_EQUALS -> Operations.EQUALS;
+            case GREATER_THAN -> Operations.LESS_THAN_EQUALS;
+            case GREATER_THAN_EQUALS -> Operations.LESS_THAN;
+            case LESS_THAN -> Operations.GREATER_THAN_EQUALS;
+            case LESS_THAN_EQUALS -> Operations.GREATER_THAN;
+            default -> null;
+        };
+    }
+
+    /**
+     * Turns a folded range into a range check, or a constant when it is settled.
+     *
+     * @param range The folded range.
+     * @param statistics The catalog statistics.
+     * @return the range node, or a constant.
+     */
+    private static FilterExpression checkRange(ColumnRange range, CatalogStatistics statistics) {
+        if (range.isEmpty()) {
+            return new FilterExpression.Constant(false, "contradictory conditions on "
+                    + FilterCondition.fieldName(range.getColumn()));
+        }
+        ColumnStatistics.Outcome outcome = statistics.outcome(range);
+        if (outcome == ColumnStatistics.Outcome.NONE) {
+            return new FilterExpression.Constant(false, range + " matches no game");
+        }
+        if (outcome == ColumnStatistics.Outcome.ALL) {
+            return new FilterExpression.Constant(true, range + " matches every game");
+        }
+        return new FilterExpression.Range(range);
+    }
+
+    /**
+     * Checks a name condition against the statistics.
+     *
+     * @param condition The name condition.
+     * @param statistics The catalog statistics.
+     * @return the condition, or a constant when the catalog is empty.
+     */
+    private static FilterExpression checkName(FilterExpression.Condition condition,
+                                              CatalogStatistics statistics) {
+        if (statistics.outcome(condition.getCondition()) == ColumnStatistics.Outcome.NONE) {
+            return new FilterExpression.Constant(false, condition + " matches no game");
+        }
+        return condition;
+    }
+
+    /**
+     * Pulls the children of nested nodes of the same kind up one level.
+     *
+     * @param children The children.
+     * @param kind The node class to flatten (And or Or).
+     * @return the flattened children.
+     */
+    private static List<FilterExpression> flatten(List<FilterExpression> children,
+                                                  Class<? extends FilterExpression> kind) {
+        List<FilterExpression> flat = new ArrayList<>();
+        for (FilterExpression child : children) {
+            if (kind.isInstance(child) && child instanceof FilterExpression.And) {
+                flat.addAll(flatten(((FilterExpression.And) child).getChildren(), kind));
+            } else if (kind.isInstance(child) && child instanceof FilterExpression.Or) {
+                flat.addAll(flatten(((FilterExpression.Or) child).getChildren(), kind));
+            } else {
+                flat.add(child);
+            }
+        }
+        return flat;
+    }
+}
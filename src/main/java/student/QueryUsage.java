@@ -0,0 +1,119 @@
+package student;
+
+/**
+ * What a query used of its {@link QueryBudget}, and whether it was stopped by a limit.
+ */
+public final class QueryUsage {
+    /** The query, as typed. */
+    private final String query;
+    /** The budget the query ran under. */
+    private final QueryBudget budget;
+    /** The wall time taken, in milliseconds. */
+    private final long elapsedMillis;
+    /** The rows the query's scans went through. */
+    private final long rowsScanned;
+    /** The games in the results. */
+    private final int results;
+    /** The limit that stopped the query, or null if it ran to the end. */
+    private final QueryBudget.Limit truncatedBy;
+
+    /**
+     * Constructs the usage of a query.
+     *
+     * @param query The query, as typed.
+     * @param budget The budget the query ran under.
+     * @param elapsedMillis The wall time taken, in milliseconds.
+     * @param rowsScanned The rows the query's scans went through.
+     * @param results The games in the results.
+     * @param truncatedBy The limit that stopped the query, or null.
+     */
+    QueryUsage(String query, QueryBudget budget, long elapsedMillis, long rowsScanned,
+               int results, QueryBudget.Limit truncatedBy) {
+        this.query = query;
+        this.budget = budget;
+        this.elapsedMillis = elapsedMillis;
+        this.rowsScanned = rowsScanned;
+        this.results = results;
+        this.truncatedBy = truncatedBy;
+    }
+
+    /**
+     * Gets the query.
+     *
+     * @return the query, as typed.
+     */
+    public String getQuery() {
+        return query;
+    }
+
+    /**
+     * Gets the budget the query ran under.
+     *
+     * @return the budget.
+     */
+    public QueryBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * Gets the wall time the query took.
+     *
+     * @return the time in milliseconds.
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Gets the rows the query's scans went through.
+     *
+     * @return the rows scanned.
+     */
+    public long getRowsScanned() {
+        return rowsScanned;
+    }
+
+    /**
+     * Gets the number of games in the results.
+     *
+     * @return the results.
+     */
+    public int getResults() {
+        return results;
+    }
+
+    /**
+     * Checks if a limit stopped the query, leaving partial results.
+     *
+     * @return true if the results are truncated.
+     */
+    public boolean isTruncated() {
+        return truncatedBy != null;
+    }
+
+    /**
+     * Gets the limit that stopped the query.
+     *
+     * @return the limit, or null if the query ran to the end.
+     */
+    public QueryBudget.Limit getTruncatedBy() {
+        return truncatedBy;
+    }
+
+    /**
+     * Describes the usage, such as
+     * {@code 120 ms, 50,000 rows scanned, 1,000 results, truncated by results=1000}.
+     *
+     * @return the usage as text.
+     */
+    @Override
+    public String toString() {
+        String text = String.format("%d ms, %,d rows scanned, %,d results", elapsedMillis,
+                rowsScanned, results);
+        if (truncatedBy == null) {
+            return text;
+        }
+        return text + ", truncated by " + truncatedBy.getTitle() + "="
+                + budget.get(truncatedBy) + (truncatedBy == QueryBudget.Limit.TIME ? "ms" : "");
+    }
+}
@@ -0,0 +1,336 @@
+package student;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+
+/**
+ * Picks random games, uniformly or weighted, without picking a game twice.
+ *
+ * <p>A fixed set of weights gets an {@link AliasTable}, built once in linear time, after which
+ * each pick costs a random number and a table lookup. Games that come as a stream, such as the
+ * results of a filter, are picked by weighted reservoir sampling (Efraimidis and Spirakis): one
+ * pass, keeping the games with the largest random keys in a heap of the size asked for. Neither
+ * sorts the games.</p>
+ */
+public final class RandomPicker {
+    /** Orders kept picks by key, smallest first, so the heap gives up its weakest pick. */
+    private static final Comparator<Keyed<?>> BY_KEY = Comparator.comparingDouble(k -> k.key);
+
+    // Prevents instantiation of this utility class
+    private RandomPicker() {
+        throw new UnsupportedOperationException("Utility class - do not instantiate");
+    }
+
+    /**
+     * How likely each game is to be picked.
+     */
+    public enum Weight {
+        /** Every game equally. */
+        UNIFORM,
+        /** In proportion to the average rating. */
+        RATING,
+        /** In proportion to one over the rank, so rank 1 is twice as likely as rank 2. */
+        RANK;
+
+        /**
+         * Gets the weight of a game.
+         *
+         * @param game The game.
+         * @return the weight, 0 for games that are never picked.
+         */
+        public double of(BoardGame game) {
+            return of(game.getRating(), game.getRank());
+        }
+
+        /**
+         * Gets the weight of a game from its values.
+         *
+         * @param rating The average rating.
+         * @param rank The rank, 0 or less for unranked.
+         * @return the weight, 0 for games that are never picked.
+         */
+        double of(double rating, int rank) {
+            return switch (this) {
+                case UNIFORM -> 1.0;
+                case RATING -> rating > 0 ? rating : 0.0; // NaN too
+                case RANK -> rank > 0 ? 1.0 / rank : 0.0;
+            };
+        }
+
+        /**
+         * Gets the column whose value explains the weight, to show next to a pick.
+         *
+         * @return the column.
+         */
+        public GameData getColumn() {
+            return switch (this) {
+                case UNIFORM -> GameData.NAME;
+                case RATING -> GameData.RATING;
+                case RANK -> GameData.RANK;
+            };
+        }
+
+        /**
+         * Gets the weight named by a string.
+         *
+         * @param name The name, ignoring case.
+         * @return the weight.
+         * @throws IllegalArgumentException if no weight has the name.
+         */
+        public static Weight fromString(String name) {
+            for (Weight weight : values()) {
+                if (weight.name().equalsIgnoreCase(name)) {
+                    return weight;
+                }
+            }
+            throw new IllegalArgumentException("Unknown weight " + name);
+        }
+    }
+
+    /**
+     * Picks games from a stream in one pass.
+     *
+     * @param games The games.
+     * @param weight The weight of each game; games of weight 0 are never picked.
+     * @param count The most games to pick.
+     * @param random The random source.
+     * @param <T> The type of the games.
+     * @return the picks, fewer if fewer games can be picked, in the order they were drawn.
+     * @throws IllegalArgumentException if the count is negative.
+     */
+    public static <T> List<T> sample(Stream<T> games, ToDoubleFunction<? super T> weight,
+                                     int count, Random random) {
+        checkCount(count);
+        PriorityQueue<Keyed<T>> kept = new PriorityQueue<>(Math.max(1, count), BY_KEY);
+        Iterator<T> it = games.iterator();
+        while (it.hasNext() && count > 0) {
+            T game = it.next();
+            double key = key(weight.applyAsDouble(game), random);
+            if (kept.size() < count) {
+                kept.add(new Keyed<>(key, game));
+            } else if (key > kept.peek().key) {
+                kept.poll();
+                kept.add(new Keyed<>(key, game));
+            }
+        }
+        return drain(kept);
+    }
+
+    /**
+     * Picks rows from a bitmap in one pass.
+     *
+     * @param rows The rows to pick from.
+     * @param weight The weight of each row; rows of weight 0 are never picked.
+     * @param count The most rows to pick.
+     * @param random The random source.
+     * @return the picked rows, fewer if fewer rows can be picked, in the order they were drawn.
+     * @throws IllegalArgumentException if the count is negative.
+     */
+    static List<Integer> sampleRows(BitSet rows, IntToDoubleFunction weight, int count,
+                                    Random random) {
+        checkCount(count);
+        PriorityQueue<Keyed<Integer>> kept = new PriorityQueue<>(Math.max(1, count), BY_KEY);
+        for (int row = rows.nextSetBit(0); row >= 0 && count > 0; row = rows.nextSetBit(row + 1)) {
+            double key = key(weight.applyAsDouble(row), random);
+            if (kept.size() < count) {
+                kept.add(new Keyed<>(key, row));
+            } else if (key > kept.peek().key) {
+                kept.poll();
+                kept.add(new Keyed<>(key, row));
+            }
+        }
+        return drain(kept);
+    }
+
+    /**
+     * Draws the reservoir key of an item: the log of a uniform number to the power one over the
+     * weight, which keeps the keys of tiny weights from underflowing to zero.
+     *
+     * @param weight The weight of the item.
+     * @param random The random source.
+     * @return the key, larger is picked first; negative infinity for weights that are not positive.
+     */
+    private static double key(double weight, Random random) {
+        if (!(weight > 0)) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        return Math.log(1.0 - random.nextDouble()) / weight; // 1 - u is never 0
+    }
+
+    /**
+     * Empties a reservoir into its items, largest key first, leaving out the never picked ones.
+     *
+     * @param kept The reservoir.
+     * @param <T> The type of the items.
+     * @return the items.
+     */
+    private static <T> List<T> drain(PriorityQueue<Keyed<T>> kept) {
+        List<T> picks = new ArrayList<>(kept.size());
+        while (!kept.isEmpty()) {
+            Keyed<T> next = kept.poll();
+            if (next.key != Double.NEGATIVE_INFINITY) {
+                picks.add(next.item);
+            }
+        }
+        Collections.reverse(picks);
+        return picks;
+    }
+
+    /**
+     * Checks the number of games asked for.
+     *
+     * @param count The count.
+     * @throws IllegalArgumentException if the count is negative.
+     */
+    private static void checkCount(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Cannot pick " + count + " games.");
+        }
+    }
+
+    /**
+     * An item of a reservoir and its key.
+     *
+     * @param <T> The type of the item.
+     */
+    private static final class Keyed<T> {
+        /** The random key. */
+        private final double key;
+        /** The item. */
+        private final T item;
+
+        /**
+         * Constructs a keyed item.
+         *
+         * @param key The random key.
+         * @param item The item.
+         */
+        Keyed(double key, T item) {
+            this.key = key;
+            this.item = item;
+        }
+    }
+
+    /**
+     * Walker's alias table (in Vose's form) over fixed weights, for constant time picks.
+     *
+     * <p>Each of the n slots holds a probability and an alias: a pick chooses a slot uniformly,
+     * then keeps it with the slot's probability or takes its alias otherwise.</p>
+     */
+    static final class AliasTable {
+        /** The chance of keeping each slot rather than its alias. */
+        private final double[] probability;
+        /** The alias of each slot. */
+        private final int[] alias;
+        /** The number of slots of positive weight. */
+        private final int positive;
+
+        /**
+         * Builds the table of some weights.
+         *
+         * @param size The number of slots.
+         * @param weight The weight of each slot, not negative.
+         */
+        AliasTable(int size, IntToDoubleFunction weight) {
+            this.probability = new double[size];
+            this.alias = new int[size];
+            double total = 0;
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                probability[i] = weight.applyAsDouble(i);
+                total += probability[i];
+                count += probability[i] > 0 ? 1 : 0;
+            }
+            this.positive = count;
+            int[] small = new int[size];
+            int[] large = new int[size];
+            int smalls = 0;
+            int larges = 0;
+            for (int i = 0; i < size; i++) {
+                probability[i] = total > 0 ? probability[i] * size / total : 0;
+                if (probability[i] < 1) {
+                    small[smalls++] = i;
+                } else {
+                    large[larges++] = i;
+                }
+            }
+            while (smalls > 0 && larges > 0) {
+                int less = small[--smalls];
+                int more = large[--larges];
+                alias[less] = more;
+                probability[more] += probability[less] - 1;
+                if (probability[more] < 1) {
+                    small[smalls++] = more;
+                } else {
+                    large[larges++] = more;
+                }
+            }
+            while (larges > 0) {
+                probability[large[--larges]] = 1;
+            }
+            while (smalls > 0) {
+                probability[small[--smalls]] = 1; // only rounding left these, unless all are 0
+            }
+        }
+
+        /**
+         * Gets the number of slots that can be picked.
+         *
+         * @return the slots of positive weight.
+         */
+        int positive() {
+            return positive;
+        }
+
+        /**
+         * Picks a slot.
+         *
+         * @param random The random source.
+         * @return the slot; undefined when no slot has a positive weight.
+         */
+        int sample(Random random) {
+            int slot = random.nextInt(probability.length);
+            return random.nextDouble() < probability[slot] ? slot : alias[slot];
+        }
+
+        /**
+         * Picks distinct slots by drawing again on repeats.
+         *
+         * Repeats are rare while few slots are taken; when the count is a large share of the
+         * slots, or the weights are so skewed that draws keep repeating, this gives up so the
+         * caller can use a reservoir instead.
+         *
+         * @param count The number of slots to pick.
+         * @param random The random source.
+         * @return the slots in the order drawn, or null to give up.
+         */
+        List<Integer> sampleDistinct(int count, Random random) {
+            if ((long) count * 2 > positive) {
+                return null;
+            }
+            BitSet taken = new BitSet(probability.length);
+            List<Integer> picks = new ArrayList<>(count);
+            int budget = count * 8 + 32;
+            while (picks.size() < count) {
+                if (budget-- == 0) {
+                    return null;
+                }
+                int slot = sample(random);
+                if (!taken.get(slot)) {
+                    taken.set(slot);
+                    picks.add(slot);
+                }
+            }
+            return picks;
+        }
+    }
+}
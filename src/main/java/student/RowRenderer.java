@@ -0,0 +1,412 @@
+package student;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.text.DecimalFormatSymbols;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Renders rows of game output into a reusable char buffer, without {@code String.format}.
+ *
+ * <p>The text is the same as {@link BoardGame#toStringWithInfo(GameData)}: the name, then the
+ * sort column value in parentheses, with doubles to two decimals. Integers and the common doubles
+ * are written digit by digit into the buffer, so rendering a row allocates nothing once the buffer
+ * has grown to fit. Digits and the decimal separator follow the locale, as the formatter's do.</p>
+ *
+ * <p>For scripts, {@link #appendTsv(BoardGame)} and {@link #appendJson(BoardGame)} write every
+ * column of a game on one line, doubles in full and always with a {@code .} separator.</p>
+ *
+ * <p>Doubles are rounded half up from their shortest decimal form, like {@code %.2f}. The fast
+ * path rounds the double itself, which gives the same result unless the value lies within a
+ * rounding error of a tie; those values, negatives and very large values are handed to
+ * {@code String.format} instead.</p>
+ */
+public final class RowRenderer {
+    /** Initial buffer size, a few rows worth. */
+    private static final int INITIAL_CAPACITY = 512;
+    /** Largest double rendered on the fast path. */
+    private static final double FAST_LIMIT = 1e6;
+    /** How close to a rounding tie the fast path gives up. */
+    private static final double TIE_MARGIN = 1e-6;
+    /** The columns written for scripts, in order. */
+    private static final GameData[] MACHINE_COLUMNS = {GameData.NAME, GameData.RATING,
+        GameData.DIFFICULTY, GameData.RANK, GameData.MIN_PLAYERS, GameData.MAX_PLAYERS,
+        GameData.MIN_TIME, GameData.MAX_TIME, GameData.YEAR};
+    /** Hex digits for JSON escapes. */
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /** The locale of the digits and decimal separator. */
+    private final Locale locale;
+    /** The locale's zero digit, other digits follow it. */
+    private final char zero;
+    /** The locale's decimal separator. */
+    private final char decimalSeparator;
+    /** The line separator ending each row. */
+    private final String lineSeparator = System.lineSeparator();
+    /** The rendered text. */
+    private char[] buffer = new char[INITIAL_CAPACITY];
+    /** The number of chars in use. */
+    private int length;
+
+    /**
+     * Constructs a renderer for the default formatting locale, as {@code String.format} uses.
+     */
+    public RowRenderer() {
+        this(Locale.getDefault(Locale.Category.FORMAT));
+    }
+
+    /**
+     * Constructs a renderer for a locale.
+     *
+     * @param locale The locale of the digits and decimal separator.
+     */
+    public RowRenderer(Locale locale) {
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+        this.locale = locale;
+        this.zero = symbols.getZeroDigit();
+        this.decimalSeparator = symbols.getDecimalSeparator();
+    }
+
+    /**
+     * Appends a numbered row, such as {@code 3: Catan (7.12)}, and a line separator.
+     *
+     * @param number The row number.
+     * @param game The game.
+     * @param column The column whose value is shown after the name.
+     * @return this renderer.
+     */
+    public RowRenderer appendRow(int number, BoardGame game, GameData column) {
+        appendInt(number);
+        append(':').append(' ');
+        appendInfo(game, column);
+        return append(lineSeparator);
+    }
+
+    /**
+     * Appends the same text as {@link BoardGame#toStringWithInfo(GameData)}.
+     *
+     * @param game The game.
+     * @param column The column whose value is shown after the name.
+     * @return this renderer.
+     */
+    public RowRenderer appendInfo(BoardGame game, GameData column) {
+        game.appendNameTo(this);
+        switch (column) {
+            case RATING:
+                return append(' ').append('(').appendFixed2(game.getRating()).append(')');
+            case DIFFICULTY:
+                return append(' ').append('(').appendFixed2(game.getDifficulty()).append(')');
+            case RANK:
+                return append(' ').append('(').appendInt(game.getRank()).append(')');
+            case MIN_PLAYERS:
+                return append(' ').append('(').appendInt(game.getMinPlayers()).append(')');
+            case MAX_PLAYERS:
+                return append(' ').append('(').appendInt(game.getMaxPlayers()).append(')');
+            case MIN_TIME:
+                return append(' ').append('(').appendInt(game.getMinPlayTime()).append(')');
+            case MAX_TIME:
+                return append(' ').append('(').appendInt(game.getMaxPlayTime()).append(')');
+            case YEAR:
+                return append(' ').append('(').appendInt(game.getYearPublished()).append(')');
+            default:
+                return this;
+        }
+    }
+
+    /**
+     * Appends every column of a game separated by tabs, and a line separator.
+     *
+     * Tabs and line breaks in the name are written as spaces, so a game is always one line.
+     *
+     * @param game The game.
+     * @return this renderer.
+     */
+    public RowRenderer appendTsv(BoardGame game) {
+        for (GameData column : MACHINE_COLUMNS) {
+            if (column != GameData.NAME) {
+                append('\t');
+                appendValue(game, column);
+                continue;
+            }
+            int start = length;
+            game.appendNameTo(this);
+            for (int i = start; i < length; i++) {
+                char c = buffer[i];
+                buffer[i] = c == '\t' || c == '\n' || c == '\r' ? ' ' : c;
+            }
+        }
+        return append(lineSeparator);
+    }
+
+    /**
+     * Appends every column of a game as a JSON object keyed by the csv column names, and a line
+     * separator.
+     *
+     * @param game The game.
+     * @return this renderer.
+     */
+    public RowRenderer appendJson(BoardGame game) {
+        append('{');
+        for (GameData column : MACHINE_COLUMNS) {
+            if (column != GameData.NAME) {
+                append(',');
+            }
+            appendJsonString(column.getColumnName()).append(':');
+            if (column == GameData.NAME) {
+                appendJsonString(game.getName());
+            } else {
+                appendValue(game, column);
+            }
+        }
+        return append('}').append(lineSeparator);
+    }
+
+    /**
+     * Appends a JSON object with one string field, such as {@code {"message":"..."}}, and a line
+     * separator.
+     *
+     * @param key The field name.
+     * @param value The field value.
+     * @return this renderer.
+     */
+    public RowRenderer appendJsonField(String key, String value) {
+        append('{').appendJsonString(key).append(':').appendJsonString(value).append('}');
+        return append(lineSeparator);
+    }
+
+    /**
+     * Appends a string as a quoted JSON string.
+     *
+     * @param text The text.
+     * @return this renderer.
+     */
+    public RowRenderer appendJsonString(String text) {
+        ensureCapacity(text.length() + 2);
+        buffer[length++] = '"';
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                append('\\').append(c);
+            } else if (c < ' ') {
+                append('\\').append('u').append('0').append('0')
+                        .append(HEX[c >> 4]).append(HEX[c & 0xf]);
+            } else {
+                append(c);
+            }
+        }
+        return append('"');
+    }
+
+    /**
+     * Appends a numeric column for scripts: ints as is, doubles in full, and doubles that JSON
+     * cannot hold as {@code null}.
+     *
+     * @param game The game.
+     * @param column The numeric column.
+     */
+    private void appendValue(BoardGame game, GameData column) {
+        switch (column) {
+            case RATING -> appendDouble(game.getRating());
+            case DIFFICULTY -> appendDouble(game.getDifficulty());
+            case RANK -> appendDigits(game.getRank());
+            case MIN_PLAYERS -> appendDigits(game.getMinPlayers());
+            case MAX_PLAYERS -> appendDigits(game.getMaxPlayers());
+            case MIN_TIME -> appendDigits(game.getMinPlayTime());
+            case MAX_TIME -> appendDigits(game.getMaxPlayTime());
+            case YEAR -> appendDigits(game.getYearPublished());
+            default -> throw new IllegalArgumentException("Not a numeric column: " + column);
+        }
+    }
+
+    /**
+     * Appends a double as {@code Double.toString} writes it, or null if it is not finite.
+     *
+     * @param value The value.
+     */
+    private void appendDouble(double value) {
+        append(Double.isFinite(value) ? Double.toString(value) : "null");
+    }
+
+    /**
+     * Appends an int with ASCII digits, whatever the locale.
+     *
+     * @param value The value.
+     */
+    private void appendDigits(int value) {
+        appendInt(value, '0');
+    }
+
+    /**
+     * Appends an int as {@code %d} writes it.
+     *
+     * @param value The value.
+     * @return this renderer.
+     */
+    public RowRenderer appendInt(int value) {
+        return appendInt(value, zero);
+    }
+
+    /**
+     * Appends an int with the digits starting at a zero digit.
+     *
+     * @param value The value.
+     * @param zeroDigit The zero digit, the other digits follow it.
+     * @return this renderer.
+     */
+    private RowRenderer appendInt(int value, char zeroDigit) {
+        long magnitude = value;
+        if (magnitude < 0) {
+            append('-');
+            magnitude = -magnitude;
+        }
+        ensureCapacity(10);
+        int start = length;
+        do {
+            buffer[length++] = (char) (zeroDigit + (int) (magnitude % 10));
+            magnitude /= 10;
+        } while (magnitude > 0);
+        reverse(start, length - 1);
+        return this;
+    }
+
+    /**
+     * Appends a double as {@code %.2f} writes it.
+     *
+     * @param value The value.
+     * @return this renderer.
+     */
+    public RowRenderer appendFixed2(double value) {
+        if (Double.doubleToRawLongBits(value) < 0 || !(value >= 0) || value >= FAST_LIMIT) {
+            // negative, negative zero (%.2f keeps its sign), NaN or large
+            return append(String.format(locale, "%.2f", value));
+        }
+        double scaled = value * 100;
+        long whole = (long) scaled;
+        double fraction = scaled - whole;
+        if (Math.abs(fraction - 0.5) < TIE_MARGIN) {
+            return append(String.format(locale, "%.2f", value));
+        }
+        long cents = fraction > 0.5 ? whole + 1 : whole;
+        appendInt((int) (cents / 100));
+        ensureCapacity(3);
+        int hundredths = (int) (cents % 100);
+        buffer[length++] = decimalSeparator;
+        buffer[length++] = (char) (zero + hundredths / 10);
+        buffer[length++] = (char) (zero + hundredths % 10);
+        return this;
+    }
+
+    /**
+     * Appends the name in a row of a name arena, copied from its bytes.
+     *
+     * @param arena The arena.
+     * @param row The row.
+     * @return this renderer.
+     */
+    RowRenderer appendName(NameArena arena, int row) {
+        ensureCapacity(arena.byteLength(row));
+        length += arena.getChars(row, buffer, length);
+        return this;
+    }
+
+    /**
+     * Appends a string.
+     *
+     * @param text The text.
+     * @return this renderer.
+     */
+    public RowRenderer append(String text) {
+        ensureCapacity(text.length());
+        text.getChars(0, text.length(), buffer, length);
+        length += text.length();
+        return this;
+    }
+
+    /**
+     * Appends a char.
+     *
+     * @param c The char.
+     * @return this renderer.
+     */
+    public RowRenderer append(char c) {
+        ensureCapacity(1);
+        buffer[length++] = c;
+        return this;
+    }
+
+    /**
+     * Gets the number of chars rendered since the last reset.
+     *
+     * @return the length.
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Writes the rendered text and empties the buffer, keeping its capacity.
+     *
+     * @param out The writer.
+     * @throws IOException if the writer fails.
+     */
+    public void writeTo(Writer out) throws IOException {
+        out.write(buffer, 0, length);
+        length = 0;
+    }
+
+    /**
+     * Writes the rendered text and empties the buffer, keeping its capacity.
+     *
+     * A {@code PrintWriter} does not throw, it records errors for {@code checkError}.
+     *
+     * @param out The writer.
+     */
+    public void writeTo(PrintWriter out) {
+        out.write(buffer, 0, length);
+        length = 0;
+    }
+
+    /**
+     * Empties the buffer, keeping its capacity.
+     */
+    public void reset() {
+        length = 0;
+    }
+
+    /**
+     * Gets the rendered text.
+     *
+     * @return the text since the last reset.
+     */
+    @Override
+    public String toString() {
+        return new String(buffer, 0, length);
+    }
+
+    /**
+     * Grows the buffer to fit more chars.
+     *
+     * @param extra The number of chars about to be appended.
+     */
+    private void ensureCapacity(int extra) {
+        if (length + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+        }
+    }
+
+    /**
+     * Reverses a run of the buffer in place.
+     *
+     * @param from The first index.
+     * @param to The last index.
+     */
+    private void reverse(int from, int to) {
+        while (from < to) {
+            char c = buffer[from];
+            buffer[from++] = buffer[to];
+            buffer[to--] = c;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package student;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * A saved planner session: the filters applied, the games in the current results and the games
+ * in the list.
+ *
+ * <p>Games are stored as handles, their row in the planner's columns, so the results are a bitmap
+ * of rows and the list an array of rows. Handles are only valid for the same catalog, which the
+ * fingerprint and row count identify. Restoring a checkpoint sets the results from the bitmap
+ * instead of running the filters again.</p>
+ *
+ * <p>The binary layout is: magic, version, fingerprint, row count, the number of filters and each
+ * filter as modified UTF-8, the number of bitmap words and the words, the number of list handles
+ * and the handles, then a CRC32 of everything before it. Files are written to a temporary file
+ * and moved into place, so a reader never sees half a checkpoint.</p>
+ */
+public final class SessionCheckpoint {
+    /** Marks a checkpoint file, BGAS in ASCII. */
+    private static final int MAGIC = 0x42474153;
+    /** The version of the layout. */
+    private static final int VERSION = 1;
+    /** Buffer size for reading and writing. */
+    private static final int BUFFER = 1 << 16;
+
+    /** Fingerprint of the catalog the handles refer to. */
+    private final long fingerprint;
+    /** The number of games in the catalog. */
+    private final int rowCount;
+    /** The filters applied, in order. */
+    private final List<String> history;
+    /** The rows of the games in the current results. */
+    private final BitSet results;
+    /** The rows of the games in the list, in list order. */
+    private final int[] listHandles;
+
+    /**
+     * Constructs a checkpoint.
+     *
+     * @param fingerprint Fingerprint of the catalog the handles refer to.
+     * @param rowCount The number of games in the catalog.
+     * @param history The filters applied, in order.
+     * @param results The rows of the games in the current results.
+     * @param listHandles The rows of the games in the list.
+     */
+    SessionCheckpoint(long fingerprint, int rowCount, List<String> history, BitSet results,
+            int[] listHandles) {
+        this.fingerprint = fingerprint;
+        this.rowCount = rowCount;
+        this.history = List.copyOf(history);
+        this.results = (BitSet) results.clone();
+        this.listHandles = listHandles.clone();
+    }
+
+    /**
+     * Gets the fingerprint of the catalog the handles refer to.
+     *
+     * @return the fingerprint.
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Gets the number of games in the catalog.
+     *
+     * @return the row count.
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Gets the filters applied.
+     *
+     * @return the filters, in order.
+     */
+    public List<String> getHistory() {
+        return history;
+    }
+
+    /**
+     * Gets the rows of the games in the current results.
+     *
+     * @return a copy of the bitmap.
+     */
+    public BitSet getResults() {
+        return (BitSet) results.clone();
+    }
+
+    /**
+     * Gets the rows of the games in the list.
+     *
+     * @return a copy of the handles, in list order.
+     */
+    public int[] getListHandles() {
+        return listHandles.clone();
+    }
+
+    /**
+     * Writes the checkpoint to a file, replacing it in one step.
+     *
+     * @param file The file.
+     * @throws IOException if the file cannot be written.
+     */
+    public void writeTo(Path file) throws IOException {
+        Path absolute = file.toAbsolutePath();
+        Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        try (OutputStream stream = Files.newOutputStream(temp)) {
+            write(stream);
+        }
+        try {
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the checkpoint to a stream.
+     *
+     * @param stream The stream, left open.
+     * @throws IOException if the stream fails.
+     */
+    public void write(OutputStream stream) throws IOException {
+        CRC32 crc = new CRC32();
+        DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                new BufferedOutputStream(stream, BUFFER), crc));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(fingerprint);
+        out.writeInt(rowCount);
+        out.writeInt(history.size());
+        for (String filter : history) {
+            out.writeUTF(filter);
+        }
+        long[] words = results.toLongArray();
+        out.writeInt(words.length);
+        for (long word : words) {
+            out.writeLong(word);
+        }
+        out.writeInt(listHandles.length);
+        for (int handle : listHandles) {
+            out.writeInt(handle);
+        }
+        out.flush();
+        new DataOutputStream(stream).writeLong(crc.getValue());
+        stream.flush();
+    }
+
+    /**
+     * Reads a checkpoint from a file.
+     *
+     * @param file The file.
+     * @return the checkpoint.
+     * @throws IOException if the file cannot be read or is not a valid checkpoint.
+     */
+    public static SessionCheckpoint readFrom(Path file) throws IOException {
+        try (InputStream stream = Files.newInputStream(file)) {
+            return read(stream);
+        }
+    }
+
+    /**
+     * Reads a checkpoint from a stream.
+     *
+     * @param stream The stream, left open.
+     * @return the checkpoint.
+     * @throws IOException if the stream fails or does not hold a valid checkpoint.
+     */
+    public static SessionCheckpoint read(InputStream stream) throws IOException {
+        CRC32 crc = new CRC32();
+        BufferedInputStream buffered = new BufferedInputStream(stream, BUFFER);
+        DataInputStream in = new DataInputStream(new CheckedInputStream(buffered, crc));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a session checkpoint.");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported session checkpoint version " + version);
+        }
+        long fingerprint = in.readLong();
+        int rowCount = in.readInt();
+        int filters = count(in.readInt(), Integer.MAX_VALUE);
+        List<String> history = new ArrayList<>(Math.min(filters, BUFFER));
+        for (int i = 0; i < filters; i++) {
+            history.add(in.readUTF());
+        }
+        long[] words = new long[count(in.readInt(), (rowCount + Long.SIZE - 1) / Long.SIZE)];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = in.readLong();
+        }
+        int[] handles = new int[count(in.readInt(), rowCount)];
+        for (int i = 0; i < handles.length; i++) {
+            handles[i] = in.readInt();
+            if (handles[i] < 0 || handles[i] >= rowCount) {
+                throw new IOException("Session checkpoint has a bad list handle " + handles[i]);
+            }
+        }
+        long expected = crc.getValue();
+        if (new DataInputStream(buffered).readLong() != expected) {
+            throw new IOException("Session checkpoint is corrupt.");
+        }
+        BitSet results = BitSet.valueOf(words);
+        if (results.length() > rowCount) {
+            throw new IOException("Session checkpoint has results past the last game.");
+        }
+        return new SessionCheckpoint(fingerprint, rowCount, history, results, handles);
+    }
+
+    /**
+     * Checks a count read from a checkpoint.
+     *
+     * @param count The count.
+     * @param max The largest valid count.
+     * @return the count.
+     * @throws IOException if the count is negative or too large.
+     */
+    private static int count(int count, int max) throws IOException {
+        if (count < 0 || count > max) {
+            throw new IOException("Session checkpoint has a bad count " + count);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,208 @@
+package student;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A planner over a catalog split into shards, such as one csv file per publisher or region.
+ *
+ * <p>Each shard has its own {@code Planner}, with its own columns and statistics. A filter fans
+ * out to every shard on a thread pool, where it is run and sorted, and the sorted results of the
+ * shards are combined with a streaming k-way merge. The merge uses the order {@code GameSorter}
+ * gives a single catalog, the sort keys and then the canonical order, so the results are exactly
+ * those of one planner over all the shards. Filters are progressive in every shard, as in a
+ * single planner.</p>
+ */
+public final class ShardedPlanner implements IPlanner, AutoCloseable {
+    /** The planner of each shard. */
+    private final List<Planner> shards;
+    /** Runs the shards' work in parallel. */
+    private final ExecutorService pool;
+
+    /**
+     * Constructs a planner over shards, building the shard planners in parallel.
+     *
+     * @param shards The games of each shard.
+     */
+    public ShardedPlanner(List<Set<BoardGame>> shards) {
+        int threads = Math.max(1, Math.min(shards.size(),
+                Runtime.getRuntime().availableProcessors()));
+        this.pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "planner-shard");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Planner> planners = new ArrayList<>(shards.size());
+        List<Future<Planner>> built = new ArrayList<>(shards.size());
+        for (Set<BoardGame> shard : shards) {
+            built.add(pool.submit(() -> new Planner(shard)));
+        }
+        for (Future<Planner> planner : built) {
+            planners.add(await(planner));
+        }
+        this.shards = List.copyOf(planners);
+    }
+
+    /**
+     * Gets the number of shards.
+     *
+     * @return the shard count.
+     */
+    public int shardCount() {
+        return shards.size();
+    }
+
+    /**
+     * Filters every shard, merging the results by name.
+     *
+     * @param filter The filtering condition.
+     * @return A stream of filtered board games.
+     */
+    @Override
+    public Stream<BoardGame> filter(String filter) {
+        FilterParser.parseExpression(filter); // fails here rather than in every shard
+        return KWayMerge.merge(fanOut(planner -> planner.filter(filter).toList()),
+                GameColumns.CANONICAL_ORDER);
+    }
+
+    /**
+     * Filters and sorts every shard on a column, merging the results.
+     *
+     * @param filter The filtering condition.
+     * @param sortOn The sorting attribute (e.g., NAME, RATING).
+     * @return A sorted stream of filtered board games.
+     */
+    @Override
+    public Stream<BoardGame> filter(String filter, GameData sortOn) {
+        return filter(filter, sortOn, true);
+    }
+
+    /**
+     * Filters and sorts every shard on a column and order, merging the results.
+     *
+     * @param filter The filtering condition.
+     * @param sortOn The sorting attribute (e.g., NAME, RATING).
+     * @param ascending Whether to sort in ascending order.
+     * @return A sorted stream of filtered board games.
+     */
+    @Override
+    public Stream<BoardGame> filter(String filter, GameData sortOn, boolean ascending) {
+        if (sortOn == null) {
+            throw new IllegalArgumentException("Sorting attribute cannot be null.");
+        }
+        return filter(filter, List.of(new SortKey(sortOn, ascending)));
+    }
+
+    /**
+     * Filters and sorts every shard on several keys, merging the results.
+     *
+     * @param filter The filtering condition.
+     * @param sortKeys The sort keys, most significant first.
+     * @return A sorted stream of filtered board games.
+     */
+    @Override
+    public Stream<BoardGame> filter(String filter, List<SortKey> sortKeys) {
+        if (sortKeys == null || sortKeys.isEmpty()) {
+            throw new IllegalArgumentException("Sorting attribute cannot be null.");
+        }
+        FilterParser.parseExpression(filter);
+        return KWayMerge.merge(fanOut(planner -> planner.filter(filter, sortKeys).toList()),
+                SortKey.comparator(sortKeys));
+    }
+
+    /**
+     * Resets every shard to its whole catalog.
+     */
+    @Override
+    public void reset() {
+        for (Planner planner : shards) {
+            planner.reset();
+        }
+    }
+
+    /**
+     * Explains a filter in every shard and adds up the explanations.
+     *
+     * @param filter The filtering condition.
+     * @param sortOn The sorting attribute (e.g., NAME, RATING).
+     * @param ascending Whether to sort in ascending order.
+     * @return the execution details of the filter, see
+     *         {@link FilterExplanation#combine(List, String, String)}.
+     */
+    @Override
+    public FilterExplanation explain(String filter, GameData sortOn, boolean ascending) {
+        List<FilterExplanation> parts = fanOut(planner -> planner.explain(filter, sortOn,
+                ascending));
+        String accessPath = shards.size() + " shards in parallel: " + parts.stream()
+                .map(FilterExplanation::getAccessPath).distinct().collect(Collectors.joining("; "));
+        return FilterExplanation.combine(parts, "shard", accessPath);
+    }
+
+    /**
+     * Finds the game names closest to a possibly misspelled name, in every shard.
+     *
+     * @param name The name as typed.
+     * @param limit The most names to return.
+     * @return the closest names, closest first.
+     */
+    @Override
+    public List<NameIndex.Match> suggestNames(String name, int limit) {
+        return NameIndex.merge(fanOut(planner -> planner.suggestNames(name, limit)), limit);
+    }
+
+    /**
+     * Stops the threads of the pool.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * Runs a task on every shard in parallel and waits for all of them.
+     *
+     * @param task The task, given the shard's planner.
+     * @param <T> The type of the task's result.
+     * @return the result of each shard, in shard order.
+     */
+    private <T> List<T> fanOut(Function<Planner, T> task) {
+        List<Future<T>> futures = new ArrayList<>(shards.size());
+        for (Planner planner : shards) {
+            futures.add(pool.submit(() -> task.apply(planner)));
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        for (Future<T> future : futures) {
+            results.add(await(future));
+        }
+        return results;
+    }
+
+    /**
+     * Waits for a shard's task, passing on what it threw.
+     *
+     * @param future The task.
+     * @param <T> The type of the task's result.
+     * @return the result.
+     */
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for a shard.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
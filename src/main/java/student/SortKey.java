@@ -0,0 +1,120 @@
+package student;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * One key of a sort: a column and a direction.
+ *
+ * <p>Sorts are written as comma separated keys, most significant first, each optionally followed
+ * by {@code asc} or {@code desc}, such as {@code rating desc,year asc,name}. Keys default to
+ * ascending.</p>
+ */
+public final class SortKey {
+    /** Suffix for ascending keys. */
+    private static final String ASC = "asc";
+    /** Suffix for descending keys. */
+    private static final String DESC = "desc";
+
+    /** The column sorted on. */
+    private final GameData column;
+    /** True to sort smallest first. */
+    private final boolean ascending;
+
+    /**
+     * Constructs a sort key.
+     *
+     * @param column The column sorted on.
+     * @param ascending True to sort smallest first.
+     * @throws IllegalArgumentException if the column cannot be sorted on.
+     */
+    public SortKey(GameData column, boolean ascending) {
+        if (column == null || column == GameData.ID) {
+            throw new IllegalArgumentException("Unsupported sorting type: " + column);
+        }
+        this.column = column;
+        this.ascending = ascending;
+    }
+
+    /**
+     * Parses comma separated sort keys.
+     *
+     * Spaces are optional, so {@code ratingdesc,yearpublished} as the console passes it on is the
+     * same as {@code rating desc, yearpublished asc}.
+     *
+     * @param spec The sort keys.
+     * @return the keys, most significant first.
+     * @throws IllegalArgumentException if a key is empty or names an unknown column.
+     */
+    public static List<SortKey> parse(String spec) {
+        List<SortKey> keys = new ArrayList<>();
+        for (String part : spec.split(",", -1)) {
+            String key = part.trim().toLowerCase();
+            boolean ascending = true;
+            if (key.endsWith(DESC)) {
+                ascending = false;
+                key = key.substring(0, key.length() - DESC.length()).trim();
+            } else if (key.endsWith(ASC)) {
+                key = key.substring(0, key.length() - ASC.length()).trim();
+            }
+            if (key.isEmpty()) {
+                throw new IllegalArgumentException("Missing sort column in: " + spec);
+            }
+            keys.add(new SortKey(GameData.fromString(key), ascending));
+        }
+        return keys;
+    }
+
+    /**
+     * Gets the total order {@code GameSorter} puts games in canonical order into.
+     *
+     * The sort is stable, so games with equal keys stay in canonical order; the comparator
+     * compares the keys and then the canonical order. Numbers compare as {@code Double.compare}
+     * does and names ignoring case, as the sort ranks them.
+     *
+     * @param keys The sort keys, most significant first.
+     * @return the comparator.
+     */
+    public static Comparator<BoardGame> comparator(List<SortKey> keys) {
+        Comparator<BoardGame> order = null;
+        for (SortKey key : keys) {
+            GameData column = key.getColumn();
+            Comparator<BoardGame> next = column == GameData.NAME
+                    ? Comparator.comparing(BoardGame::getName, String.CASE_INSENSITIVE_ORDER)
+                    : Comparator.comparingLong(game -> PackedKeySort.encode(game, column));
+            next = key.isAscending() ? next : next.reversed();
+            order = order == null ? next : order.thenComparing(next);
+        }
+        return order == null ? GameColumns.CANONICAL_ORDER
+                : order.thenComparing(GameColumns.CANONICAL_ORDER);
+    }
+
+    /**
+     * Gets the column sorted on.
+     *
+     * @return the column.
+     */
+    public GameData getColumn() {
+        return column;
+    }
+
+    /**
+     * Checks the sort direction.
+     *
+     * @return true if smallest first.
+     */
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    /**
+     * Gets the key as written in a sort, such as {@code rating desc}.
+     *
+     * @return the key text.
+     */
+    @Override
+    public String toString() {
+        return column.name().toLowerCase() + " " + (ascending ? ASC : DESC);
+    }
+}
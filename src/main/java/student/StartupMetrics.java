@@ -0,0 +1,111 @@
+package student;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The times the program reached the milestones of its startup, from when {@code main} started.
+ *
+ * <p>The prompt is shown before the catalog is loaded, so the time to the prompt and the time to
+ * the first result are measured apart. Each milestone is recorded once, the first time it is
+ * reached, and emitted as a {@link PlannerEvents.StartupMilestone} event.</p>
+ */
+public final class StartupMetrics {
+    /**
+     * The milestones of a startup.
+     */
+    public enum Milestone {
+        /** The prompt is shown and commands can be typed. */
+        PROMPT("prompt"),
+        /** The catalog is loaded, its indexes built and the session restored. */
+        CATALOG_READY("catalog ready"),
+        /** The warm-up queries ran. */
+        WARMED_UP("warmed up"),
+        /** The first query returned its results. */
+        FIRST_RESULT("first result");
+
+        /** The name of the milestone, for reports. */
+        private final String title;
+
+        /**
+         * Constructs a milestone.
+         *
+         * @param title The name of the milestone.
+         */
+        Milestone(String title) {
+            this.title = title;
+        }
+
+        /**
+         * Gets the name of the milestone.
+         *
+         * @return the name, such as first result.
+         */
+        public String getTitle() {
+            return title;
+        }
+    }
+
+    /** When the startup began, from {@link System#nanoTime()}. */
+    private final long startNanos;
+    /** The milliseconds from the start to each milestone reached, in milestone order. */
+    private final Map<Milestone, Long> reached = new EnumMap<>(Milestone.class);
+
+    /**
+     * Constructs the metrics of a startup beginning now.
+     */
+    public StartupMetrics() {
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Records that a milestone was reached now, unless it was reached before.
+     *
+     * @param milestone The milestone.
+     */
+    public void mark(Milestone milestone) {
+        long millis = (System.nanoTime() - startNanos) / 1_000_000;
+        synchronized (reached) {
+            if (reached.putIfAbsent(milestone, millis) != null) {
+                return;
+            }
+        }
+        PlannerEvents.StartupMilestone event = new PlannerEvents.StartupMilestone();
+        if (event.shouldCommit()) {
+            event.milestone = milestone.getTitle();
+            event.sinceStartMillis = millis;
+            event.commit();
+        }
+    }
+
+    /**
+     * Gets the time from the start to a milestone.
+     *
+     * @param milestone The milestone.
+     * @return the time in milliseconds, -1 if it was not reached.
+     */
+    public long get(Milestone milestone) {
+        synchronized (reached) {
+            return reached.getOrDefault(milestone, -1L);
+        }
+    }
+
+    /**
+     * Lists the milestones reached, such as
+     * {@code startup: prompt 85 ms, catalog ready 640 ms, first result 2,310 ms}.
+     *
+     * @return the milestones as text.
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("startup:");
+        synchronized (reached) {
+            for (Map.Entry<Milestone, Long> entry : reached.entrySet()) {
+                text.append(text.length() > "startup:".length() ? ", " : " ")
+                        .append(entry.getKey().getTitle())
+                        .append(String.format(" %,d ms", entry.getValue()));
+            }
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,92 @@
+import student.Aggregate;
+import student.BoardGame;
+import student.GameData;
+import student.Planner;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.DoubleSupplier;
+import java.util.stream.Collectors;
+
+
+/**
+ * Times aggregate queries over the current results, computed from the columns, against the same
+ * answers computed from the games of a sorted filter, as callers did before.
+ *
+ * <p>Not a unit test, run it with {@code gradle benchmark -Pmain=AggregateBenchmark}.</p>
+ */
+public final class AggregateBenchmark {
+    /** Games in the catalog. */
+    private static final int GAMES = 500_000;
+    /** The filter the aggregates run over. */
+    private static final String FILTER = "maxplayers>=4";
+    /** Runs of each query per measurement. */
+    private static final int RUNS = 20;
+
+    // Prevents instantiation of this utility class
+    private AggregateBenchmark() {
+        throw new UnsupportedOperationException("Utility class - do not instantiate");
+    }
+
+    /**
+     * Runs the benchmark and prints the time of each query both ways.
+     *
+     * @param args unused.
+     */
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        Set<BoardGame> games = new HashSet<>();
+        for (int i = 0; i < GAMES; i++) {
+            games.add(new BoardGame("g" + i, i, 1 + random.nextInt(6), 2 + random.nextInt(10),
+                    5 * random.nextInt(20), 5 * random.nextInt(40), random.nextInt(500) / 100.0,
+                    1 + random.nextInt(60_000), random.nextInt(1000) / 100.0,
+                    1900 + random.nextInt(126)));
+        }
+        Planner planner = new Planner(games);
+        planner.filter(FILTER);
+
+        print("count", time(() -> planner.filter("", GameData.RATING).count()),
+                time(() -> planner.aggregate(Aggregate.parse("count")).getValue()));
+        print("avg rating", time(() -> planner.filter("", GameData.RATING)
+                        .mapToDouble(BoardGame::getRating).average().orElse(Double.NaN)),
+                time(() -> planner.aggregate(Aggregate.parse("avg rating")).getValue()));
+        print("avg rating by year", time(() -> planner.filter("", GameData.RATING)
+                        .collect(Collectors.groupingBy(BoardGame::getYearPublished,
+                                Collectors.averagingDouble(BoardGame::getRating))).size()),
+                time(() -> planner.aggregate(Aggregate.parse("avg rating by year")).getGroups()
+                        .size()));
+    }
+
+    /**
+     * Prints the times of a query.
+     *
+     * @param query The query.
+     * @param streamNanos The time from the games of a filter.
+     * @param columnNanos The time from the columns.
+     */
+    private static void print(String query, long streamNanos, long columnNanos) {
+        System.out.printf(Locale.ROOT, "%-20s games %9.3f ms, columns %8.3f ms (%.0fx)%n", query,
+                streamNanos / 1e6, columnNanos / 1e6, (double) streamNanos / columnNanos);
+    }
+
+    /**
+     * Times a query, after a warm-up.
+     *
+     * @param run Runs the query.
+     * @return the average time per run, in nanoseconds.
+     */
+    private static long time(DoubleSupplier run) {
+        double sink = 0;
+        for (int i = 0; i < RUNS; i++) {
+            sink += run.getAsDouble();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            sink += run.getAsDouble();
+        }
+        long nanos = (System.nanoTime() - start) / RUNS;
+        return Double.isNaN(sink) ? -1 : nanos;
+    }
+}
@@ -0,0 +1,80 @@
+import student.BoardGame;
+import student.ConsoleApp;
+import student.GameList;
+import student.GamesLoader;
+import student.OutputFormat;
+import student.Planner;
+
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.Set;
+
+
+/**
+ * Measures batch mode throughput: commands per second for a script of selective filters, sorts
+ * and list changes over the real collection.
+ *
+ * <p>Not a unit test, run it with {@code gradle benchmark -Pmain=BatchBenchmark}.</p>
+ */
+public final class BatchBenchmark {
+    /** Commands per script. */
+    private static final int COMMANDS = 100_000;
+    /** The commands the script cycles through. */
+    private static final String[] SCRIPT = {
+        "filter name~=catan sort:rating desc",
+        "filter rank>0,rank<=20 sort:rating desc,year asc,name",
+        "filter minplayers==1,maxplaytime<=15,rating>7.5",
+        "list add 1",
+        "list remove 1",
+        "filter name~=wonders",
+        "list show",
+        "bogus",
+    };
+
+    // Prevents instantiation of this utility class
+    private BatchBenchmark() {
+        throw new UnsupportedOperationException("Utility class - do not instantiate");
+    }
+
+    /**
+     * Runs the benchmark and prints the commands per second for each output format.
+     *
+     * @param args unused.
+     */
+    public static void main(String[] args) {
+        Set<BoardGame> games = GamesLoader.loadGamesFile("/collection.csv");
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < COMMANDS; i++) {
+            sb.append(SCRIPT[i % SCRIPT.length]).append('\n');
+        }
+        String script = sb.toString();
+        for (OutputFormat format : OutputFormat.values()) {
+            run(games, script, format, Writer.nullWriter()); // warm-up
+        }
+        for (OutputFormat format : OutputFormat.values()) {
+            StringWriter output = new StringWriter();
+            long start = System.nanoTime();
+            run(games, script, format, output);
+            long nanos = System.nanoTime() - start;
+            System.out.printf(Locale.ROOT, "%s: %,.0f commands/s, %,d chars of output%n", format,
+                    COMMANDS / (nanos / 1e9), output.getBuffer().length());
+        }
+    }
+
+    /**
+     * Runs a script in batch mode.
+     *
+     * @param games The catalog.
+     * @param script The commands.
+     * @param format The output format.
+     * @param output Where the output goes.
+     */
+    private static void run(Set<BoardGame> games, String script, OutputFormat format,
+            Writer output) {
+        new ConsoleApp(new GameList(), new Planner(games), new StringReader(script),
+                new PrintWriter(output), format).start();
+    }
+}
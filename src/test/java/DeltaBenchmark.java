@@ -0,0 +1,116 @@
+import student.BoardGame;
+import student.CatalogDelta;
+import student.Planner;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+
+/**
+ * Measures applying small deltas to a planner against building a planner over the changed catalog.
+ *
+ * <p>Not a unit test, run it with {@code gradle benchmark -Pmain=DeltaBenchmark}.</p>
+ */
+public final class DeltaBenchmark {
+    /** Catalog sizes to measure. */
+    private static final int[] SIZES = {10_000, 100_000, 400_000};
+    /** Changes per delta. */
+    private static final int CHANGES = 100;
+    /** Deltas per size. */
+    private static final int DELTAS = 50;
+    /** The filters applied before the deltas, replayed over the changed games. */
+    private static final String[] FILTERS = {"minplayers>=2", "rating>5,name~=1"};
+
+    // Prevents instantiation of this utility class
+    private DeltaBenchmark() {
+        throw new UnsupportedOperationException("Utility class - do not instantiate");
+    }
+
+    /**
+     * Runs the benchmark and prints the time per delta for each catalog size.
+     *
+     * @param args unused.
+     */
+    public static void main(String[] args) {
+        measure(SIZES[0], false); // warm-up
+        for (int size : SIZES) {
+            measure(size, true);
+        }
+    }
+
+    /**
+     * Times deltas of updates, adds and removes on a catalog.
+     *
+     * @param size The number of games in the catalog.
+     * @param print True to print the times.
+     */
+    private static void measure(int size, boolean print) {
+        Random random = new Random(size);
+        Set<BoardGame> games = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+            games.add(randomGame(random, i, "g" + i));
+        }
+        List<CatalogDelta> deltas = new ArrayList<>(DELTAS);
+        for (int d = 0; d < DELTAS; d++) {
+            List<BoardGame> upserts = new ArrayList<>(CHANGES);
+            List<Integer> removed = new ArrayList<>();
+            for (int i = 0; i < CHANGES; i++) {
+                int id = random.nextInt(size + size / 10);
+                switch (i % 10) {
+                    case 0 -> removed.add(id);
+                    case 1 -> upserts.add(randomGame(random, id, "new " + id));
+                    default -> upserts.add(randomGame(random, id, "g" + id));
+                }
+            }
+            deltas.add(new CatalogDelta(upserts, removed));
+        }
+
+        Planner planner = new Planner(games);
+        for (String filter : FILTERS) {
+            planner.filter(filter);
+        }
+        planner.suggestNames("g1", 1);
+        long start = System.nanoTime();
+        for (CatalogDelta delta : deltas) {
+            planner.applyDelta(delta);
+        }
+        long applied = System.nanoTime() - start;
+        long results = planner.filter("").count();
+
+        start = System.nanoTime();
+        long rebuilt = 0;
+        for (int d = 0; d < DELTAS; d += 10) {
+            Planner fresh = new Planner(new HashSet<>(games));
+            for (String filter : FILTERS) {
+                fresh.filter(filter);
+            }
+            rebuilt += fresh.filter("").count();
+        }
+        long rebuild = (System.nanoTime() - start) * 10;
+        if (print) {
+            System.out.printf(Locale.ROOT, "%,d games, %d changes: apply delta %.3f ms/delta "
+                    + "(%d results), rebuild %.3f ms/delta (%d results)%n", size, CHANGES,
+                    applied / 1e6 / DELTAS, results, rebuild / 1e6 / DELTAS,
+                    rebuilt / (DELTAS / 10));
+        }
+    }
+
+    /**
+     * Makes a random game.
+     *
+     * @param random The random source.
+     * @param id The id of the game.
+     * @param name The name of the game.
+     * @return the game.
+     */
+    private static BoardGame randomGame(Random random, int id, String name) {
+        return new BoardGame(name, id, 1 + random.nextInt(6), 2 + random.nextInt(10),
+                5 * random.nextInt(20), 5 * random.nextInt(40), random.nextInt(500) / 100.0,
+                1 + random.nextInt(60_000), random.nextInt(1000) / 100.0,
+                1900 + random.nextInt(126));
+    }
+}
@@ -0,0 +1,93 @@
+import student.BoardGame;
+import student.Facet;
+import student.FacetCounts;
+import student.GameData;
+import student.Planner;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+
+/**
+ * Times counting every facet of a filter result in one pass over the columns, against counting
+ * each bucket with a filter of its own, as callers did before.
+ *
+ * <p>Not a unit test, run it with {@code gradle benchmark -Pmain=FacetBenchmark}.</p>
+ */
+public final class FacetBenchmark {
+    /** Games in the catalog. */
+    private static final int GAMES = 200_000;
+    /** The filter the facets are counted for. */
+    private static final String FILTER = "rating>5";
+    /** A filter per bucket of the facets, the way they were counted before. */
+    private static final String[] BUCKET_FILTERS = {"minplayers<=1,maxplayers>=1",
+        "minplayers<=2,maxplayers>=2", "minplayers<=3,maxplayers>=3",
+        "minplayers<=4,maxplayers>=4", "minplayers<=5,maxplayers>=5",
+        "minplayers<=6,maxplayers>=6", "minplayers<=7,maxplayers>=7", "maxplayers>=8",
+        "difficulty<1", "difficulty>=1,difficulty<2", "difficulty>=2,difficulty<3",
+        "difficulty>=3,difficulty<4", "difficulty>=4", "maxplaytime<=15",
+        "maxplaytime>15,maxplaytime<=30", "maxplaytime>30,maxplaytime<=60",
+        "maxplaytime>60,maxplaytime<=120", "maxplaytime>120,maxplaytime<=240",
+        "maxplaytime>240", "yearpublished<1950", "yearpublished>=1950,yearpublished<1960",
+        "yearpublished>=1960,yearpublished<1970", "yearpublished>=1970,yearpublished<1980",
+        "yearpublished>=1980,yearpublished<1990", "yearpublished>=1990,yearpublished<2000",
+        "yearpublished>=2000,yearpublished<2010", "yearpublished>=2010,yearpublished<2020",
+        "yearpublished>=2020"};
+    /** Runs per measurement. */
+    private static final int RUNS = 5;
+
+    // Prevents instantiation of this utility class
+    private FacetBenchmark() {
+        throw new UnsupportedOperationException("Utility class - do not instantiate");
+    }
+
+    /**
+     * Runs the benchmark and prints the time both ways.
+     *
+     * @param args unused.
+     */
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        Set<BoardGame> games = new HashSet<>();
+        for (int i = 0; i < GAMES; i++) {
+            games.add(new BoardGame("g" + i, i, 1 + random.nextInt(6), 2 + random.nextInt(10),
+                    5 * random.nextInt(20), 5 * random.nextInt(80), random.nextInt(500) / 100.0,
+                    1 + random.nextInt(60_000), random.nextInt(1000) / 100.0,
+                    1900 + random.nextInt(126)));
+        }
+        Planner planner = new Planner(games);
+        List<Facet> facets = List.of(Facet.values());
+        long sink = 0;
+        long filters = 0;
+        long onePass = 0;
+        for (int run = 0; run < RUNS * 2; run++) { // the first half warms up
+            long start = System.nanoTime();
+            List<Long> counts = new ArrayList<>();
+            for (String bucket : BUCKET_FILTERS) {
+                planner.reset();
+                planner.filter(FILTER);
+                counts.add(planner.filter(bucket, GameData.NAME).count());
+            }
+            long middle = System.nanoTime();
+            planner.reset();
+            planner.filter(FILTER);
+            FacetCounts facetCounts = planner.facets(facets);
+            long end = System.nanoTime();
+            sink += counts.size() + facetCounts.getTotal();
+            if (run >= RUNS) {
+                filters += middle - start;
+                onePass += end - middle;
+            }
+        }
+        System.out.printf(Locale.ROOT, "%d bucket filters: %8.3f ms%n", BUCKET_FILTERS.length,
+                filters / 1e6 / RUNS);
+        System.out.printf(Locale.ROOT, "one facet pass:    %8.3f ms%n", onePass / 1e6 / RUNS);
+        if (sink < 0) {
+            System.out.println(sink);
+        }
+    }
+}
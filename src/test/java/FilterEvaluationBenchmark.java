@@ -0,0 +1,105 @@
+import student.BoardGame;
+import student.CatalogStatistics;
+import student.CompiledFilter;
+import student.FilterCompiler;
+import student.FilterExpression;
+import student.FilterParser;
+import student.GameColumns;
+import student.QueryOptimizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+
+/**
+ * Measures filter evaluation over a synthetic catalog, comparing the interpreted expression tree
+ * with the hidden class {@code FilterCompiler} generates for it.
+ *
+ * <p>Not a unit test, run it with {@code gradle benchmark -Pmain=FilterEvaluationBenchmark}.</p>
+ */
+public final class FilterEvaluationBenchmark {
+    /** Games in the synthetic catalog. */
+    private static final int GAMES = 200_000;
+    /** Timed scans per filter and evaluator. */
+    private static final int ROUNDS = 20;
+    /** Filters to evaluate. */
+    private static final String[] FILTERS = {
+        "minPlayers>=2,maxPlayers<=6,rating>6.5",
+        "rating>8|rank<1000|difficulty<1.5",
+        "!(minPlayers==1),maxPlaytime<=90,name~=ca,yearPublished>=2000",
+    };
+
+    // Prevents instantiation of this utility class
+    private FilterEvaluationBenchmark() {
+        throw new UnsupportedOperationException("Utility class - do not instantiate");
+    }
+
+    /**
+     * Runs the benchmark and prints the best scan time of each evaluator per filter.
+     *
+     * @param args unused.
+     */
+    public static void main(String[] args) {
+        List<BoardGame> games = catalog(new Random(42));
+        GameColumns columns = GameColumns.of(games);
+        CatalogStatistics statistics = CatalogStatistics.compute(games);
+        BoardGame[] rows = new BoardGame[columns.size()];
+        for (int row = 0; row < rows.length; row++) {
+            rows[row] = columns.game(row);
+        }
+
+        for (String filter : FILTERS) {
+            FilterExpression expression = QueryOptimizer.optimize(
+                    FilterParser.parseExpression(filter), statistics);
+            CompiledFilter compiled = FilterCompiler.compile(expression);
+            long interpreted = Long.MAX_VALUE;
+            long generated = Long.MAX_VALUE;
+            int matches = 0;
+            for (int i = 0; i < ROUNDS + 5; i++) { // the first rounds warm up the JIT
+                long start = System.nanoTime();
+                matches = 0;
+                for (BoardGame game : rows) {
+                    matches += expression.test(game) ? 1 : 0;
+                }
+                long middle = System.nanoTime();
+                int compiledMatches = 0;
+                for (int row = 0; row < rows.length; row++) {
+                    compiledMatches += compiled.test(columns, row) ? 1 : 0;
+                }
+                long end = System.nanoTime();
+                if (compiledMatches != matches) {
+                    throw new IllegalStateException("Compiled filter disagrees on " + filter);
+                }
+                if (i >= 5) {
+                    interpreted = Math.min(interpreted, middle - start);
+                    generated = Math.min(generated, end - middle);
+                }
+            }
+            System.out.printf(Locale.ROOT, "%s (%d matches)%n  interpreted: %.2f ms%n"
+                    + "  compiled:    %.2f ms%n", expression, matches, interpreted / 1e6,
+                    generated / 1e6);
+        }
+    }
+
+    /**
+     * Builds a catalog of random games.
+     *
+     * @param random The random source.
+     * @return the games.
+     */
+    private static List<BoardGame> catalog(Random random) {
+        String[] words = {"catan", "go", "chess", "wonders", "ticket", "ride", "azul", "carcassonne"};
+        List<BoardGame> games = new ArrayList<>(GAMES);
+        for (int id = 0; id < GAMES; id++) {
+            int minPlayers = 1 + random.nextInt(4);
+            int minTime = 10 + random.nextInt(120);
+            games.add(new BoardGame(words[random.nextInt(words.length)] + " " + id, id, minPlayers,
+                    minPlayers + random.nextInt(8), minTime, minTime + random.nextInt(120),
+                    1 + random.nextDouble() * 4, id + 1, 4 + random.nextDouble() * 5,
+                    1950 + random.nextInt(75)));
+        }
+        return games;
+    }
+}
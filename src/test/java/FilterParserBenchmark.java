@@ -0,0 +1,119 @@
+import student.BoardGame;
+import student.FilterCondition;
+import student.FilterParser;
+import student.GameData;
+import student.Operations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+
+/**
+ * Measures filter parsing throughput, comparing {@code FilterParser} with the split based parser
+ * it replaced.
+ *
+ * <p>Not a unit test, run it with {@code gradle benchmark -Pmain=FilterParserBenchmark}. Each
+ * parser gets a warm-up round so the JIT has compiled it before the timed rounds.</p>
+ */
+public final class FilterParserBenchmark {
+    /** Filters to parse, a mix of short and long AND-only filters both parsers accept. */
+    private static final String[] FILTERS = {
+        "name~=go",
+        "minPlayers>=2,maxPlayers<=4",
+        "rating>7.5,difficulty<3,yearPublished>=2010,rank<=500",
+        "minPlayers>=2,maxPlayers<=6,minPlaytime>=30,maxPlaytime<=90,rating>=7,name~=the",
+    };
+    /** Parses per timed round. */
+    private static final int PARSES = 1_000_000;
+    /** Timed rounds per parser. */
+    private static final int ROUNDS = 5;
+
+    // Prevents instantiation of this utility class
+    private FilterParserBenchmark() {
+        throw new UnsupportedOperationException("Utility class - do not instantiate");
+    }
+
+    /**
+     * Runs the benchmark and prints parses per second for each parser.
+     *
+     * @param args unused.
+     */
+    public static void main(String[] args) {
+        report("split parser", FilterParserBenchmark::legacyParse);
+        report("lexer parser", FilterParser::parseExpression);
+    }
+
+    /**
+     * Times one parser and prints its best round.
+     *
+     * @param label The name to print.
+     * @param parser The parser to time.
+     */
+    private static void report(String label, Function<String, ?> parser) {
+        run(parser); // warm-up
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            best = Math.min(best, run(parser));
+        }
+        System.out.printf(Locale.ROOT, "%s: %,.0f parses/s (%.1f ns/parse)%n", label,
+                PARSES * 1e9 / best, (double) best / PARSES);
+    }
+
+    /**
+     * Parses the filters round robin.
+     *
+     * @param parser The parser to run.
+     * @return the elapsed nanoseconds.
+     */
+    private static long run(Function<String, ?> parser) {
+        int sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < PARSES; i++) {
+            sink += parser.apply(FILTERS[i % FILTERS.length]).hashCode() & 1;
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink < 0) {
+            System.out.println(sink); // keeps the results alive
+        }
+        return elapsed;
+    }
+
+    /**
+     * The parser {@code FilterParser} used before the lexer: split on commas, probe for the
+     * operator with {@code contains}, then split each condition on the operator (a regex).
+     *
+     * @param filter The filter to parse.
+     * @return the predicate of each condition.
+     */
+    private static List<Predicate<BoardGame>> legacyParse(String filter) {
+        List<Predicate<BoardGame>> conditions = new ArrayList<>();
+        for (String condition : filter.split(",")) {
+            condition = condition.trim();
+            Operations op = Operations.getOperatorFromStr(condition);
+            if (op == null) {
+                throw new IllegalArgumentException("Invalid filter operation: " + condition);
+            }
+            String[] parts = condition.split(op.getOperator());
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid filter format: " + condition);
+            }
+            GameData column = switch (parts[0].trim().replace("_", "").toLowerCase()) {
+                case "name" -> GameData.NAME;
+                case "minplayers" -> GameData.MIN_PLAYERS;
+                case "maxplayers" -> GameData.MAX_PLAYERS;
+                case "maxplaytime" -> GameData.MAX_TIME;
+                case "minplaytime" -> GameData.MIN_TIME;
+                case "difficulty" -> GameData.DIFFICULTY;
+                case "rank" -> GameData.RANK;
+                case "rating" -> GameData.RATING;
+                case "yearpublished" -> GameData.YEAR;
+                default -> throw new IllegalArgumentException("Unknown filter field: " + parts[0]);
+            };
+            conditions.add(new FilterCondition(column, op, parts[1].trim()).toPredicate());
+        }
+        return conditions;
+    }
+}
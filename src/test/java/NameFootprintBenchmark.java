@@ -0,0 +1,117 @@
+import student.BoardGame;
+import student.GameColumns;
+import student.Planner;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+
+/**
+ * Measures the heap the names of a catalog take, per million games, and times name filters.
+ *
+ * <p>The baseline is the catalog before the name arena: every {@link BoardGame} owning a
+ * {@code String} name. Against it, the columns are built for real with {@link GameColumns#of},
+ * which moves the names into the arena and drops the {@code String}s. The arena is what building
+ * the columns adds to the heap, less the number columns, measured while an array still holds the
+ * dropped names. Each game also gains a reference to the arena and a row, counted as
+ * {@value #GAME_FIELD_BYTES} bytes. Not a unit test, run it with
+ * {@code gradle benchmark -Pmain=NameFootprintBenchmark}.</p>
+ */
+public final class NameFootprintBenchmark {
+    /** Names per measurement. */
+    private static final int GAMES = 1_000_000;
+    /** The bytes the arena reference and row add to a game, with compressed references. */
+    private static final int GAME_FIELD_BYTES = 8;
+    /** Words names are made of. */
+    private static final String[] WORDS = {"Catan", "Ticket", "to", "Ride", "the", "of",
+        "Legends", "Dungeon", "Space", "Empire", "Island", "Quest", "Dragon", "Kingdoms",
+        "Pandemic", "Carcassonne", "Azul", "Wingspan", "\u00C9clipse", "Mage", "Knight"};
+    /** Name filters timed. */
+    private static final String[] FILTERS = {"name~=dragon", "name==catan quest 7",
+        "name>=m,name<q"};
+    /** Runs of each filter. */
+    private static final int RUNS = 10;
+
+    // Prevents instantiation of this utility class
+    private NameFootprintBenchmark() {
+        throw new UnsupportedOperationException("Utility class - do not instantiate");
+    }
+
+    /**
+     * Runs the benchmark and prints the footprint of each layout and the filter times.
+     *
+     * @param args unused.
+     */
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        long nameChars = 0;
+        String[] names = new String[GAMES];
+        long before = usedHeap();
+        for (int i = 0; i < GAMES; i++) {
+            names[i] = WORDS[random.nextInt(WORDS.length)] + " "
+                    + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            nameChars += names[i].length();
+        }
+        long nameStrings = usedHeap() - before;
+
+        before = usedHeap();
+        Object[] numbers = {new BoardGame[GAMES], new int[GAMES], new int[GAMES], new int[GAMES],
+            new int[GAMES], new int[GAMES], new int[GAMES], new double[GAMES], new double[GAMES]};
+        long numberColumns = usedHeap() - before;
+        numbers = null;
+
+        Set<BoardGame> games = new HashSet<>();
+        for (int i = 0; i < GAMES; i++) {
+            games.add(new BoardGame(names[i], i, 2, 4, 30, 60, 2.5, i + 1, 7.0, 2000));
+        }
+        before = usedHeap(); // the names array keeps the Strings the games drop
+        GameColumns columns = GameColumns.of(games);
+        long arena = usedHeap() - before - numberColumns;
+        names = null;
+        long arenaAndFields = arena + (long) GAME_FIELD_BYTES * GAMES;
+
+        double scale = 1_000_000.0 / GAMES / 1e6;
+        System.out.printf(Locale.ROOT, "%,d names, %.1f chars each%n", GAMES,
+                (double) nameChars / GAMES);
+        System.out.printf(Locale.ROOT, "baseline, a String per game:       %7.1f MB%n",
+                nameStrings * scale);
+        System.out.printf(Locale.ROOT, "UTF-8 arena and offsets:           %7.1f MB%n",
+                arena * scale);
+        System.out.printf(Locale.ROOT, "arena, plus its reference and row: %7.1f MB%n",
+                arenaAndFields * scale);
+        System.out.printf(Locale.ROOT, "saved:                             %7.1f MB per million"
+                + " games%n", (nameStrings - arenaAndFields) * scale);
+
+        Planner planner = new Planner(games);
+        for (String filter : FILTERS) {
+            long count = 0;
+            for (int i = 0; i < RUNS; i++) { // warm-up
+                planner.reset();
+                count = planner.filter(filter).count();
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < RUNS; i++) {
+                planner.reset();
+                count = planner.filter(filter).count();
+            }
+            System.out.printf(Locale.ROOT, "%-22s %8.3f ms (%,d games)%n", filter,
+                    (System.nanoTime() - start) / 1e6 / RUNS, count);
+        }
+        System.out.println(columns.size() + " rows"); // keeps the columns reachable until here
+    }
+
+    /**
+     * Measures the heap in use once garbage is collected.
+     *
+     * @return the bytes in use.
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,122 @@
+import student.BoardGame;
+import student.GamesLoader;
+import student.NameIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+
+/**
+ * Measures misspelled name lookups in the BK-tree against comparing the query with every name.
+ *
+ * <p>Not a unit test, run it with {@code gradle benchmark -Pmain=NameIndexBenchmark}.</p>
+ */
+public final class NameIndexBenchmark {
+    /** Catalog sizes to measure. */
+    private static final int[] SIZES = {1_000, 10_000, 100_000};
+    /** Lookups per size. */
+    private static final int LOOKUPS = 200;
+
+    // Prevents instantiation of this utility class
+    private NameIndexBenchmark() {
+        throw new UnsupportedOperationException("Utility class - do not instantiate");
+    }
+
+    /**
+     * Runs the benchmark and prints the time per lookup for each catalog size.
+     *
+     * @param args unused.
+     */
+    public static void main(String[] args) {
+        List<String> catalog = GamesLoader.loadGamesFile("/collection.csv").stream()
+                .map(BoardGame::getName).toList();
+        measure("collection.csv", catalog, false); // warm-up
+        measure("collection.csv", catalog, true);
+        for (int size : SIZES) {
+            Random random = new Random(size);
+            List<String> names = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                names.add(randomName(random));
+            }
+            measure("random", names, true);
+        }
+    }
+
+    /**
+     * Times lookups of names with one typo.
+     *
+     * @param label What the names are.
+     * @param names The names.
+     * @param print True to print the times.
+     */
+    private static void measure(String label, List<String> names, boolean print) {
+        int size = names.size();
+        Random random = new Random(size);
+        NameIndex index = NameIndex.of(names);
+        List<String> queries = new ArrayList<>(LOOKUPS);
+        for (int i = 0; i < LOOKUPS; i++) {
+            queries.add(typo(names.get(random.nextInt(size)), random));
+        }
+
+        long start = System.nanoTime();
+        int found = 0;
+        for (String query : queries) {
+            found += index.suggest(query, NameIndex.DEFAULT_SUGGESTIONS).size();
+        }
+        long tree = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int scanned = 0;
+        for (String query : queries) {
+            String folded = NameIndex.fold(query);
+            int tolerance = NameIndex.tolerance(query);
+            for (String name : names) {
+                if (NameIndex.distance(folded, NameIndex.fold(name), tolerance) <= tolerance) {
+                    scanned++;
+                }
+            }
+        }
+        long linear = System.nanoTime() - start;
+        if (!print) {
+            return;
+        }
+        System.out.printf(Locale.ROOT, "%s, %,d names: BK-tree %.3f ms/lookup (%d found), "
+                + "linear scan %.3f ms/lookup (%d found)%n", label, size, tree / 1e6 / LOOKUPS, found,
+                linear / 1e6 / LOOKUPS, scanned);
+    }
+
+    /**
+     * Makes up a game name of two or three words.
+     *
+     * @param random The random source.
+     * @return the name.
+     */
+    private static String randomName(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int words = 2 + random.nextInt(2);
+        for (int w = 0; w < words; w++) {
+            if (w > 0) {
+                sb.append(' ');
+            }
+            int length = 3 + random.nextInt(6);
+            for (int i = 0; i < length; i++) {
+                sb.append((char) ('a' + random.nextInt(26)));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Makes a one letter typo in a name.
+     *
+     * @param name The name.
+     * @param random The random source.
+     * @return the name with one letter replaced.
+     */
+    private static String typo(String name, Random random) {
+        int at = random.nextInt(name.length());
+        return name.substring(0, at) + (char) ('a' + random.nextInt(26)) + name.substring(at + 1);
+    }
+}
@@ -0,0 +1,126 @@
+import student.BoardGame;
+import student.OffHeapCatalog;
+import student.OffHeapPlanner;
+import student.Planner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+
+/**
+ * Measures the heap a planner keeps, and its filter time, with the catalog on and off the heap.
+ *
+ * <p>The off-heap catalog is written as an image file and mapped back, as the {@code --offheap}
+ * option does, so the games it was built from are gone when the heap is measured. Not a unit
+ * test, run it with {@code gradle benchmark -Pmain=OffHeapBenchmark}.</p>
+ */
+public final class OffHeapBenchmark {
+    /** Catalog sizes to measure. */
+    private static final int[] SIZES = {100_000, 200_000, 400_000};
+    /** The filter timed, with a page of its results read. */
+    private static final String FILTER = "minplayers>=2,rating>5,name~=1";
+    /** Games read from each result, a page of the console. */
+    private static final int PAGE = 20;
+    /** Runs of the filter per measurement. */
+    private static final int RUNS = 20;
+
+    // Prevents instantiation of this utility class
+    private OffHeapBenchmark() {
+        throw new UnsupportedOperationException("Utility class - do not instantiate");
+    }
+
+    /**
+     * Runs the benchmark and prints the heap and filter time for each catalog size.
+     *
+     * @param args unused.
+     * @throws IOException if the catalog image cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        Path image = Files.createTempFile("catalog", ".bin");
+        try {
+            for (int size : SIZES) {
+                OffHeapCatalog.of(games(size)).writeTo(image);
+                long before = usedHeap();
+                Planner heap = new Planner(games(size));
+                long heapBytes = usedHeap() - before;
+                long heapNanos = time(() -> {
+                    heap.reset();
+                    return heap.filter(FILTER).limit(PAGE).count();
+                });
+                System.out.printf(Locale.ROOT, "%,d games on the heap:  %,7.1f MB heap, "
+                        + "filter %.3f ms%n", size, heapBytes / 1e6, heapNanos / 1e6);
+                heap.reset(); // keeps the planner alive until here
+
+                before = usedHeap();
+                OffHeapCatalog catalog = OffHeapCatalog.map(image);
+                OffHeapPlanner offHeap = new OffHeapPlanner(catalog);
+                long offHeapBytes = usedHeap() - before;
+                long offHeapNanos = time(() -> {
+                    offHeap.reset();
+                    return offHeap.filter(FILTER).limit(PAGE).count();
+                });
+                System.out.printf(Locale.ROOT, "%,d games off the heap: %,7.1f MB heap, "
+                        + "filter %.3f ms, %,.1f MB mapped%n", size, offHeapBytes / 1e6,
+                        offHeapNanos / 1e6, catalog.byteSize() / 1e6);
+            }
+        } finally {
+            Files.delete(image);
+        }
+    }
+
+    /**
+     * Makes a catalog of random games.
+     *
+     * @param size The number of games.
+     * @return the games.
+     */
+    private static Set<BoardGame> games(int size) {
+        Random random = new Random(size);
+        Set<BoardGame> games = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+            games.add(new BoardGame("g" + i, i, 1 + random.nextInt(6), 2 + random.nextInt(10),
+                    5 * random.nextInt(20), 5 * random.nextInt(40), random.nextInt(500) / 100.0,
+                    1 + random.nextInt(60_000), random.nextInt(1000) / 100.0,
+                    1900 + random.nextInt(126)));
+        }
+        return games;
+    }
+
+    /**
+     * Times a filter, after a warm-up.
+     *
+     * @param run Runs the filter and reads its page.
+     * @return the average time per run, in nanoseconds.
+     */
+    private static long time(LongSupplier run) {
+        long sink = 0;
+        for (int i = 0; i < RUNS; i++) {
+            sink += run.getAsLong();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            sink += run.getAsLong();
+        }
+        long nanos = (System.nanoTime() - start) / RUNS;
+        return sink < 0 ? -1 : nanos;
+    }
+
+    /**
+     * Measures the heap in use once garbage is collected.
+     *
+     * @return the bytes in use.
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,82 @@
+import student.BoardGame;
+import student.GameData;
+import student.GamesLoader;
+import student.RowRenderer;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Locale;
+
+
+/**
+ * Measures the per-row cost of rendering filter output, comparing {@code toStringWithInfo}
+ * through {@code printf} with {@code RowRenderer}.
+ *
+ * <p>Not a unit test, run it with {@code gradle benchmark -Pmain=RowRenderBenchmark}. Output goes
+ * to a writer that drops it, so only formatting is measured. Allocation is read from the
+ * HotSpot per-thread allocation counter.</p>
+ */
+public final class RowRenderBenchmark {
+    /** Rows rendered per timed round. */
+    private static final int ROWS = 2_000_000;
+    /** Timed rounds per renderer, after one warm-up round. */
+    private static final int ROUNDS = 5;
+
+    // Prevents instantiation of this utility class
+    private RowRenderBenchmark() {
+        throw new UnsupportedOperationException("Utility class - do not instantiate");
+    }
+
+    /**
+     * Runs the benchmark for rating and year columns.
+     *
+     * @param args unused.
+     */
+    public static void main(String[] args) {
+        List<BoardGame> games = List.copyOf(GamesLoader.loadGamesFile("/collection.csv"));
+        PrintWriter out = new PrintWriter(Writer.nullWriter());
+        RowRenderer renderer = new RowRenderer();
+        for (GameData column : new GameData[] {GameData.RATING, GameData.YEAR}) {
+            report("printf      " + column, () -> {
+                for (int i = 0; i < ROWS; i++) {
+                    out.printf("%d: %s%n", i + 1, games.get(i % games.size()).toStringWithInfo(column));
+                }
+            });
+            report("RowRenderer " + column, () -> {
+                for (int i = 0; i < ROWS; i++) {
+                    renderer.appendRow(i + 1, games.get(i % games.size()), column);
+                    if (renderer.length() > 8192) {
+                        renderer.writeTo(out);
+                    }
+                }
+                renderer.writeTo(out);
+            });
+        }
+    }
+
+    /**
+     * Times a rendering loop and prints its best round and allocation per row.
+     *
+     * @param label The name to print.
+     * @param loop Renders {@link #ROWS} rows.
+     */
+    private static void report(String label, Runnable loop) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        loop.run(); // warm-up
+        long best = Long.MAX_VALUE;
+        long allocated = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long bytes = threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            loop.run();
+            best = Math.min(best, System.nanoTime() - start);
+            allocated = threads.getThreadAllocatedBytes(thread) - bytes;
+        }
+        System.out.printf(Locale.ROOT, "%s: %.1f ns/row, %.1f bytes/row%n", label,
+                (double) best / ROWS, (double) allocated / ROWS);
+    }
+}
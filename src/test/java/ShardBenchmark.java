@@ -0,0 +1,97 @@
+import student.BoardGame;
+import student.GameData;
+import student.IPlanner;
+import student.Planner;
+import student.ShardedPlanner;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+
+/**
+ * Measures filtering and sorting a catalog split into shards against one planner over it.
+ *
+ * <p>Not a unit test, run it with {@code gradle benchmark -Pmain=ShardBenchmark}.</p>
+ */
+public final class ShardBenchmark {
+    /** Games in the catalog. */
+    private static final int SIZE = 400_000;
+    /** Shard counts to measure. */
+    private static final int[] SHARDS = {1, 2, 4, 8};
+    /** Runs of each query. */
+    private static final int RUNS = 10;
+    /** The games read of each result, as a console page would. */
+    private static final int PAGE = 20;
+
+    // Prevents instantiation of this utility class
+    private ShardBenchmark() {
+        throw new UnsupportedOperationException("Utility class - do not instantiate");
+    }
+
+    /**
+     * Runs the benchmark and prints the time per query for each shard count.
+     *
+     * @param args unused.
+     */
+    public static void main(String[] args) {
+        Random random = new Random(40);
+        List<BoardGame> games = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            games.add(new BoardGame("g" + random.nextInt(SIZE), i, 1 + random.nextInt(6),
+                    2 + random.nextInt(10), 5 * random.nextInt(20), 5 * random.nextInt(40),
+                    random.nextInt(500) / 100.0, 1 + random.nextInt(60_000),
+                    random.nextInt(1000) / 100.0, 1900 + random.nextInt(126)));
+        }
+        System.out.printf(Locale.ROOT, "%d processors%n", Runtime.getRuntime()
+                .availableProcessors());
+        measure(games, 4, false); // warm-up
+        for (int shards : SHARDS) {
+            measure(games, shards, true);
+        }
+    }
+
+    /**
+     * Times a filter sorted on rating, reading all of the result and only the first page.
+     *
+     * @param games The catalog.
+     * @param count The number of shards, 1 for a single planner.
+     * @param print True to print the times.
+     */
+    private static void measure(List<BoardGame> games, int count, boolean print) {
+        List<Set<BoardGame>> shards = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            shards.add(new HashSet<>());
+        }
+        for (BoardGame game : games) {
+            shards.get(game.getId() % count).add(game);
+        }
+        IPlanner planner = count == 1 ? new Planner(shards.get(0)) : new ShardedPlanner(shards);
+        long all = 0;
+        long page = 0;
+        long found = 0;
+        for (int run = 0; run < RUNS; run++) {
+            planner.reset();
+            long start = System.nanoTime();
+            found += planner.filter("minplayers>=2,rating>3", GameData.RATING, false).count();
+            all += System.nanoTime() - start;
+
+            planner.reset();
+            start = System.nanoTime();
+            found += planner.filter("minplayers>=2,rating>3", GameData.RATING, false)
+                    .limit(PAGE).count();
+            page += System.nanoTime() - start;
+        }
+        if (planner instanceof ShardedPlanner) {
+            ((ShardedPlanner) planner).close();
+        }
+        if (print) {
+            System.out.printf(Locale.ROOT, "%d shards: %.2f ms/query all rows, %.2f ms/query "
+                    + "first page (%d found)%n", count, all / 1e6 / RUNS, page / 1e6 / RUNS,
+                    found / RUNS);
+        }
+    }
+}
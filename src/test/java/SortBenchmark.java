@@ -0,0 +1,108 @@
+import student.BoardGame;
+import student.GameColumns;
+import student.GameComparator;
+import student.GameSorter;
+import student.SortKey;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+
+/**
+ * Measures the packed key sort of {@code rating desc,year asc,name}, and the radix sort of
+ * {@code year}, against the same sorts with comparators.
+ *
+ * <p>The games are in canonical order, by name, as the planner's filter returns them.</p>
+ *
+ * <p>Not a unit test, run it with {@code gradle benchmark -Pmain=SortBenchmark}.</p>
+ */
+public final class SortBenchmark {
+    /** Catalog sizes to measure. */
+    private static final int[] SIZES = {1_000, 100_000, 1_000_000};
+    /** The multi-key sort measured. */
+    private static final String KEYS = "rating desc,year asc,name";
+    /** The small domain sort measured. */
+    private static final String YEAR = "year";
+    /** Repetitions per size. */
+    private static final int ROUNDS = 5;
+
+    // Prevents instantiation of this utility class
+    private SortBenchmark() {
+        throw new UnsupportedOperationException("Utility class - do not instantiate");
+    }
+
+    /**
+     * Runs the benchmark and prints the time per sort for each catalog size.
+     *
+     * @param args unused.
+     */
+    public static void main(String[] args) {
+        Comparator<BoardGame> chained = GameComparator.BY_RATING.reversed()
+                .thenComparing(GameComparator.BY_YEAR_PUBLISHED)
+                .thenComparing(GameComparator.BY_NAME);
+        List<BoardGame> warmUp = randomGames(10_000);
+        measure(warmUp, KEYS, chained, false);
+        measure(warmUp, YEAR, GameComparator.BY_YEAR_PUBLISHED, false);
+        for (int size : SIZES) {
+            List<BoardGame> games = randomGames(size);
+            measure(games, KEYS, chained, true);
+            measure(games, YEAR, GameComparator.BY_YEAR_PUBLISHED, true);
+        }
+    }
+
+    /**
+     * Times a sort of a catalog on keys and with a comparator.
+     *
+     * @param games The games.
+     * @param spec The sort keys.
+     * @param chained The comparator for the same order.
+     * @param print True to print the times.
+     */
+    private static void measure(List<BoardGame> games, String spec,
+            Comparator<BoardGame> chained, boolean print) {
+        List<SortKey> keys = SortKey.parse(spec);
+
+        long packed = Long.MAX_VALUE;
+        long comparators = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            long count = GameSorter.sort(games.stream(), keys).count();
+            packed = Math.min(packed, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            List<BoardGame> sorted = new ArrayList<>(games);
+            sorted.sort(chained);
+            comparators = Math.min(comparators, System.nanoTime() - start);
+            if (count != sorted.size()) {
+                throw new IllegalStateException("sorts disagree on size");
+            }
+        }
+        if (print) {
+            System.out.printf(Locale.ROOT, "%,d games by %s: packed keys %.2f ms, comparators "
+                    + "%.2f ms%n", games.size(), spec, packed / 1e6, comparators / 1e6);
+        }
+    }
+
+    /**
+     * Makes up a catalog with the value spread of real games: ratings to two decimals, a century
+     * of years, and names that repeat.
+     *
+     * @param size The number of games.
+     * @return the games.
+     */
+    private static List<BoardGame> randomGames(int size) {
+        Random random = new Random(size);
+        List<BoardGame> games = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            games.add(new BoardGame("game " + random.nextInt(size), i, 1 + random.nextInt(4),
+                    2 + random.nextInt(8), 10 * random.nextInt(12), 10 * random.nextInt(24),
+                    random.nextInt(500) / 100.0, i + 1, random.nextInt(1000) / 100.0,
+                    1925 + random.nextInt(100)));
+        }
+        games.sort(GameColumns.CANONICAL_ORDER);
+        return games;
+    }
+}
@@ -0,0 +1,114 @@
+import student.GamesLoader;
+import student.IPlanner;
+import student.LazyPlanner;
+import student.Planner;
+import student.SortKey;
+import student.StartupMetrics;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+
+/**
+ * Times the startup in fresh JVMs: the time to the prompt when the catalog is loaded before it
+ * and in the background, and the time of the first query after the user's think time, with and
+ * without the warm-up.
+ *
+ * <p>Not a unit test, run it with {@code gradle benchmark -Pmain=StartupBenchmark}. Each run is
+ * a child JVM running this class with the mode as its argument.</p>
+ */
+public final class StartupBenchmark {
+    /** The built in catalog. */
+    private static final String CATALOG = "/collection.csv";
+    /** The modes of a startup: load then prompt, prompt while loading, and also warm up. */
+    private static final String[] MODES = {"eager", "lazy", "lazy-warm"};
+    /** The time the user takes to type the first query, in milliseconds. */
+    private static final long THINK_MILLIS = 3_000;
+    /** The first query, a shape the warm-up does not run. */
+    private static final String QUERY = "name~=e,minplayers<=3";
+    /** The sort of the first query. */
+    private static final List<SortKey> SORT = SortKey.parse("rating desc,name");
+    /** Child JVMs per mode. */
+    private static final int RUNS = 5;
+
+    // Prevents instantiation of this utility class
+    private StartupBenchmark() {
+        throw new UnsupportedOperationException("Utility class - do not instantiate");
+    }
+
+    /**
+     * Runs the benchmark, or one startup in a child JVM.
+     *
+     * @param args the mode, when run as a child.
+     * @throws Exception if a child cannot be run.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 1) {
+            child(args[0]);
+            return;
+        }
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator
+                + "java";
+        for (String mode : MODES) {
+            double[] prompt = new double[RUNS];
+            double[] first = new double[RUNS];
+            for (int run = 0; run < RUNS; run++) {
+                Process process = new ProcessBuilder(java, "-cp",
+                        System.getProperty("java.class.path"), StartupBenchmark.class.getName(),
+                        mode).redirectErrorStream(true).start();
+                try (BufferedReader output = new BufferedReader(new InputStreamReader(
+                        process.getInputStream(), StandardCharsets.UTF_8))) {
+                    String[] times = output.readLine().split(" ");
+                    prompt[run] = Double.parseDouble(times[0]);
+                    first[run] = Double.parseDouble(times[1]);
+                }
+                process.waitFor();
+            }
+            System.out.printf(Locale.ROOT, "%-9s  time to prompt %8.1f ms   first query %8.1f ms%n",
+                    mode, median(prompt), median(first));
+        }
+    }
+
+    /**
+     * Starts a planner in one of the modes, waits for the think time and runs the first query,
+     * printing the time to the prompt and the time of the query.
+     *
+     * @param mode The mode.
+     * @throws InterruptedException if interrupted while thinking.
+     */
+    private static void child(String mode) throws InterruptedException {
+        long start = System.nanoTime();
+        IPlanner planner;
+        if ("eager".equals(mode)) {
+            Planner loaded = new Planner(GamesLoader.loadGamesFile(CATALOG));
+            loaded.buildIndexes();
+            planner = loaded;
+        } else {
+            planner = LazyPlanner.load(() -> GamesLoader.loadGamesFile(CATALOG), ready -> { },
+                    "lazy-warm".equals(mode), new StartupMetrics());
+        }
+        long prompt = System.nanoTime();
+        Thread.sleep(THINK_MILLIS);
+        long query = System.nanoTime();
+        long count = planner.filter(QUERY, SORT).count();
+        long end = System.nanoTime();
+        System.out.printf(Locale.ROOT, "%.3f %.3f %d%n", (prompt - start) / 1e6,
+                (end - query) / 1e6, count);
+    }
+
+    /**
+     * Gets the median of some times.
+     *
+     * @param times The times, sorted in place.
+     * @return the median.
+     */
+    private static double median(double[] times) {
+        Arrays.sort(times);
+        return times[times.length / 2];
+    }
+}
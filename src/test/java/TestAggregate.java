@@ -0,0 +1,114 @@
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import student.Aggregate;
+import student.BoardGame;
+import student.GameData;
+import student.OffHeapCatalog;
+import student.OffHeapPlanner;
+import student.Planner;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+
+/**
+ * JUnit test for aggregate queries over the current results.
+ */
+public class TestAggregate {
+    static Set<BoardGame> games;
+
+    @BeforeAll
+    public static void setup() {
+        games = new HashSet<>();
+        games.add(new BoardGame("17 days", 6, 1, 8, 70, 70, 9.0, 600, 9.0, 2005));
+        games.add(new BoardGame("Chess", 7, 2, 2, 10, 20, 10.0, 700, 10.0, 2006));
+        games.add(new BoardGame("Go", 1, 2, 5, 30, 30, 8.0, 100, 7.5, 2000));
+        games.add(new BoardGame("Go Fish", 2, 2, 10, 20, 120, 3.0, 200, 6.5, 2001));
+        games.add(new BoardGame("golang", 4, 2, 7, 50, 55, 7.0, 400, 9.5, 2003));
+        games.add(new BoardGame("GoRami", 3, 6, 6, 40, 42, 5.0, 300, 8.5, 2002));
+        games.add(new BoardGame("Monopoly", 8, 6, 10, 20, 1000, 1.0, 800, 5.0, 2007));
+        games.add(new BoardGame("Tucano", 5, 10, 20, 60, 90, 6.0, 500, 8.0, 2004));
+    }
+
+    /**
+     * Test aggregates with and without groups, over the current results.
+     */
+    @Test
+    public void testAggregates() {
+        Planner planner = new Planner(new HashSet<>(games));
+        assertEquals(8, planner.aggregate(Aggregate.parse("count")).getValue());
+        assertEquals(10.0, planner.aggregate(Aggregate.parse("max rating")).getValue());
+        planner.filter("name~=go");
+        assertEquals(4, planner.aggregate(Aggregate.parse("count")).getValue());
+        assertEquals(8.0, planner.aggregate(Aggregate.parse("avg rating")).getValue(), 1e-9);
+
+        List<Aggregate.Group> groups =
+                planner.aggregate(Aggregate.parse("avg rating by minplayers")).getGroups();
+        assertEquals(2, groups.size());
+        assertEquals(2.0, groups.get(0).getKey());
+        assertEquals(3, groups.get(0).getCount());
+        assertEquals(23.5 / 3, groups.get(0).getValue(), 1e-9);
+        assertEquals(6.0, groups.get(1).getKey());
+        assertEquals(8.5, groups.get(1).getValue());
+
+        planner.filter("rating>100");
+        assertEquals(0, planner.aggregate(Aggregate.parse("count")).getValue());
+        assertTrue(Double.isNaN(planner.aggregate(Aggregate.parse("min rank")).getValue()));
+        assertTrue(planner.aggregate(Aggregate.parse("count by year")).getGroups().isEmpty());
+    }
+
+    /**
+     * Test the column scans, the default over a stream and the off-heap planner agree, on a
+     * catalog large enough to aggregate in parallel parts.
+     */
+    @Test
+    public void testImplementationsAgree() {
+        Random random = new Random(5);
+        Set<BoardGame> many = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            many.add(new BoardGame("g" + i, i, 1 + random.nextInt(6), 2 + random.nextInt(10),
+                    5 * random.nextInt(20), 5 * random.nextInt(40), random.nextInt(500) / 100.0,
+                    1 + random.nextInt(60_000), random.nextInt(1000) / 100.0,
+                    1900 + random.nextInt(126)));
+        }
+        Planner planner = new Planner(many);
+        OffHeapPlanner offHeap = new OffHeapPlanner(OffHeapCatalog.of(many));
+        planner.filter("rating>1");
+        offHeap.filter("rating>1");
+        for (String text : List.of("count", "count by minplayers", "min difficulty",
+                "max rank by year", "avg rating by maxplayers")) {
+            Aggregate query = Aggregate.parse(text);
+            List<Aggregate.Group> expected = query.over(planner.filter("")).getGroups();
+            for (List<Aggregate.Group> actual : List.of(planner.aggregate(query).getGroups(),
+                    offHeap.aggregate(query).getGroups())) {
+                assertEquals(expected.size(), actual.size(), text);
+                for (int i = 0; i < expected.size(); i++) {
+                    assertEquals(expected.get(i).getKey(), actual.get(i).getKey(), text);
+                    assertEquals(expected.get(i).getCount(), actual.get(i).getCount(), text);
+                    assertEquals(expected.get(i).getValue(), actual.get(i).getValue(), 1e-9,
+                            text);
+                }
+            }
+        }
+    }
+
+    /**
+     * Test queries are parsed, and invalid ones rejected.
+     */
+    @Test
+    public void testParse() {
+        Aggregate query = Aggregate.parse("AVG rating by yearpublished");
+        assertEquals(Aggregate.Function.AVG, query.getFunction());
+        assertEquals(GameData.RATING, query.getColumn());
+        assertEquals(GameData.YEAR, query.getGroupBy());
+        assertEquals("avg average by yearpublished", query.toString());
+        assertNull(Aggregate.parse("count by minplayers").getColumn());
+        for (String bad : List.of("", "sum rating", "count rating", "avg", "avg name",
+                "count by", "max rating by year rank", "min rating rank")) {
+            assertThrows(IllegalArgumentException.class, () -> Aggregate.parse(bad), bad);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import student.BoardGame;
+import student.ConsoleApp;
+import student.GameList;
+import student.OutputFormat;
+import student.Planner;
+import student.QueryBudget;
+
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.HashSet;
+import java.util.Set;
+
+
+/**
+ * JUnit test for running console commands from a script.
+ */
+public class TestBatchMode {
+    static Set<BoardGame> games;
+
+    @BeforeAll
+    public static void setup() {
+        games = new HashSet<>();
+        games.add(new BoardGame("Chess", 7, 2, 2, 10, 20, 10.0, 700, 10.0, 2006));
+        games.add(new BoardGame("Go", 1, 2, 5, 30, 30, 8.0, 100, 7.5, 2000));
+        games.add(new BoardGame("Go Fish", 2, 2, 10, 20, 120, 3.0, 200, 6.5, 2001));
+        games.add(new BoardGame("Monopoly", 8, 6, 10, 20, 1000, 1.0, 800, 5.0, 2007));
+    }
+
+    /**
+     * Runs a script and gets its output.
+     *
+     * @param script The commands.
+     * @param format The output format.
+     * @return the output, with \n line breaks.
+     */
+    private static String run(String script, OutputFormat format) {
+        return run(new Planner(games), script, format);
+    }
+
+    /**
+     * Runs a script over a planner and gets its output.
+     *
+     * @param planner The planner.
+     * @param script The commands.
+     * @param format The output format.
+     * @return the output, with \n line breaks.
+     */
+    private static String run(Planner planner, String script, OutputFormat format) {
+        StringWriter output = new StringWriter();
+        new ConsoleApp(new GameList(), planner, new StringReader(script),
+                new PrintWriter(output), format).start();
+        return output.toString().replace(System.lineSeparator(), "\n");
+    }
+
+    /**
+     * Test text output has no welcome or prompts, skips blank lines and ends at the end of input.
+     */
+    @Test
+    public void testText() {
+        assertEquals("1: Go Fish (6.50)\n2: Go (7.50)\n1: Go\n",
+                run("filter name~=go sort:rating\n\n   \nlist add go\nlist show", OutputFormat.TEXT));
+    }
+
+    /**
+     * Test a misspelled name added to the list is only matched against the current results, and
+     * a closest game that was filtered out is named rather than replaced by a farther one.
+     */
+    @Test
+    public void testClosestNameInResults() {
+        String output = run("filter name~=go\nlist add chss\nlist add go fsh\nfilter clear\n"
+                + "list add chss\nlist show", OutputFormat.TEXT);
+        assertEquals("1: Go\n2: Go Fish\n"
+                + "Invalid list option (type list ? to get options):  chss\n"
+                + "The closest game is not in the current results, it was filtered out: Chess\n"
+                + "No exact match, used the closest game: Go Fish\n"
+                + "Filters Removed, Back to Full Game List (type `>filter` (no args) to see all).\n"
+                + "No exact match, used the closest game: Chess\n"
+                + "1: Chess\n2: Go Fish\n", output);
+    }
+
+    /**
+     * Test games and messages in TSV and JSON.
+     */
+    @Test
+    public void testMachineFormats() {
+        String script = "filter name==go\nlist add go\nlist show\nbogus\n";
+        assertEquals("Go\t7.5\t8.0\t100\t2\t5\t30\t30\t2000\nGo\n"
+                + "# Invalid command. Type help for list of commands.\n",
+                run(script, OutputFormat.TSV));
+        assertEquals("{\"objectname\":\"Go\",\"average\":7.5,\"avgweight\":8.0,\"rank\":100,"
+                + "\"minplayers\":2,\"maxplayers\":5,\"minplaytime\":30,\"maxplaytime\":30,"
+                + "\"yearpublished\":2000}\n{\"objectname\":\"Go\"}\n"
+                + "{\"message\":\"Invalid command. Type help for list of commands.\"}\n",
+                run(script, OutputFormat.JSON));
+    }
+
+    /**
+     * Test filter undo and redo show the results they go back to.
+     */
+    @Test
+    public void testUndoRedo() {
+        assertEquals("Go\nGo Fish\nGo Fish\n# Undid filter: maxplayers>5\nGo\nGo Fish\n"
+                + "# Redid filter: maxplayers>5\nGo Fish\n# No filter to redo.\n",
+                run("filter name~=go\nfilter maxplayers>5\nfilter undo\nfilter redo\n"
+                        + "filter redo", OutputFormat.TSV).replaceAll("\t[^\n]*", ""));
+    }
+
+    /**
+     * Test aggregates run over the current results without listing them.
+     */
+    @Test
+    public void testAggregates() {
+        assertEquals("count: 4\navg(average): 7.25\n1: Go\n2: Go Fish\n"
+                + "maxplayers  count  games\n5           1  1\n10          1  1\n"
+                + "count: 2\nmin(yearpublished): 2000\n"
+                + "Invalid command. Type help for list of commands. count takes no column\n",
+                run("count\navg rating\nfilter name~=go\ncount by maxplayers\ncount\n"
+                        + "min year\ncount rating", OutputFormat.TEXT));
+    }
+
+    /**
+     * Test facets count the current results, every facet or those asked for.
+     */
+    @Test
+    public void testFacets() {
+        assertEquals("# 2 games\n# decade  <1950: 0  1950s: 0  1960s: 0  1970s: 0  1980s: 0"
+                + "  1990s: 0  2000s: 2  2010s: 0  2020s+: 0\n"
+                + "# Invalid command. Type help for list of commands. Unknown facet size\n",
+                run("filter name~=go\nfacets decade\nfacets size", OutputFormat.TSV)
+                        .replaceAll("Go[^\n]*\n", ""));
+        assertTrue(run("facets", OutputFormat.TEXT)
+                .startsWith("4 games\nplayers   1: 0  2: 3  3: 2"));
+    }
+
+    /**
+     * Test cancel has nothing to cancel in batch mode, where commands run one at a time.
+     */
+    @Test
+    public void testCancel() {
+        assertEquals("# No command is running.\nGo\n",
+                run("cancel\nfilter name==go", OutputFormat.TSV).replaceAll("\t[^\n]*", ""));
+    }
+
+    /**
+     * Test a filter stopped by the query budget shows its partial results with a note, and is
+     * not applied.
+     */
+    @Test
+    public void testBudget() {
+        Planner planner = new Planner(games);
+        planner.setBudget(new QueryBudget(0, 0, 1));
+        String output = run(planner, "filter name~=go\nfilter\n", OutputFormat.TSV)
+                .replaceAll("\t[^\n]*", "");
+        assertTrue(output.matches("# Partial results, the query was stopped by its budget: \\d+ ms,"
+                + " 3 rows scanned, 1 results, truncated by results=1\nGo\n# No filter.*\n"
+                + "# Partial results.* truncated by results=1\nChess\n"), output);
+    }
+}
@@ -0,0 +1,196 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import student.BoardGame;
+import student.CatalogDelta;
+import student.GameData;
+import student.NameIndex;
+import student.Planner;
+import student.SessionCheckpoint;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+
+/**
+ * JUnit test for applying deltas to a planner's catalog, against a planner built from scratch.
+ */
+public class TestCatalogDelta {
+
+    /**
+     * Builds the small catalog the tests start from.
+     *
+     * @return a new modifiable set of games.
+     */
+    private static Set<BoardGame> catalog() {
+        Set<BoardGame> games = new HashSet<>();
+        games.add(new BoardGame("17 days", 6, 1, 8, 70, 70, 9.0, 600, 9.0, 2005));
+        games.add(new BoardGame("Chess", 7, 2, 2, 10, 20, 10.0, 700, 10.0, 2006));
+        games.add(new BoardGame("Go", 1, 2, 5, 30, 30, 8.0, 100, 7.5, 2000));
+        games.add(new BoardGame("Go Fish", 2, 2, 10, 20, 120, 3.0, 200, 6.5, 2001));
+        games.add(new BoardGame("golang", 4, 2, 7, 50, 55, 7.0, 400, 9.5, 2003));
+        games.add(new BoardGame("GoRami", 3, 6, 6, 40, 42, 5.0, 300, 8.5, 2002));
+        games.add(new BoardGame("Monopoly", 8, 6, 10, 20, 1000, 1.0, 800, 5.0, 2007));
+        games.add(new BoardGame("Tucano", 5, 10, 20, 60, 90, 6.0, 500, 8.0, 2004));
+        return games;
+    }
+
+    /**
+     * Gets the names of some games.
+     *
+     * @param list The games.
+     * @return the names, in order.
+     */
+    private static List<String> names(List<BoardGame> list) {
+        return list.stream().map(BoardGame::getName).toList();
+    }
+
+    /**
+     * Test adds, updates, renames and removes, with filters applied before the delta.
+     */
+    @Test
+    public void testApplyDelta() {
+        Set<BoardGame> games = catalog();
+        Planner planner = new Planner(games);
+        planner.filter("name~=go");
+        planner.filter("rating>7");
+        assertEquals(List.of("Go", "golang", "GoRami"), names(planner.filter("").toList()));
+
+        planner.applyDelta(new CatalogDelta(List.of(
+                new BoardGame("Go", 1, 2, 5, 30, 30, 8.0, 100, 6.0, 2000),
+                new BoardGame("Gomoku", 9, 2, 2, 5, 15, 2.0, 900, 9.9, 1900),
+                new BoardGame("Gorami", 3, 6, 6, 40, 42, 5.0, 300, 8.5, 2002),
+                new BoardGame("Ghost Stories", 10, 1, 4, 60, 60, 3.0, 950, 7.9, 2008)),
+                List.of(4, 42)));
+
+        assertEquals(List.of("Gomoku", "Gorami"), names(planner.filter("").toList()));
+        assertEquals(9, games.size());
+        assertEquals(1900, planner.getStatistics().get(GameData.YEAR).getMin());
+        assertEquals(9, planner.getStatistics().getRowCount());
+        assertEquals(List.of("Gomoku"), names(planner.filter("yearpublished<1950").toList()));
+
+        planner.reset();
+        assertEquals(names(new Planner(catalogCopy(games)).filter("").toList()),
+                names(planner.filter("").toList()));
+        assertEquals("Gomoku", planner.suggestNames("gomoko", 1).get(0).getName());
+        assertTrue(planner.suggestNames("golang", NameIndex.DEFAULT_SUGGESTIONS).stream()
+                .noneMatch(match -> match.getName().equals("golang")));
+    }
+
+    /**
+     * Test random deltas, enough to rebuild the columns several times, keep the planner the same
+     * as one built from scratch over the changed catalog.
+     */
+    @Test
+    public void testMatchesRebuild() {
+        Random random = new Random(39);
+        Set<BoardGame> games = new HashSet<>();
+        for (int i = 0; i < 3000; i++) {
+            games.add(randomGame(random, i));
+        }
+        Planner planner = new Planner(games);
+        planner.suggestNames("g1", 1); // builds the name index, so deltas patch it
+        String[] filters = {"minplayers>=2", "rating>5", "yearpublished<2015,name~=1"};
+        for (int round = 0; round < 40; round++) {
+            if (round % 10 == 0) {
+                planner.reset();
+            }
+            if (round % 10 < filters.length) {
+                planner.filter(filters[round % 10]);
+            }
+            List<BoardGame> upserts = new ArrayList<>();
+            List<Integer> removed = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                int id = random.nextInt(4000);
+                if (random.nextInt(4) == 0) {
+                    removed.add(id);
+                } else {
+                    upserts.add(randomGame(random, id));
+                }
+            }
+            planner.applyDelta(new CatalogDelta(upserts, removed));
+
+            Planner expected = new Planner(catalogCopy(games));
+            for (String filter : planner.getHistory()) {
+                expected.filter(filter);
+            }
+            assertEquals(expected.filter("").toList(), planner.filter("").toList(),
+                    "round " + round);
+            String name = "g" + random.nextInt(4000);
+            assertEquals(expected.suggestNames(name, 3).toString(),
+                    planner.suggestNames(name, 3).toString());
+        }
+    }
+
+    /**
+     * Test a checkpoint taken after a delta restores on a planner given the same delta.
+     */
+    @Test
+    public void testCheckpointAfterDelta() {
+        CatalogDelta delta = new CatalogDelta(List.of(
+                new BoardGame("Gomoku", 9, 2, 2, 5, 15, 2.0, 900, 9.9, 1900)), List.of(1));
+        Planner planner = new Planner(catalog());
+        planner.applyDelta(delta);
+        planner.filter("name~=go");
+        SessionCheckpoint checkpoint = planner.checkpoint(planner.filter("").toList());
+
+        Planner other = new Planner(catalog());
+        assertThrows(IllegalArgumentException.class, () -> other.restore(checkpoint));
+        other.applyDelta(delta);
+        assertEquals(List.of("Go Fish", "golang", "Gomoku", "GoRami"),
+                names(other.restore(checkpoint)));
+        assertEquals(names(planner.filter("").toList()), names(other.filter("").toList()));
+    }
+
+    /**
+     * Test reading a change file, skipping rows that cannot be read.
+     *
+     * @throws IOException if the file cannot be read.
+     */
+    @Test
+    public void testRead() throws IOException {
+        String file = "change,objectname,objectid,average,avgweight,rank,minplayers,maxplayers,"
+                + "minplaytime,maxplaytime,yearpublished\n"
+                + "add,Gomoku,9,9.9,2.0,900,2,2,5,15,1900\n"
+                + "update,Go,1,6.0,8.0,100,2,5,30,30,2000\n"
+                + "remove,,4\n"
+                + "update,Broken,x,6.0,8.0,100,2,5,30,30,2000\n"
+                + "rename,Go,1,6.0,8.0,100,2,5,30,30,2000\n";
+        CatalogDelta delta = CatalogDelta.read(new BufferedReader(new StringReader(file)));
+        assertEquals(List.of("Gomoku", "Go"), names(delta.getUpserts()));
+        assertEquals(6.0, delta.getUpserts().get(1).getRating());
+        assertEquals(List.of(4), delta.getRemovedIds());
+        assertEquals(3, delta.size());
+        assertThrows(IOException.class, () -> CatalogDelta.read(
+                new BufferedReader(new StringReader("objectname,objectid\nGo,1\n"))));
+    }
+
+    /**
+     * Copies a catalog, for building a planner from scratch.
+     *
+     * @param games The games.
+     * @return a new set of the games.
+     */
+    private static Set<BoardGame> catalogCopy(Set<BoardGame> games) {
+        return new HashSet<>(games);
+    }
+
+    /**
+     * Makes a random game.
+     *
+     * @param random The random source.
+     * @param id The id of the game.
+     * @return the game.
+     */
+    private static BoardGame randomGame(Random random, int id) {
+        return new BoardGame("g" + random.nextInt(4000), id, 1 + random.nextInt(6),
+                2 + random.nextInt(10), 5 * random.nextInt(20), 5 * random.nextInt(40),
+                random.nextInt(500) / 100.0, 1 + random.nextInt(5000),
+                random.nextInt(1000) / 100.0, 1900 + random.nextInt(130));
+    }
+}
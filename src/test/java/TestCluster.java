@@ -0,0 +1,125 @@
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import student.BoardGame;
+import student.ClusterCoordinator;
+import student.FilterExplanation;
+import student.FilterParseException;
+import student.GameData;
+import student.GamesLoader;
+import student.Planner;
+import student.SortKey;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+
+/**
+ * JUnit test for cluster mode: worker processes on localhost, each with a partition of the
+ * catalog, against one planner over the whole catalog.
+ */
+public class TestCluster {
+    /** The number of worker processes. */
+    static final int WORKERS = 3;
+    /** Finds the port in a worker's first line. */
+    static final Pattern PORT = Pattern.compile("port (\\d+)");
+
+    static Set<BoardGame> games;
+    static List<Process> workers = new ArrayList<>();
+    static List<InetSocketAddress> addresses = new ArrayList<>();
+
+    @BeforeAll
+    public static void setup() throws IOException {
+        games = GamesLoader.loadGamesFile("/collection.csv");
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        for (int i = 0; i < WORKERS; i++) {
+            Process process = new ProcessBuilder(java, "-cp",
+                    System.getProperty("java.class.path"), "student.BGArenaPlanner",
+                    "--worker", "0", "--partition", i + "/" + WORKERS)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT).start();
+            workers.add(process);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    process.getInputStream(), StandardCharsets.UTF_8));
+            Matcher matcher = PORT.matcher(String.valueOf(reader.readLine()));
+            assertTrue(matcher.find(), "worker " + i + " did not start");
+            addresses.add(new InetSocketAddress("127.0.0.1", Integer.parseInt(matcher.group(1))));
+        }
+    }
+
+    @AfterAll
+    public static void teardown() {
+        for (Process process : workers) {
+            process.destroy();
+        }
+    }
+
+    /**
+     * Test progressive filters and sorts over the workers give the games of a single planner,
+     * and a limit gives the first of them.
+     *
+     * @throws IOException if the workers cannot be reached.
+     */
+    @Test
+    public void testMatchesSinglePlanner() throws IOException {
+        Planner single = new Planner(new HashSet<>(games));
+        try (ClusterCoordinator cluster = new ClusterCoordinator(addresses)) {
+            cluster.reset();
+            assertEquals(single.filter("").toList(), cluster.filter("").toList());
+            assertEquals(single.filter("minplayers>=2", GameData.RATING, false).toList(),
+                    cluster.filter("minplayers>=2", GameData.RATING, false).toList());
+            List<SortKey> keys = SortKey.parse("maxplayers desc,difficulty,name");
+            List<BoardGame> expected = single.filter("name~=the", keys).toList();
+            assertEquals(expected.subList(0, 5),
+                    cluster.filter("name~=the", keys, 5).toList());
+            assertEquals(expected, cluster.filter("", keys).toList());
+
+            assertEquals(WORKERS, cluster.getLastLatencies().size());
+            assertEquals(expected.size(), cluster.getLastLatencies().stream()
+                    .mapToInt(ClusterCoordinator.NodeLatency::getRows).sum());
+            assertTrue(cluster.getLastLatencies().stream().allMatch(l -> l.getNanos() > 0));
+
+            single.reset();
+            cluster.reset();
+            assertEquals(single.suggestNames("catan", 5).toString(),
+                    cluster.suggestNames("catan", 5).toString());
+        }
+    }
+
+    /**
+     * Test explanations add up the workers and report their latency, and errors.
+     *
+     * @throws IOException if the workers cannot be reached.
+     */
+    @Test
+    public void testExplainAndErrors() throws IOException {
+        Planner single = new Planner(new HashSet<>(games));
+        try (ClusterCoordinator cluster = new ClusterCoordinator(addresses)) {
+            cluster.reset();
+            FilterExplanation expected = single.explain("minplayers>2", GameData.NAME, true);
+            FilterExplanation actual = cluster.explain("minplayers>2", GameData.NAME, true);
+            assertEquals(expected.getTotalRows(), actual.getTotalRows());
+            assertEquals(expected.getRowsReturned(), actual.getRowsReturned());
+            assertTrue(actual.getAccessPath().startsWith(WORKERS + " workers in parallel ("
+                    + addresses.get(0).getHostString() + ":" + addresses.get(0).getPort()),
+                    actual.getAccessPath());
+            assertTrue(actual.getAccessPath().contains(" ms, "));
+
+            assertThrows(FilterParseException.class, () -> cluster.filter("colour>2"));
+            assertThrows(IllegalArgumentException.class,
+                    () -> cluster.filter("", List.of(), -1));
+        }
+        assertThrows(IllegalArgumentException.class, () -> ClusterCoordinator.parseNodes("x:y"));
+        assertEquals(5001, ClusterCoordinator.parseNodes("5001").get(0).getPort());
+    }
+}
@@ -0,0 +1,75 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import student.ColumnStatistics;
+import student.GameData;
+import student.Operations;
+
+
+/**
+ * JUnit test for the column statistics used by the planner.
+ */
+public class TestColumnStatistics {
+
+    /**
+     * Builds statistics for the years 2000 to 2099, one game each.
+     */
+    private static ColumnStatistics years() {
+        double[] values = new double[100];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 2000 + i;
+        }
+        return ColumnStatistics.of(GameData.YEAR, values, 10);
+    }
+
+    /**
+     * Test min, max and distinct counts.
+     */
+    @Test
+    public void testMinMaxDistinct() {
+        ColumnStatistics stats = ColumnStatistics.of(GameData.MIN_PLAYERS,
+                new double[] {2, 1, 4, 2, 2, 1}, 4);
+        assertEquals(1, stats.getMin());
+        assertEquals(4, stats.getMax());
+        assertEquals(3, stats.getDistinct());
+        assertEquals(6, stats.getCount());
+    }
+
+    /**
+     * Test conditions that the min and max settle on their own.
+     */
+    @Test
+    public void testOutcome() {
+        ColumnStatistics stats = years();
+        assertEquals(ColumnStatistics.Outcome.NONE, stats.outcome(Operations.GREATER_THAN, 2099));
+        assertEquals(ColumnStatistics.Outcome.NONE, stats.outcome(Operations.EQUALS, 1999));
+        assertEquals(ColumnStatistics.Outcome.NONE, stats.outcome(Operations.LESS_THAN, 2000));
+        assertEquals(ColumnStatistics.Outcome.ALL, stats.outcome(Operations.GREATER_THAN_EQUALS, 2000));
+        assertEquals(ColumnStatistics.Outcome.ALL, stats.outcome(Operations.NOT_EQUALS, 3000));
+        assertEquals(ColumnStatistics.Outcome.SOME, stats.outcome(Operations.LESS_THAN, 2050));
+    }
+
+    /**
+     * Test that the histogram gives reasonable range and equality estimates.
+     */
+    @Test
+    public void testSelectivity() {
+        ColumnStatistics stats = years();
+        assertEquals(0.5, stats.selectivity(Operations.LESS_THAN, 2050), 0.05);
+        assertEquals(0.25, stats.selectivity(Operations.GREATER_THAN_EQUALS, 2075), 0.05);
+        assertEquals(0.01, stats.selectivity(Operations.EQUALS, 2042), 0.001);
+        assertEquals(0.0, stats.selectivity(Operations.GREATER_THAN, 2200));
+    }
+
+    /**
+     * Test that a value repeated across buckets is estimated as a heavy hitter.
+     */
+    @Test
+    public void testSkewedEquality() {
+        double[] values = new double[100];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i < 80 ? 2 : i;
+        }
+        ColumnStatistics stats = ColumnStatistics.of(GameData.MIN_PLAYERS, values, 10);
+        assertTrue(stats.selectivity(Operations.EQUALS, 2) >= 0.7);
+    }
+}
@@ -0,0 +1,155 @@
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import student.BoardGame;
+import student.ConsoleApp;
+import student.GameList;
+import student.Planner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * JUnit test for the pages of filter results in the interactive console, and the more command.
+ */
+public class TestConsolePaging {
+    /** Games in the catalog, a little over two pages. */
+    static final int GAMES = 45;
+    /** The hint shown after a page when more games are left. */
+    static final String MORE_HINT = "-- more games, type more for the next page or more all for"
+            + " the rest --";
+    /** The message of more when no results are waiting. */
+    static final String NO_MORE = "No more games to show, run a filter first.";
+    /** The note of a command that takes a moment. */
+    static final String RUNNING = "Still running, type cancel to stop it;";
+
+    static Set<BoardGame> games;
+
+    @BeforeAll
+    public static void setup() {
+        games = new HashSet<>();
+        for (int i = 1; i <= GAMES; i++) {
+            games.add(new BoardGame(String.format("Game %02d", i), i, 2, 4, 30, 60, 2.5, i,
+                    7.0, 2000));
+        }
+    }
+
+    /**
+     * Test a large result shows one page and the hint, more goes on from where the page ended,
+     * a new filter starts its own pages, and more with nothing left says so.
+     *
+     * @throws IOException if the input pipe fails.
+     * @throws InterruptedException if interrupted waiting for the console to end.
+     */
+    @Test
+    public void testPagesAndMore() throws IOException, InterruptedException {
+        InputStream stdin = System.in;
+        PrintStream stdout = System.out;
+        PipedOutputStream typed = new PipedOutputStream();
+        ByteArrayOutputStream shown = new ByteArrayOutputStream();
+        ConsoleApp app;
+        try {
+            System.setIn(new PipedInputStream(typed));
+            System.setOut(new PrintStream(shown, true, Charset.defaultCharset()));
+            app = new ConsoleApp(new GameList(), new Planner(games));
+        } finally {
+            System.setIn(stdin);
+            System.setOut(stdout);
+        }
+        Thread console = new Thread(app::start);
+        console.start();
+        waitFor(shown, 0, "> ");
+
+        assertEquals(NO_MORE + "\n", run(typed, shown, "more", NO_MORE));
+
+        String page = run(typed, shown, "filter name~=game", MORE_HINT);
+        assertTrue(page.startsWith("1: Game 01\n"), page);
+        assertTrue(page.endsWith("20: Game 20\n" + MORE_HINT + "\n"), page);
+        assertEquals(1, page.split(MORE_HINT, -1).length - 1, page);
+        assertEquals(20 + 1, page.split("\n").length, "one page of games and the hint");
+
+        page = run(typed, shown, "more", MORE_HINT);
+        assertTrue(page.startsWith("21: Game 21\n"), page);
+        assertTrue(page.endsWith("40: Game 40\n" + MORE_HINT + "\n"), page);
+
+        page = run(typed, shown, "filter name~=0", "13: Game 40");
+        assertTrue(page.startsWith("1: Game 01\n"), page);
+        assertFalse(page.contains(MORE_HINT), page);
+
+        assertEquals(NO_MORE + "\n", run(typed, shown, "more", NO_MORE),
+                "the new filter replaced the pages of the last one");
+
+        type(typed, "exit");
+        console.join(10_000);
+        assertTrue(shown.toString(Charset.defaultCharset()).contains("Goodbye"));
+    }
+
+    /**
+     * Types a command and waits for the prompt after its output.
+     *
+     * A command that takes a moment shows a running note and the prompt first; they are left
+     * out of the output returned.
+     *
+     * @param typed The console input.
+     * @param shown The console output.
+     * @param line The command.
+     * @param last The last line the command prints.
+     * @return what the command printed, before the prompt, with \n line breaks.
+     * @throws IOException if the pipe fails.
+     */
+    private static String run(PipedOutputStream typed, ByteArrayOutputStream shown, String line,
+                              String last) throws IOException {
+        int from = shown.size();
+        type(typed, line);
+        String output = waitFor(shown, from, last + System.lineSeparator() + "> ")
+                .replace(System.lineSeparator(), "\n");
+        if (output.startsWith(RUNNING)) {
+            output = output.substring(output.indexOf("> ") + 2);
+        }
+        return output.substring(0, output.length() - 2);
+    }
+
+    /**
+     * Types a line into the console.
+     *
+     * @param typed The console input.
+     * @param line The line.
+     * @throws IOException if the pipe fails.
+     */
+    private static void type(PipedOutputStream typed, String line) throws IOException {
+        typed.write((line + System.lineSeparator()).getBytes(Charset.defaultCharset()));
+        typed.flush();
+    }
+
+    /**
+     * Waits for the console output to end with some text.
+     *
+     * @param shown The console output.
+     * @param from The byte of the output to start from.
+     * @param text The text.
+     * @return the output from the start, up to and including the text.
+     */
+    private static String waitFor(ByteArrayOutputStream shown, int from, String text) {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (true) {
+            byte[] bytes = shown.toByteArray();
+            String output = new String(bytes, from, bytes.length - from,
+                    Charset.defaultCharset());
+            if (output.endsWith(text)) {
+                return output;
+            }
+            assertTrue(System.nanoTime() < deadline, "timed out waiting for " + text + " in "
+                    + output);
+            LockSupport.parkNanos(5_000_000);
+        }
+    }
+}
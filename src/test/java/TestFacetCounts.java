@@ -0,0 +1,115 @@
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import student.BoardGame;
+import student.CatalogDelta;
+import student.Facet;
+import student.FacetCounts;
+import student.OffHeapCatalog;
+import student.OffHeapPlanner;
+import student.Planner;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+
+/**
+ * JUnit test for counting the facets of filter results.
+ */
+public class TestFacetCounts {
+    static Set<BoardGame> games;
+
+    @BeforeAll
+    public static void setup() {
+        games = new HashSet<>();
+        games.add(new BoardGame("Alpha", 1, 1, 4, 20, 30, 1.5, 10, 7.0, 1995));
+        games.add(new BoardGame("Bravo", 2, 2, 2, 15, 15, 2.5, 20, 6.0, 1948));
+        games.add(new BoardGame("Charlie", 3, 3, 6, 60, 120, 3.2, 30, 8.0, 2015));
+        games.add(new BoardGame("Delta", 4, 2, 10, 90, 240, 4.8, 40, 8.5, 2021));
+        games.add(new BoardGame("Echo", 5, 8, 12, 30, 60, 0.0, 50, 5.0, 1979));
+    }
+
+    /**
+     * Gets the counts of a facet.
+     *
+     * @param counts The facet counts.
+     * @param facet The facet.
+     * @return the count per bucket.
+     */
+    private static int[] buckets(FacetCounts counts, Facet facet) {
+        int[] buckets = new int[facet.buckets()];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = counts.getCount(facet, i);
+        }
+        return buckets;
+    }
+
+    /**
+     * Test every facet is counted, of the whole catalog and of filter results.
+     */
+    @Test
+    public void testFacets() {
+        Planner planner = new Planner(new HashSet<>(games));
+        FacetCounts all = planner.facets(List.of(Facet.values()));
+        assertEquals(5, all.getTotal());
+        assertArrayEquals(new int[] {1, 3, 3, 3, 2, 2, 1, 2}, buckets(all, Facet.PLAYERS));
+        assertArrayEquals(new int[] {1, 1, 1, 1, 1}, buckets(all, Facet.WEIGHT));
+        assertArrayEquals(new int[] {1, 1, 1, 1, 1, 0}, buckets(all, Facet.PLAYTIME));
+        assertArrayEquals(new int[] {1, 0, 0, 1, 0, 1, 0, 1, 1}, buckets(all, Facet.DECADE));
+
+        planner.filter("minplayers>=2");
+        FacetCounts filtered = planner.facets(List.of(Facet.PLAYERS));
+        assertEquals(4, filtered.getTotal());
+        assertEquals(List.of(Facet.PLAYERS), filtered.getFacets());
+        assertArrayEquals(new int[] {0, 2, 2, 2, 2, 2, 1, 2}, buckets(filtered, Facet.PLAYERS));
+        assertThrows(IllegalArgumentException.class, () -> filtered.getCount(Facet.DECADE, 0));
+    }
+
+    /**
+     * Test the counts of the whole catalog follow changes to it.
+     */
+    @Test
+    public void testCatalogCountsFollowDeltas() {
+        Planner planner = new Planner(new HashSet<>(games));
+        assertEquals(1, planner.facets(List.of(Facet.DECADE)).getCount(Facet.DECADE, 0));
+        planner.applyDelta(new CatalogDelta(List.of(
+                new BoardGame("Foxtrot", 6, 2, 4, 30, 30, 3.5, 60, 7.0, 1900)), List.of(2)));
+        FacetCounts counts = planner.facets(List.of(Facet.DECADE, Facet.WEIGHT));
+        assertEquals(5, counts.getTotal());
+        assertEquals(1, counts.getCount(Facet.DECADE, 0));
+        assertEquals(0, counts.getCount(Facet.WEIGHT, 2));
+        assertEquals(2, counts.getCount(Facet.WEIGHT, 3));
+    }
+
+    /**
+     * Test the column scans, the default over a stream and the off-heap planner agree.
+     */
+    @Test
+    public void testImplementationsAgree() {
+        Random random = new Random(9);
+        Set<BoardGame> many = new HashSet<>();
+        for (int i = 0; i < 5_000; i++) {
+            many.add(new BoardGame("g" + i, i, random.nextInt(6), 1 + random.nextInt(14),
+                    5 * random.nextInt(20), 5 * random.nextInt(80), random.nextInt(500) / 100.0,
+                    1 + random.nextInt(60_000), random.nextInt(1000) / 100.0,
+                    1900 + random.nextInt(126)));
+        }
+        Planner planner = new Planner(many);
+        OffHeapPlanner offHeap = new OffHeapPlanner(OffHeapCatalog.of(many));
+        for (String filter : List.of("", "rating>5,maxplaytime<200")) {
+            planner.filter(filter);
+            offHeap.filter(filter);
+            FacetCounts expected = FacetCounts.of(List.of(Facet.values()), planner.filter(""));
+            for (FacetCounts actual : List.of(planner.facets(List.of(Facet.values())),
+                    offHeap.facets(List.of(Facet.values())))) {
+                assertEquals(expected.getTotal(), actual.getTotal());
+                for (Facet facet : Facet.values()) {
+                    assertArrayEquals(buckets(expected, facet), buckets(actual, facet));
+                }
+            }
+        }
+        assertEquals(Facet.PLAYTIME, Facet.fromString("PlayTime"));
+    }
+}
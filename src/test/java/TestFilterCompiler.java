@@ -0,0 +1,155 @@
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import student.BoardGame;
+import student.CatalogStatistics;
+import student.CompiledFilter;
+import student.FilterCompiler;
+import student.FilterExpression;
+import student.FilterParser;
+import student.GameColumns;
+import student.GameData;
+import student.QueryOptimizer;
+import student.RowRenderer;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+
+/**
+ * JUnit test for filters compiled to hidden classes.
+ */
+public class TestFilterCompiler {
+    static Set<BoardGame> games;
+    static GameColumns columns;
+    static CatalogStatistics statistics;
+
+    @BeforeAll
+    public static void setup() {
+        games = Set.of(
+                new BoardGame("17 days", 6, 1, 8, 70, 70, 9.0, 600, 9.0, 2005),
+                new BoardGame("Chess", 7, 2, 2, 10, 20, 10.0, 700, 10.0, 2006),
+                new BoardGame("Go", 1, 2, 5, 30, 30, 8.0, 100, 7.5, 2000),
+                new BoardGame("Go Fish", 2, 2, 10, 20, 120, 3.0, 200, 6.5, 2001),
+                new BoardGame("golang", 4, 2, 7, 50, 55, 7.0, 400, 9.5, 2003),
+                new BoardGame("GoRami", 3, 6, 6, 40, 42, 5.0, 300, 8.5, 2002),
+                new BoardGame("Monopoly", 8, 6, 10, 20, 1000, 1.0, 800, 5.0, 2007),
+                new BoardGame("Tucano", 5, 10, 20, 60, 90, 6.0, 500, 8.0, 2004));
+        columns = GameColumns.of(games);
+        statistics = CatalogStatistics.compute(games);
+    }
+
+    /**
+     * Test that compiled filters match the same rows as the interpreted expression, both as
+     * parsed and after optimization.
+     */
+    @Test
+    public void testCompiledMatchesInterpreted() {
+        String[] filters = {
+            "name~=go", "name==chess", "name!=go", "name>go", "name<=go fish",
+            "minPlayers>=2,maxPlayers<=7", "rating>7.5|difficulty<3", "!(rating>=8.5)",
+            "maxPlayers>=5,maxPlayers<=10,maxPlayers!=7", "(rank<300|yearPublished>2005),!name~=o",
+            "difficulty==7.0|difficulty!=1", "minPlaytime>60|(maxPlaytime<=42,name~=g)",
+            "!(minPlayers==2|maxPlayers>8),rating<9.9", "rank>1000", "rank>=100",
+        };
+        for (String filter : filters) {
+            FilterExpression parsed = FilterParser.parseExpression(filter);
+            for (FilterExpression expression
+                    : List.of(parsed, QueryOptimizer.optimize(parsed, statistics))) {
+                CompiledFilter compiled = FilterCompiler.compile(expression);
+                List<String> expected = new ArrayList<>();
+                List<String> actual = new ArrayList<>();
+                for (int row = 0; row < columns.size(); row++) {
+                    BoardGame game = columns.game(row);
+                    if (expression.test(game)) {
+                        expected.add(game.getName());
+                    }
+                    if (compiled.test(columns, row)) {
+                        actual.add(game.getName());
+                    }
+                }
+                assertEquals(expected, actual, expression.toString());
+            }
+        }
+    }
+
+    /**
+     * Test that a filter is compiled once per normalized text.
+     */
+    @Test
+    public void testCompiledFiltersAreCached() {
+        CompiledFilter first = FilterCompiler.compile(FilterParser.parseExpression("rank < 42"));
+        CompiledFilter second = FilterCompiler.compile(FilterParser.parseExpression("rank<42"));
+        assertSame(first, second);
+        assertTrue(first.getClass().isHidden());
+    }
+
+    /**
+     * Test that rows are in canonical order, by name ignoring case.
+     */
+    @Test
+    public void testColumnsInCanonicalOrder() {
+        List<String> names = new ArrayList<>();
+        for (int row = 0; row < columns.size(); row++) {
+            names.add(columns.game(row).getName());
+        }
+        assertEquals(List.of("17 days", "Chess", "Go", "Go Fish", "golang", "GoRami", "Monopoly",
+                "Tucano"), names);
+    }
+
+    /**
+     * Test name checks on the UTF-8 name arena follow the case-insensitive rules of String, for
+     * names with characters outside ASCII and ones with the characters between the cases.
+     */
+    @Test
+    public void testNameChecksOnArena() {
+        Set<BoardGame> named = Set.of(
+                new BoardGame("\u00C9clipse", 1, 2, 6, 60, 200, 3.7, 10, 7.9, 2011),
+                new BoardGame("eclipse", 2, 2, 6, 60, 200, 3.7, 11, 7.8, 2011),
+                new BoardGame("\u00C7a Va", 3, 2, 4, 10, 20, 1.0, 12, 6.0, 2000),
+                new BoardGame("[Redacted]", 4, 2, 4, 10, 20, 1.0, 13, 6.0, 2000),
+                new BoardGame("Zoo_Run", 5, 2, 4, 10, 20, 1.0, 14, 6.0, 2000),
+                new BoardGame("", 6, 2, 4, 10, 20, 1.0, 15, 6.0, 2000));
+        GameColumns arena = GameColumns.of(named);
+        String[] filters = {"name~=clip", "name~=\u00C9CL", "name~=\u00E7a", "name==\u00C9CLIPSE",
+            "name==eclipse", "name>e", "name<[", "name>=zoo_", "name<_", "name~=_r", "name>\u00C7a",
+        };
+        for (String filter : filters) {
+            FilterExpression expression = FilterParser.parseExpression(filter);
+            CompiledFilter compiled = FilterCompiler.compile(expression);
+            for (int row = 0; row < arena.size(); row++) {
+                assertEquals(expression.test(arena.game(row)), compiled.test(arena, row),
+                        filter + " on " + arena.game(row).getName());
+            }
+        }
+    }
+
+    /**
+     * Test games read their names from the arena once columns hold them, keep their equality
+     * and hash, move to the arena of rebuilt columns, and render from the bytes.
+     */
+    @Test
+    public void testNamesMoveToArena() {
+        BoardGame wide = new BoardGame("\u00C9clipse", 1, 2, 6, 60, 200, 3.7, 10, 7.9, 2011);
+        BoardGame ascii = new BoardGame("Go\tFish", 2, 2, 10, 20, 120, 3.0, 200, 6.5, 2001);
+        Set<BoardGame> named = new HashSet<>(List.of(wide, ascii));
+        int hash = wide.hashCode();
+
+        GameColumns first = GameColumns.of(named);
+        assertEquals("\u00C9clipse", wide.getName());
+        assertEquals(hash, wide.hashCode());
+        assertTrue(named.contains(new BoardGame("\u00C9clipse", 1, 0, 0, 0, 0, 0, 0, 0, 0)));
+        GameColumns rebuilt = GameColumns.of(named);
+        assertEquals("Go\tFish", ascii.getName());
+        assertSame(wide, rebuilt.game(rebuilt.find(wide)));
+        assertSame(wide, first.game(first.find(wide)));
+
+        RowRenderer renderer = new RowRenderer(Locale.ROOT);
+        assertEquals("\u00C9clipse (7.90)", renderer.appendInfo(wide, GameData.RATING).toString());
+        renderer.reset();
+        assertTrue(renderer.appendTsv(ascii).toString().startsWith("Go Fish\t6.5\t"));
+    }
+}
@@ -0,0 +1,104 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import student.BoardGame;
+import student.FilterExpression;
+import student.FilterParseException;
+import student.FilterParser;
+import student.IPlanner;
+import student.Planner;
+
+import java.util.List;
+import java.util.Set;
+
+
+/**
+ * JUnit test for the filter grammar: AND, OR, NOT, grouping and error positions.
+ */
+public class TestFilterParser {
+    /** A small catalog to run filters against. */
+    private static final Set<BoardGame> GAMES = Set.of(
+            new BoardGame("Chess", 7, 2, 2, 10, 20, 10.0, 700, 10.0, 2006),
+            new BoardGame("Go", 1, 2, 5, 30, 30, 8.0, 100, 7.5, 2000),
+            new BoardGame("Go Fish", 2, 2, 10, 20, 120, 3.0, 200, 6.5, 2001),
+            new BoardGame("Monopoly", 8, 6, 10, 20, 1000, 1.0, 800, 5.0, 2007));
+
+    /**
+     * Runs a filter and gets the names of the matching games.
+     *
+     * @param filter The filter.
+     * @return the names, sorted by name.
+     */
+    private static List<String> names(String filter) {
+        IPlanner planner = new Planner(GAMES);
+        return planner.filter(filter).map(BoardGame::getName).toList();
+    }
+
+    /**
+     * Test that , binds tighter than |.
+     */
+    @Test
+    public void testOrAndPrecedence() {
+        assertEquals(List.of("Chess", "Go"), names("rating>9|rank<=100,minPlayers==2"));
+        assertEquals(List.of("Chess", "Go"), names("name==chess|name==go"));
+    }
+
+    /**
+     * Test NOT on single conditions and on groups.
+     */
+    @Test
+    public void testNotAndGroups() {
+        assertEquals(List.of("Chess", "Monopoly"), names("!(name~=go)"));
+        assertEquals(List.of("Go Fish", "Monopoly"), names("!rating>7"));
+        assertEquals(List.of("Go", "Go Fish"), names("(rating>9|name~=go),!(name==chess)"));
+        assertEquals(List.of("Chess", "Go", "Go Fish", "Monopoly"), names("!!(maxPlayers>=2)"));
+    }
+
+    /**
+     * Test that the normalized text parses back to the same expression.
+     */
+    @Test
+    public void testToStringRoundTrips() {
+        FilterExpression expression = FilterParser.parseExpression(
+                "(rating > 8 | rank < 10) , !(name ~= go|minPlayers>=2)");
+        assertEquals("(rating>8|rank<10),!(name~=go|minplayers>=2)", expression.toString());
+        assertEquals(expression.toString(),
+                FilterParser.parseExpression(expression.toString()).toString());
+    }
+
+    /**
+     * Test that values stop at a closing parenthesis only inside a group.
+     */
+    @Test
+    public void testValueWithParenthesis() {
+        FilterExpression expression = FilterParser.parseExpression("name==go (deluxe)");
+        assertEquals("name==go (deluxe)", expression.toString());
+        assertEquals("name==go", FilterParser.parseExpression("(name==go)").toString());
+    }
+
+    /**
+     * Test that errors report where the filter went wrong.
+     */
+    @Test
+    public void testErrorPositions() {
+        assertEquals(0, position("size>2"));
+        assertEquals(11, position("minPlayers 2"));
+        assertEquals(14, position("minPlayers>=2,"));
+        assertEquals(12, position("minPlayers>=two"));
+        assertEquals(14, position("(minPlayers>=2"));
+        assertEquals(12, position("minPlayers>=2)")); // ")" is part of a top level value
+        assertEquals(6, position("rating~=5"));
+        assertEquals(12, position("minPlayers>="));
+    }
+
+    /**
+     * Parses a filter that is expected to fail.
+     *
+     * @param filter The invalid filter.
+     * @return the position reported by the parser.
+     */
+    private static int position(String filter) {
+        FilterParseException e = assertThrows(FilterParseException.class,
+                () -> FilterParser.parseExpression(filter));
+        return e.getPosition();
+    }
+}
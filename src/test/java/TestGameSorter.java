@@ -0,0 +1,144 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import student.BoardGame;
+import student.GameComparator;
+import student.GameData;
+import student.GameSorter;
+import student.SortKey;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+
+/**
+ * JUnit test for multi-key sorting, against chained comparators.
+ */
+public class TestGameSorter {
+
+    /**
+     * Test parsing sort keys, with and without spaces.
+     */
+    @Test
+    public void testParse() {
+        List<SortKey> keys = SortKey.parse("rating desc, year asc,name");
+        assertEquals("[rating desc, year asc, name asc]", keys.toString());
+        assertEquals(keys.toString(), SortKey.parse("ratingdesc,yearasc,name").toString());
+        assertEquals(GameData.MIN_PLAYERS, SortKey.parse("minplayersdesc").get(0).getColumn());
+        assertFalse(SortKey.parse("minplayersdesc").get(0).isAscending());
+        assertThrows(IllegalArgumentException.class, () -> SortKey.parse("rating,"));
+        assertThrows(IllegalArgumentException.class, () -> SortKey.parse("desc"));
+        assertThrows(IllegalArgumentException.class, () -> SortKey.parse("colour"));
+        assertThrows(IllegalArgumentException.class, () -> SortKey.parse("id"));
+    }
+
+    /**
+     * Test a three key sort on a small catalog, with ties on the first two keys.
+     */
+    @Test
+    public void testMultiKeySort() {
+        List<BoardGame> games = List.of(
+                new BoardGame("b", 1, 2, 4, 30, 60, 2.0, 10, 7.5, 2001),
+                new BoardGame("A", 2, 2, 4, 30, 60, 2.0, 20, 7.5, 2001),
+                new BoardGame("c", 3, 2, 4, 30, 60, 2.0, 30, 8.0, 2005),
+                new BoardGame("d", 4, 2, 4, 30, 60, 2.0, 40, 7.5, 1999),
+                new BoardGame("e", 5, 2, 4, 30, 60, 2.0, 50, -0.0, 2001),
+                new BoardGame("f", 6, 2, 4, 30, 60, 2.0, 60, 0.0, 2001));
+        List<String> names = GameSorter.sort(games.stream(),
+                SortKey.parse("rating desc,year asc,name")).map(BoardGame::getName).toList();
+        assertEquals(List.of("c", "d", "A", "b", "f", "e"), names);
+    }
+
+    /**
+     * Test random catalogs against chained comparators, for few keys that pack into one long and
+     * for many keys that do not.
+     */
+    @Test
+    public void testMatchesComparators() {
+        Random random = new Random(35);
+        GameData[] columns = {GameData.NAME, GameData.RATING, GameData.DIFFICULTY,
+            GameData.MIN_PLAYERS, GameData.MAX_PLAYERS, GameData.MIN_TIME, GameData.MAX_TIME,
+            GameData.RANK, GameData.YEAR};
+        for (int round = 0; round < 50; round++) {
+            int distinct = round % 2 == 0 ? 4 : 5000;
+            List<BoardGame> games = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                games.add(new BoardGame("g" + random.nextInt(distinct), i,
+                        random.nextInt(distinct), random.nextInt(distinct),
+                        random.nextInt(distinct), random.nextInt(distinct),
+                        random.nextInt(distinct) / 4.0 - 2, random.nextInt(distinct),
+                        random.nextInt(distinct) / 8.0 - 1, random.nextInt(distinct) - 100));
+            }
+            List<SortKey> keys = new ArrayList<>();
+            Comparator<BoardGame> expected = null;
+            for (int k = 1 + random.nextInt(columns.length); k > 0; k--) {
+                SortKey key = new SortKey(columns[random.nextInt(columns.length)],
+                        random.nextBoolean());
+                Comparator<BoardGame> next = comparator(key.getColumn());
+                next = key.isAscending() ? next : next.reversed();
+                expected = expected == null ? next : expected.thenComparing(next);
+                keys.add(key);
+            }
+            List<BoardGame> sorted = new ArrayList<>(games);
+            sorted.sort(expected);
+            assertEquals(sorted, GameSorter.sort(games.stream(), keys).toList(), keys.toString());
+        }
+    }
+
+    /**
+     * Test inputs large enough to be radix sorted, on small domain columns and wider ones.
+     */
+    @Test
+    public void testRadixSort() {
+        Random random = new Random(36);
+        List<BoardGame> games = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            games.add(new BoardGame("g" + random.nextInt(1000), i, 1 + random.nextInt(8),
+                    2 + random.nextInt(12), 5 * random.nextInt(40), 5 * random.nextInt(200),
+                    random.nextInt(500) / 100.0, 1 + random.nextInt(60_000),
+                    random.nextInt(1000) / 100.0, 1900 + random.nextInt(126)));
+        }
+        assertSorted(games, "year", GameComparator.BY_YEAR_PUBLISHED);
+        assertSorted(games, "rank desc", GameComparator.BY_RANK.reversed());
+        assertSorted(games, "minplayers desc,maxplaytime", GameComparator.BY_MIN_PLAYERS.reversed()
+                .thenComparing(GameComparator.BY_MAX_PLAY_TIME));
+        assertSorted(games, "year,rating desc,name", GameComparator.BY_YEAR_PUBLISHED
+                .thenComparing(GameComparator.BY_RATING.reversed())
+                .thenComparing(GameComparator.BY_NAME));
+    }
+
+    /**
+     * Asserts that sorting on keys gives the same order as a stable sort with a comparator.
+     *
+     * @param games The games.
+     * @param keys The sort keys.
+     * @param expected The comparator giving the expected order.
+     */
+    private static void assertSorted(List<BoardGame> games, String keys,
+            Comparator<BoardGame> expected) {
+        List<BoardGame> sorted = new ArrayList<>(games);
+        sorted.sort(expected);
+        assertEquals(sorted, GameSorter.sort(games.stream(), SortKey.parse(keys)).toList(), keys);
+    }
+
+    /**
+     * Gets the comparator the single key sort used for a column.
+     *
+     * @param column The column.
+     * @return the comparator.
+     */
+    private static Comparator<BoardGame> comparator(GameData column) {
+        return switch (column) {
+            case NAME -> GameComparator.BY_NAME;
+            case RATING -> GameComparator.BY_RATING;
+            case MIN_PLAYERS -> GameComparator.BY_MIN_PLAYERS;
+            case MAX_PLAYERS -> GameComparator.BY_MAX_PLAYERS;
+            case MIN_TIME -> GameComparator.BY_MIN_PLAY_TIME;
+            case MAX_TIME -> GameComparator.BY_MAX_PLAY_TIME;
+            case DIFFICULTY -> GameComparator.BY_DIFFICULTY;
+            case RANK -> GameComparator.BY_RANK;
+            default -> GameComparator.BY_YEAR_PUBLISHED;
+        };
+    }
+}
@@ -0,0 +1,162 @@
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import student.BoardGame;
+import student.GameData;
+import student.LazyPlanner;
+import student.PlannerWarmup;
+import student.QueryBudget;
+import student.QueryCancelledException;
+import student.QueryContext;
+import student.StartupMetrics;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+/**
+ * JUnit test for loading the catalog in the background: waiting queries, cancelling a wait,
+ * load failures, the warm-up and the startup metrics.
+ */
+public class TestLazyPlanner {
+    static Set<BoardGame> games;
+
+    @BeforeAll
+    public static void setup() {
+        games = new HashSet<>();
+        games.add(new BoardGame("17 days", 6, 1, 8, 70, 70, 9.0, 600, 9.0, 2005));
+        games.add(new BoardGame("Chess", 7, 2, 2, 10, 20, 10.0, 700, 10.0, 2006));
+        games.add(new BoardGame("Go", 1, 2, 5, 30, 30, 8.0, 1, 7.5, 2000));
+        games.add(new BoardGame("Go Fish", 2, 2, 10, 20, 120, 3.0, 2, 6.5, 2001));
+        games.add(new BoardGame("golang", 4, 2, 7, 50, 55, 7.0, 4, 9.5, 2003));
+        games.add(new BoardGame("GoRami", 3, 6, 6, 40, 42, 5.0, 0, 8.5, 2002));
+        games.add(new BoardGame("Monopoly", 8, 6, 10, 20, 1000, 1.0, 800, 0.0, 2007));
+        games.add(new BoardGame("Tucano", 5, 10, 20, 60, 90, 6.0, 500, 8.0, 2004));
+    }
+
+    /**
+     * Loads a planner whose catalog is only read once a latch is released.
+     *
+     * @param release The latch.
+     * @param metrics The startup metrics.
+     * @return the planner.
+     */
+    private static LazyPlanner blocked(CountDownLatch release, StartupMetrics metrics) {
+        return LazyPlanner.load(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new HashSet<>(games);
+        }, planner -> planner.setBudget(new QueryBudget(0, 0, 2)), false, metrics);
+    }
+
+    /**
+     * Test queries wait for the catalog, and run on the planner as set up.
+     */
+    @Test
+    public void testQueriesWait() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        StartupMetrics metrics = new StartupMetrics();
+        LazyPlanner planner = blocked(release, metrics);
+        CompletableFuture<List<BoardGame>> result = CompletableFuture.supplyAsync(
+                () -> planner.filter("name~=go", GameData.RATING, false).toList());
+        AtomicBoolean ran = new AtomicBoolean();
+        planner.ifReady(ready -> ran.set(true));
+
+        Thread.sleep(50);
+        assertFalse(planner.isReady());
+        assertFalse(result.isDone());
+        assertFalse(ran.get());
+        assertNull(planner.getLastUsage());
+        assertEquals(-1, metrics.get(StartupMetrics.Milestone.CATALOG_READY));
+
+        release.countDown();
+        List<BoardGame> matched = result.get(10, TimeUnit.SECONDS);
+        assertEquals(List.of("Go", "Go Fish"), matched.stream().map(BoardGame::getName).toList());
+        assertTrue(planner.isReady());
+        assertTrue(planner.getLastUsage().isTruncated(), "the setup set the budget");
+        assertTrue(metrics.get(StartupMetrics.Milestone.CATALOG_READY) >= 0);
+        assertTrue(metrics.get(StartupMetrics.Milestone.FIRST_RESULT)
+                >= metrics.get(StartupMetrics.Milestone.CATALOG_READY));
+        planner.ifReady(ready -> ran.set(true));
+        assertTrue(ran.get());
+    }
+
+    /**
+     * Test a query waiting for the catalog can be cancelled.
+     */
+    @Test
+    public void testCancelWait() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        LazyPlanner planner = blocked(release, new StartupMetrics());
+        QueryContext context = new QueryContext("filter");
+        CompletableFuture<Long> result = CompletableFuture.supplyAsync(
+                () -> context.run(() -> planner.filter("").count()));
+        Thread.sleep(50);
+        context.cancel();
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> result.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(QueryCancelledException.class, e.getCause());
+        release.countDown();
+        assertEquals(2, planner.filter("").count(), "the budget of the setup keeps 2");
+    }
+
+    /**
+     * Test a catalog that cannot be loaded fails the queries.
+     */
+    @Test
+    public void testLoadFailure() {
+        LazyPlanner planner = LazyPlanner.load(() -> {
+            throw new IllegalArgumentException("no such file");
+        }, ready -> { }, false, new StartupMetrics());
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> planner.filter("name~=go"));
+        assertEquals("Cannot load the catalog: no such file", e.getMessage());
+        assertFalse(planner.isReady());
+    }
+
+    /**
+     * Test the warm-up runs after the catalog is ready, without touching the planner's results.
+     */
+    @Test
+    public void testWarmUp() throws Exception {
+        assertTrue(PlannerWarmup.run(games) > 0);
+
+        StartupMetrics metrics = new StartupMetrics();
+        LazyPlanner planner = LazyPlanner.load(() -> new HashSet<>(games), ready -> { }, true,
+                metrics);
+        assertEquals(4, planner.filter("name~=go,minplayers>=2").count());
+        for (int i = 0; i < 500 && metrics.get(StartupMetrics.Milestone.WARMED_UP) < 0; i++) {
+            Thread.sleep(20);
+        }
+        assertTrue(metrics.get(StartupMetrics.Milestone.WARMED_UP)
+                >= metrics.get(StartupMetrics.Milestone.CATALOG_READY));
+        assertEquals(4, planner.filter("").count());
+        assertEquals("name~=go,minplayers>=2", planner.undo());
+    }
+
+    /**
+     * Test milestones are recorded once, and listed in milestone order.
+     */
+    @Test
+    public void testMetrics() throws Exception {
+        StartupMetrics metrics = new StartupMetrics();
+        assertEquals("startup:", metrics.toString());
+        metrics.mark(StartupMetrics.Milestone.FIRST_RESULT);
+        long first = metrics.get(StartupMetrics.Milestone.FIRST_RESULT);
+        Thread.sleep(5);
+        metrics.mark(StartupMetrics.Milestone.PROMPT);
+        metrics.mark(StartupMetrics.Milestone.FIRST_RESULT);
+        assertEquals(first, metrics.get(StartupMetrics.Milestone.FIRST_RESULT));
+        assertTrue(metrics.toString().matches("startup: prompt \\d+ ms, first result \\d+ ms"),
+                metrics.toString());
+    }
+}
@@ -0,0 +1,63 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import student.NameIndex;
+
+import java.util.List;
+
+
+/**
+ * JUnit test for the edit distance index of game names.
+ */
+public class TestNameIndex {
+    /** An index of some game names. */
+    private static final NameIndex INDEX = NameIndex.of(List.of("7 Wonders", "7 Wonders Duel",
+            "Catan", "Carcassonne", "Go", "Go Fish", "Chess", "Checkers", "Azul"));
+
+    /**
+     * Gets the names of matches.
+     *
+     * @param matches The matches.
+     * @return the names, in order.
+     */
+    private static List<String> names(List<NameIndex.Match> matches) {
+        return matches.stream().map(NameIndex.Match::getName).toList();
+    }
+
+    /**
+     * Test that searches find every name within the distance, closest first.
+     */
+    @Test
+    public void testSearch() {
+        assertEquals(List.of("7 Wonders"), names(INDEX.search("7 wonder", 1)));
+        assertEquals(List.of("Checkers", "Chess"), names(INDEX.search("chesers", 2)));
+        assertEquals(List.of("Go", "Azul"), names(INDEX.search("go", 4)).subList(0, 2));
+        assertEquals(List.of(), names(INDEX.search("monopoly", 2)));
+        assertEquals(9, INDEX.size());
+    }
+
+    /**
+     * Test that case and extra spaces do not count as edits.
+     */
+    @Test
+    public void testFolding() {
+        assertEquals("7 wonders duel", NameIndex.fold("  7   WONDERS Duel "));
+        List<NameIndex.Match> matches = INDEX.search("  CATAN ", 0);
+        assertEquals(List.of("Catan"), names(matches));
+        assertEquals(0, matches.get(0).getDistance());
+    }
+
+    /**
+     * Test when a suggestion is clear enough to be used without asking.
+     */
+    @Test
+    public void testSuggest() {
+        List<NameIndex.Match> typo = INDEX.suggest("carcasone", NameIndex.DEFAULT_SUGGESTIONS);
+        assertEquals(List.of("Carcassonne"), names(typo));
+        assertTrue(NameIndex.isUnique(typo));
+
+        List<NameIndex.Match> close = INDEX.suggest("gi", NameIndex.DEFAULT_SUGGESTIONS);
+        assertEquals(List.of("Go"), names(close));
+        assertFalse(NameIndex.isUnique(INDEX.search("chesers", 2))); // a tie needs the user
+        assertTrue(INDEX.suggest("zzzzzzzzzz", 3).isEmpty());
+    }
+}
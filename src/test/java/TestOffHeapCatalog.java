@@ -0,0 +1,111 @@
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import student.BoardGame;
+import student.FilterExplanation;
+import student.FilterParseException;
+import student.GameData;
+import student.GamesLoader;
+import student.OffHeapCatalog;
+import student.OffHeapPlanner;
+import student.Planner;
+import student.SortKey;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+
+/**
+ * JUnit test for the off-heap catalog, against a planner over the same games on the heap.
+ */
+public class TestOffHeapCatalog {
+    static Set<BoardGame> games;
+
+    @BeforeAll
+    public static void setup() {
+        games = GamesLoader.loadGamesFile("/collection.csv");
+    }
+
+    /**
+     * Test every game comes back out of the catalog unchanged, in canonical order.
+     */
+    @Test
+    public void testGamesRoundTrip() {
+        OffHeapCatalog catalog = OffHeapCatalog.of(games);
+        assertEquals(games.size(), catalog.size());
+        List<BoardGame> expected = new Planner(new HashSet<>(games)).filter("").toList();
+        for (int row = 0; row < catalog.size(); row++) {
+            assertEquals(expected.get(row).toString(), catalog.game(row).toString());
+        }
+        assertEquals(0, OffHeapCatalog.of(Set.of()).size());
+    }
+
+    /**
+     * Test progressive filters, sorts and explanations give what a heap planner gives.
+     */
+    @Test
+    public void testMatchesPlanner() {
+        Planner heap = new Planner(new HashSet<>(games));
+        OffHeapPlanner offHeap = new OffHeapPlanner(OffHeapCatalog.of(games));
+        String[] filters = {"minplayers>=2", "name~=the", "rating>7.5|difficulty<2",
+            "!(maxplaytime>60)", "name>=m,name<t", "name==Catan", "yearpublished>3000"};
+        for (String filter : filters) {
+            heap.reset();
+            offHeap.reset();
+            assertEquals(heap.filter(filter).toList(), offHeap.filter(filter).toList(), filter);
+        }
+        heap.reset();
+        offHeap.reset();
+        assertEquals(heap.filter("minplayers>=2", GameData.RATING, false).toList(),
+                offHeap.filter("minplayers>=2", GameData.RATING, false).toList());
+        List<SortKey> keys = SortKey.parse("maxplayers desc,difficulty,name");
+        assertEquals(heap.filter("name~=a", keys).toList(),
+                offHeap.filter("name~=a", keys).toList());
+        assertEquals(List.of("minplayers>=2", "name~=a"), offHeap.getHistory());
+
+        FilterExplanation expected = heap.explain("rating>6", GameData.NAME, true);
+        FilterExplanation actual = offHeap.explain("rating>6", GameData.NAME, true);
+        assertEquals(expected.getTotalRows(), actual.getTotalRows());
+        assertEquals(expected.getRowsReturned(), actual.getRowsReturned());
+        for (int i = 0; i < expected.getSteps().size(); i++) {
+            assertEquals(expected.getSteps().get(i).getCondition(),
+                    actual.getSteps().get(i).getCondition());
+            assertEquals(expected.getSteps().get(i).getRowsOut(),
+                    actual.getSteps().get(i).getRowsOut());
+        }
+
+        assertEquals(heap.suggestNames("catan", 5).toString(),
+                offHeap.suggestNames("catan", 5).toString());
+        assertThrows(FilterParseException.class, () -> offHeap.filter("colour>2"));
+    }
+
+    /**
+     * Test a catalog image maps back as the same catalog, and other files are refused.
+     *
+     * @param dir A temporary directory.
+     * @throws IOException if the files cannot be written.
+     */
+    @Test
+    public void testMappedImage(@TempDir Path dir) throws IOException {
+        OffHeapCatalog built = OffHeapCatalog.of(games);
+        Path image = dir.resolve("catalog.bin");
+        built.writeTo(image);
+        assertEquals(built.byteSize(), Files.size(image));
+
+        OffHeapCatalog mapped = OffHeapCatalog.map(image);
+        assertEquals(built.size(), mapped.size());
+        OffHeapPlanner fromImage = new OffHeapPlanner(mapped);
+        OffHeapPlanner fromGames = new OffHeapPlanner(built);
+        assertEquals(fromGames.filter("maxplayers>4", GameData.YEAR, true).toList(),
+                fromImage.filter("maxplayers>4", GameData.YEAR, true).toList());
+
+        Path other = dir.resolve("other.bin");
+        Files.write(other, new byte[64]);
+        assertThrows(IOException.class, () -> OffHeapCatalog.map(other));
+    }
+}
@@ -5,6 +5,7 @@ import student.BoardGame;
 import student.Planner;
 import student.IPlanner;
 import student.GameData;
+import student.FilterExplanation;
 import student.GameList;
 import student.BoardGameFilter;
 import student.Operations;
@@ -133,6 +134,81 @@ public class TestPlanner {
         assertThrows(IllegalArgumentException.class, () -> planner.filter("", null, true));
     }
 
+    /**
+     * Test explaining a filter.
+     * Each condition reports the rows it saw and kept, most selective condition first.
+     */
+    @Test
+    public void testExplainCountsRowsPerCondition() {
+        IPlanner planner = new Planner(games);
+        FilterExplanation explain = planner.explain("minPlayers > 1, maxPlayers < 8",
+                GameData.RATING, false);
+        assertTrue(explain.getAccessPath().startsWith("compiled filter over the 8 games"),
+                explain.getAccessPath());
+        assertTrue(explain.getAccessPath().endsWith("row counts from a separate instrumented pass"));
+        assertEquals(2, explain.getSteps().size());
+        assertEquals("maxplayers<=7", explain.getSteps().get(0).getCondition());
+        assertEquals(8, explain.getSteps().get(0).getRowsIn());
+        assertEquals(4, explain.getSteps().get(0).getRowsOut());
+        assertEquals("minplayers>=2", explain.getSteps().get(1).getCondition());
+        assertEquals(4, explain.getSteps().get(1).getRowsIn());
+        assertEquals(4, explain.getSteps().get(1).getRowsOut());
+        assertEquals(4, explain.getRowsReturned());
+        assertEquals(planner.filter("minPlayers > 1, maxPlayers < 8").count(), explain.getRowsReturned());
+    }
+
+    /**
+     * Test that statistics answer impossible conditions without a scan.
+     */
+    @Test
+    public void testProvablyEmptyFilterSkipsScan() {
+        IPlanner planner = new Planner(games);
+        assertEquals(0, planner.filter("rating > 11").count());
+        assertEquals(0, planner.filter("name~=go, minPlayers == 0").count());
+        FilterExplanation explain = planner.explain("rating > 11", GameData.NAME, true);
+        assertTrue(explain.getAccessPath().startsWith("none"));
+        assertTrue(explain.getSteps().isEmpty());
+    }
+
+    /**
+     * Test that conditions every game passes are dropped from the plan.
+     */
+    @Test
+    public void testProvablyFullConditionIsDropped() {
+        IPlanner planner = new Planner(games);
+        FilterExplanation explain = planner.explain("minPlayers >= 1, yearPublished >= 2000",
+                GameData.NAME, true);
+        assertTrue(explain.getSteps().isEmpty());
+        assertEquals(games.size(), explain.getRowsReturned());
+    }
+
+    /**
+     * Test that conditions on the same column fold into one range check.
+     */
+    @Test
+    public void testSameColumnConditionsFold() {
+        IPlanner planner = new Planner(games);
+        FilterExplanation explain = planner.explain("maxPlayers>4, maxPlayers<11, maxPlayers<=20, maxPlayers!=7",
+                GameData.NAME, true);
+        assertEquals(1, explain.getSteps().size());
+        assertEquals("maxplayers>=5,maxplayers<=10,maxplayers!=7", explain.getSteps().get(0).getCondition());
+        List<String> names = planner.filter("maxPlayers>4, maxPlayers<11, maxPlayers<=20, maxPlayers!=7")
+                .map(BoardGame::getName).toList();
+        assertEquals(List.of("17 days", "Go", "Go Fish", "GoRami", "Monopoly"), names);
+    }
+
+    /**
+     * Test that contradictory conditions give an empty result without a scan.
+     */
+    @Test
+    public void testContradictionIsEmpty() {
+        IPlanner planner = new Planner(games);
+        assertEquals(0, planner.filter("minPlayers>4, minPlayers<5").count());
+        assertEquals(0, planner.filter("rating==7.5, rating!=7.5").count());
+        FilterExplanation explain = planner.explain("minPlayers>4, minPlayers<3", GameData.NAME, true);
+        assertTrue(explain.getAccessPath().startsWith("none"));
+    }
+
     // ========================
     //  GameList Tests
     // ========================
@@ -356,4 +432,70 @@ public class TestPlanner {
         List<BoardGame> filtered = games.stream().filter(filter).toList();
         assertTrue(filtered.size() > 0);
     }
-}
\ No newline at end of file
+
+    /**
+     * Test that misspelled names get the closest catalog names.
+     */
+    @Test
+    public void testSuggestNames() {
+        IPlanner planner = new Planner(games);
+        assertEquals(List.of("GoRami"), planner.suggestNames("gorammi", 5).stream()
+                .map(m -> m.getName()).toList());
+        assertEquals(List.of("Go Fish"), planner.suggestNames("GO  fsh", 5).stream()
+                .map(m -> m.getName()).toList());
+        assertTrue(planner.suggestNames("scrabble", 5).isEmpty());
+    }
+
+    /**
+     * Test undo and redo step through the filters, and a new filter drops what was undone.
+     */
+    @Test
+    public void testUndoRedo() {
+        Planner planner = new Planner(new HashSet<>(games));
+        assertNull(planner.undo());
+        planner.filter("name~=go");
+        planner.filter("maxplayers>5");
+        assertEquals(List.of("Go Fish", "golang", "GoRami"),
+                planner.filter("").map(BoardGame::getName).toList());
+
+        assertEquals("maxplayers>5", planner.undo());
+        assertEquals(4, planner.filter("").count());
+        assertEquals(List.of("name~=go"), planner.getHistory());
+        assertEquals("name~=go", planner.undo());
+        assertEquals(games.size(), planner.filter("").count());
+        assertNull(planner.undo());
+
+        assertEquals("name~=go", planner.redo());
+        assertEquals("maxplayers>5", planner.redo());
+        assertNull(planner.redo());
+        assertEquals(3, planner.filter("").count());
+
+        planner.undo();
+        planner.filter("rating>8");
+        assertNull(planner.redo());
+        assertEquals(List.of("golang", "GoRami"),
+                planner.filter("").map(BoardGame::getName).toList());
+        assertEquals(List.of("name~=go", "rating>8"), planner.getHistory());
+
+        planner.reset();
+        assertNull(planner.undo());
+    }
+
+    /**
+     * Test the undo stack evicts its oldest steps past its bound.
+     */
+    @Test
+    public void testUndoEvictsOldSteps() {
+        Planner planner = new Planner(new HashSet<>(games));
+        for (int i = 0; i < 40; i++) {
+            planner.filter("rank<" + (1000 - i));
+        }
+        int undone = 0;
+        while (planner.undo() != null) {
+            undone++;
+        }
+        assertEquals(31, undone); // the oldest kept step is the state undo goes back to
+        assertEquals(9, planner.getHistory().size());
+        assertEquals(games.size(), planner.filter("").count());
+    }
+}
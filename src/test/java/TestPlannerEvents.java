@@ -0,0 +1,97 @@
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import student.BoardGame;
+import student.GameData;
+import student.GameList;
+import student.IPlanner;
+import student.Planner;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+
+/**
+ * JUnit test for the flight recorder events emitted by the planner.
+ */
+public class TestPlannerEvents {
+    static Set<BoardGame> games;
+
+    @BeforeAll
+    public static void setup() {
+        games = new HashSet<>();
+        games.add(new BoardGame("Chess", 7, 2, 2, 10, 20, 10.0, 700, 10.0, 2006));
+        games.add(new BoardGame("Go", 1, 2, 5, 30, 30, 8.0, 100, 7.5, 2000));
+        games.add(new BoardGame("Go Fish", 2, 2, 10, 20, 120, 3.0, 200, 6.5, 2001));
+        games.add(new BoardGame("Monopoly", 8, 6, 10, 20, 1000, 1.0, 800, 5.0, 2007));
+    }
+
+    /**
+     * Records a short session and reads the planner events back.
+     */
+    private static List<RecordedEvent> record(Runnable work) throws Exception {
+        Path file = Files.createTempFile("planner", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("student.FilterEvaluate");
+            recording.enable("student.Sort");
+            recording.enable("student.ListMutation");
+            recording.start();
+            work.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        try {
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Filter and sort events carry the filter text, the sort column and the row counts.
+     */
+    @Test
+    public void testFilterAndSortEvents() throws Exception {
+        IPlanner planner = new Planner(games);
+        List<RecordedEvent> events = record(
+                () -> planner.filter("name~=go", GameData.RATING, false).toList());
+
+        RecordedEvent filter = events.stream()
+                .filter(e -> e.getEventType().getName().equals("student.FilterEvaluate"))
+                .findFirst().orElseThrow();
+        assertEquals("name~=go", filter.getString("filter"));
+        assertEquals(4, filter.getInt("rowsScanned"));
+        assertEquals(2, filter.getInt("rowsReturned"));
+
+        RecordedEvent sort = events.stream()
+                .filter(e -> e.getEventType().getName().equals("student.Sort"))
+                .findFirst().orElseThrow();
+        assertEquals("RATING", sort.getString("sortColumn"));
+        assertFalse(sort.getBoolean("ascending"));
+        assertEquals(2, sort.getInt("rowsSorted"));
+    }
+
+    /**
+     * List mutations report how many games changed and the resulting size.
+     */
+    @Test
+    public void testListMutationEvent() throws Exception {
+        IPlanner planner = new Planner(games);
+        GameList list = new GameList();
+        List<RecordedEvent> events = record(() -> list.addToList("1-3", planner.filter("")));
+
+        RecordedEvent mutation = events.stream()
+                .filter(e -> e.getEventType().getName().equals("student.ListMutation"))
+                .findFirst().orElseThrow();
+        assertEquals("add", mutation.getString("operation"));
+        assertEquals(3, mutation.getInt("rowsChanged"));
+        assertEquals(3, mutation.getInt("listSize"));
+    }
+}
@@ -0,0 +1,209 @@
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import student.BoardGame;
+import student.FilterExplanation;
+import student.GameData;
+import student.Planner;
+import student.QueryBudget;
+import student.QueryContext;
+import student.QueryUsage;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+
+/**
+ * JUnit test for per-query budgets: partial results, truncation and usage.
+ */
+public class TestQueryBudget {
+    static Set<BoardGame> games;
+
+    @BeforeAll
+    public static void setup() {
+        games = new HashSet<>();
+        games.add(new BoardGame("17 days", 6, 1, 8, 70, 70, 9.0, 600, 9.0, 2005));
+        games.add(new BoardGame("Chess", 7, 2, 2, 10, 20, 10.0, 700, 10.0, 2006));
+        games.add(new BoardGame("Go", 1, 2, 5, 30, 30, 8.0, 1, 7.5, 2000));
+        games.add(new BoardGame("Go Fish", 2, 2, 10, 20, 120, 3.0, 2, 6.5, 2001));
+        games.add(new BoardGame("golang", 4, 2, 7, 50, 55, 7.0, 4, 9.5, 2003));
+        games.add(new BoardGame("GoRami", 3, 6, 6, 40, 42, 5.0, 0, 8.5, 2002));
+        games.add(new BoardGame("Monopoly", 8, 6, 10, 20, 1000, 1.0, 800, 0.0, 2007));
+        games.add(new BoardGame("Tucano", 5, 10, 20, 60, 90, 6.0, 500, 8.0, 2004));
+    }
+
+    /**
+     * Gets the names of games.
+     *
+     * @param games The games.
+     * @return the names, in order.
+     */
+    private static List<String> names(List<BoardGame> games) {
+        return games.stream().map(BoardGame::getName).toList();
+    }
+
+    /**
+     * Test the results limit keeps the first games in name order, and only truncates when more
+     * games matched.
+     */
+    @Test
+    public void testResultsLimit() {
+        Planner planner = new Planner(new HashSet<>(games));
+        planner.setBudget(new QueryBudget(0, 0, 4));
+        assertEquals(4, planner.filter("name~=go").count());
+        assertFalse(planner.getLastUsage().isTruncated());
+
+        planner.reset();
+        planner.setBudget(new QueryBudget(0, 0, 3));
+        assertEquals(List.of("Go", "Go Fish", "golang"),
+                names(planner.filter("name~=go").toList()));
+        QueryUsage usage = planner.getLastUsage();
+        assertEquals(QueryBudget.Limit.RESULTS, usage.getTruncatedBy());
+        assertEquals(3, usage.getResults());
+        assertEquals("name~=go", usage.getQuery());
+        assertTrue(planner.getHistory().isEmpty());
+        assertNull(planner.undo(), "a truncated filter is not applied");
+
+        planner.setBudget(new QueryBudget(0, 0, 2));
+        assertEquals(List.of("17 days", "Chess"), names(planner.filter("").toList()));
+        assertTrue(planner.getLastUsage().isTruncated());
+        planner.setBudget(QueryBudget.UNLIMITED);
+        assertEquals(8, planner.filter("").count(), "the current results were not shrunk");
+    }
+
+    /**
+     * Test explain runs the filter under the budget, and counts the conditions over the rows the
+     * budget let the scan go through.
+     */
+    @Test
+    public void testExplainUnderBudget() {
+        Planner planner = new Planner(new HashSet<>(games));
+        planner.setBudget(new QueryBudget(0, 3, 0));
+        FilterExplanation explain = planner.explain("name~=go", GameData.NAME, true);
+        assertEquals(1, explain.getRowsReturned());
+        assertEquals(3, explain.getSteps().get(0).getRowsIn());
+        assertEquals(1, explain.getSteps().get(0).getRowsOut());
+        assertTrue(explain.getAccessPath().contains("stopped by the query budget"),
+                explain.getAccessPath());
+        assertEquals(QueryBudget.Limit.ROWS, planner.getLastUsage().getTruncatedBy());
+
+        planner.setBudget(QueryBudget.UNLIMITED);
+        explain = planner.explain("name~=go", GameData.NAME, true);
+        assertEquals(4, explain.getRowsReturned());
+        assertEquals(8, explain.getSteps().get(0).getRowsIn());
+        assertEquals(4, explain.getSteps().get(0).getRowsOut());
+        assertFalse(explain.getAccessPath().contains("stopped"), explain.getAccessPath());
+        assertTrue(planner.getHistory().isEmpty(), "explaining does not apply the filter");
+    }
+
+    /**
+     * Test the rows limit stops the scan at exactly the limit, and later filters start from the
+     * results before the truncated filter.
+     */
+    @Test
+    public void testRowsLimit() {
+        Planner planner = new Planner(new HashSet<>(games));
+        planner.setBudget(new QueryBudget(0, 3, 0));
+        assertEquals(List.of("17 days", "Chess", "Go"),
+                names(planner.filter("rating>5", GameData.NAME, true).toList()));
+        QueryUsage usage = planner.getLastUsage();
+        assertEquals(QueryBudget.Limit.ROWS, usage.getTruncatedBy());
+        assertEquals(3, usage.getRowsScanned());
+
+        planner.setBudget(QueryBudget.UNLIMITED);
+        assertEquals(List.of("Chess", "Go"), names(planner.filter("maxplayers<=5").toList()));
+        assertFalse(planner.getLastUsage().isTruncated());
+        assertEquals(8, planner.getLastUsage().getRowsScanned());
+        assertEquals(List.of("maxplayers<=5"), planner.getHistory());
+    }
+
+    /**
+     * Test a sort whose time ran out gives up, leaves the results in name order and does not
+     * apply the filter.
+     */
+    @Test
+    public void testTimeLimit() {
+        Planner planner = new Planner(new HashSet<>(games));
+        AtomicReference<QueryUsage> usage = new AtomicReference<>();
+        List<BoardGame> sorted = QueryContext.metered("slow", new QueryBudget(1, 0, 0), () -> {
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return planner.filter("name~=go", GameData.RATING, false).toList();
+        }, usage::set);
+        assertEquals(List.of("Go", "Go Fish", "golang", "GoRami"), names(sorted));
+        assertEquals(QueryBudget.Limit.TIME, usage.get().getTruncatedBy());
+        assertNull(planner.getLastUsage(), "a nested query reports with the outer one");
+
+        assertTrue(planner.getHistory().isEmpty(), "a query cut in its sort is not applied");
+        assertNull(planner.undo());
+
+        assertEquals(List.of("Chess", "golang", "17 days", "GoRami", "Tucano", "Go", "Go Fish",
+                "Monopoly"), names(planner.filter("", GameData.RATING, false).toList()));
+        assertFalse(planner.getLastUsage().isTruncated());
+    }
+
+    /** A game slow to give its rating, so sorting on rating runs out of time. */
+    static final class SlowGame extends BoardGame {
+        SlowGame(String name, int id, double rating) {
+            super(name, id, 2, 4, 10, 60, 2.5, id + 1, rating, 2000);
+        }
+
+        @Override
+        public double getRating() {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.getRating();
+        }
+    }
+
+    /**
+     * Test a query whose scan finishes but whose sort runs out of the planner's own budget
+     * returns the matches in name order, and does not apply its filter.
+     */
+    @Test
+    public void testSortOutOfTimeNotApplied() {
+        Set<BoardGame> slow = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            slow.add(new SlowGame(String.format("s%02d", i), i, i % 10));
+        }
+        Planner planner = new Planner(slow);
+        planner.setBudget(QueryBudget.parse("time=20ms"));
+        List<BoardGame> sorted = planner.filter("rank>50", GameData.RATING, false).toList();
+        assertEquals(QueryBudget.Limit.TIME, planner.getLastUsage().getTruncatedBy());
+        assertEquals(100, planner.getLastUsage().getRowsScanned(), "the scan ran to the end");
+        assertEquals(50, sorted.size());
+        assertEquals("s50", sorted.get(0).getName(), "left in name order");
+        assertTrue(planner.getHistory().isEmpty());
+        assertNull(planner.undo());
+
+        planner.setBudget(QueryBudget.UNLIMITED);
+        assertEquals(100, planner.filter("").count());
+    }
+
+    /**
+     * Test budgets are parsed and written back.
+     */
+    @Test
+    public void testParse() {
+        QueryBudget budget = QueryBudget.parse("time=2s, rows=500000,results=1000");
+        assertEquals(2000, budget.getMaxMillis());
+        assertEquals(500_000, budget.getMaxRows());
+        assertEquals(1000, budget.getMaxResults());
+        assertEquals("time=2000ms,rows=500000,results=1000", budget.toString());
+        assertEquals(250, QueryBudget.parse("time=250ms").getMaxMillis());
+        assertEquals(budget.toString(), QueryBudget.parse(budget.toString()).toString());
+        assertTrue(QueryBudget.UNLIMITED.isUnlimited());
+        assertEquals("unlimited", QueryBudget.UNLIMITED.toString());
+        assertThrows(IllegalArgumentException.class, () -> QueryBudget.parse("speed=3"));
+        assertThrows(IllegalArgumentException.class, () -> QueryBudget.parse("rows=many"));
+        assertThrows(IllegalArgumentException.class, () -> new QueryBudget(-1, 0, 0));
+    }
+}
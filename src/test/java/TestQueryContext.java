@@ -0,0 +1,180 @@
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import student.BoardGame;
+import student.ConsoleApp;
+import student.GameData;
+import student.GameList;
+import student.Planner;
+import student.QueryCancelledException;
+import student.QueryContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+
+/**
+ * JUnit test for running queries in a context that reports progress and can be cancelled.
+ */
+public class TestQueryContext {
+    /** Games in the large catalog. */
+    static final int GAMES = 10_000;
+
+    static Set<BoardGame> games;
+
+    @BeforeAll
+    public static void setup() {
+        games = new HashSet<>();
+        for (int i = 0; i < GAMES; i++) {
+            games.add(new BoardGame("g" + i, i, 1 + i % 4, 4 + i % 6, 10, 60, 2.5, i + 1,
+                    i % 10, 2000 + i % 20));
+        }
+    }
+
+    /**
+     * A planner whose filter {@code slow} runs until cancelled, checking its context as scans do.
+     */
+    static final class SlowPlanner extends Planner {
+        SlowPlanner(Set<BoardGame> games) {
+            super(games);
+        }
+
+        @Override
+        public Stream<BoardGame> filter(String filter) {
+            while (filter.equals("slow")) {
+                QueryContext.current().progress(1);
+                LockSupport.parkNanos(1_000_000);
+            }
+            return super.filter(filter);
+        }
+    }
+
+    /**
+     * Test scans report their progress to the context they run in.
+     */
+    @Test
+    public void testProgress() {
+        Planner planner = new Planner(new HashSet<>(games));
+        QueryContext context = new QueryContext("filter rating>4");
+        assertEquals(5_000, context.run(() -> planner.filter("rating>4").count()));
+        assertEquals(GAMES, context.getDone());
+        assertEquals(GAMES, context.getTotal());
+        assertEquals(0, QueryContext.current().getTotal(), "outside the query");
+    }
+
+    /**
+     * A game that cancels the query it is sorted in, when the sort reads its rating.
+     */
+    static final class CancellingGame extends BoardGame {
+        CancellingGame(String name, int id, double rating) {
+            super(name, id, 2, 4, 10, 60, 2.5, id + 1, rating, 2000);
+        }
+
+        @Override
+        public double getRating() {
+            QueryContext.current().cancel(); // outside a query this does nothing
+            return super.getRating();
+        }
+    }
+
+    /**
+     * Test a query cancelled while its results are sorted does not apply its filter.
+     */
+    @Test
+    public void testCancelDuringSortKeepsResults() {
+        Set<BoardGame> cancelling = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            cancelling.add(new CancellingGame("c" + i, i, i % 10));
+        }
+        Planner planner = new Planner(cancelling);
+        QueryContext context = new QueryContext("filter rating>4 sort:rating");
+        assertThrows(QueryCancelledException.class, () -> context.run(
+                () -> planner.filter("rating>4", GameData.RATING, true).count()));
+        assertTrue(planner.getHistory().isEmpty(), "the scan finished, the sort was cancelled");
+        assertNull(planner.undo());
+        assertEquals(100, planner.filter("").count());
+    }
+
+    /**
+     * Test a cancelled query stops and leaves the results as they were.
+     */
+    @Test
+    public void testCancelKeepsResults() {
+        Planner planner = new Planner(new HashSet<>(games));
+        planner.filter("minplayers==1");
+        QueryContext context = new QueryContext("filter rating>4");
+        context.cancel();
+        assertThrows(QueryCancelledException.class,
+                () -> context.run(() -> planner.filter("rating>4").count()));
+        assertEquals(GAMES / 4, planner.filter("").count());
+        assertEquals(1, planner.getHistory().size());
+    }
+
+    /**
+     * Test the console keeps reading commands while one runs, and cancel stops it.
+     *
+     * @throws IOException if the input pipe fails.
+     */
+    @Test
+    public void testConsoleCancel() throws IOException {
+        InputStream stdin = System.in;
+        PrintStream stdout = System.out;
+        PipedOutputStream typed = new PipedOutputStream();
+        ByteArrayOutputStream shown = new ByteArrayOutputStream();
+        ConsoleApp app;
+        try {
+            System.setIn(new PipedInputStream(typed));
+            System.setOut(new PrintStream(shown, true, Charset.defaultCharset()));
+            app = new ConsoleApp(new GameList(), new SlowPlanner(new HashSet<>(games)));
+        } finally {
+            System.setIn(stdin);
+            System.setOut(stdout);
+        }
+        Thread console = new Thread(app::start);
+        console.start();
+        type(typed, "filter slow");
+        waitFor(shown, "Still running");
+        type(typed, "cancel");
+        waitFor(shown, "Cancelled: filter slow");
+        type(typed, "count");
+        waitFor(shown, "count: " + GAMES);
+        type(typed, "exit");
+        waitFor(shown, "Goodbye");
+    }
+
+    /**
+     * Types a line into the console.
+     *
+     * @param typed The console input.
+     * @param line The line.
+     * @throws IOException if the pipe fails.
+     */
+    private static void type(PipedOutputStream typed, String line) throws IOException {
+        typed.write((line + System.lineSeparator()).getBytes(Charset.defaultCharset()));
+        typed.flush();
+    }
+
+    /**
+     * Waits for text to be shown on the console.
+     *
+     * @param shown The console output.
+     * @param text The text.
+     */
+    private static void waitFor(ByteArrayOutputStream shown, String text) {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!shown.toString(Charset.defaultCharset()).contains(text)) {
+            assertTrue(System.nanoTime() < deadline, "timed out waiting for " + text + " in "
+                    + shown.toString(Charset.defaultCharset()));
+            LockSupport.parkNanos(5_000_000);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import student.BoardGame;
+import student.IPlanner;
+import student.Planner;
+import student.RandomPicker;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+
+/**
+ * JUnit test for random picks of games, from the whole catalog and from filter results.
+ */
+public class TestRandomPicker {
+    /** Picks per frequency test. */
+    static final int DRAWS = 40_000;
+
+    static Set<BoardGame> games;
+
+    @BeforeAll
+    public static void setup() {
+        games = new HashSet<>();
+        games.add(new BoardGame("17 days", 6, 1, 8, 70, 70, 9.0, 600, 9.0, 2005));
+        games.add(new BoardGame("Chess", 7, 2, 2, 10, 20, 10.0, 700, 10.0, 2006));
+        games.add(new BoardGame("Go", 1, 2, 5, 30, 30, 8.0, 1, 7.5, 2000));
+        games.add(new BoardGame("Go Fish", 2, 2, 10, 20, 120, 3.0, 2, 6.5, 2001));
+        games.add(new BoardGame("golang", 4, 2, 7, 50, 55, 7.0, 4, 9.5, 2003));
+        games.add(new BoardGame("GoRami", 3, 6, 6, 40, 42, 5.0, 0, 8.5, 2002));
+        games.add(new BoardGame("Monopoly", 8, 6, 10, 20, 1000, 1.0, 800, 0.0, 2007));
+        games.add(new BoardGame("Tucano", 5, 10, 20, 60, 90, 6.0, 500, 8.0, 2004));
+    }
+
+    /**
+     * Counts how often each game is picked first over many picks.
+     *
+     * @param planner The planner.
+     * @param weight The weight.
+     * @return the count of each game's name.
+     */
+    private static Map<String, Integer> firstPicks(IPlanner planner, RandomPicker.Weight weight) {
+        Random random = new Random(7);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < DRAWS; i++) {
+            counts.merge(planner.pick(1, weight, random).get(0).getName(), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Test picks from the whole catalog follow the weights, and games of weight 0 are never
+     * picked.
+     */
+    @Test
+    public void testWeightedPicks() {
+        Planner planner = new Planner(new HashSet<>(games));
+        Map<String, Integer> uniform = firstPicks(planner, RandomPicker.Weight.UNIFORM);
+        assertEquals(games.size(), uniform.size());
+        uniform.values().forEach(n -> assertEquals(DRAWS / 8.0, n, DRAWS / 8.0 * 0.1));
+
+        Map<String, Integer> rated = firstPicks(planner, RandomPicker.Weight.RATING);
+        assertNull(rated.get("Monopoly"));
+        assertEquals(10.0 / 6.5, rated.get("Chess") / (double) rated.get("Go Fish"), 0.15);
+
+        Map<String, Integer> ranked = firstPicks(planner, RandomPicker.Weight.RANK);
+        assertNull(ranked.get("GoRami")); // unranked
+        assertEquals(2.0, ranked.get("Go") / (double) ranked.get("Go Fish"), 0.15);
+        assertEquals(4.0, ranked.get("Go") / (double) ranked.get("golang"), 0.4);
+    }
+
+    /**
+     * Test picks from filter results follow the weights and only pick results.
+     */
+    @Test
+    public void testPicksFromFilter() {
+        Planner planner = new Planner(new HashSet<>(games));
+        planner.filter("name~=go");
+        Map<String, Integer> ranked = firstPicks(planner, RandomPicker.Weight.RANK);
+        assertEquals(Set.of("Go", "Go Fish", "golang"), ranked.keySet());
+        assertEquals(2.0, ranked.get("Go") / (double) ranked.get("Go Fish"), 0.15);
+        assertEquals(4, planner.filter("").count(), "picking does not change the results");
+    }
+
+    /**
+     * Test several picks are distinct, and asking for more than can be picked gives all of them.
+     */
+    @Test
+    public void testDistinctPicks() {
+        Planner planner = new Planner(new HashSet<>(games));
+        Random random = new Random(1);
+        for (int i = 0; i < 100; i++) {
+            List<BoardGame> picks = planner.pick(3, RandomPicker.Weight.RATING, random);
+            assertEquals(3, new HashSet<>(picks).size());
+        }
+        assertEquals(7, planner.pick(20, RandomPicker.Weight.RATING, random).size());
+        assertFalse(planner.pick(20, RandomPicker.Weight.RANK, random).stream()
+                .anyMatch(game -> game.getName().equals("GoRami")));
+        assertEquals(0, planner.pick(0, RandomPicker.Weight.UNIFORM, random).size());
+        planner.filter("rating>100");
+        assertTrue(planner.pick(2, RandomPicker.Weight.UNIFORM, random).isEmpty());
+        assertThrows(IllegalArgumentException.class,
+                () -> planner.pick(-1, RandomPicker.Weight.UNIFORM, random));
+    }
+
+    /**
+     * Test stream sampling picks in one pass with the right weights.
+     */
+    @Test
+    public void testStreamSample() {
+        Random random = new Random(3);
+        int[] counts = new int[3];
+        for (int i = 0; i < DRAWS; i++) {
+            List<Integer> picks = RandomPicker.sample(Stream.of(0, 1, 2), n -> n, 1, random);
+            counts[picks.get(0)]++;
+        }
+        assertEquals(0, counts[0]);
+        assertEquals(2.0, counts[2] / (double) counts[1], 0.15);
+        assertEquals(List.of(2, 1), RandomPicker.sample(Stream.of(0, 1, 2), n -> n, 3, random)
+                .stream().sorted((a, b) -> b - a).toList());
+        assertEquals(RandomPicker.Weight.RANK, RandomPicker.Weight.fromString("Rank"));
+    }
+}
@@ -0,0 +1,70 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import student.BoardGame;
+import student.GameData;
+import student.RowRenderer;
+
+import java.util.Locale;
+import java.util.Random;
+
+
+/**
+ * JUnit test that the row renderer writes exactly what String.format does.
+ */
+public class TestRowRenderer {
+
+    /**
+     * Test every column against toStringWithInfo.
+     */
+    @Test
+    public void testMatchesToStringWithInfo() {
+        BoardGame game = new BoardGame("Go Fish", 2, 2, 10, 20, 120, 3.0, 200, 6.5, -2200);
+        RowRenderer renderer = new RowRenderer();
+        for (GameData column : GameData.values()) {
+            renderer.reset();
+            assertEquals(game.toStringWithInfo(column), renderer.appendInfo(game, column).toString());
+        }
+        renderer.reset();
+        assertEquals("12: Go Fish (6.50)" + System.lineSeparator(),
+                renderer.appendRow(12, game, GameData.RATING).toString());
+    }
+
+    /**
+     * Test two decimal rounding, including ties and values near them, against %.2f.
+     */
+    @Test
+    public void testFixedTwoDecimals() {
+        double[] values = {0, -0.0, -0.001 / 1e9, 0.005, 0.015, 0.125, 1.005, 2.675, 9.995, 9.999, 0.994999999,
+            7.12345, 1e-9, 999999.995, 1e6, 1e300, -0.001, -3.14159, Double.NaN,
+            Double.POSITIVE_INFINITY, Double.MIN_VALUE, 4.5};
+        RowRenderer renderer = new RowRenderer(Locale.ROOT);
+        for (double value : values) {
+            renderer.reset();
+            assertEquals(String.format(Locale.ROOT, "%.2f", value),
+                    renderer.appendFixed2(value).toString(), "value " + value);
+        }
+        Random random = new Random(34);
+        for (int i = 0; i < 200_000; i++) {
+            // ratings have up to five decimals, so many land on or near a tie
+            double value = i % 2 == 0 ? Math.round(random.nextDouble() * 1_000_000) / 100_000.0
+                    : random.nextDouble() * 10;
+            renderer.reset();
+            assertEquals(String.format(Locale.ROOT, "%.2f", value),
+                    renderer.appendFixed2(value).toString(), "value " + value);
+        }
+    }
+
+    /**
+     * Test that locale digits and decimal separators are followed.
+     */
+    @Test
+    public void testLocales() {
+        for (Locale locale : new Locale[] {Locale.GERMANY, Locale.FRANCE,
+                Locale.forLanguageTag("ar-EG"), Locale.forLanguageTag("th-TH-u-nu-thai")}) {
+            RowRenderer renderer = new RowRenderer(locale);
+            assertEquals(String.format(locale, "%.2f (%d)", 7.456, 2019),
+                    renderer.appendFixed2(7.456).append(" (").appendInt(2019).append(')').toString(),
+                    locale.toString());
+        }
+    }
+}
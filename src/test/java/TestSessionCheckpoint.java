@@ -0,0 +1,157 @@
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import student.BoardGame;
+import student.CatalogDelta;
+import student.GameList;
+import student.Planner;
+import student.SessionCheckpoint;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+
+/**
+ * JUnit test for progressive filters and saving them in a session checkpoint.
+ */
+public class TestSessionCheckpoint {
+    static Set<BoardGame> games;
+
+    @BeforeAll
+    public static void setup() {
+        games = new HashSet<>();
+        games.add(new BoardGame("17 days", 6, 1, 8, 70, 70, 9.0, 600, 9.0, 2005));
+        games.add(new BoardGame("Chess", 7, 2, 2, 10, 20, 10.0, 700, 10.0, 2006));
+        games.add(new BoardGame("Go", 1, 2, 5, 30, 30, 8.0, 100, 7.5, 2000));
+        games.add(new BoardGame("Go Fish", 2, 2, 10, 20, 120, 3.0, 200, 6.5, 2001));
+        games.add(new BoardGame("golang", 4, 2, 7, 50, 55, 7.0, 400, 9.5, 2003));
+        games.add(new BoardGame("GoRami", 3, 6, 6, 40, 42, 5.0, 300, 8.5, 2002));
+        games.add(new BoardGame("Monopoly", 8, 6, 10, 20, 1000, 1.0, 800, 5.0, 2007));
+        games.add(new BoardGame("Tucano", 5, 10, 20, 60, 90, 6.0, 500, 8.0, 2004));
+    }
+
+    /**
+     * Gets the names of some games.
+     *
+     * @param list The games.
+     * @return the names, in order.
+     */
+    private static List<String> names(List<BoardGame> list) {
+        return list.stream().map(BoardGame::getName).toList();
+    }
+
+    /**
+     * Test each filter only sees the results of the ones before, until a reset.
+     */
+    @Test
+    public void testProgressiveFilters() {
+        Planner planner = new Planner(games);
+        assertEquals(List.of("Go", "Go Fish", "golang", "GoRami"),
+                names(planner.filter("name~=go").toList()));
+        assertEquals(List.of("Go"), names(planner.filter("maxPlayers<=6,minPlayers<=2")
+                .toList()));
+        assertEquals(List.of("Go"), names(planner.filter("").toList()));
+        assertEquals(List.of("name~=go", "maxPlayers<=6,minPlayers<=2"), planner.getHistory());
+        planner.reset();
+        assertEquals(8, planner.filter("").count());
+        assertEquals(List.of(), planner.getHistory());
+    }
+
+    /**
+     * Test a checkpoint written and read back restores the history, results and list.
+     *
+     * @throws IOException if the checkpoint cannot be written.
+     */
+    @Test
+    public void testRoundTrip() throws IOException {
+        Planner planner = new Planner(games);
+        planner.filter("name~=go");
+        planner.filter("rating>7");
+        GameList list = new GameList();
+        list.addToList("all", planner.filter(""));
+        list.removeFromList("go");
+        list.addToList("1", new Planner(games).filter("name==chess"));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        planner.checkpoint(list.getGames()).write(bytes);
+        SessionCheckpoint read = SessionCheckpoint.read(new ByteArrayInputStream(bytes.toByteArray()));
+
+        Planner restored = new Planner(games);
+        List<BoardGame> listGames = restored.restore(read);
+        assertEquals(List.of("name~=go", "rating>7"), restored.getHistory());
+        assertEquals(List.of("Go", "golang", "GoRami"), names(restored.filter("").toList()));
+        assertEquals(List.of("golang", "GoRami", "Chess"), names(listGames));
+        assertEquals(List.of("golang"), names(restored.filter("rating>9").toList()));
+
+        Path file = Files.createTempFile("session", ".dat");
+        try {
+            read.writeTo(file);
+            assertEquals(read.getResults(), SessionCheckpoint.readFrom(file).getResults());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Test corrupt checkpoints and checkpoints of another catalog are rejected.
+     *
+     * @throws IOException if the checkpoint cannot be written.
+     */
+    @Test
+    public void testRejected() throws IOException {
+        Planner planner = new Planner(games);
+        planner.filter("minPlayers>=2");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        planner.checkpoint(List.of()).write(bytes);
+        byte[] data = bytes.toByteArray();
+
+        byte[] corrupt = data.clone();
+        corrupt[corrupt.length / 2] ^= 1;
+        assertThrows(IOException.class,
+                () -> SessionCheckpoint.read(new ByteArrayInputStream(corrupt)));
+        assertThrows(IOException.class, () -> SessionCheckpoint.read(
+                new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5, 6, 7, 8})));
+
+        Set<BoardGame> other = new HashSet<>(games);
+        other.add(new BoardGame("Azul", 9, 2, 4, 30, 45, 1.8, 50, 7.8, 2017));
+        SessionCheckpoint checkpoint = SessionCheckpoint.read(new ByteArrayInputStream(data));
+        assertThrows(IllegalArgumentException.class, () -> new Planner(other).restore(checkpoint));
+    }
+
+    /**
+     * Test a checkpoint is rejected by a catalog with the same names but other ratings, whose
+     * bitmaps would be stale, and a delta that changes a rating in place updates the fingerprint.
+     *
+     * @throws IOException if the checkpoint cannot be written.
+     */
+    @Test
+    public void testRejectedChangedValues() throws IOException {
+        Planner planner = new Planner(new HashSet<>(games));
+        planner.filter("rating>8");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        planner.checkpoint(List.of()).write(bytes);
+        SessionCheckpoint checkpoint = SessionCheckpoint.read(
+                new ByteArrayInputStream(bytes.toByteArray()));
+
+        BoardGame rerated = new BoardGame("Go", 1, 2, 5, 30, 30, 8.0, 100, 9.9, 2000);
+        Set<BoardGame> reloaded = new HashSet<>(games);
+        reloaded.remove(rerated); // equal by id and name, so the old version is replaced
+        reloaded.add(rerated);
+        Planner other = new Planner(reloaded);
+        assertThrows(IllegalArgumentException.class, () -> other.restore(checkpoint));
+
+        planner.applyDelta(new CatalogDelta(List.of(rerated), List.of()));
+        assertThrows(IllegalArgumentException.class, () -> planner.restore(checkpoint));
+        bytes.reset();
+        planner.checkpoint(List.of()).write(bytes);
+        other.restore(SessionCheckpoint.read(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(List.of("17 days", "Chess", "Go", "golang", "GoRami"),
+                names(other.filter("").toList()));
+    }
+}
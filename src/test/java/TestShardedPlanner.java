@@ -0,0 +1,126 @@
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import student.BoardGame;
+import student.FilterExplanation;
+import student.FilterParseException;
+import student.GameData;
+import student.GamesLoader;
+import student.Planner;
+import student.ShardedPlanner;
+import student.SortKey;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+
+/**
+ * JUnit test for a catalog split into shards, against one planner over the whole catalog.
+ */
+public class TestShardedPlanner {
+    static Set<BoardGame> games;
+
+    @BeforeAll
+    public static void setup() {
+        games = GamesLoader.loadGamesFile("/collection.csv");
+    }
+
+    /**
+     * Splits the catalog into shards by id.
+     *
+     * @param count The number of shards.
+     * @return the shards.
+     */
+    private static List<Set<BoardGame>> shards(int count) {
+        List<Set<BoardGame>> shards = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            shards.add(new HashSet<>());
+        }
+        for (BoardGame game : games) {
+            shards.get(Math.floorMod(game.getId(), count)).add(game);
+        }
+        return shards;
+    }
+
+    /**
+     * Test progressive filters and sorts give the games in the same order as a single planner,
+     * with a game in two shards given once.
+     */
+    @Test
+    public void testMatchesSinglePlanner() {
+        Planner single = new Planner(new HashSet<>(games));
+        List<Set<BoardGame>> shards = shards(4);
+        shards.get(3).add(shards.get(0).iterator().next());
+        try (ShardedPlanner sharded = new ShardedPlanner(shards)) {
+            assertEquals(single.filter("").toList(), sharded.filter("").toList());
+            assertEquals(single.filter("minplayers>=2", GameData.RATING, false).toList(),
+                    sharded.filter("minplayers>=2", GameData.RATING, false).toList());
+            assertEquals(single.filter("name~=the", GameData.YEAR).toList(),
+                    sharded.filter("name~=the", GameData.YEAR).toList());
+            List<SortKey> keys = SortKey.parse("maxplayers desc,difficulty,name");
+            assertEquals(single.filter("", keys).toList(), sharded.filter("", keys).toList());
+
+            single.reset();
+            sharded.reset();
+            assertEquals(single.filter("rating>7", GameData.NAME, false).toList(),
+                    sharded.filter("rating>7", GameData.NAME, false).toList());
+            assertEquals(single.suggestNames("catan", 5).toString(),
+                    sharded.suggestNames("catan", 5).toString());
+        }
+    }
+
+    /**
+     * Test an explanation adds up the shards, and a bad filter fails before reaching them.
+     */
+    @Test
+    public void testExplainAndErrors() {
+        Planner single = new Planner(new HashSet<>(games));
+        try (ShardedPlanner sharded = new ShardedPlanner(shards(3))) {
+            FilterExplanation expected = single.explain("minplayers>2", GameData.NAME, true);
+            FilterExplanation actual = sharded.explain("minplayers>2", GameData.NAME, true);
+            assertEquals(expected.getTotalRows(), actual.getTotalRows());
+            assertEquals(expected.getRowsReturned(), actual.getRowsReturned());
+            assertEquals(expected.getSteps().get(0).getRowsOut(),
+                    actual.getSteps().get(0).getRowsOut());
+            assertTrue(actual.getAccessPath().startsWith("3 shards in parallel"));
+            assertEquals(1, actual.getSteps().size());
+
+            assertThrows(FilterParseException.class, () -> sharded.filter("colour>2"));
+            assertThrows(IllegalArgumentException.class,
+                    () -> sharded.filter("", (GameData) null, true));
+            assertEquals(games.size(), sharded.filter("").count());
+        }
+    }
+
+    /**
+     * Test csv files on disk load in parallel, one shard per file.
+     *
+     * @param dir A temporary directory.
+     * @throws IOException if the files cannot be written.
+     */
+    @Test
+    public void testLoadShards(@TempDir Path dir) throws IOException {
+        String header = "objectname,objectid,average,avgweight,rank,minplayers,maxplayers,"
+                + "minplaytime,maxplaytime,yearpublished\n";
+        Path first = dir.resolve("first.csv");
+        Path second = dir.resolve("second.csv");
+        Files.writeString(first, header + "Go,1,7.5,8.0,100,2,5,30,30,2000\n"
+                + "Chess,7,10.0,10.0,700,2,2,10,20,2006\n", StandardCharsets.UTF_8);
+        Files.writeString(second, header + "Tucano,5,8.0,6.0,500,10,20,60,90,2004\n",
+                StandardCharsets.UTF_8);
+        List<Set<BoardGame>> shards = GamesLoader.loadShards(List.of(first, second,
+                dir.resolve("missing.csv")));
+        assertEquals(List.of(2, 1, 0), shards.stream().map(Set::size).toList());
+        try (ShardedPlanner sharded = new ShardedPlanner(shards)) {
+            assertEquals(List.of("Chess", "Tucano", "Go"), sharded.filter("", GameData.RATING,
+                    false).map(BoardGame::getName).toList());
+        }
+    }
+}